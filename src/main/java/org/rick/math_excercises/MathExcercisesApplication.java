@@ -10,11 +10,40 @@
 
 package org.rick.math_excercises;
 
+import org.rick.math_excercises.checkpoint.CheckpointReport;
+import org.rick.math_excercises.checkpoint.CheckpointedRun;
+import org.rick.math_excercises.coverage.CoverageSequence;
+import org.rick.math_excercises.fraction.FractionGenerator;
+import org.rick.math_excercises.fraction.FractionOperations;
+import org.rick.math_excercises.grading.AnswerKey;
+import org.rick.math_excercises.grading.Grader;
+import org.rick.math_excercises.grading.GradingReport;
 import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.pipeline.PipelineReport;
+import org.rick.math_excercises.pipeline.PipelineSettings;
+import org.rick.math_excercises.pipeline.WorksheetPipeline;
+import org.rick.math_excercises.preview.Preview;
+import org.rick.math_excercises.preview.SheetPreviews;
+import org.rick.math_excercises.service.DirectPdfRenderer;
+import org.rick.math_excercises.service.EquationRenderer;
+import org.rick.math_excercises.service.ExpressionGenerator;
 import org.rick.math_excercises.service.GenerateService;
+import org.rick.math_excercises.service.GenerationStats;
+import org.rick.math_excercises.service.HtmlRenderer;
+import org.rick.math_excercises.service.Imposition;
 import org.rick.math_excercises.service.Operations;
+import org.rick.math_excercises.service.PdfOutputMode;
 import org.rick.math_excercises.service.PdfService;
+import org.rick.math_excercises.service.SheetLayout;
+import org.rick.math_excercises.service.SheetRequest;
+import org.rick.math_excercises.service.internal.CurrentThreadRandom;
+import org.rick.math_excercises.verify.SheetVerifier;
+import org.rick.math_excercises.verify.VerificationReport;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -29,23 +58,55 @@ public class MathExcercisesApplication {
 
 	private static final GenerateService generateService = new GenerateService();
 
-	private static final PdfService pdfService = new PdfService();
+	private static final GenerationStats stats =
+			System.getProperty("statsReport") != null ? new GenerationStats() : GenerationStats.NONE;
+
+	private static final PdfService pdfService =
+			new PdfService(CurrentThreadRandom.INSTANCE, stats, EquationRenderer.fromSystemProperties());
 
 	/**
 	 * Main method to run the application. The limit is the upper limit of the exercises, e.g. 20. The
 	 * numberOfExercises is the number of exercises to generate, e.g. 200 fits onto an A4 page. The
 	 * iterations is the number of sheets to generate. Optional 4th arg: comma-separated list of
-	 * operations (ADDITION,SUBTRACTION,MULTIPLICATION,DIVISION)
+	 * operations (ADDITION,SUBTRACTION,MULTIPLICATION,DIVISION). When the system property
+	 * {@code statsReport} names a file, generation statistics for the run are written there as JSON.
+	 * With {@code -Dpipeline=true} the sheets are produced by a {@link WorksheetPipeline} whose stage
+	 * parallelism is read by {@link PipelineSettings#fromSystemProperties()}; its stage metrics and
+	 * concurrency decisions are printed at the end. {@code -DpdfOutput=compact}
+	 * writes size-optimized documents, see {@link PdfOutputMode}; the statistics report then shows the
+	 * bytes per sheet. {@code -DpdfRenderer=direct} renders with the {@link DirectPdfRenderer}.
+	 * {@code -DcoverageSeed=<seed>} draws the equations from a {@link CoverageSequence} instead, so
+	 * every valid equation appears once before any repeats; {@code -DcoverageOffset=<offset>} resumes
+	 * a previous run at the offset it printed. {@code -Dterms=<n>} with n from 3 to
+	 * {@value ExpressionGenerator#MAX_TERMS} produces multi-term expressions such as
+	 * {@code (a × b) + c} instead of two-operand equations. Naming {@link FractionOperations} families
+	 * as operations produces fraction and decimal sheets; the limit is then the largest denominator
+	 * of fractions and the largest decimal value. {@code -DrunSeed=<seed>} makes the run a
+	 * {@link CheckpointedRun}: sheets derive from the seed and are journaled, so rerunning the same
+	 * command after a failure only renders the missing sheets. Adding {@code -Dgrade=<answers.csv>}
+	 * grades submissions for the run's sheets with a {@link Grader} instead of rendering them, and
+	 * {@code -Dpreview=<dpi>} writes PNG previews of them with {@link SheetPreviews}, {@code -Dhtml=true}
+	 * HTML pages for on-screen practice with an {@link HtmlRenderer}. {@code -Dimposition=two_up} or
+	 * {@code four_up} prints several sheets per page: with {@code -DimpositionFill=copies} each file
+	 * holds copies of its sheet, otherwise all sheets are imposed into one file. {@code -Dlayout=vertical}
+	 * or {@code vertical_with_carries} writes equation sheets as column arithmetic, see
+	 * {@link SheetLayout}; it does not support DIVISION, fractions, multi-term expressions, coverage,
+	 * pipeline or HTML output and is rejected with them. With {@code -Dverify=true} a checkpointed run
+	 * parses its documents back with a {@link SheetVerifier} and lists the sheets that fail. Fraction
+	 * sheets, multi-term expressions, coverage, checkpointed and pipeline runs exclude each other, and
+	 * grading, previews, HTML output and verification each need a checkpointed run of their own;
+	 * other combinations exit with a message instead of running only one of the modes.
 	 *
 	 * @param args Command line arguments: {@code <limit> <numberOfExercises> <iterations>
 	 *             [operations]}
 	 */
-	public static void main(String[] args) {
+	public static void main(String[] args) throws IOException, InterruptedException {
 		if (args.length < 3) {
 			System.out.println(
 					"""
 					Usage: java -jar math-excercises.jar <limit> <numberOfExercises> <iterations> [operations]
 					  operations: comma-separated list using names ADDITION,SUBTRACTION,MULTIPLICATION,DIVISION
+					              or FRACTION_ADDITION,FRACTION_SUBTRACTION,FRACTION_SIMPLIFICATION,DECIMAL_ADDITION,DECIMAL_SUBTRACTION
 					  examples: ADDITION,SUBTRACTION or MULTIPLICATION,DIVISION or ADDITION,SUBTRACTION,MULTIPLICATION,DIVISION""");
 			System.exit(1);
 		}
@@ -53,19 +114,236 @@ public class MathExcercisesApplication {
 		int numberOfExercises = Integer.parseInt(args[1]);
 		int iterations = Integer.parseInt(args[2]);
 
+		boolean fractions = args.length >= 4 && isFractionOperationsArg(args[3]);
 		final List<Operations> operations;
-		if (args.length >= 4) {
+		if (args.length >= 4 && !fractions) {
 			operations = new ArrayList<>(parseOperationsArg(args[3]));
 		}
 		else {
 			operations = List.of(Operations.ADDITION, Operations.SUBTRACTION);
 		}
 
-		for (int i = 1; i <= iterations; i++) {
-			List<Equation> equations =
-					generateService.generateExercises(limit, numberOfExercises, operations);
-			pdfService.generatePdf(equations, i);
+		String coverageSeed = System.getProperty("coverageSeed");
+		int terms = Integer.getInteger("terms", 2);
+		SheetLayout layout = SheetLayout.parse(System.getProperty("layout", "horizontal"));
+		String conflict = modeConflict(fractions, terms, coverageSeed);
+		if (conflict != null) {
+			System.err.println(conflict);
+			System.exit(1);
+		}
+		if (layout.vertical()) {
+			String unsupported = verticalUnsupported(fractions, terms, coverageSeed, operations);
+			if (unsupported != null) {
+				System.err.println("The " + layout + " layout does not support " + unsupported);
+				System.exit(1);
+			}
+		}
+
+		PdfOutputMode.fromSystemProperties().configureDeflateLevel();
+		if (fractions) {
+			List<FractionOperations> fractionOperations = Arrays.stream(args[3].split(","))
+					.map(String::trim)
+					.filter(s -> !s.isEmpty())
+					.map(s -> FractionOperations.valueOf(s.toUpperCase(Locale.ROOT)))
+					.toList();
+			FractionGenerator fractionGenerator = new FractionGenerator(CurrentThreadRandom.INSTANCE);
+			for (int i = 1; i <= iterations; i++) {
+				pdfService.generateFractionPdf(
+						fractionGenerator.generate(limit, numberOfExercises, fractionOperations), i);
+			}
+		}
+		else if (terms > 2) {
+			ExpressionGenerator expressionGenerator = new ExpressionGenerator(CurrentThreadRandom.INSTANCE);
+			for (int i = 1; i <= iterations; i++) {
+				pdfService.generateExpressionPdf(
+						expressionGenerator.generate(limit, numberOfExercises, terms, operations), i);
+			}
+		}
+		else if (coverageSeed != null) {
+			CoverageSequence sequence = new CoverageSequence(limit, operations, Long.parseLong(coverageSeed));
+			CoverageSequence.Cursor cursor = sequence.source(Long.getLong("coverageOffset", 0L));
+			GenerateService coverageService = new GenerateService(CurrentThreadRandom.INSTANCE, cursor);
+			for (int i = 1; i <= iterations; i++) {
+				List<Equation> equations =
+						coverageService.generateExercises(limit, numberOfExercises, operations, stats);
+				pdfService.generatePdf(equations, i);
+			}
+			System.out.println("Coverage: reached offset " + cursor.position() + " (" + sequence.size()
+					+ " equations per pass); resume with -DcoverageOffset=" + cursor.position());
+		}
+		else if (System.getProperty("runSeed") != null) {
+			SheetRequest template = new SheetRequest(limit, numberOfExercises, operations,
+					Long.parseLong(System.getProperty("runSeed")), layout);
+			CheckpointedRun run = new CheckpointedRun(Path.of("").toAbsolutePath(), template, iterations);
+			String grade = System.getProperty("grade");
+			if (grade != null) {
+				Map<String, AnswerKey> keys = new HashMap<>();
+				for (int i = 1; i <= iterations; i++) {
+					keys.put(String.valueOf(i), AnswerKey.of(run.sheet(i)));
+				}
+				Path answers = Path.of(grade);
+				Path results = answers.resolveSibling(answers.getFileName() + ".grades.csv");
+				GradingReport report = new Grader(keys).grade(answers, results);
+				System.out.print(report.toTable());
+				System.out.println("Scores written to " + results);
+			}
+			else if (System.getProperty("preview") != null) {
+				List<SheetRequest> sheets = new ArrayList<>();
+				for (int i = 1; i <= iterations; i++) {
+					sheets.add(run.sheet(i));
+				}
+				int workers = Runtime.getRuntime().availableProcessors();
+				try (SheetPreviews previews = new SheetPreviews(Float.parseFloat(System.getProperty("preview")), workers, 0)) {
+					List<Preview> rendered = previews.previews(sheets);
+					for (int i = 1; i <= iterations; i++) {
+						Files.write(Path.of(PdfService.outputFileName(i).replaceFirst("\\.pdf$", ".png")), rendered.get(i - 1).png());
+					}
+				}
+				System.out.println(iterations + " previews written");
+			}
+			else if (Boolean.getBoolean("html")) {
+				HtmlRenderer html = new HtmlRenderer();
+				for (int i = 1; i <= iterations; i++) {
+					SheetRequest sheet = run.sheet(i);
+					Path output = Path.of(PdfService.outputFileName(i).replaceFirst("\\.pdf$", ".html"));
+					try (Writer out = Files.newBufferedWriter(output)) {
+						html.renderSheet(sheet.equations(), sheet.placeholders(), out);
+					}
+				}
+				System.out.println(iterations + " HTML sheets written");
+			}
+			else {
+				CheckpointReport report = run.run(EquationRenderer.fromSystemProperties(), stats);
+				System.out.println("Checkpointed run: " + report.rendered() + " rendered, " + report.skipped()
+						+ " already complete, " + report.repaired() + " repaired in " + report.elapsed().toMillis()
+						+ " ms");
+				if (Boolean.getBoolean("verify")) {
+					List<SheetRequest> sheets = new ArrayList<>(iterations);
+					List<Path> files = new ArrayList<>(iterations);
+					for (int i = 1; i <= iterations; i++) {
+						sheets.add(run.sheet(i));
+						files.add(Path.of(PdfService.outputFileName(i)));
+					}
+					VerificationReport verification = new SheetVerifier(Runtime.getRuntime().availableProcessors())
+							.verify(sheets, files);
+					System.out.print(verification.toTable());
+				}
+			}
+		}
+		else if (Boolean.getBoolean("pipeline")) {
+			PipelineReport report = new WorksheetPipeline(PipelineSettings.fromSystemProperties())
+					.run(limit, numberOfExercises, operations, iterations, Path.of(""), stats);
+			System.out.print(report.toTable());
+		}
+		else if (layout == SheetLayout.HORIZONTAL && Imposition.fromSystemProperties() != Imposition.NONE
+				&& Imposition.fillFromSystemProperties() == Imposition.Fill.SHEETS) {
+			List<List<Equation>> sheets = new ArrayList<>(iterations);
+			for (int i = 1; i <= iterations; i++) {
+				sheets.add(generateService.generateExercises(limit, numberOfExercises, operations, stats));
+			}
+			pdfService.generatePdf(sheets, Path.of(PdfService.outputFileName(1, iterations)));
+		}
+		else {
+			for (int i = 1; i <= iterations; i++) {
+				List<Equation> equations =
+						generateService.generateExercises(limit, numberOfExercises, operations, stats);
+				pdfService.generatePdf(equations, layout, i);
+			}
+		}
+
+		String statsReport = System.getProperty("statsReport");
+		if (statsReport != null) {
+			stats.writeJson(Path.of(statsReport));
+		}
+	}
+
+	/**
+	 * Describes a combination of modes selected by the arguments and system properties that
+	 * {@link #main} would not honour, since it runs only the first of them, or returns null if every
+	 * requested mode runs.
+	 */
+	private static String modeConflict(boolean fractions, int terms, String coverageSeed) {
+		boolean checkpointed = System.getProperty("runSeed") != null;
+		List<String> modes = new ArrayList<>();
+		if (fractions) {
+			modes.add("fraction sheets");
+		}
+		if (terms > 2) {
+			modes.add("multi-term expressions (-Dterms)");
+		}
+		if (coverageSeed != null) {
+			modes.add("coverage runs (-DcoverageSeed)");
+		}
+		if (checkpointed) {
+			modes.add("checkpointed runs (-DrunSeed)");
+		}
+		if (Boolean.getBoolean("pipeline")) {
+			modes.add("pipeline runs (-Dpipeline)");
 		}
+		if (modes.size() > 1) {
+			return String.join(" and ", modes) + " cannot be combined";
+		}
+
+		List<String> outputs = new ArrayList<>();
+		if (System.getProperty("grade") != null) {
+			outputs.add("-Dgrade");
+		}
+		if (System.getProperty("preview") != null) {
+			outputs.add("-Dpreview");
+		}
+		if (Boolean.getBoolean("html")) {
+			outputs.add("-Dhtml");
+		}
+		if (Boolean.getBoolean("verify")) {
+			outputs.add("-Dverify");
+		}
+		if (!outputs.isEmpty() && !checkpointed) {
+			return "A checkpointed run (-DrunSeed=<seed>) is required for " + String.join(", ", outputs);
+		}
+		if (outputs.size() > 1) {
+			return String.join(" and ", outputs) + " cannot be combined";
+		}
+		return null;
+	}
+
+	/**
+	 * The mode selected by the arguments and system properties that cannot render the vertical
+	 * layout, or null if it can. Called once {@link #modeConflict} has ruled out combined modes.
+	 */
+	private static String verticalUnsupported(boolean fractions, int terms, String coverageSeed,
+	                                          List<Operations> operations) {
+		if (fractions) {
+			return "fraction sheets";
+		}
+		if (terms > 2) {
+			return "multi-term expressions";
+		}
+		if (coverageSeed != null) {
+			return "coverage runs (-DcoverageSeed)";
+		}
+		if (Boolean.getBoolean("pipeline")) {
+			return "pipeline runs (-Dpipeline)";
+		}
+		if (Boolean.getBoolean("html")) {
+			return "HTML sheets (-Dhtml)";
+		}
+		if (operations.contains(Operations.DIVISION)) {
+			return "DIVISION; use ADDITION, SUBTRACTION and MULTIPLICATION";
+		}
+		return null;
+	}
+
+	/**
+	 * Whether a non-blank operations argument names only {@link FractionOperations} families.
+	 */
+	private static boolean isFractionOperationsArg(String arg) {
+		Set<String> names = Arrays.stream(FractionOperations.values()).map(Enum::name).collect(Collectors.toSet());
+		List<String> items = Arrays.stream(arg.split(","))
+				.map(String::trim)
+				.map(s -> s.toUpperCase(Locale.ROOT))
+				.filter(s -> !s.isEmpty())
+				.toList();
+		return !items.isEmpty() && names.containsAll(items);
 	}
 
 	/**
@@ -0,0 +1,33 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.adaptive;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Summary of an adaptive generation run.
+ *
+ * @param files   the written class documents
+ * @param sheets  the number of student sheets generated
+ * @param elapsed wall-clock time of the run
+ */
+public record AdaptiveRunReport(List<Path> files, int sheets, Duration elapsed) {
+
+	/**
+	 * Throughput of the run in sheets per second.
+	 */
+	public double sheetsPerSecond() {
+		long nanos = Math.max(1, elapsed.toNanos());
+		return sheets * 1_000_000_000d / nanos;
+	}
+}
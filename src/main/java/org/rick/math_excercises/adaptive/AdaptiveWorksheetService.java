@@ -0,0 +1,165 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.adaptive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.PdfService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Generates one adaptive sheet per student and writes one multi-page PDF per class.
+ *
+ * <p>Classes are processed in parallel; within a class every profile is compiled to a
+ * {@link GenerationPlan} over the shared {@link EquationTables}. Each student's sheet is seeded from
+ * the run seed and the student id, so re-running with the same seed reproduces every sheet.
+ */
+@Slf4j
+public class AdaptiveWorksheetService {
+
+	private final int parallelism;
+
+	/**
+	 * Uses one worker per available processor.
+	 */
+	public AdaptiveWorksheetService() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param parallelism number of classes processed concurrently (must be >= 1)
+	 */
+	public AdaptiveWorksheetService(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be >= 1");
+		}
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Generates and renders the sheets of all profiles.
+	 *
+	 * @param profiles          one profile per student
+	 * @param numberOfExercises equations per sheet (must be >= 1)
+	 * @param seed              run seed from which every sheet is derived
+	 * @param outputDirectory   directory receiving {@code <classId>.pdf} per class
+	 * @return the run report
+	 * @throws IllegalArgumentException if two class ids map to the same file name
+	 * @throws IOException              if a class document cannot be written
+	 */
+	public AdaptiveRunReport generate(List<StudentProfile> profiles, int numberOfExercises, long seed,
+	                                  Path outputDirectory) throws IOException {
+		if (numberOfExercises < 1) {
+			throw new IllegalArgumentException("numberOfExercises must be >= 1");
+		}
+		Map<String, List<StudentProfile>> byClass = profiles.stream()
+				.collect(Collectors.groupingBy(StudentProfile::classId, LinkedHashMap::new, Collectors.toList()));
+		Map<String, Path> classFiles = classFiles(byClass.keySet(), outputDirectory);
+
+		long start = System.nanoTime();
+		List<Path> files = new ArrayList<>();
+		try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+			List<Future<Path>> results = byClass.entrySet().stream()
+					.map(entry -> executor.submit(() -> renderClass(
+							entry.getKey(), entry.getValue(), numberOfExercises, seed, classFiles.get(entry.getKey()))))
+					.toList();
+			for (Future<Path> result : results) {
+				files.add(result.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Adaptive generation interrupted", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof UncheckedIOException io) {
+				throw io.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+
+		AdaptiveRunReport report =
+				new AdaptiveRunReport(List.copyOf(files), profiles.size(), Duration.ofNanos(System.nanoTime() - start));
+		log.info("Generated {} sheets for {} classes in {} ms ({} sheets/s)", report.sheets(), files.size(),
+				report.elapsed().toMillis(), String.format("%.1f", report.sheetsPerSecond()));
+		return report;
+	}
+
+	private Path renderClass(String classId, List<StudentProfile> students, int numberOfExercises, long seed,
+	                         Path file) {
+		List<List<Equation>> sheets = students.stream()
+				.map(student -> GenerationPlan.compile(student)
+						.generate(numberOfExercises, random(seed, student.studentId())))
+				.toList();
+		try {
+			new PdfService(random(seed, classId)).generatePdf(sheets, file);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return file;
+	}
+
+	/**
+	 * The random source of a student's sheet or a class document: seeded from the run seed and a
+	 * 64-bit FNV-1a hash of the id's UTF-8 bytes, passed through the SplitMix64 finalizer. Unlike
+	 * {@link String#hashCode()}, ids such as "Aa" and "BB" do not collide.
+	 */
+	static SplittableRandom random(long seed, String id) {
+		long hash = 0xCBF29CE484222325L;
+		for (byte b : id.getBytes(StandardCharsets.UTF_8)) {
+			hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+		}
+		long z = seed + hash * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return new SplittableRandom(z ^ (z >>> 31));
+	}
+
+	/**
+	 * Resolves the document of every class. Classes are rendered in parallel, so two ids whose
+	 * sanitized names match (ignoring case, for case-insensitive file systems) are rejected instead
+	 * of writing to the same file.
+	 */
+	private static Map<String, Path> classFiles(Collection<String> classIds, Path outputDirectory) {
+		Map<String, String> owners = new HashMap<>();
+		Map<String, Path> files = new HashMap<>();
+		for (String classId : classIds) {
+			String name = fileName(classId);
+			String owner = owners.putIfAbsent(name.toLowerCase(Locale.ROOT), classId);
+			if (owner != null) {
+				throw new IllegalArgumentException(
+						"Class ids \"" + owner + "\" and \"" + classId + "\" both map to " + name);
+			}
+			files.put(classId, outputDirectory.resolve(name));
+		}
+		return files;
+	}
+
+	private static String fileName(String classId) {
+		return classId.replaceAll("[^A-Za-z0-9._-]", "_") + ".pdf";
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.adaptive;
+
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.Operations;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared cache of every valid equation per operation and limit, sorted by magnitude (the largest
+ * of the three numbers).
+ *
+ * <p>The tables contain exactly the equations {@link Operations#generate} can produce, so drawing a
+ * uniform entry is distributed like the rejection-sampling generators but never rejects. Tables are
+ * built once per (operation, limit) and shared by all threads.
+ */
+public final class EquationTables {
+
+	/**
+	 * Largest limit for which tables are built; an ADDITION table at this limit holds about 500,000
+	 * equations.
+	 */
+	public static final int MAX_LIMIT = 1000;
+
+	private static final Map<Long, Table> TABLES = new ConcurrentHashMap<>();
+
+	private EquationTables() {
+	}
+
+	/**
+	 * Returns the cached table for an operation and limit, building it on first use.
+	 *
+	 * @param operation the operation
+	 * @param limit     the limit (10..{@value #MAX_LIMIT})
+	 * @return the shared table
+	 */
+	public static Table table(Operations operation, int limit) {
+		if (limit < 10 || limit > MAX_LIMIT) {
+			throw new IllegalArgumentException("limit must be 10.." + MAX_LIMIT);
+		}
+		return TABLES.computeIfAbsent((long) limit << 8 | operation.ordinal(), key -> build(operation, limit));
+	}
+
+	private static Table build(Operations operation, int limit) {
+		long[] keys = new long[16];
+		int size = 0;
+		for (int a = 0; a < limit; a++) {
+			for (int b = 0; b < limit; b++) {
+				int[] eq = valid(operation, limit, a, b);
+				if (eq == null) {
+					continue;
+				}
+				if (size == keys.length) {
+					keys = Arrays.copyOf(keys, size * 2);
+				}
+				// magnitude in the high bits keeps the table ordered by it; the low bits hold (a, b)
+				int magnitude = Math.max(eq[2], Math.max(eq[0], eq[1]));
+				keys[size++] = (long) magnitude << 42 | (long) a << 21 | b;
+			}
+		}
+		keys = Arrays.copyOf(keys, size);
+		Arrays.sort(keys);
+		int[] first = new int[size];
+		int[] second = new int[size];
+		int[] result = new int[size];
+		int[] magnitude = new int[size];
+		for (int i = 0; i < size; i++) {
+			int[] eq = valid(operation, limit, (int) (keys[i] >>> 21 & 0x1FFFFF), (int) (keys[i] & 0x1FFFFF));
+			first[i] = eq[0];
+			second[i] = eq[1];
+			result[i] = eq[2];
+			magnitude[i] = (int) (keys[i] >>> 42);
+		}
+		return new Table(operation, first, second, result, magnitude);
+	}
+
+	/**
+	 * Builds the equation for a draw (a, b) from [0, limit) x [0, limit) if the matching generator in
+	 * {@link Operations} would accept it, or returns null.
+	 */
+	private static int[] valid(Operations operation, int limit, int a, int b) {
+		return switch (operation) {
+			case ADDITION -> a + b <= limit && !(a == 0 && b == 0) ? new int[]{a, b, a + b} : null;
+			case SUBTRACTION -> a - b >= 0 && !(a == 0 && b == 0) ? new int[]{a, b, a - b} : null;
+			case MULTIPLICATION -> a != 0 && b != 0 && a * b <= limit ? new int[]{a, b, a * b} : null;
+			// a is the divisor, b the quotient
+			case DIVISION -> a != 0 && a * b <= limit ? new int[]{a * b, a, b} : null;
+		};
+	}
+
+	/**
+	 * All valid equations of one operation and limit in ascending magnitude order.
+	 */
+	public static final class Table {
+
+		private final Operations operation;
+		private final int[] first;
+		private final int[] second;
+		private final int[] result;
+		private final int[] magnitude;
+
+		private Table(Operations operation, int[] first, int[] second, int[] result, int[] magnitude) {
+			this.operation = operation;
+			this.first = first;
+			this.second = second;
+			this.result = result;
+			this.magnitude = magnitude;
+		}
+
+		/**
+		 * Number of equations in the table.
+		 */
+		public int size() {
+			return first.length;
+		}
+
+		/**
+		 * Index of the first equation whose magnitude is at least the given value.
+		 */
+		public int firstWithMagnitude(int minMagnitude) {
+			int low = 0;
+			int high = magnitude.length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (magnitude[mid] < minMagnitude) {
+					low = mid + 1;
+				}
+				else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+		/**
+		 * Returns the equation at the given index.
+		 */
+		public Equation get(int index) {
+			return Equation.of(first[index], second[index], result[index], operation.operator());
+		}
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.adaptive;
+
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.EquationSource;
+import org.rick.math_excercises.service.GenerateService;
+import org.rick.math_excercises.service.Operations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * A {@link StudentProfile} compiled into weighted sampling over {@link EquationTables}.
+ *
+ * <p>Each planned operation carries its weight and the index range of its table that falls into the
+ * profile's number range, so drawing an equation is a weighted operation pick plus one uniform
+ * table lookup. Plans are immutable and can be shared between threads.
+ */
+public final class GenerationPlan implements EquationSource {
+
+	private final StudentProfile profile;
+	private final Operations[] operations;
+	private final int[] weights;
+	private final EquationTables.Table[] tables;
+	private final int[] from;
+
+	private GenerationPlan(StudentProfile profile, Operations[] operations, int[] weights,
+	                       EquationTables.Table[] tables, int[] from) {
+		this.profile = profile;
+		this.operations = operations;
+		this.weights = weights;
+		this.tables = tables;
+		this.from = from;
+	}
+
+	/**
+	 * Compiles a profile, dropping operations with zero weight or without equations in the profile's
+	 * number range.
+	 *
+	 * @param profile the student profile
+	 * @return the compiled plan
+	 * @throws IllegalArgumentException if no operation remains
+	 */
+	public static GenerationPlan compile(StudentProfile profile) {
+		List<Operations> ops = new ArrayList<>();
+		List<Integer> weights = new ArrayList<>();
+		List<EquationTables.Table> tables = new ArrayList<>();
+		List<Integer> from = new ArrayList<>();
+		for (Map.Entry<Operations, Integer> entry : profile.weights().entrySet()) {
+			EquationTables.Table table = EquationTables.table(entry.getKey(), profile.limit());
+			int start = table.firstWithMagnitude(profile.minMagnitude());
+			if (entry.getValue() > 0 && start < table.size()) {
+				ops.add(entry.getKey());
+				weights.add(entry.getValue());
+				tables.add(table);
+				from.add(start);
+			}
+		}
+		if (ops.isEmpty()) {
+			throw new IllegalArgumentException("No equations match profile " + profile.studentId());
+		}
+		return new GenerationPlan(profile, ops.toArray(Operations[]::new),
+				weights.stream().mapToInt(Integer::intValue).toArray(),
+				tables.toArray(EquationTables.Table[]::new),
+				from.stream().mapToInt(Integer::intValue).toArray());
+	}
+
+	/**
+	 * Generates the student's sheet.
+	 *
+	 * @param numberOfExercises how many equations to generate
+	 * @param random            the random generator to use
+	 * @return the generated equations
+	 */
+	public List<Equation> generate(int numberOfExercises, RandomGenerator random) {
+		return new GenerateService(random, this)
+				.generateExercises(profile.limit(), numberOfExercises, List.of(operations));
+	}
+
+	/**
+	 * The operations this plan draws from.
+	 */
+	public List<Operations> operations() {
+		return List.of(operations);
+	}
+
+	/**
+	 * Draws an equation from the planned operations that are also allowed, weighted by the profile.
+	 * The limit is fixed by the profile.
+	 *
+	 * @throws IllegalArgumentException if none of the allowed operations is planned
+	 */
+	@Override
+	public Equation next(int limit, List<Operations> allowed, RandomGenerator random) {
+		int total = 0;
+		for (int i = 0; i < operations.length; i++) {
+			if (allowed.contains(operations[i])) {
+				total += weights[i];
+			}
+		}
+		if (total == 0) {
+			throw new IllegalArgumentException("None of " + allowed + " is planned for " + profile.studentId());
+		}
+		int pick = random.nextInt(total);
+		for (int i = 0; i < operations.length; i++) {
+			if (allowed.contains(operations[i])) {
+				pick -= weights[i];
+				if (pick < 0) {
+					return tables[i].get(from[i] + random.nextInt(tables[i].size() - from[i]));
+				}
+			}
+		}
+		throw new IllegalStateException("unreachable");
+	}
+}
@@ -0,0 +1,52 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.adaptive;
+
+import org.rick.math_excercises.service.Operations;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Describes what a single student should practise.
+ *
+ * @param studentId    identifier of the student
+ * @param classId      identifier of the class the student's sheet is grouped under
+ * @param limit        upper bound for operands and results (10..{@value EquationTables#MAX_LIMIT})
+ * @param weights      relative weight of each operation; weak operations get higher weights
+ * @param minMagnitude the smallest "largest number" an equation should contain, focusing practice
+ *                     on the upper number range (0 for the full range)
+ */
+public record StudentProfile(String studentId, String classId, int limit, Map<Operations, Integer> weights,
+                             int minMagnitude) {
+
+	/**
+	 * Validates the profile.
+	 *
+	 * @throws IllegalArgumentException if the limit, weights or number range are invalid
+	 */
+	public StudentProfile {
+		Objects.requireNonNull(studentId, "studentId");
+		Objects.requireNonNull(classId, "classId");
+		if (limit < 10 || limit > EquationTables.MAX_LIMIT) {
+			throw new IllegalArgumentException("limit must be 10.." + EquationTables.MAX_LIMIT);
+		}
+		if (weights.isEmpty() || weights.values().stream().anyMatch(w -> w < 0)
+				|| weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+			throw new IllegalArgumentException("weights must be non-negative with a positive total");
+		}
+		if (minMagnitude < 0 || minMagnitude > limit) {
+			throw new IllegalArgumentException("minMagnitude must be 0..limit");
+		}
+		weights = Map.copyOf(new EnumMap<>(weights));
+	}
+}
@@ -0,0 +1,22 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+/**
+ * Profile-driven worksheet generation targeting each student's weak operations and number ranges.
+ *
+ * <ul>
+ *   <li>{@link org.rick.math_excercises.adaptive.StudentProfile} — what a student should practise.
+ *   <li>{@link org.rick.math_excercises.adaptive.GenerationPlan} — a profile compiled into weighted,
+ *       rejection-free sampling over cached equation tables.
+ *   <li>{@link org.rick.math_excercises.adaptive.AdaptiveWorksheetService} — generates sheets for
+ *       many students in parallel and writes one multi-page PDF per class.
+ * </ul>
+ */
+package org.rick.math_excercises.adaptive;
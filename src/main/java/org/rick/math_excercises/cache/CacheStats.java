@@ -0,0 +1,34 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.cache;
+
+import java.time.Duration;
+
+/**
+ * Counters of a {@link SheetCache}.
+ *
+ * @param hits      requests served from the cache
+ * @param misses    requests that had to be rendered
+ * @param evictions entries removed for size or age
+ * @param entries   entries currently cached
+ * @param bytes     bytes currently cached
+ * @param saved     rendering time saved by hits, based on each entry's recorded render time
+ */
+public record CacheStats(long hits, long misses, long evictions, int entries, long bytes, Duration saved) {
+
+	/**
+	 * Fraction of requests served from the cache, 0 when there were no requests.
+	 */
+	public double hitRatio() {
+		long requests = hits + misses;
+		return requests == 0 ? 0 : (double) hits / requests;
+	}
+}
@@ -0,0 +1,298 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.rick.math_excercises.service.PdfService;
+import org.rick.math_excercises.service.SheetRequest;
+import org.rick.math_excercises.service.internal.FontSupport;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed cache of rendered sheets on local disk.
+ *
+ * <p>Each {@link SheetRequest} is hashed (SHA-256 over every parameter that affects the output) and
+ * its PDF is stored as {@code <hash>.pdf}. The cache is capped in bytes and evicts least recently
+ * used entries first; entries older than the time-to-live are treated as misses. Hits are served
+ * with {@link FileChannel#transferTo}, letting the OS copy straight from the page cache.
+ *
+ * <p>Recency is tracked in memory. The index is rebuilt from the directory on construction, ordered
+ * and aged by file modification time, i.e. by when each sheet was stored. Instances are thread-safe:
+ * files are written outside the lock and only the index update is synchronized. Two concurrent misses
+ * for the same request may both render, and the last one stored wins; an indexed file that vanished
+ * is counted as a miss and rendered again.
+ */
+@Slf4j
+public class SheetCache {
+
+	private static final String FORMAT_VERSION = "sheet-cache-v1";
+	private static final String SUFFIX = ".pdf";
+
+	private final Path directory;
+	private final long maxBytes;
+	private final Duration ttl;
+	private final Renderer renderer;
+	private final Clock clock;
+	private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long bytes;
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long savedNanos;
+	private long renderedNanos;
+
+	/**
+	 * Creates a cache rendering misses with {@link SheetRequest#equations()} and a {@link PdfService}
+	 * seeded by {@link SheetRequest#placeholderRandom()}.
+	 *
+	 * @param directory cache directory, created if missing
+	 * @param maxBytes  maximum total size of cached PDFs
+	 * @param ttl       maximum age of an entry
+	 * @throws IOException if the directory cannot be created or scanned
+	 */
+	public SheetCache(Path directory, long maxBytes, Duration ttl) throws IOException {
+		this(directory, maxBytes, ttl, SheetCache::render, Clock.systemUTC());
+	}
+
+	SheetCache(Path directory, long maxBytes, Duration ttl, Renderer renderer, Clock clock) throws IOException {
+		if (maxBytes < 1) {
+			throw new IllegalArgumentException("maxBytes must be >= 1");
+		}
+		this.directory = Files.createDirectories(directory);
+		this.maxBytes = maxBytes;
+		this.ttl = ttl;
+		this.renderer = renderer;
+		this.clock = clock;
+		loadIndex();
+	}
+
+	/**
+	 * Writes the sheet for a request to a channel, rendering and caching it on a miss.
+	 *
+	 * @param request the sheet request
+	 * @param target  channel receiving the PDF bytes
+	 * @return true if the sheet was served from the cache
+	 * @throws IOException if the sheet cannot be rendered, stored or transferred
+	 */
+	public boolean transferTo(SheetRequest request, WritableByteChannel target) throws IOException {
+		String key = key(request);
+		Path file = directory.resolve(key + SUFFIX);
+		long saved = lookup(key);
+		if (saved >= 0) {
+			try {
+				transfer(file, target);
+				return true;
+			} catch (NoSuchFileException e) {
+				// evicted by a concurrent store; render it again
+				vanished(key, saved);
+			}
+		}
+
+		long start = System.nanoTime();
+		byte[] pdf = renderer.render(request);
+		long renderNanos = System.nanoTime() - start;
+		store(key, file, pdf, renderNanos);
+		ByteBuffer buffer = ByteBuffer.wrap(pdf);
+		while (buffer.hasRemaining()) {
+			target.write(buffer);
+		}
+		return false;
+	}
+
+	/**
+	 * Current cache counters.
+	 */
+	public synchronized CacheStats stats() {
+		return new CacheStats(hits, misses, evictions, entries.size(), bytes, Duration.ofNanos(savedNanos));
+	}
+
+	/**
+	 * The content address of a request: a SHA-256 over all parameters affecting the PDF, including
+	 * the glyphs of the font in use.
+	 *
+	 * @param request the sheet request
+	 * @return lowercase hex digest
+	 */
+	public static String key(SheetRequest request) {
+		String canonical = String.join("|",
+				FORMAT_VERSION,
+				String.valueOf(request.limit()),
+				String.valueOf(request.numberOfExercises()),
+				request.operations().toString(),
+				String.valueOf(request.seed()),
+				request.layout().name(),
+				FontSupport.capabilities().glyphs().toString());
+		try {
+			MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+			return HexFormat.of().formatHex(sha256.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+	}
+
+	/**
+	 * Counts a hit or a miss.
+	 *
+	 * @return the render time credited to the saved time for a hit, or -1 for a miss
+	 */
+	private synchronized long lookup(String key) throws IOException {
+		Entry entry = entries.get(key);
+		if (entry != null && !expired(entry)) {
+			long saved = entry.renderNanos() > 0 ? entry.renderNanos() : meanRenderNanos();
+			hits++;
+			savedNanos += saved;
+			return saved;
+		}
+		if (entry != null) {
+			remove(key);
+		}
+		misses++;
+		return -1;
+	}
+
+	/**
+	 * Turns a hit whose file vanished before it could be served into a miss.
+	 */
+	private synchronized void vanished(String key, long saved) {
+		hits--;
+		savedNanos -= saved;
+		misses++;
+		forget(key);
+	}
+
+	private synchronized void forget(String key) {
+		Entry entry = entries.remove(key);
+		if (entry != null) {
+			bytes -= entry.size();
+		}
+	}
+
+	private void store(String key, Path file, byte[] pdf, long renderNanos) throws IOException {
+		Path temp = Files.createTempFile(directory, key, ".tmp");
+		try {
+			Files.write(temp, pdf);
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+		index(key, pdf.length, renderNanos);
+	}
+
+	private synchronized void index(String key, long size, long renderNanos) throws IOException {
+		forget(key);
+		entries.put(key, new Entry(size, clock.instant(), renderNanos));
+		bytes += size;
+		renderedNanos += renderNanos;
+		evict();
+	}
+
+	private void evict() throws IOException {
+		Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+		while (bytes > maxBytes && eldest.hasNext()) {
+			Map.Entry<String, Entry> entry = eldest.next();
+			eldest.remove();
+			bytes -= entry.getValue().size();
+			evictions++;
+			Files.deleteIfExists(directory.resolve(entry.getKey() + SUFFIX));
+		}
+	}
+
+	private void remove(String key) throws IOException {
+		forget(key);
+		evictions++;
+		Files.deleteIfExists(directory.resolve(key + SUFFIX));
+	}
+
+	private boolean expired(Entry entry) {
+		return entry.created().plus(ttl).isBefore(clock.instant());
+	}
+
+	private long meanRenderNanos() {
+		return misses == 0 ? 0 : renderedNanos / misses;
+	}
+
+	private static void transfer(Path file, WritableByteChannel target) throws IOException {
+		try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = source.size();
+			for (long position = 0; position < size; ) {
+				position += source.transferTo(position, size - position, target);
+			}
+		}
+	}
+
+	private void loadIndex() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			files.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+					.map(file -> {
+						try {
+							return Map.entry(file, Files.getLastModifiedTime(file));
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+					})
+					.sorted(Map.Entry.comparingByValue())
+					.forEach(file -> {
+						String name = file.getKey().getFileName().toString();
+						try {
+							long size = Files.size(file.getKey());
+							entries.put(name.substring(0, name.length() - SUFFIX.length()),
+									new Entry(size, file.getValue().toInstant(), 0));
+							bytes += size;
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+					});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		evict();
+		log.debug("Sheet cache {} holds {} entries ({} bytes)", directory, entries.size(), bytes);
+	}
+
+	private static byte[] render(SheetRequest request) throws IOException {
+		return new PdfService(request.placeholderRandom()).renderPdf(request.equations(), request.layout());
+	}
+
+	/**
+	 * Renders the PDF for a request on a cache miss.
+	 */
+	@FunctionalInterface
+	interface Renderer {
+		byte[] render(SheetRequest request) throws IOException;
+	}
+
+	/**
+	 * Index entry; the time-to-live counts from {@code created}, when the sheet was stored.
+	 */
+	private record Entry(long size, Instant created, long renderNanos) {
+	}
+}
@@ -0,0 +1,25 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.checkpoint;
+
+import java.time.Duration;
+
+/**
+ * Outcome of a {@link CheckpointedRun}.
+ *
+ * @param iterations number of sheets of the run
+ * @param skipped    sheets completed by an earlier attempt and verified intact
+ * @param rendered   sheets rendered by this attempt, including repaired ones
+ * @param repaired   journaled sheets whose file was missing or did not match and were rendered again
+ * @param elapsed    wall-clock time of this attempt
+ */
+public record CheckpointReport(int iterations, int skipped, int rendered, int repaired, Duration elapsed) {
+}
@@ -0,0 +1,178 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.checkpoint;
+
+import lombok.extern.slf4j.Slf4j;
+import org.rick.math_excercises.service.EquationRenderer;
+import org.rick.math_excercises.service.GenerationStats;
+import org.rick.math_excercises.service.PdfService;
+import org.rick.math_excercises.service.SheetRequest;
+import org.rick.math_excercises.service.internal.FontSupport;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.zip.CRC32C;
+
+/**
+ * A bulk run of many sheets that can be resumed after a failure.
+ *
+ * <p>Every sheet is derived from its own {@link SheetRequest} whose seed is computed from the run
+ * seed and the iteration, so a sheet's content does not depend on which attempt renders it. A sheet
+ * is written to a temporary file and moved into place under {@link PdfService#outputFileName(int)},
+ * then recorded with its size and CRC-32C in an append-only journal next to the sheets. A later
+ * attempt with the same parameters skips journaled sheets whose file still matches, re-renders
+ * journaled sheets whose file is missing or differs, and overwrites anything else, e.g. the sheet
+ * being written when the previous attempt died.
+ *
+ * <p>Neither the sheets nor the journal are forced to disk: after an operating-system crash a lost
+ * journal line costs one re-render and a journaled but lost sheet fails verification.
+ */
+@Slf4j
+public class CheckpointedRun {
+
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private final Path directory;
+	private final SheetRequest template;
+	private final int iterations;
+
+	/**
+	 * @param directory  directory of the sheets and the journal, created if missing
+	 * @param template   the sheet parameters; its seed is the run seed
+	 * @param iterations number of sheets (must be >= 1)
+	 * @throws IllegalArgumentException if iterations {@code <} 1
+	 */
+	public CheckpointedRun(Path directory, SheetRequest template, int iterations) {
+		if (iterations < 1) {
+			throw new IllegalArgumentException("iterations must be >= 1");
+		}
+		this.directory = directory;
+		this.template = template;
+		this.iterations = iterations;
+	}
+
+	/**
+	 * The journal file: {@code <first sheet file name>.journal}, e.g.
+	 * {@code MathExercises_1_AddSub.pdf.journal}.
+	 */
+	public Path journalFile() {
+		return directory.resolve(PdfService.outputFileName(1) + ".journal");
+	}
+
+	/**
+	 * The request of one sheet of the run.
+	 *
+	 * @param iteration the sheet number, from 1
+	 * @return the request with the sheet's seed
+	 */
+	public SheetRequest sheet(int iteration) {
+		return new SheetRequest(template.limit(), template.numberOfExercises(), template.operations(),
+				sheetSeed(template.seed(), iteration), template.layout());
+	}
+
+	/**
+	 * Renders all sheets not yet completed by an earlier attempt.
+	 *
+	 * @param renderer the renderer producing the documents
+	 * @param stats    statistics receiving the output sizes of rendered sheets
+	 * @return what this attempt did
+	 * @throws IOException           if a sheet or the journal cannot be written
+	 * @throws IllegalStateException if the journal belongs to a run with different parameters
+	 */
+	public CheckpointReport run(EquationRenderer renderer, GenerationStats stats) throws IOException {
+		long start = System.nanoTime();
+		Files.createDirectories(directory);
+		int skipped = 0;
+		int rendered = 0;
+		int repaired = 0;
+		try (RunJournal journal = RunJournal.open(journalFile(), describe(renderer))) {
+			for (int iteration = 1; iteration <= iterations; iteration++) {
+				Path file = directory.resolve(PdfService.outputFileName(iteration));
+				RunJournal.Entry entry = journal.completed(iteration);
+				if (entry != null && matches(file, entry)) {
+					skipped++;
+					continue;
+				}
+				if (entry != null) {
+					log.warn("Sheet {} is missing or does not match the journal, rendering it again", file);
+					repaired++;
+				}
+				SheetRequest request = sheet(iteration);
+				byte[] pdf = new PdfService(request.placeholderRandom(), stats, renderer)
+						.renderPdf(request.equations(), request.layout());
+				Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+				try {
+					Files.write(temp, pdf);
+					Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				} finally {
+					Files.deleteIfExists(temp);
+				}
+				journal.record(iteration, pdf.length, crc32(pdf));
+				rendered++;
+			}
+		}
+		if (skipped > 0) {
+			log.info("Resumed run: {} sheets already complete, {} rendered", skipped, rendered);
+		}
+		return new CheckpointReport(iterations, skipped, rendered, repaired, Duration.ofNanos(System.nanoTime() - start));
+	}
+
+	/**
+	 * The seed of one sheet: the run seed and the iteration mixed by the SplitMix64 finalizer.
+	 *
+	 * @param runSeed   the seed of the run
+	 * @param iteration the sheet number
+	 * @return the sheet's seed
+	 */
+	public static long sheetSeed(long runSeed, int iteration) {
+		long z = runSeed + iteration * GOLDEN_GAMMA;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Everything the content of the run's sheets depends on, including the renderer with its output
+	 * mode and imposition; a journal only resumes the run it describes.
+	 */
+	private String describe(EquationRenderer renderer) {
+		return String.join("|",
+				String.valueOf(template.limit()),
+				String.valueOf(template.numberOfExercises()),
+				template.operations().toString(),
+				String.valueOf(template.seed()),
+				template.layout().name(),
+				String.valueOf(iterations),
+				FontSupport.capabilities().glyphs().toString(),
+				renderer.description());
+	}
+
+	private static boolean matches(Path file, RunJournal.Entry entry) throws IOException {
+		try {
+			if (Files.size(file) != entry.size()) {
+				return false;
+			}
+			return crc32(Files.readAllBytes(file)) == entry.crc32();
+		} catch (NoSuchFileException e) {
+			return false;
+		}
+	}
+
+	private static long crc32(byte[] bytes) {
+		CRC32C crc = new CRC32C();
+		crc.update(bytes);
+		return crc.getValue();
+	}
+}
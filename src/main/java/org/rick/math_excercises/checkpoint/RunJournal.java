@@ -0,0 +1,131 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.checkpoint;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only journal of the sheets a run has completed.
+ *
+ * <p>The first line identifies the run; each further line records one completed sheet as
+ * {@code <iteration> <size> <crc32c>}. A line is only appended once its sheet is in place, so a run
+ * that dies leaves at worst one torn last line, which is dropped on opening.
+ */
+@Slf4j
+final class RunJournal implements AutoCloseable {
+
+	private static final String HEADER_PREFIX = "# math-excercises run journal v1 ";
+
+	private final FileChannel channel;
+
+	private final Map<Integer, Entry> completed;
+
+	/**
+	 * A completed sheet.
+	 *
+	 * @param size  the file size in bytes
+	 * @param crc32 the CRC-32C of the file
+	 */
+	record Entry(long size, long crc32) {
+	}
+
+	private RunJournal(FileChannel channel, Map<Integer, Entry> completed) {
+		this.channel = channel;
+		this.completed = completed;
+	}
+
+	/**
+	 * Opens or creates the journal of a run.
+	 *
+	 * @param file the journal file
+	 * @param run  canonical description of the run; must match the one the journal was created with
+	 * @return the journal, positioned for appending
+	 * @throws IOException           if the journal cannot be read or written
+	 * @throws IllegalStateException if the journal belongs to a different run
+	 */
+	static RunJournal open(Path file, String run) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			String header = HEADER_PREFIX + run;
+			byte[] content = Files.readAllBytes(file);
+			int end = content.length;
+			while (end > 0 && content[end - 1] != '\n') {
+				end--;
+			}
+			if (end < content.length) {
+				log.warn("Dropping torn last line of run journal {}", file);
+				channel.truncate(end);
+			}
+			Map<Integer, Entry> completed = new HashMap<>();
+			List<String> lines = new String(content, 0, end, StandardCharsets.UTF_8).lines().toList();
+			if (lines.isEmpty()) {
+				channel.truncate(0);
+				channel.position(0);
+				write(channel, header + "\n");
+			}
+			else if (!lines.getFirst().equals(header)) {
+				throw new IllegalStateException("Journal " + file + " belongs to a different run: "
+						+ lines.getFirst().substring(Math.min(lines.getFirst().length(), HEADER_PREFIX.length())));
+			}
+			else {
+				for (String line : lines.subList(1, lines.size())) {
+					String[] fields = line.split(" ");
+					completed.put(Integer.parseInt(fields[0]),
+							new Entry(Long.parseLong(fields[1]), Long.parseUnsignedLong(fields[2], 16)));
+				}
+			}
+			channel.position(channel.size());
+			return new RunJournal(channel, completed);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * The recorded entry of a sheet, or null if the sheet is not recorded as completed.
+	 */
+	Entry completed(int iteration) {
+		return completed.get(iteration);
+	}
+
+	/**
+	 * Records a completed sheet.
+	 */
+	void record(int iteration, long size, long crc32) throws IOException {
+		write(channel, iteration + " " + size + " " + Long.toHexString(crc32) + "\n");
+		completed.put(iteration, new Entry(size, crc32));
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private static void write(FileChannel channel, String line) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+}
@@ -0,0 +1,182 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.coverage;
+
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.EquationSource;
+import org.rick.math_excercises.service.Operations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
+
+/**
+ * A seeded walk over an {@link EquationSpace} that yields every equation exactly once per pass.
+ *
+ * <p>Position {@code p} maps to pass {@code p / size} and to the equation at
+ * {@code permutation(pass).apply(p % size)}, where each pass uses its own {@link FeistelPermutation}
+ * derived from the seed, so consecutive passes cover the space again in a different order. The whole
+ * walk is a pure function of (seed, position): a run is resumed by recording the next offset, and
+ * sheets can be produced independently by offset.
+ */
+public final class CoverageSequence {
+
+	private final EquationSpace space;
+	private final long seed;
+	private volatile Pass pass;
+
+	/**
+	 * @param limit      upper bound for operands and results (must be >= 10)
+	 * @param operations the operations; null/empty uses ADDITION and SUBTRACTION
+	 * @param seed       the seed of the order
+	 * @throws IllegalArgumentException if limit {@code <} 10
+	 */
+	public CoverageSequence(int limit, Collection<Operations> operations, long seed) {
+		this(new EquationSpace(limit, operations), seed);
+	}
+
+	/**
+	 * @param space the equation space to walk
+	 * @param seed  the seed of the order
+	 */
+	public CoverageSequence(EquationSpace space, long seed) {
+		this.space = space;
+		this.seed = seed;
+		this.pass = new Pass(0, new FeistelPermutation(space.size(), passSeed(0)));
+	}
+
+	/**
+	 * The walked space.
+	 */
+	public EquationSpace space() {
+		return space;
+	}
+
+	/**
+	 * The seed of the order.
+	 */
+	public long seed() {
+		return seed;
+	}
+
+	/**
+	 * Number of positions in one pass, i.e. the number of distinct equations.
+	 */
+	public long size() {
+		return space.size();
+	}
+
+	/**
+	 * Returns the equation at a position of the walk.
+	 *
+	 * @param position a non-negative position; positions past {@link #size()} continue with later passes
+	 * @return the equation
+	 * @throws IllegalArgumentException if position is negative
+	 */
+	public Equation get(long position) {
+		if (position < 0) {
+			throw new IllegalArgumentException("position must be >= 0");
+		}
+		long index = position % space.size();
+		return space.get(permutation(position / space.size()).apply(index));
+	}
+
+	/**
+	 * Returns consecutive equations of the walk, e.g. one sheet.
+	 *
+	 * @param offset the position of the first equation
+	 * @param count  the number of equations
+	 * @return the equations at {@code offset .. offset + count - 1}
+	 * @throws IllegalArgumentException if offset or count is negative
+	 */
+	public List<Equation> sheet(long offset, int count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("count must be >= 0");
+		}
+		if (offset < 0) {
+			throw new IllegalArgumentException("position must be >= 0");
+		}
+		List<Equation> equations = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			equations.add(get(offset + i));
+		}
+		return equations;
+	}
+
+	/**
+	 * Returns an equation source that walks this sequence from an offset, for use with
+	 * {@link org.rick.math_excercises.service.GenerateService}. The source ignores the random
+	 * generator; it is safe for concurrent use, each call taking the next position.
+	 *
+	 * @param offset the first position to hand out
+	 * @return the source
+	 * @throws IllegalArgumentException if offset is negative
+	 */
+	public Cursor source(long offset) {
+		if (offset < 0) {
+			throw new IllegalArgumentException("position must be >= 0");
+		}
+		return new Cursor(offset);
+	}
+
+	private FeistelPermutation permutation(long passNumber) {
+		Pass current = pass;
+		if (current.number != passNumber) {
+			current = new Pass(passNumber, new FeistelPermutation(space.size(), passSeed(passNumber)));
+			pass = current;
+		}
+		return current.permutation;
+	}
+
+	private long passSeed(long passNumber) {
+		return seed ^ passNumber * 0xD1B54A32D192ED03L;
+	}
+
+	private record Pass(long number, FeistelPermutation permutation) {
+	}
+
+	/**
+	 * An {@link EquationSource} positioned on the sequence. {@link #position()} is the offset to
+	 * resume from.
+	 */
+	public final class Cursor implements EquationSource {
+
+		private final AtomicLong position;
+
+		private Cursor(long offset) {
+			this.position = new AtomicLong(offset);
+		}
+
+		/**
+		 * The next position to be handed out.
+		 */
+		public long position() {
+			return position.get();
+		}
+
+		/**
+		 * Returns the next equation of the sequence.
+		 *
+		 * @throws IllegalArgumentException if limit or operations differ from the sequence
+		 */
+		@Override
+		public Equation next(int limit, List<Operations> operations, RandomGenerator random) {
+			if (limit != space.limit() || !EnumSet.copyOf(operations).equals(EnumSet.copyOf(space.operations()))) {
+				throw new IllegalArgumentException("Coverage sequence is for limit " + space.limit() + " and "
+						+ space.operations() + ", not " + limit + " and " + operations);
+			}
+			return get(position.getAndIncrement());
+		}
+	}
+}
@@ -0,0 +1,303 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.coverage;
+
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.Operations;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Every valid equation of a set of operations at a limit, addressable by index without materializing
+ * the space.
+ *
+ * <p>The space of an operation is exactly what its generator in {@link Operations} can produce.
+ * Additions and subtractions form triangles whose rows are located in closed form; the product
+ * constraint of multiplication and division is split at {@code s = floor(sqrt(limit))} into rows
+ * with a small first operand and columns with a small second one, so only O(sqrt(limit)) offsets are
+ * kept. Operations are concatenated in enum order.
+ */
+public final class EquationSpace {
+
+	private final int limit;
+	private final List<Operations> operations;
+	private final Region[] regions;
+	private final long[] starts;
+	private final long size;
+
+	/**
+	 * @param limit      upper bound for operands and results (must be >= 10)
+	 * @param operations the operations; null/empty uses ADDITION and SUBTRACTION
+	 * @throws IllegalArgumentException if limit {@code <} 10
+	 */
+	public EquationSpace(int limit, Collection<Operations> operations) {
+		if (limit < 10) {
+			throw new IllegalArgumentException("Limit must be greater than or equal to 10.");
+		}
+		EnumSet<Operations> ops = EnumSet.noneOf(Operations.class);
+		if (operations != null) {
+			operations.stream().filter(op -> op != null).forEach(ops::add);
+		}
+		if (ops.isEmpty()) {
+			ops.add(Operations.ADDITION);
+			ops.add(Operations.SUBTRACTION);
+		}
+		this.limit = limit;
+		this.operations = List.copyOf(ops);
+		this.regions = new Region[ops.size()];
+		this.starts = new long[ops.size()];
+		long total = 0;
+		int i = 0;
+		for (Operations op : ops) {
+			regions[i] = switch (op) {
+				case ADDITION -> new AdditionRegion(limit);
+				case SUBTRACTION -> new SubtractionRegion(limit);
+				case MULTIPLICATION -> new ProductRegion(limit, 1, false);
+				case DIVISION -> new ProductRegion(limit, 0, true);
+			};
+			starts[i] = total;
+			total += regions[i].size();
+			i++;
+		}
+		this.size = total;
+	}
+
+	/**
+	 * The limit of the space.
+	 */
+	public int limit() {
+		return limit;
+	}
+
+	/**
+	 * The operations of the space in enum order.
+	 */
+	public List<Operations> operations() {
+		return operations;
+	}
+
+	/**
+	 * Number of distinct equations in the space.
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Returns the equation at an index.
+	 *
+	 * @param index an index in {@code [0, size())}
+	 * @return the equation
+	 * @throws IndexOutOfBoundsException if the index is outside the space
+	 */
+	public Equation get(long index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index " + index + " outside [0, " + size + ")");
+		}
+		int region = regions.length - 1;
+		while (starts[region] > index) {
+			region--;
+		}
+		return regions[region].get(index - starts[region]);
+	}
+
+	private interface Region {
+		long size();
+
+		Equation get(long index);
+	}
+
+	/**
+	 * {@code a + b <= limit} with {@code a, b} in {@code [0, limit)}, not both zero. Row {@code a = 0}
+	 * holds {@code b = 1..limit-1}; rows {@code a = 1..limit-1} hold {@code b = 0..limit-a}, i.e.
+	 * lengths {@code limit, limit-1, ..., 2}.
+	 */
+	private static final class AdditionRegion implements Region {
+
+		private final int limit;
+		private final ArithmeticRows rows;
+
+		AdditionRegion(int limit) {
+			this.limit = limit;
+			this.rows = new ArithmeticRows(limit, -1, limit - 1);
+		}
+
+		@Override
+		public long size() {
+			return limit - 1 + rows.size();
+		}
+
+		@Override
+		public Equation get(long index) {
+			if (index < limit - 1) {
+				int b = (int) index + 1;
+				return Equation.of(0, b, b, '+');
+			}
+			long j = index - (limit - 1);
+			int row = rows.row(j);
+			int a = row + 1;
+			int b = (int) (j - rows.start(row));
+			return Equation.of(a, b, a + b, '+');
+		}
+	}
+
+	/**
+	 * {@code a - b >= 0} with {@code a, b} in {@code [0, limit)}, not both zero: rows
+	 * {@code a = 1..limit-1} hold {@code b = 0..a}, i.e. lengths {@code 2, 3, ..., limit}.
+	 */
+	private static final class SubtractionRegion implements Region {
+
+		private final ArithmeticRows rows;
+
+		SubtractionRegion(int limit) {
+			this.rows = new ArithmeticRows(2, 1, limit - 1);
+		}
+
+		@Override
+		public long size() {
+			return rows.size();
+		}
+
+		@Override
+		public Equation get(long index) {
+			int row = rows.row(index);
+			int a = row + 1;
+			int b = (int) (index - rows.start(row));
+			return Equation.of(a, b, a - b, '-');
+		}
+	}
+
+	/**
+	 * {@code x * y <= limit} with {@code x} in {@code [1, limit)} and {@code y} in
+	 * {@code [yMin, limit)}; for multiplication x and y are the factors, for division the divisor and
+	 * the quotient. Rows {@code x = 1..s} hold {@code y = yMin..min(limit-1, limit/x)}; the remaining
+	 * pairs have {@code x > s} and therefore {@code y <= s}, and are held in columns
+	 * {@code y = yMin..s} with {@code x = s+1..min(limit-1, limit/y)}.
+	 */
+	private static final class ProductRegion implements Region {
+
+		private final int limit;
+		private final int yMin;
+		private final int s;
+		private final boolean division;
+		private final long[] rowStarts;
+		private final long[] columnStarts;
+
+		ProductRegion(int limit, int yMin, boolean division) {
+			this.limit = limit;
+			this.yMin = yMin;
+			this.division = division;
+			this.s = (int) Math.sqrt(limit);
+			this.rowStarts = new long[s + 1];
+			for (int x = 1; x <= s; x++) {
+				rowStarts[x] = rowStarts[x - 1] + (Math.min(limit - 1, limit / x) - yMin + 1);
+			}
+			this.columnStarts = new long[s - yMin + 2];
+			columnStarts[0] = rowStarts[s];
+			for (int y = yMin; y <= s; y++) {
+				columnStarts[y - yMin + 1] = columnStarts[y - yMin] + Math.max(0, columnEnd(y) - s);
+			}
+		}
+
+		private int columnEnd(int y) {
+			return y == 0 ? limit - 1 : Math.min(limit - 1, limit / y);
+		}
+
+		@Override
+		public long size() {
+			return columnStarts[columnStarts.length - 1];
+		}
+
+		@Override
+		public Equation get(long index) {
+			int x;
+			int y;
+			if (index < rowStarts[s]) {
+				int row = upperBound(rowStarts, index);
+				x = row;
+				y = yMin + (int) (index - rowStarts[row - 1]);
+			}
+			else {
+				int column = upperBound(columnStarts, index);
+				y = yMin + column - 1;
+				x = s + 1 + (int) (index - columnStarts[column - 1]);
+			}
+			return division ? Equation.of(x * y, x, y, '÷') : Equation.of(x, y, x * y, '×');
+		}
+
+		/**
+		 * Smallest i with {@code starts[i] > value}.
+		 */
+		private static int upperBound(long[] starts, long value) {
+			int low = 0;
+			int high = starts.length - 1;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (starts[mid] > value) {
+					high = mid;
+				}
+				else {
+					low = mid + 1;
+				}
+			}
+			return low;
+		}
+	}
+
+	/**
+	 * Rows whose lengths form an arithmetic sequence {@code first, first + step, ...}; row offsets
+	 * are computed and inverted in closed form.
+	 */
+	private static final class ArithmeticRows {
+
+		private final long first;
+		private final long step;
+		private final int count;
+
+		ArithmeticRows(long first, long step, int count) {
+			this.first = first;
+			this.step = step;
+			this.count = count;
+		}
+
+		long size() {
+			return start(count);
+		}
+
+		/**
+		 * Offset of the first entry of a row.
+		 */
+		long start(int row) {
+			return row * first + step * row * (row - 1L) / 2;
+		}
+
+		/**
+		 * The row containing an offset: the largest row whose start is not after it, estimated by the
+		 * quadratic formula and corrected for rounding.
+		 */
+		int row(long offset) {
+			double b = first - step / 2.0;
+			double estimate = step == 0
+			                  ? offset / (double) first
+			                  : (-b + Math.sqrt(Math.max(0, b * b + 2.0 * step * offset))) / step;
+			int row = (int) Math.max(0, Math.min(count - 1, (long) estimate));
+			while (row > 0 && start(row) > offset) {
+				row--;
+			}
+			while (row < count - 1 && start(row + 1) <= offset) {
+				row++;
+			}
+			return row;
+		}
+	}
+}
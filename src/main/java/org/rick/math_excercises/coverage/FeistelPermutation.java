@@ -0,0 +1,94 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.coverage;
+
+/**
+ * A seeded pseudo-random permutation of {@code [0, n)} evaluated one index at a time.
+ *
+ * <p>A balanced four-round Feistel network over the smallest even number of bits covering
+ * {@code n} is a bijection on that power-of-two domain; indices falling outside {@code [0, n)} are
+ * mapped again (cycle walking) until they land inside, which keeps the restriction a bijection. The
+ * domain is less than four times {@code n}, so few walks are needed. Only the keys are stored.
+ */
+public final class FeistelPermutation {
+
+	private static final int ROUNDS = 4;
+
+	private final long size;
+	private final int halfBits;
+	private final long mask;
+	private final long[] keys = new long[ROUNDS];
+
+	/**
+	 * @param size the domain size n (1..2^62)
+	 * @param seed the permutation seed
+	 * @throws IllegalArgumentException if size is out of range
+	 */
+	public FeistelPermutation(long size, long seed) {
+		if (size < 1 || size > 1L << 62) {
+			throw new IllegalArgumentException("size must be 1..2^62");
+		}
+		this.size = size;
+		int bits = Math.max(2, 64 - Long.numberOfLeadingZeros(size - 1));
+		this.halfBits = (bits + 1) / 2;
+		this.mask = (1L << halfBits) - 1;
+		long key = seed;
+		for (int round = 0; round < ROUNDS; round++) {
+			key += 0x9E3779B97F4A7C15L;
+			keys[round] = mix(key);
+		}
+	}
+
+	/**
+	 * The domain size n.
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Returns the image of an index.
+	 *
+	 * @param index an index in {@code [0, n)}
+	 * @return the permuted index in {@code [0, n)}
+	 * @throws IndexOutOfBoundsException if the index is outside the domain
+	 */
+	public long apply(long index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index " + index + " outside [0, " + size + ")");
+		}
+		long value = index;
+		do {
+			value = encrypt(value);
+		} while (value >= size);
+		return value;
+	}
+
+	private long encrypt(long value) {
+		long left = value >>> halfBits;
+		long right = value & mask;
+		for (long key : keys) {
+			long next = left ^ (mix(right ^ key) & mask);
+			left = right;
+			right = next;
+		}
+		return left << halfBits | right;
+	}
+
+	/**
+	 * SplitMix64 finalizer.
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,24 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+/**
+ * Exhaustive fact coverage: every valid equation of the chosen operations and limit exactly once per
+ * pass, in a seeded pseudo-random order.
+ *
+ * <ul>
+ *   <li>{@link org.rick.math_excercises.coverage.EquationSpace} — closed-form indexing of all valid
+ *       equations without materializing them.
+ *   <li>{@link org.rick.math_excercises.coverage.FeistelPermutation} — a seeded bijection on
+ *       {@code [0, n)} computed per index.
+ *   <li>{@link org.rick.math_excercises.coverage.CoverageSequence} — the permuted walk, split into
+ *       sheets and resumable by (seed, offset).
+ * </ul>
+ */
+package org.rick.math_excercises.coverage;
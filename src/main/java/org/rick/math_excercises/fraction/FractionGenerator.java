@@ -0,0 +1,75 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.fraction;
+
+import org.rick.math_excercises.model.FractionEquation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.random.RandomGenerator;
+
+/**
+ * Generates fraction and decimal exercises for the {@link FractionOperations} families.
+ */
+public class FractionGenerator {
+
+	private static final List<FractionOperations> DEFAULT_OPS =
+			List.of(FractionOperations.FRACTION_ADDITION, FractionOperations.FRACTION_SUBTRACTION);
+
+	private final RandomGenerator random;
+
+	/**
+	 * @param random the random generator to use
+	 */
+	public FractionGenerator(RandomGenerator random) {
+		this.random = random;
+	}
+
+	/**
+	 * Generates exercises, choosing the family of each uniformly among the given ones.
+	 *
+	 * @param limit             the largest denominator (fractions) or value (decimals); must be >= 10
+	 *                          and at most the {@link FractionOperations#maxLimit()} of every family
+	 * @param numberOfExercises how many exercises to generate (must be >= 1)
+	 * @param operations        allowed families; null/empty uses FRACTION_ADDITION and
+	 *                          FRACTION_SUBTRACTION
+	 * @return the generated exercises
+	 * @throws IllegalArgumentException if limit {@code <} 10 or exceeds a family's maximum, or
+	 *                                  numberOfExercises {@code <} 1
+	 */
+	public List<FractionEquation> generate(int limit, int numberOfExercises, Collection<FractionOperations> operations) {
+		if (limit < 10) {
+			throw new IllegalArgumentException("Limit must be greater than or equal to 10.");
+		}
+		if (numberOfExercises < 1) {
+			throw new IllegalArgumentException("numberOfExercises must be >= 1");
+		}
+		List<FractionOperations> ops = operations == null
+		                               ? DEFAULT_OPS
+		                               : operations.stream().filter(Objects::nonNull).toList();
+		if (ops.isEmpty()) {
+			ops = DEFAULT_OPS;
+		}
+		for (FractionOperations op : ops) {
+			if (limit > op.maxLimit()) {
+				throw new IllegalArgumentException(
+						op + " supports limits up to " + op.maxLimit() + ", got " + limit + ".");
+			}
+		}
+		List<FractionEquation> exercises = new ArrayList<>(numberOfExercises);
+		for (int i = 0; i < numberOfExercises; i++) {
+			exercises.add(ops.get(random.nextInt(ops.size())).generate(limit, random));
+		}
+		return exercises;
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.fraction;
+
+import org.rick.math_excercises.model.FractionEquation;
+import org.rick.math_excercises.model.FractionEquation.Notation;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Fraction and decimal operation families for worksheet generation.
+ *
+ * <p>For the fraction families the limit is the largest denominator; operands are proper fractions
+ * in lowest terms. For the decimal families the limit bounds operands and results, which have one or
+ * two decimal places. Every generator draws its values directly from the feasible ranges, so no draw
+ * is rejected. Each family supports limits up to its {@link #maxLimit()}, above which its values
+ * would overflow an int.
+ */
+public enum FractionOperations {
+	/**
+	 * Sum of two proper fractions, e.g. 1/3 + 1/4 = 7/12.
+	 */
+	FRACTION_ADDITION(FractionOperations::generateFractionAddition, 32_767),
+	/**
+	 * Difference of two proper fractions with a non-negative result.
+	 */
+	FRACTION_SUBTRACTION(FractionOperations::generateFractionSubtraction, 32_767),
+	/**
+	 * Reducing a fraction to lowest terms, e.g. 6/8 = 3/4.
+	 */
+	FRACTION_SIMPLIFICATION(FractionOperations::generateSimplification, Integer.MAX_VALUE / 2),
+	/**
+	 * Sum of two decimals.
+	 */
+	DECIMAL_ADDITION(FractionOperations::generateDecimalAddition, Integer.MAX_VALUE / 100),
+	/**
+	 * Difference of two decimals with a non-negative result.
+	 */
+	DECIMAL_SUBTRACTION(FractionOperations::generateDecimalSubtraction, Integer.MAX_VALUE / 100);
+
+	private final Generator generator;
+
+	private final int maxLimit;
+
+	FractionOperations(Generator generator, int maxLimit) {
+		this.generator = generator;
+		this.maxLimit = maxLimit;
+	}
+
+	/**
+	 * The largest supported limit. The sum of two proper fractions is below 2 over a denominator of up
+	 * to limit², a scaled simplification stays below 1.5 × limit and decimals are drawn in hundredths.
+	 *
+	 * @return the largest limit {@link #generate} accepts without overflowing
+	 */
+	public int maxLimit() {
+		return maxLimit;
+	}
+
+	/**
+	 * Generates one exercise of this family.
+	 *
+	 * @param limit  the largest denominator (fractions) or value (decimals); must be >= 2 and at most
+	 *               {@link #maxLimit()}
+	 * @param random the random generator to use
+	 * @return the exercise
+	 */
+	public FractionEquation generate(int limit, RandomGenerator random) {
+		return generator.generate(limit, random);
+	}
+
+	private static FractionEquation generateFractionAddition(int limit, RandomGenerator random) {
+		long a = properFraction(limit, random);
+		long b = properFraction(limit, random);
+		return fractions(a, b, Rationals.add(a, b), '+');
+	}
+
+	private static FractionEquation generateFractionSubtraction(int limit, RandomGenerator random) {
+		long a = properFraction(limit, random);
+		long b = properFraction(limit, random);
+		if (Rationals.compare(a, b) < 0) {
+			long t = a;
+			a = b;
+			b = t;
+		}
+		return fractions(a, b, Rationals.subtract(a, b), '-');
+	}
+
+	/**
+	 * Picks a proper fraction p/q in lowest terms and scales it by a factor k >= 2 that keeps the
+	 * shown denominator within the limit where possible.
+	 */
+	private static FractionEquation generateSimplification(int limit, RandomGenerator random) {
+		long reduced = properFraction(limit / 2, random);
+		int p = Rationals.numerator(reduced);
+		int q = Rationals.denominator(reduced);
+		int k = 2 + random.nextInt(Math.max(1, limit / q - 1));
+		return new FractionEquation(p * k, q * k, 0, 1, p, q, '=', Notation.FRACTION);
+	}
+
+	/**
+	 * Chooses the result first, then splits it: {@code r = a + (r - a)}.
+	 */
+	private static FractionEquation generateDecimalAddition(int limit, RandomGenerator random) {
+		int scale = decimalScale(random);
+		int result = 1 + random.nextInt(limit * scale);
+		int a = random.nextInt(result + 1);
+		return decimals(a, result - a, result, scale, '+');
+	}
+
+	/**
+	 * Chooses the first operand, then a second operand not larger than it.
+	 */
+	private static FractionEquation generateDecimalSubtraction(int limit, RandomGenerator random) {
+		int scale = decimalScale(random);
+		int a = 1 + random.nextInt(limit * scale);
+		int b = random.nextInt(a + 1);
+		return decimals(a, b, a - b, scale, '-');
+	}
+
+	/**
+	 * A proper fraction n/d with d in {@code [2, max(2, maxDenominator)]}, reduced.
+	 */
+	private static long properFraction(int maxDenominator, RandomGenerator random) {
+		int denominator = 2 + random.nextInt(Math.max(1, maxDenominator - 1));
+		int numerator = 1 + random.nextInt(denominator - 1);
+		return Rationals.reduce(Rationals.of(numerator, denominator));
+	}
+
+	private static int decimalScale(RandomGenerator random) {
+		return random.nextBoolean() ? 10 : 100;
+	}
+
+	private static FractionEquation fractions(long a, long b, long result, char operator) {
+		return new FractionEquation(
+				Rationals.numerator(a), Rationals.denominator(a),
+				Rationals.numerator(b), Rationals.denominator(b),
+				Rationals.numerator(result), Rationals.denominator(result), operator, Notation.FRACTION);
+	}
+
+	private static FractionEquation decimals(int a, int b, int result, int scale, char operator) {
+		return new FractionEquation(a, scale, b, scale, result, scale, operator, Notation.DECIMAL);
+	}
+
+	@FunctionalInterface
+	private interface Generator {
+		FractionEquation generate(int limit, RandomGenerator random);
+	}
+}
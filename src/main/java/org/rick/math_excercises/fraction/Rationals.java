@@ -0,0 +1,146 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.fraction;
+
+/**
+ * Allocation-free rational arithmetic on primitive values.
+ *
+ * <p>A rational is packed into a single {@code long}: the signed numerator in the high 32 bits and
+ * the positive denominator in the low 32 bits, so values pass through generators in registers
+ * instead of as {@code BigInteger}-backed objects. Results are reduced to lowest terms. The greatest
+ * common divisor of operands below {@value #TABLE_SIZE} is read from a table computed once;
+ * larger operands use binary GCD. Intermediate products are computed in {@code long} and checked
+ * on narrowing.
+ */
+public final class Rationals {
+
+	/**
+	 * Operands below this bound have their GCD cached.
+	 */
+	static final int TABLE_SIZE = 256;
+
+	private static final byte[] GCD_TABLE = new byte[TABLE_SIZE * TABLE_SIZE];
+
+	static {
+		for (int a = 0; a < TABLE_SIZE; a++) {
+			for (int b = 0; b < TABLE_SIZE; b++) {
+				GCD_TABLE[a * TABLE_SIZE + b] = (byte) binaryGcd(a, b);
+			}
+		}
+	}
+
+	private Rationals() {
+	}
+
+	/**
+	 * Packs a numerator and a denominator without reducing.
+	 *
+	 * @param numerator   the numerator
+	 * @param denominator the denominator (positive)
+	 * @return the packed rational
+	 * @throws ArithmeticException if the denominator is not positive
+	 */
+	public static long of(int numerator, int denominator) {
+		if (denominator <= 0) {
+			throw new ArithmeticException("denominator must be positive: " + denominator);
+		}
+		return (long) numerator << 32 | denominator;
+	}
+
+	/**
+	 * The numerator of a packed rational.
+	 */
+	public static int numerator(long rational) {
+		return (int) (rational >> 32);
+	}
+
+	/**
+	 * The denominator of a packed rational.
+	 */
+	public static int denominator(long rational) {
+		return (int) rational;
+	}
+
+	/**
+	 * Reduces a packed rational to lowest terms; zero becomes {@code 0/1}.
+	 */
+	public static long reduce(long rational) {
+		return reduced(numerator(rational), denominator(rational));
+	}
+
+	/**
+	 * The reduced sum of two packed rationals, over the least common denominator.
+	 *
+	 * @throws ArithmeticException if a value overflows an int
+	 */
+	public static long add(long a, long b) {
+		int da = denominator(a);
+		int db = denominator(b);
+		int g = gcd(da, db);
+		long numerator = (long) numerator(a) * (db / g) + (long) numerator(b) * (da / g);
+		return reduced(Math.toIntExact(numerator), Math.toIntExact((long) (da / g) * db));
+	}
+
+	/**
+	 * The reduced difference of two packed rationals.
+	 *
+	 * @throws ArithmeticException if a value overflows an int
+	 */
+	public static long subtract(long a, long b) {
+		return add(a, of(Math.negateExact(numerator(b)), denominator(b)));
+	}
+
+	/**
+	 * Compares two packed rationals by value.
+	 */
+	public static int compare(long a, long b) {
+		return Long.compare((long) numerator(a) * denominator(b), (long) numerator(b) * denominator(a));
+	}
+
+	/**
+	 * The greatest common divisor of two non-negative ints; {@code gcd(0, 0)} is 0.
+	 */
+	public static int gcd(int a, int b) {
+		if ((a | b) >= 0 && a < TABLE_SIZE && b < TABLE_SIZE) {
+			return GCD_TABLE[a * TABLE_SIZE + b] & 0xFF;
+		}
+		return binaryGcd(Math.abs(a), Math.abs(b));
+	}
+
+	private static long reduced(int numerator, int denominator) {
+		if (numerator == 0) {
+			return of(0, 1);
+		}
+		int g = gcd(Math.abs(numerator), denominator);
+		return of(numerator / g, denominator / g);
+	}
+
+	/**
+	 * Stein's algorithm: shifts and subtractions only.
+	 */
+	private static int binaryGcd(int a, int b) {
+		if (a == 0 || b == 0) {
+			return a | b;
+		}
+		int shift = Integer.numberOfTrailingZeros(a | b);
+		a >>= Integer.numberOfTrailingZeros(a);
+		while (b != 0) {
+			b >>= Integer.numberOfTrailingZeros(b);
+			if (a > b) {
+				int t = a;
+				a = b;
+				b = t;
+			}
+			b -= a;
+		}
+		return a << shift;
+	}
+}
@@ -0,0 +1,24 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+/**
+ * Fraction and decimal exercises.
+ *
+ * <ul>
+ *   <li>{@link org.rick.math_excercises.fraction.Rationals} — primitive, allocation-free rational
+ *       arithmetic with a cached GCD table.
+ *   <li>{@link org.rick.math_excercises.fraction.FractionOperations} — the operation families and
+ *       their generators.
+ *   <li>{@link org.rick.math_excercises.fraction.FractionGenerator} — generates sheets of
+ *       {@link org.rick.math_excercises.model.FractionEquation}s, rendered by
+ *       {@link org.rick.math_excercises.service.PdfService#generateFractionPdf}.
+ * </ul>
+ */
+package org.rick.math_excercises.fraction;
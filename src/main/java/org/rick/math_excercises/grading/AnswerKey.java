@@ -0,0 +1,150 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.grading;
+
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.Operations;
+import org.rick.math_excercises.service.SheetRequest;
+import org.rick.math_excercises.storage.ExerciseSet;
+import org.rick.math_excercises.storage.ExerciseSetFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The expected answers of one sheet: for every equation the value of its blanked slot and its
+ * operation, held in primitive arrays.
+ */
+public final class AnswerKey {
+
+	private static final Operations[] OPERATIONS = Operations.values();
+
+	private final int[] expected;
+
+	private final byte[] operations;
+
+	private AnswerKey(int[] expected, byte[] operations) {
+		this.expected = expected;
+		this.operations = operations;
+	}
+
+	/**
+	 * The key of a sheet rendered with the given placeholders.
+	 *
+	 * @param equations    the equations of the sheet
+	 * @param placeholders one placeholder index (1=first operand, 2=second operand, 3=result) per
+	 *                     equation
+	 * @return the key
+	 * @throws IllegalArgumentException if there are no equations or the list sizes differ
+	 */
+	public static AnswerKey of(List<Equation> equations, List<Integer> placeholders) {
+		if (equations.isEmpty() || placeholders.size() != equations.size()) {
+			throw new IllegalArgumentException("Expected one placeholder per equation.");
+		}
+		int[] expected = new int[equations.size()];
+		byte[] operations = new byte[equations.size()];
+		for (int i = 0; i < expected.length; i++) {
+			Equation equation = equations.get(i);
+			expected[i] = blanked(equation.firstNumber(), equation.secondNumber(), equation.result(),
+					placeholders.get(i));
+			operations[i] = (byte) Operations.fromOperator(equation.operator()).ordinal();
+		}
+		return new AnswerKey(expected, operations);
+	}
+
+	/**
+	 * The key of a sheet identified by its request, e.g. a sheet of a
+	 * {@link org.rick.math_excercises.checkpoint.CheckpointedRun}: the equations and the placeholders
+	 * are regenerated from the seed.
+	 */
+	public static AnswerKey of(SheetRequest request) {
+		return of(request.equations(), request.placeholders());
+	}
+
+	/**
+	 * The key of a stored exercise set.
+	 *
+	 * @throws IllegalArgumentException if the set has no recorded placeholders
+	 */
+	public static AnswerKey of(ExerciseSet set) {
+		if (!set.hasPlaceholders()) {
+			throw new IllegalArgumentException("The exercise set has no recorded placeholders.");
+		}
+		return of(set.equations(), set.placeholders());
+	}
+
+	/**
+	 * Reads the key of an exercise set file without materializing its equations.
+	 *
+	 * @param path the exercise set file
+	 * @return the key
+	 * @throws IOException if the file cannot be read, is invalid or has no recorded placeholders
+	 */
+	public static AnswerKey read(Path path) throws IOException {
+		int count = ExerciseSetFile.readHeader(path).count();
+		if (count == 0) {
+			throw new IOException("Exercise set file has no equations: " + path);
+		}
+		int[] expected = new int[count];
+		byte[] operations = new byte[count];
+		int[] missing = new int[1];
+		ExerciseSetFile.forEach(path, (index, first, second, result, operator, placeholder) -> {
+			if (placeholder == 0) {
+				missing[0]++;
+				return;
+			}
+			expected[index] = blanked(first, second, result, placeholder);
+			operations[index] = (byte) Operations.fromOperator(operator).ordinal();
+		});
+		if (missing[0] > 0) {
+			throw new IOException("Exercise set file has no recorded placeholders: " + path);
+		}
+		return new AnswerKey(expected, operations);
+	}
+
+	/**
+	 * Number of equations on the sheet.
+	 */
+	public int size() {
+		return expected.length;
+	}
+
+	/**
+	 * The expected answer of an equation.
+	 */
+	public int expected(int index) {
+		return expected[index];
+	}
+
+	/**
+	 * The operation of an equation.
+	 */
+	public Operations operation(int index) {
+		return OPERATIONS[operations[index]];
+	}
+
+	/**
+	 * The ordinal of the operation of an equation.
+	 */
+	int operationOrdinal(int index) {
+		return operations[index];
+	}
+
+	private static int blanked(int first, int second, int result, int placeholder) {
+		return switch (placeholder) {
+			case 1 -> first;
+			case 2 -> second;
+			case 3 -> result;
+			default -> throw new IllegalArgumentException("placeholder must be 1..3");
+		};
+	}
+}
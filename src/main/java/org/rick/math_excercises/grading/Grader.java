@@ -0,0 +1,326 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.grading;
+
+import org.rick.math_excercises.service.Operations;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Grades files of student answers against the answer keys of their sheets in one streaming pass.
+ *
+ * <p>The input is CSV with one submission per row: {@code student,sheet,answer1,answer2,...}. The
+ * sheet column names one of the keys the grader was created with, e.g. the sheet number of a
+ * checkpointed run; answers are in the order of the sheet's equations. Blank answers and answers
+ * missing at the end of a row count as unanswered, answers that are not numbers as wrong and answers
+ * beyond the sheet's equations are ignored. Fields may be quoted, line ends may be CRLF, and a first
+ * row naming no known sheet is taken as a header; later rows with unknown sheets are skipped.
+ *
+ * <p>The input is parsed byte by byte without creating objects per answer: answers are parsed into
+ * ints and compared with the key's primitive array, and the key of consecutive rows of the same
+ * sheet is looked up once. An instance can be shared between threads grading different files.
+ */
+public final class Grader {
+
+	private static final Operations[] OPERATIONS = Operations.values();
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final Map<String, AnswerKey> keys;
+
+	/**
+	 * Receives the score of every graded submission.
+	 */
+	@FunctionalInterface
+	public interface SubmissionListener {
+		/**
+		 * Called once per graded row, in input order.
+		 *
+		 * @param student   the student column
+		 * @param sheet     the sheet column
+		 * @param correct   correct answers
+		 * @param answered  non-blank answers
+		 * @param questions equations on the sheet
+		 */
+		void graded(String student, String sheet, int correct, int answered, int questions);
+	}
+
+	/**
+	 * @param keys the answer keys by sheet identifier
+	 */
+	public Grader(Map<String, AnswerKey> keys) {
+		this.keys = Map.copyOf(keys);
+	}
+
+	/**
+	 * Grades a file and writes the score of every submission as CSV
+	 * {@code student,sheet,correct,answered,questions}.
+	 *
+	 * @param answers the submissions
+	 * @param results the file the scores are written to
+	 * @return the statistics of the pass
+	 * @throws IOException if a file cannot be read or written
+	 */
+	public GradingReport grade(Path answers, Path results) throws IOException {
+		try (InputStream in = Files.newInputStream(answers);
+		     BufferedWriter out = Files.newBufferedWriter(results, StandardCharsets.UTF_8)) {
+			out.write("student,sheet,correct,answered,questions\n");
+			return grade(in, (student, sheet, correct, answered, questions) -> {
+				try {
+					out.write(quote(student) + ',' + quote(sheet) + ',' + correct + ',' + answered + ',' + questions
+							+ '\n');
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Grades a stream of submissions.
+	 *
+	 * @param in       the submissions; not closed
+	 * @param listener receives every score, or null
+	 * @return the statistics of the pass
+	 * @throws IOException if the stream cannot be read
+	 */
+	public GradingReport grade(InputStream in, SubmissionListener listener) throws IOException {
+		long start = System.nanoTime();
+		Pass pass = new Pass(listener);
+		byte[] buffer = new byte[BUFFER_SIZE];
+		for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+			pass.accept(buffer, read);
+		}
+		pass.accept((byte) '\n');
+		Map<Operations, GradingReport.OperationGrades> operations = new EnumMap<>(Operations.class);
+		for (Operations operation : OPERATIONS) {
+			int op = operation.ordinal();
+			operations.put(operation,
+					new GradingReport.OperationGrades(pass.correct[op], pass.wrong[op], pass.unanswered[op]));
+		}
+		return new GradingReport(pass.submissions, pass.skipped, operations,
+				Duration.ofNanos(System.nanoTime() - start));
+	}
+
+	private static String quote(String field) {
+		if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0) {
+			return field;
+		}
+		return '"' + field.replace("\"", "\"\"") + '"';
+	}
+
+	/**
+	 * Parser and counters of one grading pass.
+	 */
+	private final class Pass {
+
+		private final SubmissionListener listener;
+
+		private final long[] correct = new long[OPERATIONS.length];
+		private final long[] wrong = new long[OPERATIONS.length];
+		private final long[] unanswered = new long[OPERATIONS.length];
+		private long submissions;
+		private long skipped;
+		private long rows;
+
+		private int field;
+		private boolean quoted;
+		private boolean quoteClosed;
+
+		private byte[] student = new byte[64];
+		private int studentLength;
+		private byte[] sheet = new byte[64];
+		private int sheetLength;
+
+		private byte[] lastSheet = new byte[0];
+		private String lastSheetName;
+		private AnswerKey lastKey;
+		private AnswerKey key;
+
+		private int value;
+		private int digits;
+		private boolean invalid;
+		private int rowCorrect;
+		private int rowAnswered;
+
+		Pass(SubmissionListener listener) {
+			this.listener = listener;
+		}
+
+		/**
+		 * Parses a chunk of input. Unquoted answers of a known sheet take a fast path through
+		 * digits and commas; everything else goes through {@link #accept(byte)}.
+		 */
+		void accept(byte[] buffer, int length) {
+			int i = 0;
+			while (i < length) {
+				if (key != null && field >= 2 && !quoted && !quoteClosed) {
+					for (; i < length; i++) {
+						byte b = buffer[i];
+						if (b >= '0' && b <= '9') {
+							invalid |= digits == 9;
+							value = 10 * value + (b - '0');
+							digits++;
+						}
+						else if (b == ',') {
+							endField();
+						}
+						else {
+							break;
+						}
+					}
+					if (i == length) {
+						return;
+					}
+				}
+				accept(buffer[i++]);
+			}
+		}
+
+		void accept(byte b) {
+			if (quoted) {
+				if (b == '"') {
+					quoted = false;
+					quoteClosed = true;
+				}
+				else {
+					content(b);
+				}
+				return;
+			}
+			if (b == '"') {
+				if (quoteClosed) {
+					content(b);
+				}
+				quoted = true;
+				quoteClosed = false;
+				return;
+			}
+			quoteClosed = false;
+			switch (b) {
+				case ',' -> endField();
+				case '\n' -> {
+					endField();
+					endRow();
+				}
+				case '\r' -> {
+				}
+				default -> content(b);
+			}
+		}
+
+		private void content(byte b) {
+			switch (field) {
+				case 0 -> {
+					if (studentLength == student.length) {
+						student = Arrays.copyOf(student, 2 * studentLength);
+					}
+					student[studentLength++] = b;
+				}
+				case 1 -> {
+					if (sheetLength == sheet.length) {
+						sheet = Arrays.copyOf(sheet, 2 * sheetLength);
+					}
+					sheet[sheetLength++] = b;
+				}
+				default -> {
+					if (b >= '0' && b <= '9') {
+						// Numbers longer than any int answer are wrong.
+						invalid |= digits == 9;
+						value = 10 * value + (b - '0');
+						digits++;
+					}
+					else if (b != ' ' && b != '\t') {
+						invalid = true;
+					}
+				}
+			}
+		}
+
+		private void endField() {
+			if (field == 1) {
+				key = resolve();
+			}
+			else if (field >= 2) {
+				int index = field - 2;
+				if (key != null && index < key.size()) {
+					int op = key.operationOrdinal(index);
+					if (invalid) {
+						wrong[op]++;
+						rowAnswered++;
+					}
+					else if (digits == 0) {
+						unanswered[op]++;
+					}
+					else if (value == key.expected(index)) {
+						correct[op]++;
+						rowCorrect++;
+						rowAnswered++;
+					}
+					else {
+						wrong[op]++;
+						rowAnswered++;
+					}
+				}
+				value = 0;
+				digits = 0;
+				invalid = false;
+			}
+			field++;
+		}
+
+		private AnswerKey resolve() {
+			if (!Arrays.equals(sheet, 0, sheetLength, lastSheet, 0, lastSheet.length)) {
+				lastSheet = Arrays.copyOf(sheet, sheetLength);
+				lastSheetName = new String(lastSheet, StandardCharsets.UTF_8).strip();
+				lastKey = keys.get(lastSheetName);
+			}
+			return lastKey;
+		}
+
+		private void endRow() {
+			if (field > 1 || studentLength > 0) {
+				if (key != null) {
+					for (int index = Math.max(0, field - 2); index < key.size(); index++) {
+						unanswered[key.operationOrdinal(index)]++;
+					}
+					submissions++;
+					if (listener != null) {
+						listener.graded(new String(student, 0, studentLength, StandardCharsets.UTF_8).strip(),
+								lastSheetName, rowCorrect, rowAnswered, key.size());
+					}
+				}
+				else if (rows > 0) {
+					skipped++;
+				}
+				rows++;
+			}
+			field = 0;
+			studentLength = 0;
+			sheetLength = 0;
+			key = null;
+			rowCorrect = 0;
+			rowAnswered = 0;
+		}
+	}
+}
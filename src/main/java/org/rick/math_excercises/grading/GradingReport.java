@@ -0,0 +1,75 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.grading;
+
+import org.rick.math_excercises.service.Operations;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Outcome of grading a file of submissions.
+ *
+ * @param submissions graded submissions
+ * @param skipped     rows naming an unknown sheet
+ * @param operations  answer counts per operation, for every operation
+ * @param elapsed     wall-clock time of the pass
+ */
+public record GradingReport(long submissions, long skipped, Map<Operations, OperationGrades> operations,
+                            Duration elapsed) {
+
+	/**
+	 * Answer counts of one operation.
+	 *
+	 * @param correct    answers equal to the expected value
+	 * @param wrong      answers differing from the expected value, including non-numeric ones
+	 * @param unanswered blank or missing answers
+	 */
+	public record OperationGrades(long correct, long wrong, long unanswered) {
+
+		/**
+		 * Questions of the operation.
+		 */
+		public long questions() {
+			return correct + wrong + unanswered;
+		}
+
+		/**
+		 * Share of the questions not answered correctly, or 0 without questions.
+		 */
+		public double errorRate() {
+			long questions = questions();
+			return questions == 0 ? 0 : (double) (wrong + unanswered) / questions;
+		}
+	}
+
+	/**
+	 * Throughput of the pass in submissions per second.
+	 */
+	public double submissionsPerSecond() {
+		return submissions * 1_000_000_000d / Math.max(1, elapsed.toNanos());
+	}
+
+	/**
+	 * The per-operation counts as a plain-text table.
+	 */
+	public String toTable() {
+		StringBuilder table = new StringBuilder(String.format(Locale.ROOT, "%-15s %10s %10s %10s %10s%n",
+				"operation", "correct", "wrong", "unanswered", "error %"));
+		operations.forEach((operation, grades) -> table.append(String.format(Locale.ROOT,
+				"%-15s %10d %10d %10d %10.1f%n", operation, grades.correct(), grades.wrong(), grades.unanswered(),
+				100 * grades.errorRate())));
+		table.append(String.format(Locale.ROOT, "%d submissions graded, %d skipped, %.0f submissions/s%n",
+				submissions, skipped, submissionsPerSecond()));
+		return table.toString();
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.model;
+
+/**
+ * Immutable arithmetic expression tree for multi-term exercises such as {@code a + b - c} or
+ * {@code (a × b) + c}.
+ *
+ * <p>A tree is either a {@link Literal} operand or an {@link Operation} combining two subtrees with
+ * one of the {@link Equation} operators ('+', '-', '×', '÷'). Every node caches its value, so the
+ * result of a tree and of each intermediate step is available without re-evaluation. A two-term tree
+ * corresponds to an {@link Equation}.
+ */
+public sealed interface Expression permits Expression.Literal, Expression.Operation {
+
+	/**
+	 * The value of the expression.
+	 */
+	int value();
+
+	/**
+	 * The number of operands (leaves) of the expression.
+	 */
+	int terms();
+
+	/**
+	 * Creates an operand.
+	 *
+	 * @param value the operand value
+	 * @return the literal
+	 */
+	static Expression literal(int value) {
+		return new Literal(value);
+	}
+
+	/**
+	 * Combines two expressions, computing the value.
+	 *
+	 * @param left     the left operand
+	 * @param operator the operator character ('+', '-', '×', '÷')
+	 * @param right    the right operand
+	 * @return the operation
+	 * @throws IllegalArgumentException if the operator is unknown or a division is not exact
+	 */
+	static Expression of(Expression left, char operator, Expression right) {
+		int a = left.value();
+		int b = right.value();
+		int value = switch (operator) {
+			case '+' -> a + b;
+			case '-' -> a - b;
+			case '×' -> a * b;
+			case '÷' -> {
+				if (b == 0 || a % b != 0) {
+					throw new IllegalArgumentException("Inexact division " + a + " ÷ " + b);
+				}
+				yield a / b;
+			}
+			default -> throw new IllegalArgumentException("Unknown operator: " + operator);
+		};
+		return new Operation(left, operator, right, value, left.terms() + right.terms());
+	}
+
+	/**
+	 * An operand.
+	 *
+	 * @param value the operand value
+	 */
+	record Literal(int value) implements Expression {
+
+		@Override
+		public int terms() {
+			return 1;
+		}
+	}
+
+	/**
+	 * Two subtrees combined by an operator; create through {@link Expression#of}.
+	 *
+	 * @param left     the left operand
+	 * @param operator the operator character ('+', '-', '×', '÷')
+	 * @param right    the right operand
+	 * @param value    the value of the operation
+	 * @param terms    the number of operands of both subtrees
+	 */
+	record Operation(Expression left, char operator, Expression right, int value, int terms) implements Expression {
+
+		/**
+		 * Whether the operator is '×' or '÷', which bind tighter than '+' and '-'.
+		 */
+		public boolean multiplicative() {
+			return operator == '×' || operator == '÷';
+		}
+	}
+}
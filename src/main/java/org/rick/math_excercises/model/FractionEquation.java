@@ -0,0 +1,54 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.model;
+
+/**
+ * Immutable model of a fraction or decimal exercise.
+ *
+ * <p>Every value is a numerator/denominator pair of ints. Fractions are kept in lowest terms and are
+ * rendered stacked; decimals use a power-of-ten denominator and are rendered in decimal notation,
+ * e.g. {@code 125/100} as {@code 1.25}. A simplification exercise has no second operand: its
+ * operator is '=' and it reads {@code first = result}, where the result is the first operand in
+ * lowest terms.
+ *
+ * @param firstNumerator    numerator of the first operand
+ * @param firstDenominator  denominator of the first operand (positive)
+ * @param secondNumerator   numerator of the second operand (0 for a simplification)
+ * @param secondDenominator denominator of the second operand (positive; 1 for a simplification)
+ * @param resultNumerator   numerator of the result
+ * @param resultDenominator denominator of the result (positive)
+ * @param operator          '+', '-' or '=' for a simplification
+ * @param notation          how the values are written
+ */
+public record FractionEquation(int firstNumerator, int firstDenominator, int secondNumerator, int secondDenominator,
+                               int resultNumerator, int resultDenominator, char operator, Notation notation) {
+
+	/**
+	 * How the values of an exercise are written.
+	 */
+	public enum Notation {
+		/**
+		 * Stacked fractions, e.g. ¾.
+		 */
+		FRACTION,
+		/**
+		 * Decimal numbers, e.g. 0.75.
+		 */
+		DECIMAL
+	}
+
+	/**
+	 * Whether this is a simplification exercise without a second operand.
+	 */
+	public boolean simplification() {
+		return operator == '=';
+	}
+}
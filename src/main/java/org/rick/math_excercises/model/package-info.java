@@ -11,6 +11,8 @@
 /**
  * Domain model classes for equations used when generating math worksheets.
  *
- * <p>See {@link org.rick.math_excercises.model.Equation}.
+ * <p>See {@link org.rick.math_excercises.model.Equation} and, for multi-term exercises,
+ * {@link org.rick.math_excercises.model.Expression}; fraction and decimal exercises are modelled by
+ * {@link org.rick.math_excercises.model.FractionEquation}.
  */
 package org.rick.math_excercises.model;
@@ -0,0 +1,148 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.pipeline;
+
+/**
+ * The number of active workers of one pipeline stage, adjusted from throughput and latency samples.
+ *
+ * <p>The stage starts all its threads up front; a worker whose index is not below the current
+ * limit waits in {@link #awaitTurn(int)} before taking its next item, so lowering the limit parks
+ * workers between items and raising it wakes them. {@link #adjust(double, double)} climbs towards the
+ * highest throughput: it doubles the limit while throughput rises (slow start), then adds one worker
+ * while an increase pays off and removes it again when it does not. Throughput dropping after an
+ * increase, or the stage's mean latency exceeding {@value #LATENCY_FACTOR} times the lowest seen so
+ * far, which means the workers are contending for the processors, cuts the limit by a quarter. After
+ * {@value #PROBE_INTERVALS} samples without change one more worker is probed, so the limit follows
+ * changes of the load. Only the limit's own samples count: while another stage is tuned, the last
+ * change stays pending and is judged at the next adjustment against the sample it was made on.
+ */
+final class AdaptiveLimit {
+
+	static final double TOLERANCE = 0.05;
+	static final double LATENCY_FACTOR = 2.0;
+	static final double DECREASE_FACTOR = 0.75;
+	static final int PROBE_INTERVALS = 4;
+
+	private final String stage;
+	private final int max;
+	private final boolean adaptive;
+
+	private int limit;
+	private boolean released;
+	private boolean slowStart = true;
+	private boolean increased;
+	private double lastThroughput = -1;
+	private double minLatency = Double.MAX_VALUE;
+	private int stable;
+
+	private AdaptiveLimit(String stage, int initial, int max, boolean adaptive) {
+		this.stage = stage;
+		this.limit = initial;
+		this.max = max;
+		this.adaptive = adaptive;
+	}
+
+	/**
+	 * A limit starting at one worker that may grow to {@code max}.
+	 */
+	static AdaptiveLimit adaptive(String stage, int max) {
+		return new AdaptiveLimit(stage, 1, max, true);
+	}
+
+	/**
+	 * A limit letting all {@code workers} run and never changing.
+	 */
+	static AdaptiveLimit fixed(String stage, int workers) {
+		return new AdaptiveLimit(stage, workers, workers, false);
+	}
+
+	String stage() {
+		return stage;
+	}
+
+	synchronized int limit() {
+		return limit;
+	}
+
+	/**
+	 * Whether the limit may still grow.
+	 */
+	synchronized boolean belowMax() {
+		return adaptive && limit < max;
+	}
+
+	/**
+	 * Waits until the worker is within the limit or the limit is released.
+	 *
+	 * @param worker zero-based index of the worker in its stage
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	synchronized void awaitTurn(int worker) throws InterruptedException {
+		while (!released && worker >= limit) {
+			wait();
+		}
+	}
+
+	/**
+	 * Lets every worker run, e.g. once the stage's input is exhausted so that parked workers can stop.
+	 */
+	synchronized void release() {
+		released = true;
+		notifyAll();
+	}
+
+	/**
+	 * Adjusts the limit to a sample of the last interval.
+	 *
+	 * @param throughput  sheets completed per second by the whole pipeline
+	 * @param meanLatency mean processing time of an item of this stage
+	 * @return why the limit changed, or null if it did not
+	 */
+	synchronized String adjust(double throughput, double meanLatency) {
+		if (!adaptive) {
+			return null;
+		}
+		minLatency = Math.min(minLatency, meanLatency);
+		int next = limit;
+		String reason = null;
+		if (limit > 1 && meanLatency > LATENCY_FACTOR * minLatency) {
+			next = decreased();
+			reason = "latency";
+		}
+		else if (increased && throughput < lastThroughput * (1 - TOLERANCE)) {
+			next = decreased();
+			reason = "throughput dropped";
+		}
+		else if (increased && throughput < lastThroughput * (1 + TOLERANCE)) {
+			next = limit - 1;
+			reason = "no gain";
+		}
+		else if (limit < max && (increased || lastThroughput < 0 || ++stable >= PROBE_INTERVALS)) {
+			next = slowStart ? Math.min(max, 2 * limit) : limit + 1;
+			reason = increased || lastThroughput < 0 ? "throughput rose" : "probe";
+		}
+		if (next < limit) {
+			slowStart = false;
+		}
+		if (next != limit) {
+			stable = 0;
+		}
+		increased = next > limit;
+		lastThroughput = throughput;
+		limit = next;
+		notifyAll();
+		return reason;
+	}
+
+	private int decreased() {
+		return Math.max(1, Math.min(limit - 1, (int) (limit * DECREASE_FACTOR)));
+	}
+}
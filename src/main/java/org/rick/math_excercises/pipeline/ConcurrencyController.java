@@ -0,0 +1,123 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+import org.rick.math_excercises.service.WorksheetEvents;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Samples a running pipeline at a fixed interval and adjusts the worker limit of its bottleneck
+ * stage.
+ *
+ * <p>Throughput is measured as sheets written per second, the output of the whole pipeline. When the
+ * renderers found their input queue empty on average during the interval the generators are the
+ * bottleneck, e.g. for MULTIPLICATION sheets whose rejection sampling is CPU-heavy, and their limit
+ * is adjusted; otherwise the renderers' limit is. Intervals in which no sheet was written are skipped,
+ * and the stage that is not tuned keeps its pending change for its next sample.
+ */
+@Slf4j
+final class ConcurrencyController implements Runnable {
+
+	static final Duration INTERVAL = Duration.ofMillis(250);
+
+	/**
+	 * Mean depth of the render queue below which the renderers count as starved.
+	 */
+	static final double STARVED_DEPTH = 0.5;
+
+	private final AdaptiveLimit generate;
+	private final AdaptiveLimit render;
+	private final StageMetrics generation;
+	private final StageMetrics rendering;
+	private final StageMetrics writing;
+	private final long interval;
+	private final long start = System.nanoTime();
+	private final List<ConcurrencyDecision> decisions = new ArrayList<>();
+
+	ConcurrencyController(AdaptiveLimit generate, AdaptiveLimit render, StageMetrics generation,
+	                      StageMetrics rendering, StageMetrics writing, Duration interval) {
+		this.generate = generate;
+		this.render = render;
+		this.generation = generation;
+		this.rendering = rendering;
+		this.writing = writing;
+		this.interval = interval.toNanos();
+	}
+
+	/**
+	 * Samples until interrupted.
+	 */
+	@Override
+	public void run() {
+		StageMetrics.Counters generated = generation.counters();
+		StageMetrics.Counters rendered = rendering.counters();
+		StageMetrics.Counters written = writing.counters();
+		long sampled = System.nanoTime();
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				Thread.sleep(Duration.ofNanos(interval));
+				long now = System.nanoTime();
+				StageMetrics.Counters generatedNow = generation.counters();
+				StageMetrics.Counters renderedNow = rendering.counters();
+				StageMetrics.Counters writtenNow = writing.counters();
+				long sheets = writtenNow.minus(written).items();
+				if (sheets > 0) {
+					double throughput = sheets * 1e9 / (now - sampled);
+					StageMetrics.Counters renderInterval = renderedNow.minus(rendered);
+					boolean starved = renderInterval.meanQueueDepth() < STARVED_DEPTH && generate.belowMax();
+					sample(now, throughput, starved ? generate : render,
+							starved ? generatedNow.minus(generated) : renderInterval);
+					generated = generatedNow;
+					rendered = renderedNow;
+					written = writtenNow;
+					sampled = now;
+				}
+			}
+		} catch (InterruptedException e) {
+			// the run is over
+		}
+	}
+
+	/**
+	 * Feeds one sample to the tuned limit; a stage that processed no items is not adjusted. Changes are
+	 * recorded as decisions and committed as {@link WorksheetEvents#CONCURRENCY_CHANGE} events.
+	 */
+	void sample(long now, double throughput, AdaptiveLimit tuned, StageMetrics.Counters stage) {
+		if (stage.items() == 0) {
+			return;
+		}
+		int from = tuned.limit();
+		String reason = tuned.adjust(throughput, stage.meanNanos());
+		if (reason != null) {
+			ConcurrencyDecision decision = new ConcurrencyDecision(Duration.ofNanos(now - start), tuned.stage(), from,
+					tuned.limit(), throughput, stage.meanNanos() / 1e6, reason);
+			synchronized (decisions) {
+				decisions.add(decision);
+			}
+			WorksheetEvents.commitConcurrencyChange(decision.stage(), from, decision.to(), throughput, reason);
+			log.debug("Pipeline {} workers {} -> {} ({}, {} sheets/s)", tuned.stage(), from, tuned.limit(), reason,
+					String.format("%.1f", throughput));
+		}
+	}
+
+	/**
+	 * The decisions made so far, in order.
+	 */
+	List<ConcurrencyDecision> decisions() {
+		synchronized (decisions) {
+			return List.copyOf(decisions);
+		}
+	}
+}
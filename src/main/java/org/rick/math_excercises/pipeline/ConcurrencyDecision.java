@@ -0,0 +1,29 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.pipeline;
+
+import java.time.Duration;
+
+/**
+ * A change of the number of active workers of a stage made by an adaptive {@link WorksheetPipeline}.
+ *
+ * @param at              time since the start of the run
+ * @param stage           the stage, "generate" or "render"
+ * @param from            active workers before the change
+ * @param to              active workers after the change
+ * @param sheetsPerSecond pipeline throughput in the interval that led to the change
+ * @param meanMillis      mean processing time of the stage in that interval
+ * @param reason          why the limit changed: "throughput rose", "probe", "no gain",
+ *                        "throughput dropped" or "latency"
+ */
+public record ConcurrencyDecision(Duration at, String stage, int from, int to, double sheetsPerSecond,
+                                  double meanMillis, String reason) {
+}
@@ -0,0 +1,54 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.pipeline;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Outcome of a {@link WorksheetPipeline} run.
+ *
+ * @param sheets    number of sheets written
+ * @param elapsed   wall-clock time of the run
+ * @param stages    metrics of the generate, render and write stages, in that order
+ * @param decisions changes of the active workers of an adaptive run, in order; empty otherwise
+ */
+public record PipelineReport(int sheets, Duration elapsed, List<StageReport> stages,
+                             List<ConcurrencyDecision> decisions) {
+
+	/**
+	 * Throughput of the run in sheets per second.
+	 */
+	public double sheetsPerSecond() {
+		return sheets * 1_000_000_000d / Math.max(1, elapsed.toNanos());
+	}
+
+	/**
+	 * One row per stage, one line per concurrency decision and a summary line.
+	 */
+	public String toTable() {
+		StringBuilder table = new StringBuilder(String.format(Locale.ROOT, "%-8s %7s %9s %9s %10s %9s%n",
+				"stage", "sheets", "mean ms", "max ms", "mean queue", "max queue"));
+		for (StageReport stage : stages) {
+			table.append(String.format(Locale.ROOT, "%-8s %7d %9.2f %9.2f %10.2f %9d%n", stage.stage(), stage.items(),
+					stage.meanMillis(), stage.maxMillis(), stage.meanQueueDepth(), stage.maxQueueDepth()));
+		}
+		for (ConcurrencyDecision decision : decisions) {
+			table.append(String.format(Locale.ROOT, "%7d ms %-8s %2d -> %-2d %s at %.1f sheets/s, %.2f ms per sheet%n",
+					decision.at().toMillis(), decision.stage(), decision.from(), decision.to(), decision.reason(),
+					decision.sheetsPerSecond(), decision.meanMillis()));
+		}
+		table.append(String.format(Locale.ROOT, "%d sheets in %d ms (%.1f sheets/s), %d concurrency changes%n",
+				sheets, elapsed.toMillis(), sheetsPerSecond(), decisions.size()));
+		return table.toString();
+	}
+}
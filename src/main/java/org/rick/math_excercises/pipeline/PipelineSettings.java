@@ -0,0 +1,79 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.pipeline;
+
+/**
+ * Parallelism and queue sizing of a {@link WorksheetPipeline}.
+ *
+ * @param generators    number of generation worker threads (>= 1); the maximum when adaptive
+ * @param renderers     number of rendering worker threads (>= 1); the maximum when adaptive
+ * @param writers       number of writer virtual threads (>= 1)
+ * @param queueCapacity capacity of each queue between stages (>= 1); bounds the sheets held in
+ *                      memory
+ * @param adaptive      whether the number of active generators and renderers is adjusted to the
+ *                      measured throughput while the pipeline runs
+ */
+public record PipelineSettings(int generators, int renderers, int writers, int queueCapacity, boolean adaptive) {
+
+	/**
+	 * Validates the settings.
+	 *
+	 * @throws IllegalArgumentException if any value is below 1
+	 */
+	public PipelineSettings {
+		if (generators < 1 || renderers < 1 || writers < 1 || queueCapacity < 1) {
+			throw new IllegalArgumentException("Pipeline parallelism and queue capacity must be >= 1");
+		}
+	}
+
+	/**
+	 * Fixed parallelism.
+	 */
+	public PipelineSettings(int generators, int renderers, int writers, int queueCapacity) {
+		this(generators, renderers, writers, queueCapacity, false);
+	}
+
+	/**
+	 * Defaults sized to the machine: one generator, one renderer per remaining processor, two writers
+	 * and room for four sheets per renderer between stages.
+	 */
+	public static PipelineSettings defaults() {
+		int renderers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+		return new PipelineSettings(1, renderers, 2, 4 * renderers);
+	}
+
+	/**
+	 * Adaptive defaults: up to one generator and one renderer per processor, of which the pipeline
+	 * keeps as many active as pay off, two writers and room for four sheets per processor between
+	 * stages.
+	 */
+	public static PipelineSettings adaptiveDefaults() {
+		int processors = Runtime.getRuntime().availableProcessors();
+		return new PipelineSettings(processors, processors, 2, 4 * processors, true);
+	}
+
+	/**
+	 * Reads the settings from the system properties {@code pipeline.generators},
+	 * {@code pipeline.renderers}, {@code pipeline.writers}, {@code pipeline.queueCapacity} and
+	 * {@code pipeline.adaptive}, falling back to {@link #defaults()}, or {@link #adaptiveDefaults()}
+	 * with {@code pipeline.adaptive=true}, for unset values.
+	 */
+	public static PipelineSettings fromSystemProperties() {
+		boolean adaptive = Boolean.getBoolean("pipeline.adaptive");
+		PipelineSettings defaults = adaptive ? adaptiveDefaults() : defaults();
+		return new PipelineSettings(
+				Integer.getInteger("pipeline.generators", defaults.generators()),
+				Integer.getInteger("pipeline.renderers", defaults.renderers()),
+				Integer.getInteger("pipeline.writers", defaults.writers()),
+				Integer.getInteger("pipeline.queueCapacity", defaults.queueCapacity()),
+				adaptive);
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.pipeline;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe latency and input-queue-depth counters of one pipeline stage.
+ */
+final class StageMetrics {
+
+	private final String stage;
+	private final LongAdder items = new LongAdder();
+	private final LongAdder busyNanos = new LongAdder();
+	private final AtomicLong maxNanos = new AtomicLong();
+	private final LongAdder depthSum = new LongAdder();
+	private final LongAdder depthSamples = new LongAdder();
+	private final AtomicInteger maxDepth = new AtomicInteger();
+
+	StageMetrics(String stage) {
+		this.stage = stage;
+	}
+
+	/**
+	 * Records the processing time of one item.
+	 */
+	void record(long nanos) {
+		items.increment();
+		busyNanos.add(nanos);
+		maxNanos.accumulateAndGet(nanos, Math::max);
+	}
+
+	/**
+	 * Records the depth of the stage's input queue, sampled whenever an item is taken from it.
+	 */
+	void sampleQueueDepth(int depth) {
+		depthSum.add(depth);
+		depthSamples.increment();
+		maxDepth.accumulateAndGet(depth, Math::max);
+	}
+
+	/**
+	 * The running totals, for measuring intervals.
+	 */
+	Counters counters() {
+		return new Counters(items.sum(), busyNanos.sum(), depthSum.sum(), depthSamples.sum());
+	}
+
+	/**
+	 * Running totals of a stage; the difference of two readings covers the interval between them.
+	 */
+	record Counters(long items, long busyNanos, long depthSum, long depthSamples) {
+
+		Counters minus(Counters earlier) {
+			return new Counters(items - earlier.items, busyNanos - earlier.busyNanos, depthSum - earlier.depthSum,
+					depthSamples - earlier.depthSamples);
+		}
+
+		double meanNanos() {
+			return items == 0 ? 0 : (double) busyNanos / items;
+		}
+
+		double meanQueueDepth() {
+			return depthSamples == 0 ? 0 : (double) depthSum / depthSamples;
+		}
+	}
+
+	StageReport snapshot() {
+		long count = items.sum();
+		long samples = depthSamples.sum();
+		return new StageReport(
+				stage,
+				count,
+				count == 0 ? 0 : busyNanos.sum() / 1e6 / count,
+				maxNanos.get() / 1e6,
+				samples == 0 ? 0 : (double) depthSum.sum() / samples,
+				maxDepth.get());
+	}
+}
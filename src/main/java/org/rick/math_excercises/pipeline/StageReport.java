@@ -0,0 +1,25 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.pipeline;
+
+/**
+ * Snapshot of one pipeline stage's metrics.
+ *
+ * @param stage          stage name
+ * @param items          sheets processed by the stage
+ * @param meanMillis     mean processing time per sheet
+ * @param maxMillis      maximum processing time of a sheet
+ * @param meanQueueDepth mean depth of the stage's input queue
+ * @param maxQueueDepth  maximum depth of the stage's input queue
+ */
+public record StageReport(String stage, long items, double meanMillis, double maxMillis, double meanQueueDepth,
+                          int maxQueueDepth) {
+}
@@ -0,0 +1,283 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.BatchGenerator;
+import org.rick.math_excercises.service.EquationRenderer;
+import org.rick.math_excercises.service.GenerationStats;
+import org.rick.math_excercises.service.Operations;
+import org.rick.math_excercises.service.PdfService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bulk sheet production as three concurrent stages: generation workers, rendering workers and
+ * writers on virtual threads.
+ *
+ * <p>Stages are connected by bounded queues, so a slow stage blocks the stages feeding it instead of
+ * letting rendered documents pile up in memory; CPU-bound rendering and IO-bound writing overlap.
+ * Every worker owns its {@link BatchGenerator} or {@link PdfService}; the renderers share the
+ * {@link EquationRenderer} selected by {@link EquationRenderer#fromSystemProperties()}. If any
+ * worker fails, all others are interrupted and the failure is rethrown from {@link #run}.
+ *
+ * <p>With {@link PipelineSettings#adaptive()} the generator and renderer counts are maxima: a
+ * controller thread samples the throughput and stage latencies every
+ * {@link ConcurrencyController#INTERVAL} and changes how many of the workers are active, so a run
+ * finds the best parallelism for its operations, layout, machine and disk without tuning. Its
+ * decisions are listed in the {@link PipelineReport}.
+ */
+@Slf4j
+public class WorksheetPipeline {
+
+	private static final Sheet END = new Sheet(0, List.of(), null);
+
+	private final PipelineSettings settings;
+
+	/**
+	 * @param settings stage parallelism and queue capacity
+	 */
+	public WorksheetPipeline(PipelineSettings settings) {
+		this.settings = settings;
+	}
+
+	/**
+	 * Generates, renders and writes {@code iterations} sheets named by
+	 * {@link PdfService#outputFileName(int)}.
+	 *
+	 * @param limit             upper bound for operands and results (must be >= 10)
+	 * @param numberOfExercises equations per sheet (must be >= 1)
+	 * @param operations        allowed operations; null/empty uses ADDITION and SUBTRACTION
+	 * @param iterations        number of sheets (must be >= 1)
+	 * @param outputDirectory   directory the sheets are written to
+	 * @param stats             statistics merged from all workers, or {@link GenerationStats#NONE}
+	 * @return the run report with per-stage metrics
+	 * @throws IOException          if a sheet cannot be rendered or written
+	 * @throws InterruptedException if the calling thread is interrupted while waiting
+	 */
+	public PipelineReport run(int limit, int numberOfExercises, Collection<Operations> operations, int iterations,
+	                          Path outputDirectory, GenerationStats stats) throws IOException, InterruptedException {
+		if (iterations < 1) {
+			throw new IllegalArgumentException("iterations must be >= 1");
+		}
+		Run run = new Run();
+		BlockingQueue<Sheet> generated = new ArrayBlockingQueue<>(settings.queueCapacity());
+		BlockingQueue<Sheet> rendered = new ArrayBlockingQueue<>(settings.queueCapacity());
+		StageMetrics generation = new StageMetrics("generate");
+		StageMetrics rendering = new StageMetrics("render");
+		StageMetrics writing = new StageMetrics("write");
+		AtomicInteger nextIteration = new AtomicInteger(1);
+		EquationRenderer renderer = EquationRenderer.fromSystemProperties();
+		AdaptiveLimit generate = settings.adaptive() ? AdaptiveLimit.adaptive("generate", settings.generators())
+		                         : AdaptiveLimit.fixed("generate", settings.generators());
+		AdaptiveLimit render = settings.adaptive() ? AdaptiveLimit.adaptive("render", settings.renderers())
+		                       : AdaptiveLimit.fixed("render", settings.renderers());
+		AtomicInteger generatorIndex = new AtomicInteger();
+		AtomicInteger rendererIndex = new AtomicInteger();
+
+		List<Thread> generators = run.add(settings.generators(), Thread.ofPlatform().name("pipeline-generate-", 0),
+				() -> {
+					int index = generatorIndex.getAndIncrement();
+					BatchGenerator generator = new BatchGenerator(ThreadLocalRandom.current());
+					GenerationStats local = stats == GenerationStats.NONE ? stats : new GenerationStats();
+					try {
+						generate.awaitTurn(index);
+						for (int i = nextIteration.getAndIncrement(); i <= iterations; i = nextIteration.getAndIncrement()) {
+							long start = System.nanoTime();
+							List<Equation> equations =
+									generator.generate(limit, numberOfExercises, operations, local).toEquations();
+							generation.record(System.nanoTime() - start);
+							generated.put(new Sheet(i, equations, null));
+							generate.awaitTurn(index);
+						}
+						generate.release();
+					} finally {
+						merge(stats, local);
+					}
+				});
+		List<Thread> renderers = run.add(settings.renderers(), Thread.ofPlatform().name("pipeline-render-", 0),
+				() -> {
+					int index = rendererIndex.getAndIncrement();
+					GenerationStats local = stats == GenerationStats.NONE ? stats : new GenerationStats();
+					PdfService pdfService = new PdfService(ThreadLocalRandom.current(), local, renderer);
+					try {
+						render.awaitTurn(index);
+						for (Sheet sheet = take(generated, rendering); sheet != END; sheet = take(generated, rendering)) {
+							long start = System.nanoTime();
+							byte[] pdf = pdfService.renderPdf(sheet.equations());
+							rendering.record(System.nanoTime() - start);
+							rendered.put(new Sheet(sheet.iteration(), List.of(), pdf));
+							render.awaitTurn(index);
+						}
+						render.release();
+					} finally {
+						merge(stats, local);
+					}
+				});
+		List<Thread> writers = run.add(settings.writers(), Thread.ofVirtual().name("pipeline-write-", 0),
+				() -> {
+					for (Sheet sheet = take(rendered, writing); sheet != END; sheet = take(rendered, writing)) {
+						long start = System.nanoTime();
+						Files.write(outputDirectory.resolve(PdfService.outputFileName(sheet.iteration())), sheet.pdf());
+						writing.record(System.nanoTime() - start);
+					}
+				});
+
+		long start = System.nanoTime();
+		ConcurrencyController controller = new ConcurrencyController(generate, render, generation, rendering,
+				writing, ConcurrencyController.INTERVAL);
+		Thread controllerThread = settings.adaptive()
+		                          ? Thread.ofPlatform().daemon().name("pipeline-controller").unstarted(controller)
+		                          : null;
+		run.startAll();
+		if (controllerThread != null) {
+			controllerThread.start();
+		}
+		try {
+			run.joinThenEnd(generators, generated, settings.renderers());
+			run.joinThenEnd(renderers, rendered, settings.writers());
+			run.joinThenEnd(writers, null, 0);
+		} finally {
+			if (controllerThread != null) {
+				controllerThread.interrupt();
+				controllerThread.join();
+			}
+		}
+		run.rethrowFailure();
+
+		PipelineReport report = new PipelineReport(iterations, Duration.ofNanos(System.nanoTime() - start),
+				List.of(generation.snapshot(), rendering.snapshot(), writing.snapshot()), controller.decisions());
+		log.info("Pipeline wrote {} sheets in {} ms ({} sheets/s): {}", report.sheets(), report.elapsed().toMillis(),
+				String.format("%.1f", report.sheetsPerSecond()), report.stages());
+		if (settings.adaptive()) {
+			log.info("Adaptive pipeline settled on {} generators and {} renderers after {} changes", generate.limit(),
+					render.limit(), report.decisions().size());
+		}
+		return report;
+	}
+
+	private static Sheet take(BlockingQueue<Sheet> queue, StageMetrics metrics) throws InterruptedException {
+		metrics.sampleQueueDepth(queue.size());
+		return queue.take();
+	}
+
+	private static void merge(GenerationStats target, GenerationStats local) {
+		if (local != target) {
+			synchronized (target) {
+				target.merge(local);
+			}
+		}
+	}
+
+	/**
+	 * A sheet travelling through the pipeline; {@link #END} tells a worker to stop.
+	 */
+	private record Sheet(int iteration, List<Equation> equations, byte[] pdf) {
+	}
+
+	/**
+	 * A body of work that may fail.
+	 */
+	@FunctionalInterface
+	private interface Work {
+		void run() throws Exception;
+	}
+
+	/**
+	 * Worker threads of one run and its first failure.
+	 */
+	private static final class Run {
+
+		private final List<Thread> threads = new ArrayList<>();
+		private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+		/**
+		 * Creates the workers of a stage. All stages are created before any worker starts so that a
+		 * failure can interrupt every worker.
+		 */
+		List<Thread> add(int count, Thread.Builder builder, Work work) {
+			List<Thread> stage = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				Thread thread = builder.unstarted(() -> {
+					try {
+						work.run();
+					} catch (InterruptedException e) {
+						// cancelled because another worker failed
+					} catch (Exception | Error e) {
+						fail(e);
+					}
+				});
+				threads.add(thread);
+				stage.add(thread);
+			}
+			return stage;
+		}
+
+		void startAll() {
+			threads.forEach(Thread::start);
+		}
+
+		/**
+		 * Waits for a stage to finish, then tells each worker of the next stage to stop once the
+		 * queue is drained.
+		 */
+		void joinThenEnd(List<Thread> stage, BlockingQueue<Sheet> next, int nextWorkers) throws InterruptedException {
+			try {
+				for (Thread thread : stage) {
+					thread.join();
+				}
+				for (int i = 0; i < nextWorkers; i++) {
+					while (failure.get() == null && !next.offer(END, 100, TimeUnit.MILLISECONDS)) {
+						// the next stage is still draining the queue
+					}
+				}
+			} catch (InterruptedException e) {
+				fail(e);
+				throw e;
+			}
+		}
+
+		void rethrowFailure() throws IOException {
+			Throwable cause = failure.get();
+			if (cause instanceof IOException io) {
+				throw io;
+			}
+			if (cause instanceof RuntimeException re) {
+				throw re;
+			}
+			if (cause instanceof Error error) {
+				throw error;
+			}
+			if (cause != null) {
+				throw new IllegalStateException(cause);
+			}
+		}
+
+		private void fail(Throwable cause) {
+			if (failure.compareAndSet(null, cause)) {
+				threads.forEach(Thread::interrupt);
+			}
+		}
+	}
+}
@@ -0,0 +1,17 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+/**
+ * Staged bulk generation: generation, rendering and writing run concurrently, connected by bounded
+ * queues.
+ *
+ * <p>See {@link org.rick.math_excercises.pipeline.WorksheetPipeline}.
+ */
+package org.rick.math_excercises.pipeline;
@@ -0,0 +1,22 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.preview;
+
+/**
+ * A rasterized page of a sheet.
+ *
+ * @param key    the cache key: the sheet's content address and the resolution
+ * @param width  image width in pixels
+ * @param height image height in pixels
+ * @param png    the PNG image; callers must not modify it
+ */
+public record Preview(String key, int width, int height, byte[] png) {
+}
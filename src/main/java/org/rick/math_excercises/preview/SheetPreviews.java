@@ -0,0 +1,246 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.preview;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.rick.math_excercises.cache.CacheStats;
+import org.rick.math_excercises.cache.SheetCache;
+import org.rick.math_excercises.service.PdfBoxRenderer;
+import org.rick.math_excercises.service.PdfOutputMode;
+import org.rick.math_excercises.service.SheetRequest;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rasterizes sheets into PNG previews on a worker pool and caches them by sheet key.
+ *
+ * <p>A worker lays out the sheet with a {@link PdfBoxRenderer}, using the placeholders of
+ * {@link SheetRequest#placeholders()}, and rasterizes the page with PDFBox's {@link PDFRenderer}
+ * straight from the in-memory {@link PDDocument} before it is closed, so no document is parsed
+ * from bytes. Sheets are laid out in {@link PdfOutputMode#COMPACT} mode: a subsetting font only
+ * receives its final glyph ids when the document is saved, so an unsaved standard document would
+ * rasterize the wrong glyphs. A {@code PDFRenderer} is not thread-safe, so each document stays on
+ * one worker. Previews are cached in memory under {@link SheetCache#key(SheetRequest)} and the
+ * resolution, least recently used first out once the cache exceeds its size; concurrent requests for
+ * the same preview share one rendering.
+ *
+ * <p>Documents from other renderers, e.g. the {@link org.rick.math_excercises.service.DirectPdfRenderer},
+ * can be rasterized from their bytes with {@link #rasterize(byte[], float)}. Instances are
+ * thread-safe and must be closed to stop the workers.
+ */
+@Slf4j
+public class SheetPreviews implements AutoCloseable {
+
+	private final float dpi;
+
+	private final long maxBytes;
+
+	private final ExecutorService workers;
+
+	private final Map<String, Cached> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+	private final Map<String, CompletableFuture<Preview>> pending = new HashMap<>();
+
+	private long bytes;
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long savedNanos;
+
+	/**
+	 * @param dpi      resolution of the previews, e.g. 24 for thumbnails or 96 for previews
+	 * @param workers  number of worker threads (must be >= 1)
+	 * @param maxBytes maximum total size of cached PNGs (0 disables caching)
+	 * @throws IllegalArgumentException if dpi is not positive, workers {@code <} 1 or maxBytes
+	 *                                  {@code <} 0
+	 */
+	public SheetPreviews(float dpi, int workers, long maxBytes) {
+		if (!(dpi > 0) || workers < 1 || maxBytes < 0) {
+			throw new IllegalArgumentException("dpi must be > 0, workers >= 1 and maxBytes >= 0");
+		}
+		this.dpi = dpi;
+		this.maxBytes = maxBytes;
+		this.workers = Executors.newFixedThreadPool(workers, Thread.ofPlatform().name("preview-", 0).factory());
+	}
+
+	/**
+	 * The preview of a sheet, from the cache or rendered on a worker.
+	 *
+	 * @param request the sheet
+	 * @return the preview, completed exceptionally with an {@link UncheckedIOException} if rendering
+	 * fails
+	 */
+	public CompletableFuture<Preview> preview(SheetRequest request) {
+		String key = SheetCache.key(request) + "@" + String.format(Locale.ROOT, "%.1f", dpi) + "dpi";
+		synchronized (this) {
+			Cached cached = cache.get(key);
+			if (cached != null) {
+				hits++;
+				savedNanos += cached.renderNanos();
+				return CompletableFuture.completedFuture(cached.preview());
+			}
+			CompletableFuture<Preview> running = pending.get(key);
+			if (running != null) {
+				hits++;
+				return running;
+			}
+			misses++;
+			CompletableFuture<Preview> future = new CompletableFuture<>();
+			pending.put(key, future);
+			workers.execute(() -> {
+				try {
+					long start = System.nanoTime();
+					Preview preview = render(request, key, dpi);
+					store(key, preview, System.nanoTime() - start);
+					future.complete(preview);
+				} catch (IOException e) {
+					forget(key);
+					future.completeExceptionally(new UncheckedIOException(e));
+				} catch (RuntimeException e) {
+					forget(key);
+					future.completeExceptionally(e);
+				}
+			});
+			return future;
+		}
+	}
+
+	/**
+	 * The previews of several sheets, rendered in parallel on the workers.
+	 *
+	 * @param requests the sheets
+	 * @return the previews in request order
+	 * @throws IOException          if a sheet cannot be rendered
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public List<Preview> previews(List<SheetRequest> requests) throws IOException, InterruptedException {
+		List<CompletableFuture<Preview>> futures = requests.stream().map(this::preview).toList();
+		List<Preview> previews = new ArrayList<>(futures.size());
+		for (CompletableFuture<Preview> future : futures) {
+			try {
+				previews.add(future.get());
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof UncheckedIOException io) {
+					throw io.getCause();
+				}
+				throw new CompletionException(e.getCause());
+			}
+		}
+		return previews;
+	}
+
+	/**
+	 * Current cache counters; hits include requests that joined a rendering in progress.
+	 */
+	public synchronized CacheStats stats() {
+		return new CacheStats(hits, misses, evictions, cache.size(), bytes, Duration.ofNanos(savedNanos));
+	}
+
+	/**
+	 * Rasterizes a page of an open document into a PNG preview.
+	 *
+	 * @param document the document; it is neither modified nor closed
+	 * @param page     zero-based page index
+	 * @param dpi      the resolution
+	 * @param key      the key recorded in the preview
+	 * @return the preview
+	 * @throws IOException if the page cannot be rendered
+	 */
+	public static Preview rasterize(PDDocument document, int page, float dpi, String key) throws IOException {
+		BufferedImage image = new PDFRenderer(document).renderImageWithDPI(page, dpi, ImageType.GRAY);
+		ByteArrayOutputStream png = new ByteArrayOutputStream(32 * 1024);
+		ImageIO.write(image, "png", png);
+		return new Preview(key, image.getWidth(), image.getHeight(), png.toByteArray());
+	}
+
+	/**
+	 * Rasterizes the first page of a saved document, e.g. one written by another renderer.
+	 *
+	 * @param pdf the document bytes
+	 * @param dpi the resolution
+	 * @return the PNG image
+	 * @throws IOException if the document cannot be parsed or rendered
+	 */
+	public static byte[] rasterize(byte[] pdf, float dpi) throws IOException {
+		try (PDDocument document = Loader.loadPDF(pdf)) {
+			return rasterize(document, 0, dpi, "").png();
+		}
+	}
+
+	/**
+	 * Stops the workers after the queued previews are rendered.
+	 */
+	@Override
+	public void close() {
+		workers.shutdown();
+		try {
+			if (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+				log.warn("Preview workers did not finish within a minute");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static Preview render(SheetRequest request, String key, float dpi) throws IOException {
+		Preview[] preview = new Preview[1];
+		PdfBoxRenderer renderer = new PdfBoxRenderer(PdfOutputMode.COMPACT,
+				document -> preview[0] = rasterize(document, 0, dpi, key));
+		renderer.renderSheet(request.equations(), request.placeholders(), request.layout(),
+				OutputStream.nullOutputStream());
+		return preview[0];
+	}
+
+	private synchronized void store(String key, Preview preview, long renderNanos) {
+		pending.remove(key);
+		if (preview.png().length > maxBytes) {
+			return;
+		}
+		cache.put(key, new Cached(preview, renderNanos));
+		bytes += preview.png().length;
+		Iterator<Cached> eldest = cache.values().iterator();
+		while (bytes > maxBytes && eldest.hasNext()) {
+			bytes -= eldest.next().preview().png().length;
+			eldest.remove();
+			evictions++;
+		}
+	}
+
+	private synchronized void forget(String key) {
+		pending.remove(key);
+	}
+
+	private record Cached(Preview preview, long renderNanos) {
+	}
+}
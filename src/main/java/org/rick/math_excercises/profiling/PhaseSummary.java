@@ -0,0 +1,28 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.profiling;
+
+import java.time.Duration;
+
+/**
+ * Time and allocation of one worksheet phase in a recording.
+ *
+ * @param phase          the phase name
+ * @param count          number of events of the phase
+ * @param total          summed duration of the events, including nested phases
+ * @param self           summed duration minus the time spent in nested phases on the same thread
+ * @param max            longest event
+ * @param allocatedBytes estimated bytes allocated while the phase was the innermost one on its
+ *                       thread, from allocation samples
+ */
+public record PhaseSummary(String phase, long count, Duration total, Duration self, Duration max,
+                           long allocatedBytes) {
+}
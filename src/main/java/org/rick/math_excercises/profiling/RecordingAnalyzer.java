@@ -0,0 +1,214 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+import org.rick.math_excercises.service.WorksheetEvents;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summarizes a Flight Recorder recording of a worksheet run into per-phase time and allocation.
+ *
+ * <p>The phases are the duration events of {@link WorksheetEvents}. Events on the same thread nest
+ * (columns inside a direct document save, rejection bursts inside generation), so each phase
+ * reports its total time and its self time without nested phases. Every
+ * {@code jdk.ObjectAllocationSample} is attributed by its weight to the innermost phase running on
+ * its thread at that time; allocation samples are estimates, so only the proportions are exact
+ * enough to compare. Record with the bundled {@code jfr/worksheets.jfc} settings, which enable the
+ * events and allocation sampling.
+ */
+public final class RecordingAnalyzer {
+
+	private static final Map<String, String> PHASES = new LinkedHashMap<>();
+
+	static {
+		PHASES.put(WorksheetEvents.SHEET_GENERATED, "generate");
+		PHASES.put(WorksheetEvents.REJECTION_BURST, "rejection burst");
+		PHASES.put(WorksheetEvents.FONT_LOAD, "font load");
+		PHASES.put(WorksheetEvents.COLUMN_RENDER, "column render");
+		PHASES.put(WorksheetEvents.DOCUMENT_SAVE, "document save");
+	}
+
+	private RecordingAnalyzer() {
+	}
+
+	/**
+	 * Reads and summarizes a recording.
+	 *
+	 * @param recording the recording file
+	 * @return the summary
+	 * @throws IOException if the recording cannot be read
+	 */
+	public static RecordingSummary analyze(Path recording) throws IOException {
+		Map<Long, List<Span>> spans = new HashMap<>();
+		List<long[]> samples = new ArrayList<>();
+		long documentBytes = 0;
+		long rejectionDraws = 0;
+		long collections = 0;
+		Duration gcPauses = Duration.ZERO;
+		try (RecordingFile file = new RecordingFile(recording)) {
+			while (file.hasMoreEvents()) {
+				RecordedEvent event = file.readEvent();
+				String name = event.getEventType().getName();
+				RecordedThread thread = event.getThread();
+				String phase = PHASES.get(name);
+				if (phase != null && thread != null) {
+					spans.computeIfAbsent(thread.getJavaThreadId(), id -> new ArrayList<>())
+							.add(new Span(phase, nanos(event.getStartTime()), nanos(event.getEndTime())));
+					if (name.equals(WorksheetEvents.DOCUMENT_SAVE)) {
+						documentBytes += event.getLong("bytes");
+					}
+					else if (name.equals(WorksheetEvents.REJECTION_BURST)) {
+						rejectionDraws += event.getLong("draws");
+					}
+				}
+				else if (name.equals("jdk.ObjectAllocationSample") && thread != null) {
+					samples.add(new long[]{thread.getJavaThreadId(), nanos(event.getStartTime()), event.getLong("weight")});
+				}
+				else if (name.equals("jdk.GarbageCollection")) {
+					collections++;
+					gcPauses = gcPauses.plus(event.getDuration("sumOfPauses"));
+				}
+			}
+		}
+
+		Map<String, Totals> totals = new LinkedHashMap<>();
+		PHASES.values().forEach(phase -> totals.put(phase, new Totals()));
+		for (List<Span> thread : spans.values()) {
+			nest(thread);
+			for (Span span : thread) {
+				Totals phase = totals.get(span.phase);
+				long duration = span.end - span.start;
+				phase.count++;
+				phase.totalNanos += duration;
+				phase.selfNanos += duration - span.childNanos;
+				phase.maxNanos = Math.max(phase.maxNanos, duration);
+			}
+		}
+		long unattributed = 0;
+		for (long[] sample : samples) {
+			Span span = innermost(spans.get(sample[0]), sample[1]);
+			if (span == null) {
+				unattributed += sample[2];
+			}
+			else {
+				totals.get(span.phase).allocatedBytes += sample[2];
+			}
+		}
+
+		List<PhaseSummary> phases = totals.entrySet().stream()
+				.map(entry -> new PhaseSummary(entry.getKey(), entry.getValue().count,
+						Duration.ofNanos(entry.getValue().totalNanos), Duration.ofNanos(entry.getValue().selfNanos),
+						Duration.ofNanos(entry.getValue().maxNanos), entry.getValue().allocatedBytes))
+				.toList();
+		return new RecordingSummary(phases, unattributed, documentBytes, rejectionDraws, collections, gcPauses);
+	}
+
+	/**
+	 * Prints the summary of the recording named by the first argument.
+	 *
+	 * @param args {@code <recording.jfr>}
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.out.println("Usage: RecordingAnalyzer <recording.jfr>");
+			System.exit(1);
+		}
+		System.out.print(analyze(Path.of(args[0])).toTable());
+	}
+
+	/**
+	 * Sorts a thread's spans by start, enclosing spans first, links each to its innermost enclosing
+	 * span and charges its duration to that parent.
+	 */
+	private static void nest(List<Span> spans) {
+		spans.sort(Comparator.comparingLong((Span span) -> span.start).thenComparingLong(span -> -span.end));
+		List<Span> open = new ArrayList<>();
+		for (Span span : spans) {
+			while (!open.isEmpty() && open.getLast().end <= span.start) {
+				open.removeLast();
+			}
+			if (!open.isEmpty()) {
+				span.parent = open.getLast();
+				span.parent.childNanos += span.end - span.start;
+			}
+			open.add(span);
+		}
+	}
+
+	/**
+	 * The innermost span containing the time, or null; spans must be {@link #nest nested}.
+	 */
+	private static Span innermost(List<Span> spans, long time) {
+		if (spans == null) {
+			return null;
+		}
+		int low = 0;
+		int high = spans.size() - 1;
+		int latest = -1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (spans.get(middle).start <= time) {
+				latest = middle;
+				low = middle + 1;
+			}
+			else {
+				high = middle - 1;
+			}
+		}
+		for (Span span = latest < 0 ? null : spans.get(latest); span != null; span = span.parent) {
+			if (time <= span.end) {
+				return span;
+			}
+		}
+		return null;
+	}
+
+	private static long nanos(Instant instant) {
+		return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+	}
+
+	private static final class Span {
+
+		private final String phase;
+		private final long start;
+		private final long end;
+		private Span parent;
+		private long childNanos;
+
+		Span(String phase, long start, long end) {
+			this.phase = phase;
+			this.start = start;
+			this.end = end;
+		}
+	}
+
+	private static final class Totals {
+
+		private long count;
+		private long totalNanos;
+		private long selfNanos;
+		private long maxNanos;
+		private long allocatedBytes;
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.profiling;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Summary of a recording made with the worksheet events.
+ *
+ * @param phases             the phases in a fixed order, including ones without events
+ * @param unattributedBytes  estimated bytes allocated outside any phase
+ * @param documentBytes      bytes of all saved documents
+ * @param rejectionDraws     draws of all rejection bursts
+ * @param collections        garbage collections
+ * @param gcPauses           summed pause time of the collections
+ */
+public record RecordingSummary(List<PhaseSummary> phases, long unattributedBytes, long documentBytes,
+                               long rejectionDraws, long collections, Duration gcPauses) {
+
+	/**
+	 * The summary of one phase.
+	 *
+	 * @throws IllegalArgumentException if there is no phase of that name
+	 */
+	public PhaseSummary phase(String name) {
+		return phases.stream()
+				.filter(phase -> phase.phase().equals(name))
+				.findFirst()
+				.orElseThrow(() -> new IllegalArgumentException("Unknown phase: " + name));
+	}
+
+	/**
+	 * The summary as a plain-text table, one row per phase followed by totals.
+	 */
+	public String toTable() {
+		StringBuilder table = new StringBuilder(String.format(Locale.ROOT, "%-16s %8s %12s %12s %10s %14s%n",
+				"phase", "events", "total ms", "self ms", "max ms", "allocated KB"));
+		for (PhaseSummary phase : phases) {
+			table.append(String.format(Locale.ROOT, "%-16s %8d %12.2f %12.2f %10.2f %14d%n",
+					phase.phase(), phase.count(), phase.total().toNanos() / 1e6, phase.self().toNanos() / 1e6,
+					phase.max().toNanos() / 1e6, phase.allocatedBytes() / 1024));
+		}
+		table.append(String.format(Locale.ROOT, "%-16s %8s %12s %12s %10s %14d%n",
+				"(outside)", "", "", "", "", unattributedBytes / 1024));
+		table.append(String.format(Locale.ROOT,
+				"documents: %d bytes, rejection draws: %d, collections: %d, GC pauses: %.2f ms%n",
+				documentBytes, rejectionDraws, collections, gcPauses.toNanos() / 1e6));
+		return table.toString();
+	}
+}
@@ -0,0 +1,17 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+/**
+ * Analysis of Flight Recorder recordings of worksheet runs.
+ *
+ * <p>See {@link org.rick.math_excercises.profiling.RecordingAnalyzer} and
+ * {@link org.rick.math_excercises.service.WorksheetEvents}.
+ */
+package org.rick.math_excercises.profiling;
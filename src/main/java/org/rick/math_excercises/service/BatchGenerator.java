@@ -0,0 +1,258 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Generates whole batches of equations into primitive arrays.
+ *
+ * <p>Where {@link Operations#generate} draws and checks one operand pair at a time, this generator
+ * works on blocks of {@value #BLOCK} candidate lanes: the operands of a block are derived from a
+ * single random draw by SplitMix64 lane mixing, the operation's constraint is evaluated for every lane
+ * as an integer mask and the valid lanes are compacted without branches. Each step is a counted loop
+ * over primitive arrays that the JIT can unroll and vectorize. Accepted equations are uniform over
+ * the same set the rejection generators produce (up to the negligible bias of multiply-shift range
+ * reduction); surplus valid lanes of a block's last draw are discarded.
+ *
+ * <p>An instance reuses its lane buffers and is not thread-safe: use one per thread.
+ */
+public final class BatchGenerator {
+
+	/**
+	 * Candidate lanes evaluated per random draw.
+	 */
+	static final int BLOCK = 256;
+
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private static final Operations[] OPERATIONS = Operations.values();
+
+	private final RandomGenerator random;
+
+	private final int[] a = new int[BLOCK];
+	private final int[] b = new int[BLOCK];
+	private final int[] lanes = new int[BLOCK];
+
+	/**
+	 * @param random the source of the per-block seeds and the operation choices
+	 */
+	public BatchGenerator(RandomGenerator random) {
+		this.random = random;
+	}
+
+	/**
+	 * Generates a batch like {@link GenerateService#generateExercises(int, int, Collection)}.
+	 *
+	 * @param limit             upper bound for operands and results (must be >= 10)
+	 * @param numberOfExercises how many equations to generate (must be >= 1)
+	 * @param operations        allowed operations; null/empty uses ADDITION and SUBTRACTION
+	 * @return the generated batch
+	 * @throws IllegalArgumentException if limit {@code <} 10 or numberOfExercises {@code <} 1
+	 */
+	public EquationBatch generate(int limit, int numberOfExercises, Collection<Operations> operations) {
+		return generate(limit, numberOfExercises, operations, GenerationStats.NONE);
+	}
+
+	/**
+	 * Generates a batch and records it, including the lanes drawn per operation, in the given
+	 * statistics.
+	 *
+	 * @param limit             upper bound for operands and results (must be >= 10)
+	 * @param numberOfExercises how many equations to generate (must be >= 1)
+	 * @param operations        allowed operations; null/empty uses ADDITION and SUBTRACTION
+	 * @param stats             statistics to record the batch into
+	 * @return the generated batch
+	 * @throws IllegalArgumentException if limit {@code <} 10 or numberOfExercises {@code <} 1
+	 */
+	public EquationBatch generate(int limit, int numberOfExercises, Collection<Operations> operations,
+	                              GenerationStats stats) {
+		if (limit < 10) {
+			throw new IllegalArgumentException("Limit must be greater than or equal to 10.");
+		}
+		if (numberOfExercises < 1) {
+			throw new IllegalArgumentException("numberOfExercises must be >= 1");
+		}
+		List<Operations> ops = GenerateService.normalizeOperations(operations);
+		long start = System.nanoTime();
+
+		byte[] operation = new byte[numberOfExercises];
+		int[] counts = new int[OPERATIONS.length];
+		for (int i = 0; i < numberOfExercises; i++) {
+			Operations op = ops.size() == 1 ? ops.get(0) : ops.get(random.nextInt(ops.size()));
+			operation[i] = (byte) op.ordinal();
+			counts[op.ordinal()]++;
+		}
+
+		int[][] opFirst = new int[OPERATIONS.length][];
+		int[][] opSecond = new int[OPERATIONS.length][];
+		int[][] opResult = new int[OPERATIONS.length][];
+		for (Operations op : OPERATIONS) {
+			int count = counts[op.ordinal()];
+			if (count > 0) {
+				opFirst[op.ordinal()] = new int[count];
+				opSecond[op.ordinal()] = new int[count];
+				opResult[op.ordinal()] = new int[count];
+				fill(op, limit, opFirst[op.ordinal()], opSecond[op.ordinal()], opResult[op.ordinal()], stats);
+			}
+		}
+
+		int[] first = new int[numberOfExercises];
+		int[] second = new int[numberOfExercises];
+		int[] result = new int[numberOfExercises];
+		int[] cursor = new int[OPERATIONS.length];
+		for (int i = 0; i < numberOfExercises; i++) {
+			int op = operation[i];
+			int j = cursor[op]++;
+			first[i] = opFirst[op][j];
+			second[i] = opSecond[op][j];
+			result[i] = opResult[op][j];
+		}
+		EquationBatch batch = new EquationBatch(first, second, result, operation);
+		stats.recordBatch(limit, batch, System.nanoTime() - start);
+		return batch;
+	}
+
+	/**
+	 * Fills the output arrays with valid equations of one operation, block by block.
+	 */
+	private void fill(Operations op, int limit, int[] first, int[] second, int[] result, GenerationStats stats) {
+		int filled = 0;
+		while (filled < first.length) {
+			if (op == Operations.MULTIPLICATION || op == Operations.DIVISION) {
+				mixProduct(random.nextLong(), limit, op == Operations.MULTIPLICATION ? 1 : 0);
+			}
+			else {
+				mix(random.nextLong(), limit);
+			}
+			stats.recordDraws(op, BLOCK);
+			int accepted = compact(op, limit);
+			int take = Math.min(accepted, first.length - filled);
+			for (int i = 0; i < take; i++) {
+				int lane = lanes[i];
+				int x = a[lane];
+				int y = b[lane];
+				switch (op) {
+					case ADDITION -> set(first, second, result, filled + i, x, y, x + y);
+					case SUBTRACTION -> set(first, second, result, filled + i, x, y, x - y);
+					case MULTIPLICATION -> set(first, second, result, filled + i, x, y, x * y);
+					// x is the divisor, y the quotient
+					case DIVISION -> set(first, second, result, filled + i, x * y, x, y);
+				}
+			}
+			filled += take;
+		}
+	}
+
+	/**
+	 * Derives the operands of all lanes from one seed: lane i is the SplitMix64 mix of
+	 * {@code seed + (i + 1) * gamma}, whose high and low halves are reduced to {@code [0, limit)} by
+	 * multiply-shift.
+	 */
+	private void mix(long seed, int limit) {
+		for (int i = 0; i < BLOCK; i++) {
+			long z = mix64(seed + (i + 1) * GOLDEN_GAMMA);
+			a[i] = (int) (((z >>> 32) * limit) >>> 32);
+			b[i] = (int) (((z & 0xFFFFFFFFL) * limit) >>> 32);
+		}
+	}
+
+	/**
+	 * Like {@link #mix}, but for the product constraint {@code a * b <= limit} with
+	 * {@code a} in {@code [1, limit)} and {@code b} in {@code [secondMin, limit)}. Valid pairs either
+	 * have {@code a <= s = floor(sqrt(limit))}, or {@code b <= s}; lanes are drawn uniformly from just
+	 * these two rectangles, which keeps the accepted pairs uniform while accepting about one lane in
+	 * nine at limit 1000 instead of one in 140. The combined area exceeds 32 bits from a limit of
+	 * about 1.6 million, so the position in it is reduced from all 64 bits of the lane's mix and the
+	 * row is taken from a second mix.
+	 */
+	private void mixProduct(long seed, int limit, int secondMin) {
+		int s = (int) Math.sqrt(limit);
+		int wideHeight = limit - secondMin;
+		int narrowHeight = s - secondMin + 1;
+		long wideArea = (long) s * wideHeight;
+		long total = wideArea + (long) (limit - 1 - s) * narrowHeight;
+		for (int i = 0; i < BLOCK; i++) {
+			long z = mix64(seed + (i + 1) * GOLDEN_GAMMA);
+			long u = Math.unsignedMultiplyHigh(z, total);
+			boolean wide = u < wideArea;
+			a[i] = wide ? 1 + (int) (u / wideHeight) : s + 1 + (int) ((u - wideArea) / narrowHeight);
+			long w = mix64(z);
+			b[i] = secondMin + (int) (((w >>> 32) * (wide ? wideHeight : narrowHeight)) >>> 32);
+		}
+	}
+
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Evaluates the operation's constraint as a 0/1 mask per lane and writes the indices of the valid
+	 * lanes to the front of {@link #lanes}; every lane index is stored, but the write position only
+	 * advances for valid ones.
+	 *
+	 * @return the number of valid lanes
+	 */
+	private int compact(Operations op, int limit) {
+		int count = 0;
+		switch (op) {
+			case ADDITION -> {
+				for (int i = 0; i < BLOCK; i++) {
+					lanes[count] = i;
+					count += atMost((long) a[i] + b[i], limit) & nonZero(a[i] | b[i]);
+				}
+			}
+			case SUBTRACTION -> {
+				for (int i = 0; i < BLOCK; i++) {
+					lanes[count] = i;
+					count += atMost(b[i], a[i]) & nonZero(a[i] | b[i]);
+				}
+			}
+			case MULTIPLICATION -> {
+				for (int i = 0; i < BLOCK; i++) {
+					lanes[count] = i;
+					count += atMost((long) a[i] * b[i], limit) & nonZero(a[i]) & nonZero(b[i]);
+				}
+			}
+			case DIVISION -> {
+				for (int i = 0; i < BLOCK; i++) {
+					lanes[count] = i;
+					count += atMost((long) a[i] * b[i], limit);
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 1 if {@code value <= bound}, else 0.
+	 */
+	private static int atMost(long value, long bound) {
+		return (int) ((bound - value) >>> 63) ^ 1;
+	}
+
+	/**
+	 * 1 if the non-negative value is not zero, else 0.
+	 */
+	private static int nonZero(int value) {
+		return -value >>> 31;
+	}
+
+	private static void set(int[] first, int[] second, int[] result, int index, int x, int y, int z) {
+		first[index] = x;
+		second[index] = y;
+		result[index] = z;
+	}
+}
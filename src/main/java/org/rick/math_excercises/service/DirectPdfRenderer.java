@@ -0,0 +1,576 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.model.Expression;
+import org.rick.math_excercises.model.FractionEquation;
+import org.rick.math_excercises.service.internal.FontCapabilities;
+import org.rick.math_excercises.service.internal.FontCapabilities.FontCandidate;
+import org.rick.math_excercises.service.internal.FontMetrics;
+import org.rick.math_excercises.service.internal.FontSupport;
+import org.rick.math_excercises.service.internal.GlyphSet;
+import org.rick.math_excercises.service.internal.PdfRenderSupport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * {@link EquationRenderer} writing the worksheet layout straight to the output stream.
+ *
+ * <p>The layout is fixed and text-only, so the document skeleton is known in advance: the font
+ * objects (the compact program of the bundled font, its widths and ToUnicode map, or the standard
+ * Helvetica font) are serialized once per renderer from the cached {@link FontMetrics}, without
+ * parsing the program, and each page adds only its page dictionary and a deflated content stream
+ * naming glyphs by their pre-encoded codes. Pages are written as soon as
+ * they are rendered and the cross-reference table is appended at the end. The output has the same
+ * page geometry, glyphs and text as {@link PdfBoxRenderer} in {@link PdfOutputMode#COMPACT} mode.
+ */
+public class DirectPdfRenderer implements EquationRenderer {
+
+	private static final String NAME = "direct";
+
+	private static final byte[] HEADER = "%PDF-1.4\n%âãÏÓ\n".getBytes(StandardCharsets.ISO_8859_1);
+
+	/**
+	 * Object numbers: 1 is the catalog, 2 the page tree, the font objects start at 3, followed by a
+	 * page dictionary and a content stream per page.
+	 */
+	private static final int FONT_OBJECT = 3;
+
+	private static final String SUBSET_TAG = "MEXERC+";
+
+	/**
+	 * Characters every worksheet uses besides the placeholder and operator glyphs.
+	 */
+	private static final String WORKSHEET_CHARACTERS = "0123456789+-= ().";
+
+	private static final byte[] BASE_FONT =
+			ascii("/F1 " + number(PageLayout.BASE_FONT_SIZE) + " Tf\n");
+
+	private static final byte[] OPERATOR_FONT =
+			ascii("/F1 " + number(PageLayout.OPERATOR_FONT_SIZE) + " Tf\n");
+
+	private static final byte[] FRACTION_FONT =
+			ascii("/F1 " + number(PageLayout.FRACTION_FONT_SIZE) + " Tf\n");
+
+	private static final byte[] SHOW = ascii("> Tj\n");
+
+	private static final byte[] NEW_LINE = ascii("T*\n");
+
+	private static final byte[] VERTICAL_FONT =
+			ascii("/F1 " + number(VerticalLayout.FONT_SIZE) + " Tf\n");
+
+	private final GlyphSet glyphs;
+
+	/**
+	 * Pre-encoded hex string digits of every worksheet character.
+	 */
+	private final Map<Integer, byte[]> codes;
+
+	/**
+	 * Advance width of every worksheet character in thousandths of the font size, as declared in the
+	 * font objects.
+	 */
+	private final Map<Integer, Integer> advances;
+
+	/**
+	 * The serialized font objects, numbered from {@link #FONT_OBJECT}.
+	 */
+	private final byte[] fontObjects;
+
+	/**
+	 * Offsets of the font objects within {@link #fontObjects}.
+	 */
+	private final int[] fontOffsets;
+
+	/**
+	 * Advance table and grids of the vertical layout.
+	 */
+	private final VerticalLayout.Cache verticalLayouts;
+
+	/**
+	 * Writes the content of one page.
+	 */
+	@FunctionalInterface
+	private interface PageContent {
+		void write(int page, ByteArrayOutputStream content) throws IOException;
+	}
+
+	/**
+	 * Prepares the font objects for the font selected by {@link FontSupport#capabilities()}.
+	 *
+	 * @throws IllegalStateException if no font can encode the worksheet glyphs
+	 * @throws UncheckedIOException  if the bundled font cannot be read
+	 */
+	public DirectPdfRenderer() {
+		this(FontSupport.capabilities());
+	}
+
+	/**
+	 * Prepares the font objects for the given font.
+	 *
+	 * @param fonts the probed font and the glyphs it can encode
+	 * @throws IllegalStateException if the font cannot encode the worksheet glyphs
+	 * @throws UncheckedIOException  if the bundled font cannot be read
+	 */
+	DirectPdfRenderer(FontCapabilities fonts) {
+		WorksheetEvents.FontLoad event = new WorksheetEvents.FontLoad();
+		event.begin();
+		this.glyphs = fonts.glyphs();
+		List<byte[]> objects = new ArrayList<>();
+		Map<Integer, byte[]> encoded = new HashMap<>();
+		Map<Integer, Integer> widths = new HashMap<>();
+		try {
+			if (fonts.font() == FontCandidate.ARIAL_UNICODE) {
+				type0Font(FontSupport.compactProgram(fonts), FontSupport.compactMetrics(fonts), objects, encoded, widths);
+			}
+			else {
+				helveticaFont(objects, encoded, widths);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		this.codes = Map.copyOf(encoded);
+		this.advances = Map.copyOf(widths);
+		ByteArrayOutputStream blob = new ByteArrayOutputStream();
+		this.fontOffsets = new int[objects.size()];
+		for (int i = 0; i < objects.size(); i++) {
+			fontOffsets[i] = blob.size();
+			blob.writeBytes(ascii((FONT_OBJECT + i) + " 0 obj\n"));
+			blob.writeBytes(objects.get(i));
+			blob.writeBytes(ascii("\nendobj\n"));
+		}
+		this.fontObjects = blob.toByteArray();
+		this.verticalLayouts = new VerticalLayout.Cache(this::width, glyphs);
+		event.end();
+		if (event.shouldCommit()) {
+			event.font = fonts.font().name();
+			event.compact = fonts.font() == FontCandidate.ARIAL_UNICODE;
+			event.commit();
+		}
+	}
+
+	@Override
+	public String description() {
+		return NAME;
+	}
+
+	@Override
+	public void render(List<List<Equation>> sheets, List<List<Integer>> placeholders, OutputStream out)
+			throws IOException {
+		renderLines(PageLayout.equationLines(sheets, placeholders, glyphs), out);
+	}
+
+	@Override
+	public void renderExpressions(List<List<Expression>> sheets, List<List<Integer>> placeholders, OutputStream out)
+			throws IOException {
+		renderLines(PageLayout.expressionLines(sheets, placeholders, glyphs), out);
+	}
+
+	@Override
+	public void renderFractions(List<List<FractionEquation>> sheets, List<List<Integer>> placeholders,
+	                            OutputStream out) throws IOException {
+		renderLines(PageLayout.fractionLines(sheets, placeholders, glyphs), out);
+	}
+
+	@Override
+	public void renderVertical(List<List<Equation>> sheets, List<List<Integer>> placeholders, boolean carries,
+	                           OutputStream out) throws IOException {
+		List<VerticalLayout.Page> pages = verticalLayouts.paginate(sheets, placeholders, carries);
+		renderPages(pages.size(), (page, content) -> writeVerticalContent(pages.get(page), content), out);
+	}
+
+	private void renderLines(List<List<List<String>>> sheets, OutputStream out) throws IOException {
+		renderPages(sheets.size(), (page, content) -> writeContent(sheets.get(page), content), out);
+	}
+
+	private void renderPages(int pageCount, PageContent pages, OutputStream out) throws IOException {
+		WorksheetEvents.DocumentSave event = new WorksheetEvents.DocumentSave();
+		event.begin();
+		int firstPage = FONT_OBJECT + fontOffsets.length;
+		long[] offsets = new long[firstPage + 2 * pageCount];
+		PdfOutput pdf = new PdfOutput(out);
+		pdf.write(HEADER);
+
+		offsets[1] = pdf.position();
+		pdf.write(ascii("1 0 obj\n<< /Type /Catalog /Pages 2 0 R >>\nendobj\n"));
+		offsets[2] = pdf.position();
+		StringBuilder kids = new StringBuilder();
+		for (int i = 0; i < pageCount; i++) {
+			kids.append(i == 0 ? "" : " ").append(firstPage + 2 * i).append(" 0 R");
+		}
+		pdf.write(ascii("2 0 obj\n<< /Type /Pages /Kids [" + kids + "] /Count " + pageCount + " >>\nendobj\n"));
+		long fontStart = pdf.position();
+		for (int i = 0; i < fontOffsets.length; i++) {
+			offsets[FONT_OBJECT + i] = fontStart + fontOffsets[i];
+		}
+		pdf.write(fontObjects);
+
+		String pageDictionary = " 0 obj\n<< /Type /Page /Parent 2 0 R /MediaBox [0 0 "
+				+ number(PageLayout.PAGE_WIDTH) + " " + number(PageLayout.PAGE_HEIGHT)
+				+ "] /Resources << /Font << /F1 " + FONT_OBJECT + " 0 R >> >> /Contents ";
+		ByteArrayOutputStream content = new ByteArrayOutputStream(8 * 1024);
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			for (int i = 0; i < pageCount; i++) {
+				int page = firstPage + 2 * i;
+				offsets[page] = pdf.position();
+				pdf.write(ascii(page + pageDictionary + (page + 1) + " 0 R >>\nendobj\n"));
+				offsets[page + 1] = pdf.position();
+				content.reset();
+				pages.write(i, content);
+				pdf.write(ascii((page + 1) + " 0 obj\n"));
+				pdf.write(deflatedStream(content.toByteArray(), "", deflater));
+				pdf.write(ascii("\nendobj\n"));
+			}
+		} finally {
+			deflater.end();
+		}
+		writeTrailer(pdf, offsets);
+		event.end();
+		if (event.shouldCommit()) {
+			event.renderer = NAME;
+			event.pages = pageCount;
+			event.bytes = pdf.position();
+			event.commit();
+		}
+	}
+
+	/**
+	 * Writes the page content: one text object per column of {@value PageLayout#LINES_PER_COLUMN}
+	 * lines, each line shown in as few strings as the operator font size allows. Fraction bars are
+	 * painted after the text.
+	 */
+	private void writeContent(List<List<String>> lines, ByteArrayOutputStream content) {
+		List<List<List<String>>> columns = PdfRenderSupport.partition(lines, PageLayout.LINES_PER_COLUMN);
+		List<float[]> bars = new ArrayList<>();
+		for (int column = 0; column < columns.size(); column++) {
+			WorksheetEvents.ColumnRender event = new WorksheetEvents.ColumnRender();
+			event.begin();
+			content.writeBytes(ascii("BT\n"));
+			content.writeBytes(BASE_FONT);
+			content.writeBytes(ascii(number(PageLayout.LEADING) + " TL\n"
+					+ number(PageLayout.columnX(column)) + " " + number(PageLayout.START_Y) + " Td\n"));
+			TextWriter text = new TextWriter(content,
+					new LineCursor(this::width, PageLayout.columnX(column), PageLayout.START_Y, bars));
+			for (List<String> tokens : columns.get(column)) {
+				for (int t = 0; t < tokens.size(); t++) {
+					String token = tokens.get(t);
+					if (PdfRenderSupport.isStacked(token)) {
+						text.stacked(token);
+					}
+					else {
+						text.show(token, glyphs.isOperator(token));
+					}
+					if (t < tokens.size() - 1) {
+						text.show(" ", false);
+					}
+				}
+				text.newLine();
+			}
+			content.writeBytes(ascii("ET\n"));
+			event.end();
+			if (event.shouldCommit()) {
+				event.renderer = NAME;
+				event.column = column;
+				event.lines = columns.get(column).size();
+				event.commit();
+			}
+		}
+		for (float[] bar : bars) {
+			content.writeBytes(ascii(number(bar[0]) + " " + number(bar[1]) + " " + number(bar[2]) + " "
+					+ number(bar[3]) + " re\n"));
+		}
+		if (!bars.isEmpty()) {
+			content.writeBytes(ascii("f\n"));
+		}
+	}
+
+	/**
+	 * Writes a vertical page: every string positioned by its own text matrix in one text object, then
+	 * the filled rules and the stroked carry boxes.
+	 */
+	private void writeVerticalContent(VerticalLayout.Page page, ByteArrayOutputStream content) throws IOException {
+		StringBuilder rules = new StringBuilder();
+		StringBuilder boxes = new StringBuilder();
+		content.writeBytes(ascii("BT\n"));
+		content.writeBytes(VERTICAL_FONT);
+		page.draw(new VerticalLayout.Canvas() {
+			@Override
+			public void text(float x, float y, String text) {
+				content.writeBytes(ascii("1 0 0 1 " + number(x) + " " + number(y) + " Tm\n<"));
+				text.codePoints().forEach(c -> content.writeBytes(code(c)));
+				content.writeBytes(SHOW);
+			}
+
+			@Override
+			public void rule(float x, float y, float width, float height) {
+				rules.append(number(x)).append(' ').append(number(y)).append(' ').append(number(width)).append(' ')
+						.append(number(height)).append(" re\n");
+			}
+
+			@Override
+			public void box(float x, float y, float size) {
+				boxes.append(number(x)).append(' ').append(number(y)).append(' ').append(number(size)).append(' ')
+						.append(number(size)).append(" re\n");
+			}
+		});
+		content.writeBytes(ascii("ET\n" + rules + "f\n"));
+		if (!boxes.isEmpty()) {
+			content.writeBytes(ascii(number(VerticalLayout.CARRY_BOX_LINE_WIDTH) + " w\n" + boxes + "S\n"));
+		}
+	}
+
+	private float width(String text) {
+		float width = 0;
+		for (int i = 0; i < text.length(); i++) {
+			width += advances.getOrDefault((int) text.charAt(i), 0);
+		}
+		return width;
+	}
+
+	private byte[] code(int codePoint) {
+		byte[] code = codes.get(codePoint);
+		if (code == null) {
+			throw new IllegalArgumentException("No glyph for U+" + Integer.toHexString(codePoint).toUpperCase(Locale.ROOT));
+		}
+		return code;
+	}
+
+	private static void writeTrailer(PdfOutput pdf, long[] offsets) throws IOException {
+		long xref = pdf.position();
+		StringBuilder table = new StringBuilder(32 + 20 * offsets.length);
+		table.append("xref\n0 ").append(offsets.length).append("\n0000000000 65535 f \n");
+		for (int object = 1; object < offsets.length; object++) {
+			table.append(String.format(Locale.ROOT, "%010d 00000 n \n", offsets[object]));
+		}
+		table.append("trailer\n<< /Size ").append(offsets.length).append(" /Root 1 0 R >>\nstartxref\n")
+				.append(xref).append("\n%%EOF\n");
+		pdf.write(ascii(table.toString()));
+	}
+
+	/**
+	 * Serializes the Type0 font with its CIDFontType2 descendant, descriptor, embedded program and
+	 * ToUnicode map. Character codes are the glyph ids of the compact program (Identity-H).
+	 */
+	private void type0Font(byte[] program, FontMetrics metrics, List<byte[]> objects, Map<Integer, byte[]> encoded,
+	                       Map<Integer, Integer> advanceWidths) throws IOException {
+		Map<Integer, Integer> unicodeByGid = new TreeMap<>();
+		Map<Integer, Integer> widthByGid = new TreeMap<>();
+		(WORKSHEET_CHARACTERS + glyphs.placeholder() + glyphs.multiply() + glyphs.divide()).codePoints()
+				.forEach(c -> {
+					FontMetrics.Glyph glyph = metrics.glyphs().get(c);
+					if (glyph == null) {
+						throw new IllegalStateException("Compact font has no glyph for U+" + Integer.toHexString(c));
+					}
+					unicodeByGid.put(glyph.glyphId(), c);
+					widthByGid.put(glyph.glyphId(), glyph.advanceWidth());
+					encoded.put(c, ascii(String.format(Locale.ROOT, "%04X", glyph.glyphId())));
+					advanceWidths.put(c, glyph.advanceWidth());
+				});
+
+		String name = "/" + SUBSET_TAG + metrics.name().replaceAll("[^A-Za-z0-9-]", "");
+		StringBuilder widths = new StringBuilder();
+		widthByGid.forEach((gid, width) -> widths.append(gid).append(" [").append(width).append("] "));
+		int[] box = metrics.boundingBox();
+
+		objects.add(ascii("<< /Type /Font /Subtype /Type0 /BaseFont " + name
+				+ " /Encoding /Identity-H /DescendantFonts [" + (FONT_OBJECT + 1) + " 0 R] /ToUnicode "
+				+ (FONT_OBJECT + 4) + " 0 R >>"));
+		objects.add(ascii("<< /Type /Font /Subtype /CIDFontType2 /BaseFont " + name
+				+ " /CIDSystemInfo << /Registry (Adobe) /Ordering (Identity) /Supplement 0 >> /FontDescriptor "
+				+ (FONT_OBJECT + 2) + " 0 R /CIDToGIDMap /Identity /DW 1000 /W [" + widths.toString().trim() + "] >>"));
+		objects.add(ascii("<< /Type /FontDescriptor /FontName " + name + " /Flags 4 /FontBBox ["
+				+ box[0] + " " + box[1] + " " + box[2] + " " + box[3]
+				+ "] /ItalicAngle 0 /Ascent " + metrics.ascent() + " /Descent " + metrics.descent()
+				+ " /CapHeight " + metrics.capHeight()
+				+ " /StemV " + Math.round(50 + Math.pow(metrics.weightClass() / 65f, 2)) + " /FontFile2 "
+				+ (FONT_OBJECT + 3) + " 0 R >>"));
+		Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+		try {
+			objects.add(deflatedStream(program, " /Length1 " + program.length, deflater));
+			objects.add(deflatedStream(ascii(toUnicode(unicodeByGid)), "", deflater));
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Serializes the standard Helvetica font. Character codes are single WinAnsi bytes, so besides
+	 * ASCII the fallback also shows {@code ×} and {@code ÷}.
+	 */
+	private void helveticaFont(List<byte[]> objects, Map<Integer, byte[]> encoded, Map<Integer, Integer> widths)
+			throws IOException {
+		PDType1Font helvetica = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+		for (int c : (WORKSHEET_CHARACTERS + glyphs.placeholder() + glyphs.multiply() + glyphs.divide()).codePoints()
+				.toArray()) {
+			byte[] code;
+			try {
+				code = helvetica.encode(Character.toString(c));
+			} catch (IllegalArgumentException e) {
+				throw new IllegalStateException("Helvetica cannot encode U+" + Integer.toHexString(c), e);
+			}
+			int winAnsi = code[0] & 0xFF;
+			widths.put(c, Math.round(helvetica.getWidth(winAnsi)));
+			encoded.put(c, ascii(String.format(Locale.ROOT, "%02X", winAnsi)));
+		}
+		objects.add(ascii("<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>"));
+	}
+
+	private static String toUnicode(Map<Integer, Integer> unicodeByGid) {
+		StringBuilder cmap = new StringBuilder(1024)
+				.append("/CIDInit /ProcSet findresource begin\n12 dict begin\nbegincmap\n")
+				.append("/CIDSystemInfo << /Registry (Adobe) /Ordering (UCS) /Supplement 0 >> def\n")
+				.append("/CMapName /Adobe-Identity-UCS def\n/CMapType 2 def\n")
+				.append("1 begincodespacerange\n<0000> <FFFF>\nendcodespacerange\n")
+				.append(unicodeByGid.size()).append(" beginbfchar\n");
+		unicodeByGid.forEach((gid, unicode) ->
+				cmap.append(String.format(Locale.ROOT, "<%04X> <%04X>\n", gid, unicode)));
+		return cmap.append("endbfchar\nendcmap\nCMapName currentdict /CMap defineresource pop\nend\nend\n")
+				.toString();
+	}
+
+	/**
+	 * A Flate-compressed stream object body: dictionary, {@code stream} keyword and data.
+	 */
+	private static byte[] deflatedStream(byte[] data, String extraEntries, Deflater deflater) throws IOException {
+		deflater.reset();
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 2 + 64);
+		try (DeflaterOutputStream stream = new DeflaterOutputStream(compressed, deflater)) {
+			stream.write(data);
+		}
+		ByteArrayOutputStream object = new ByteArrayOutputStream(compressed.size() + 96);
+		object.writeBytes(ascii("<< /Length " + compressed.size() + extraEntries + " /Filter /FlateDecode >>\nstream\n"));
+		compressed.writeTo(object);
+		object.writeBytes(ascii("\nendstream"));
+		return object.toByteArray();
+	}
+
+	private static String number(float value) {
+		return value == (int) value ? Integer.toString((int) value) : String.format(Locale.ROOT, "%.4f", value)
+				.replaceAll("0+$", "");
+	}
+
+	private static byte[] ascii(String text) {
+		return text.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Writes the shown strings of one text object, switching between the base, operator and fraction
+	 * font sizes only when consecutive strings differ.
+	 */
+	private final class TextWriter {
+
+		private final ByteArrayOutputStream content;
+
+		private final LineCursor cursor;
+
+		private float size = PageLayout.BASE_FONT_SIZE;
+
+		private boolean open;
+
+		TextWriter(ByteArrayOutputStream content, LineCursor cursor) {
+			this.content = content;
+			this.cursor = cursor;
+		}
+
+		void show(String text, boolean operator) {
+			select(operator ? PageLayout.OPERATOR_FONT_SIZE : PageLayout.BASE_FONT_SIZE);
+			if (!open) {
+				content.write('<');
+				open = true;
+			}
+			writeCodes(text);
+			cursor.advance(text, size);
+		}
+
+		/**
+		 * Shows a stacked fraction token with text rise and {@code TJ} positioning.
+		 */
+		void stacked(String token) {
+			int split = token.indexOf(PdfRenderSupport.STACK);
+			String numerator = token.substring(0, split);
+			String denominator = token.substring(split + 1);
+			LineCursor.Stack stack = cursor.stack(numerator, denominator);
+			close();
+			select(PageLayout.FRACTION_FONT_SIZE);
+			content.writeBytes(ascii(number(PageLayout.NUMERATOR_RISE) + " Ts\n[" + number(stack.beforeNumerator()) + " <"));
+			writeCodes(numerator);
+			content.writeBytes(ascii("> " + number(stack.beforeDenominator()) + "] TJ\n"
+					+ number(PageLayout.DENOMINATOR_RISE) + " Ts\n[<"));
+			writeCodes(denominator);
+			content.writeBytes(ascii("> " + number(stack.afterDenominator()) + "] TJ\n0 Ts\n"));
+		}
+
+		void newLine() {
+			close();
+			content.writeBytes(NEW_LINE);
+			cursor.newLine();
+		}
+
+		private void select(float fontSize) {
+			if (fontSize != size) {
+				close();
+				content.writeBytes(fontSize == PageLayout.OPERATOR_FONT_SIZE ? OPERATOR_FONT
+				                   : fontSize == PageLayout.FRACTION_FONT_SIZE ? FRACTION_FONT : BASE_FONT);
+				size = fontSize;
+			}
+		}
+
+		private void writeCodes(String text) {
+			text.codePoints().forEach(c -> content.writeBytes(code(c)));
+		}
+
+		private void close() {
+			if (open) {
+				content.writeBytes(SHOW);
+				open = false;
+			}
+		}
+	}
+
+	/**
+	 * Output stream wrapper tracking the byte offsets needed for the cross-reference table.
+	 */
+	private static final class PdfOutput {
+
+		private final OutputStream out;
+
+		private long position;
+
+		PdfOutput(OutputStream out) {
+			this.out = out;
+		}
+
+		void write(byte[] bytes) throws IOException {
+			out.write(bytes);
+			position += bytes.length;
+		}
+
+		long position() {
+			return position;
+		}
+	}
+}
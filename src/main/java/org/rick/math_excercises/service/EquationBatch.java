@@ -0,0 +1,88 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.rick.math_excercises.model.Equation;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * A batch of equations held in primitive arrays, one entry per equation, as produced by
+ * {@link BatchGenerator}. Avoids an object per equation until {@link #toEquations()} is called.
+ */
+public final class EquationBatch {
+
+	private static final Operations[] OPERATIONS = Operations.values();
+
+	private final int[] first;
+	private final int[] second;
+	private final int[] result;
+	private final byte[] operation;
+
+	EquationBatch(int[] first, int[] second, int[] result, byte[] operation) {
+		this.first = first;
+		this.second = second;
+		this.result = result;
+		this.operation = operation;
+	}
+
+	/**
+	 * Number of equations in the batch.
+	 */
+	public int size() {
+		return first.length;
+	}
+
+	/**
+	 * First operand of an equation.
+	 */
+	public int first(int index) {
+		return first[index];
+	}
+
+	/**
+	 * Second operand of an equation.
+	 */
+	public int second(int index) {
+		return second[index];
+	}
+
+	/**
+	 * Result of an equation.
+	 */
+	public int result(int index) {
+		return result[index];
+	}
+
+	/**
+	 * Operation of an equation.
+	 */
+	public Operations operation(int index) {
+		return OPERATIONS[operation[index]];
+	}
+
+	/**
+	 * Builds the {@link Equation} at an index.
+	 */
+	public Equation equation(int index) {
+		return Equation.of(first[index], second[index], result[index], operation(index).operator());
+	}
+
+	/**
+	 * Builds the {@link Equation} objects of the whole batch, e.g. for rendering.
+	 *
+	 * @return an unmodifiable list of the batch's equations
+	 */
+	public List<Equation> toEquations() {
+		return IntStream.range(0, size()).mapToObj(this::equation).toList();
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.model.Expression;
+import org.rick.math_excercises.model.FractionEquation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Renders worksheets into PDF documents, one page per sheet (vertical sheets take as many pages as
+ * their problems need).
+ *
+ * <p>{@link PdfBoxRenderer} builds the document through PDFBox's object model and is the reference
+ * implementation; {@link DirectPdfRenderer} writes the same layout straight to the output stream.
+ * {@link PdfService} chooses placeholders, names files and delegates the rendering to an
+ * implementation supplied via {@link PdfService#PdfService(java.util.random.RandomGenerator,
+ * GenerationStats, EquationRenderer)}. Implementations are thread-safe.
+ */
+public interface EquationRenderer {
+
+	/**
+	 * Renders sheets as pages of one document.
+	 *
+	 * @param sheets       the equations of each sheet, none empty
+	 * @param placeholders per sheet, one placeholder index (1=first operand, 2=second operand,
+	 *                     3=result) per equation
+	 * @param out          the stream the document is written to; it is not closed
+	 * @throws IOException if the document cannot be written
+	 */
+	void render(List<List<Equation>> sheets, List<List<Integer>> placeholders, OutputStream out)
+			throws IOException;
+
+	/**
+	 * Renders sheets of multi-term expressions as pages of one document, in the same layout.
+	 *
+	 * @param sheets       the expressions of each sheet, none empty
+	 * @param placeholders per sheet, one placeholder index per expression: 1..terms blanks the operand
+	 *                     at that position, terms + 1 the result
+	 * @param out          the stream the document is written to; it is not closed
+	 * @throws IOException if the document cannot be written
+	 */
+	void renderExpressions(List<List<Expression>> sheets, List<List<Integer>> placeholders, OutputStream out)
+			throws IOException;
+
+	/**
+	 * Renders sheets of fraction and decimal exercises as pages of one document. Fractions are stacked
+	 * and their lines take the height of two equation lines.
+	 *
+	 * @param sheets       the exercises of each sheet, none empty
+	 * @param placeholders per sheet, one placeholder index (1=first operand, 2=second operand,
+	 *                     3=result) per exercise
+	 * @param out          the stream the document is written to; it is not closed
+	 * @throws IOException if the document cannot be written
+	 */
+	void renderFractions(List<List<FractionEquation>> sheets, List<List<Integer>> placeholders, OutputStream out)
+			throws IOException;
+
+	/**
+	 * Renders sheets as stacked column arithmetic: per problem the operands right-aligned above each
+	 * other, a rule and the result, in a grid of as many problems as fit on a page. A sheet takes as
+	 * many pages as its problems need and a blanked number shows one placeholder per digit.
+	 *
+	 * @param sheets       the equations of each sheet, none empty and without divisions
+	 * @param placeholders per sheet, one placeholder index (1=first operand, 2=second operand,
+	 *                     3=result) per equation
+	 * @param carries      whether every problem gets a row of carry boxes
+	 * @param out          the stream the document is written to; it is not closed
+	 * @throws IOException if the document cannot be written
+	 * @see SheetLayout#VERTICAL
+	 */
+	void renderVertical(List<List<Equation>> sheets, List<List<Integer>> placeholders, boolean carries,
+	                    OutputStream out) throws IOException;
+
+	/**
+	 * Identifies the renderer and every setting of it that affects the documents, so that two
+	 * renderers with the same description write the same bytes for the same sheets.
+	 *
+	 * @return the description; the class name unless overridden
+	 */
+	default String description() {
+		return getClass().getName();
+	}
+
+	/**
+	 * Renders a single sheet.
+	 *
+	 * @param equations    the equations of the sheet
+	 * @param placeholders one placeholder index per equation
+	 * @param out          the stream the document is written to; it is not closed
+	 * @throws IOException if the document cannot be written
+	 */
+	default void renderSheet(List<Equation> equations, List<Integer> placeholders, OutputStream out)
+			throws IOException {
+		render(List.of(equations), List.of(placeholders), out);
+	}
+
+	/**
+	 * Renders a single sheet in the given layout.
+	 *
+	 * @param equations    the equations of the sheet
+	 * @param placeholders one placeholder index per equation
+	 * @param layout       the page layout
+	 * @param out          the stream the document is written to; it is not closed
+	 * @throws IOException if the document cannot be written
+	 */
+	default void renderSheet(List<Equation> equations, List<Integer> placeholders, SheetLayout layout,
+	                         OutputStream out) throws IOException {
+		switch (layout) {
+			case HORIZONTAL -> renderSheet(equations, placeholders, out);
+			case VERTICAL -> renderVertical(List.of(equations), List.of(placeholders), false, out);
+			case VERTICAL_WITH_CARRIES -> renderVertical(List.of(equations), List.of(placeholders), true, out);
+		}
+	}
+
+	/**
+	 * Creates the renderer selected by the system property {@code pdfRenderer} ({@code pdfbox}, the
+	 * default, or {@code direct}); the PDFBox renderer uses the {@link PdfOutputMode} configured by
+	 * {@code pdfOutput} and the {@link Imposition} configured by {@code imposition} and
+	 * {@code impositionFill}.
+	 *
+	 * @return the configured renderer
+	 * @throws IllegalArgumentException if a property holds an unknown value or an imposition is
+	 *                                  configured for the direct renderer
+	 */
+	static EquationRenderer fromSystemProperties() {
+		String renderer = System.getProperty("pdfRenderer", "pdfbox").trim().toLowerCase(Locale.ROOT);
+		Imposition imposition = Imposition.fromSystemProperties();
+		return switch (renderer) {
+			case "pdfbox" -> new PdfBoxRenderer(PdfOutputMode.fromSystemProperties(), imposition,
+					Imposition.fillFromSystemProperties());
+			case "direct" -> {
+				if (imposition != Imposition.NONE) {
+					throw new IllegalArgumentException("Imposition " + imposition + " requires pdfRenderer=pdfbox");
+				}
+				yield new DirectPdfRenderer();
+			}
+			default -> throw new IllegalArgumentException(
+					"Unknown pdfRenderer: " + renderer + ". Allowed: pdfbox,direct");
+		};
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.rick.math_excercises.model.Equation;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.random.RandomGenerator;
+
+/**
+ * Supplies the individual equations assembled by {@link GenerateService}.
+ *
+ * <p>The default source generates random equations through {@link Operations#generate}; alternative
+ * sources such as a curated equation bank can be plugged in via
+ * {@link GenerateService#GenerateService(RandomGenerator, EquationSource)}.
+ */
+@FunctionalInterface
+public interface EquationSource {
+
+	/**
+	 * Produces one equation.
+	 *
+	 * @param limit      upper bound for operands and results
+	 * @param operations non-empty list of allowed operations
+	 * @param random     the random generator to use
+	 * @return an equation using one of the allowed operations within the limit
+	 */
+	Equation next(int limit, List<Operations> operations, RandomGenerator random);
+
+	/**
+	 * Produces one equation, recording generator statistics where the source has any. The default
+	 * implementation records nothing.
+	 *
+	 * @param limit      upper bound for operands and results
+	 * @param operations non-empty list of allowed operations
+	 * @param random     the random generator to use
+	 * @param stats      statistics to record into
+	 * @return an equation using one of the allowed operations within the limit
+	 */
+	default Equation next(int limit, List<Operations> operations, RandomGenerator random, GenerationStats stats) {
+		return next(limit, operations, random);
+	}
+
+	/**
+	 * Produces one equation, giving up after the given number of random draws where the source
+	 * rejects draws. The default implementation delegates to
+	 * {@link #next(int, List, RandomGenerator, GenerationStats)}, which never gives up.
+	 *
+	 * @param limit      upper bound for operands and results
+	 * @param operations non-empty list of allowed operations
+	 * @param random     the random generator to use
+	 * @param stats      statistics to record into
+	 * @param maxDraws   the maximum number of random draws
+	 * @return an equation, or empty if the source gave up
+	 */
+	default Optional<Equation> tryNext(int limit, List<Operations> operations, RandomGenerator random,
+	                                   GenerationStats stats, long maxDraws) {
+		return Optional.of(next(limit, operations, random, stats));
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.rick.math_excercises.model.Expression;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Generates multi-term expressions such as {@code a + b - c} or {@code (a × b) + c} whose result
+ * and every intermediate value lie in {@code [0, limit]}.
+ *
+ * <p>Generation works top-down by constraint propagation instead of drawing operands and rejecting
+ * invalid trees: a value in {@code [1, limit]} is chosen for the whole expression, and each node
+ * splits its value into two child values drawn from the range that keeps both children within the
+ * limit, e.g. {@code v = a + (v - a)} with {@code a} in {@code [0, v]}, {@code v = (v + b) - b} with
+ * {@code b} in {@code [0, limit - v]}, {@code v = d × (v / d)} for a divisor {@code d} of {@code v}
+ * and {@code v = (v · d) ÷ d} with {@code d} in {@code [1, limit / v]}. Every draw succeeds, so the
+ * cost per expression grows linearly with the number of terms. As with the binary generators,
+ * multiplication avoids zero factors and division zero divisors.
+ */
+public class ExpressionGenerator {
+
+	/**
+	 * Most operands per expression; longer lines do not fit a worksheet column.
+	 */
+	public static final int MAX_TERMS = 4;
+
+	private final RandomGenerator random;
+
+	/**
+	 * @param random the random generator to use
+	 */
+	public ExpressionGenerator(RandomGenerator random) {
+		this.random = random;
+	}
+
+	/**
+	 * Generates expressions with the given number of operands.
+	 *
+	 * @param limit               upper bound for operands, intermediate values and results (must be >= 10)
+	 * @param numberOfExpressions how many expressions to generate (must be >= 1)
+	 * @param terms               operands per expression (2..{@value #MAX_TERMS})
+	 * @param operations          allowed operations; null/empty uses ADDITION and SUBTRACTION
+	 * @return the generated expressions
+	 * @throws IllegalArgumentException if an argument is out of range
+	 */
+	public List<Expression> generate(int limit, int numberOfExpressions, int terms, Collection<Operations> operations) {
+		if (limit < 10) {
+			throw new IllegalArgumentException("Limit must be greater than or equal to 10.");
+		}
+		if (numberOfExpressions < 1) {
+			throw new IllegalArgumentException("numberOfExpressions must be >= 1");
+		}
+		if (terms < 2 || terms > MAX_TERMS) {
+			throw new IllegalArgumentException("terms must be 2.." + MAX_TERMS);
+		}
+		Operations[] ops = GenerateService.normalizeOperations(operations).toArray(Operations[]::new);
+		List<Expression> expressions = new ArrayList<>(numberOfExpressions);
+		for (int i = 0; i < numberOfExpressions; i++) {
+			expressions.add(build(1 + random.nextInt(limit), terms, limit, ops));
+		}
+		return expressions;
+	}
+
+	/**
+	 * Builds a tree with the given value and number of operands.
+	 */
+	private Expression build(int value, int terms, int limit, Operations[] ops) {
+		if (terms == 1) {
+			return Expression.literal(value);
+		}
+		int leftTerms = 1 + random.nextInt(terms - 1);
+		int rightTerms = terms - leftTerms;
+		return switch (chooseOperation(value, ops)) {
+			case ADDITION -> {
+				int a = random.nextInt(value + 1);
+				yield Expression.of(build(a, leftTerms, limit, ops), '+', build(value - a, rightTerms, limit, ops));
+			}
+			case SUBTRACTION -> {
+				int b = random.nextInt(limit - value + 1);
+				yield Expression.of(build(value + b, leftTerms, limit, ops), '-', build(b, rightTerms, limit, ops));
+			}
+			case MULTIPLICATION -> {
+				int d = randomDivisor(value);
+				yield Expression.of(build(d, leftTerms, limit, ops), '×', build(value / d, rightTerms, limit, ops));
+			}
+			case DIVISION -> {
+				int d = 1 + random.nextInt(value == 0 ? limit : limit / value);
+				yield Expression.of(build(value * d, leftTerms, limit, ops), '÷', build(d, rightTerms, limit, ops));
+			}
+		};
+	}
+
+	/**
+	 * Picks uniformly among the allowed operations able to produce the value: multiplication needs a
+	 * non-zero value since factors are non-zero. Values reach zero only through addition or
+	 * subtraction, so an operation is always available.
+	 */
+	private Operations chooseOperation(int value, Operations[] ops) {
+		int feasible = 0;
+		for (Operations op : ops) {
+			if (value > 0 || op != Operations.MULTIPLICATION) {
+				feasible++;
+			}
+		}
+		int pick = random.nextInt(feasible);
+		for (Operations op : ops) {
+			if ((value > 0 || op != Operations.MULTIPLICATION) && pick-- == 0) {
+				return op;
+			}
+		}
+		throw new IllegalStateException("unreachable");
+	}
+
+	/**
+	 * A uniformly chosen divisor of a positive value, found by counting divisor pairs up to its
+	 * square root twice rather than collecting them.
+	 */
+	private int randomDivisor(int value) {
+		int count = 0;
+		for (int i = 1; i * i <= value; i++) {
+			if (value % i == 0) {
+				count += i * i == value ? 1 : 2;
+			}
+		}
+		int pick = random.nextInt(count);
+		for (int i = 1; i * i <= value; i++) {
+			if (value % i == 0) {
+				if (pick-- == 0) {
+					return i;
+				}
+				if (i * i != value && pick-- == 0) {
+					return value / i;
+				}
+			}
+		}
+		throw new IllegalStateException("unreachable");
+	}
+}
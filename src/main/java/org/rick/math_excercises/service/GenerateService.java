@@ -11,12 +11,13 @@
 package org.rick.math_excercises.service;
 
 import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.internal.CurrentThreadRandom;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.random.RandomGenerator;
 import java.util.stream.IntStream;
 
@@ -28,20 +29,53 @@ public class GenerateService {
 
 	private static final List<Operations> DEFAULT_OPS = List.of(Operations.ADDITION, Operations.SUBTRACTION);
 
+	private static final EquationSource RANDOM_SOURCE = new EquationSource() {
+		@Override
+		public Equation next(int limit, List<Operations> operations, RandomGenerator random) {
+			return generateEquationForOperations(limit, operations, random, GenerationStats.NONE);
+		}
+
+		@Override
+		public Equation next(int limit, List<Operations> operations, RandomGenerator random, GenerationStats stats) {
+			return generateEquationForOperations(limit, operations, random, stats);
+		}
+
+		@Override
+		public Optional<Equation> tryNext(int limit, List<Operations> operations, RandomGenerator random,
+		                                  GenerationStats stats, long maxDraws) {
+			return chooseOperation(operations, random).tryGenerate(limit, random, stats, maxDraws);
+		}
+	};
+
 	private final RandomGenerator random;
 
+	private final EquationSource source;
+
 	/**
-	 * Default constructor uses thread-local randomness.
+	 * Default constructor uses thread-local randomness of the calling thread, so the
+	 * instance can be shared between threads.
 	 */
 	public GenerateService() {
-		this(ThreadLocalRandom.current());
+		this(CurrentThreadRandom.INSTANCE);
 	}
 
 	/**
 	 * Injectable randomness for deterministic tests.
 	 */
 	public GenerateService(RandomGenerator random) {
+		this(random, RANDOM_SOURCE);
+	}
+
+	/**
+	 * Draws equations from an alternative source, e.g. a curated equation bank, instead of random
+	 * generation.
+	 *
+	 * @param random the random generator handed to the source
+	 * @param source supplies each equation
+	 */
+	public GenerateService(RandomGenerator random, EquationSource source) {
 		this.random = random;
+		this.source = source;
 	}
 
 	/**
@@ -77,43 +111,144 @@ public class GenerateService {
 	 */
 	public List<Equation> generateExercises(
 			int limit, int numberOfExercises, Collection<Operations> operations) {
+		return generateExercises(limit, numberOfExercises, operations, GenerationStats.NONE);
+	}
+
+	/**
+	 * Generates math exercises like {@link #generateExercises(int, int, Collection)} and records the
+	 * batch (operation mix, operand histograms, generator rejections, duration) in the given
+	 * statistics.
+	 *
+	 * @param limit             The upper limit of the math exercises (must be >= 10)
+	 * @param numberOfExercises how many equations to generate (must be >= 1)
+	 * @param operations        collection of allowed operations; null/empty uses ADDITION and SUBTRACTION
+	 * @param stats             statistics to record the batch into
+	 * @return list of generated equations
+	 * @throws IllegalArgumentException if limit {@code <} 10 or numberOfExercises {@code <} 1
+	 */
+	public List<Equation> generateExercises(
+			int limit, int numberOfExercises, Collection<Operations> operations, GenerationStats stats) {
+		if (limit < 10) {
+			throw new IllegalArgumentException("Limit must be greater than or equal to 10.");
+		}
+		if (numberOfExercises < 1) {
+			throw new IllegalArgumentException("numberOfExercises must be >= 1");
+		}
+
+		List<Operations> ops = normalizeOperations(operations);
+
+		WorksheetEvents.SheetGenerated event = new WorksheetEvents.SheetGenerated();
+		event.begin();
+		long start = System.nanoTime();
+		List<Equation> equations = IntStream.range(0, numberOfExercises)
+				.mapToObj(i -> source.next(limit, ops, random, stats))
+				.toList();
+		stats.recordBatch(limit, equations, System.nanoTime() - start, source == RANDOM_SOURCE);
+		commit(event, limit, numberOfExercises, ops);
+		return equations;
+	}
+
+	/**
+	 * Generates math exercises like {@link #generateExercises(int, int, Collection)} within a budget.
+	 *
+	 * <p>Before every equation the timeout, the cancellation signal and the thread's interrupt status
+	 * are checked, and each equation may spend at most the budget's draw cap. Generation never spins
+	 * unboundedly: it returns a complete result, a result flagged with why it stopped early holding
+	 * the equations generated so far, or, if an equation exhausts its draws, fails fast with the
+	 * rejection statistics of the batch.
+	 *
+	 * @param limit             The upper limit of the math exercises (must be >= 10)
+	 * @param numberOfExercises how many equations to generate (must be >= 1)
+	 * @param operations        collection of allowed operations; null/empty uses ADDITION and SUBTRACTION
+	 * @param budget            the timeout, draw cap and cancellation signal
+	 * @return the result with its status and the batch statistics
+	 * @throws IllegalArgumentException if limit {@code <} 10 or numberOfExercises {@code <} 1
+	 */
+	public GenerationResult generateExercises(int limit, int numberOfExercises, Collection<Operations> operations,
+	                                          GenerationBudget budget) {
 		if (limit < 10) {
 			throw new IllegalArgumentException("Limit must be greater than or equal to 10.");
 		}
 		if (numberOfExercises < 1) {
 			throw new IllegalArgumentException("numberOfExercises must be >= 1");
 		}
+		List<Operations> ops = normalizeOperations(operations);
+		GenerationStats stats = new GenerationStats();
+		WorksheetEvents.SheetGenerated event = new WorksheetEvents.SheetGenerated();
+		event.begin();
+		long start = System.nanoTime();
+		long timeout = budget.timeout().toNanos();
+		List<Equation> equations = new ArrayList<>(numberOfExercises);
+		GenerationResult.Status status = GenerationResult.Status.COMPLETE;
+		while (equations.size() < numberOfExercises) {
+			if (budget.cancelled().getAsBoolean() || Thread.currentThread().isInterrupted()) {
+				status = GenerationResult.Status.CANCELLED;
+				break;
+			}
+			if (System.nanoTime() - start > timeout) {
+				status = GenerationResult.Status.DEADLINE_EXCEEDED;
+				break;
+			}
+			Optional<Equation> next = source.tryNext(limit, ops, random, stats, budget.maxDrawsPerEquation());
+			if (next.isEmpty()) {
+				status = GenerationResult.Status.DRAWS_EXHAUSTED;
+				break;
+			}
+			equations.add(next.get());
+		}
+		List<Equation> result = List.copyOf(equations);
+		stats.recordBatch(limit, result, System.nanoTime() - start, source == RANDOM_SOURCE);
+		commit(event, limit, result.size(), ops);
+		return new GenerationResult(status, result, numberOfExercises, stats);
+	}
 
-		List<Operations> ops = Optional.ofNullable(operations)
+	private static void commit(WorksheetEvents.SheetGenerated event, int limit, int exercises,
+	                           List<Operations> operations) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.limit = limit;
+			event.exercises = exercises;
+			event.operations = operations.toString();
+			event.commit();
+		}
+	}
+
+	/**
+	 * The non-null entries of the given operations, or ADDITION and SUBTRACTION if there are none.
+	 */
+	static List<Operations> normalizeOperations(Collection<Operations> operations) {
+		return Optional.ofNullable(operations)
 				.filter(c -> !c.isEmpty())
 				.map(c -> c.stream().filter(Objects::nonNull).toList())
 				.filter(list -> !list.isEmpty())
 				.orElse(DEFAULT_OPS);
-
-		return IntStream.range(0, numberOfExercises)
-				.mapToObj(i -> generateEquationForOperations(limit, ops))
-				.toList();
 	}
 
 	/**
 	 * Picks a random operation from the provided set and generates an equation accordingly.
 	 * Uses the functional generator on each Operations enum constant.
 	 *
-	 * @param limit upper bound for operands and results
-	 * @param ops   non-empty list of allowed operations
+	 * @param limit  upper bound for operands and results
+	 * @param ops    non-empty list of allowed operations
+	 * @param random the random generator to use
+	 * @param stats  statistics receiving the generator draws
 	 * @return an {@link Equation} matching one of the allowed operations
 	 */
-	private Equation generateEquationForOperations(int limit, List<Operations> ops) {
-		// Fast-path optimization for common ADDITION+SUBTRACTION case
+	private static Equation generateEquationForOperations(int limit, List<Operations> ops, RandomGenerator random,
+	                                                      GenerationStats stats) {
+		return chooseOperation(ops, random).generate(limit, random, stats);
+	}
+
+	/**
+	 * Picks the operation of the next equation; ADDITION+SUBTRACTION, the common case, costs a single
+	 * random bit.
+	 */
+	private static Operations chooseOperation(List<Operations> ops, RandomGenerator random) {
 		if (ops.size() == 2
 				&& ops.contains(Operations.ADDITION)
 				&& ops.contains(Operations.SUBTRACTION)) {
-			return random.nextBoolean()
-			       ? Operations.ADDITION.generate(limit, random)
-			       : Operations.SUBTRACTION.generate(limit, random);
+			return random.nextBoolean() ? Operations.ADDITION : Operations.SUBTRACTION;
 		}
-
-		Operations op = ops.get(random.nextInt(ops.size()));
-		return op.generate(limit, random);
+		return ops.get(random.nextInt(ops.size()));
 	}
 }
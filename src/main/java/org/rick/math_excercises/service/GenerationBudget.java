@@ -0,0 +1,69 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Limits for {@link GenerateService#generateExercises(int, int, java.util.Collection,
+ * GenerationBudget)}: a wall-clock timeout for the batch, a cap on the random draws spent on a
+ * single equation and a cooperative cancellation signal.
+ *
+ * <p>The timeout and the cancellation signal are checked before every equation, so the batch can
+ * overrun its timeout by at most the time one equation takes, which the draw cap bounds.
+ *
+ * @param timeout             maximum duration of the batch
+ * @param maxDrawsPerEquation random draws after which a single equation is given up
+ * @param cancelled           returns true once the caller no longer needs the result
+ */
+public record GenerationBudget(Duration timeout, long maxDrawsPerEquation, BooleanSupplier cancelled) {
+
+	/**
+	 * Default draw cap: at limit 10,000 multiplication still expects about a thousand accepted draws
+	 * within it, while a pathological limit gives up within about a hundred milliseconds.
+	 */
+	public static final long DEFAULT_MAX_DRAWS_PER_EQUATION = 1_000_000;
+
+	/**
+	 * @throws IllegalArgumentException if the timeout is negative or the draw cap is below 1
+	 */
+	public GenerationBudget {
+		if (timeout.isNegative()) {
+			throw new IllegalArgumentException("timeout must not be negative");
+		}
+		if (maxDrawsPerEquation < 1) {
+			throw new IllegalArgumentException("maxDrawsPerEquation must be >= 1");
+		}
+	}
+
+	/**
+	 * A budget with the given timeout, the default draw cap and no cancellation.
+	 */
+	public static GenerationBudget of(Duration timeout) {
+		return new GenerationBudget(timeout, DEFAULT_MAX_DRAWS_PER_EQUATION, () -> false);
+	}
+
+	/**
+	 * A copy with another draw cap.
+	 */
+	public GenerationBudget withMaxDrawsPerEquation(long maxDraws) {
+		return new GenerationBudget(timeout, maxDraws, cancelled);
+	}
+
+	/**
+	 * A copy observing the given cancellation signal, e.g. {@code flag::get} of an
+	 * {@link java.util.concurrent.atomic.AtomicBoolean}.
+	 */
+	public GenerationBudget withCancellation(BooleanSupplier signal) {
+		return new GenerationBudget(timeout, maxDrawsPerEquation, signal);
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.rick.math_excercises.model.Equation;
+
+import java.util.List;
+
+/**
+ * Outcome of a budgeted generation: either all requested equations, or the equations generated
+ * before the budget ran out together with the reason.
+ *
+ * @param status    why generation stopped
+ * @param equations the generated equations; fewer than requested unless complete
+ * @param requested the number of equations requested
+ * @param stats     statistics of this batch, including the draws each generator rejected
+ */
+public record GenerationResult(Status status, List<Equation> equations, int requested, GenerationStats stats) {
+
+	/**
+	 * Why generation stopped.
+	 */
+	public enum Status {
+		/**
+		 * All requested equations were generated.
+		 */
+		COMPLETE,
+		/**
+		 * The timeout elapsed.
+		 */
+		DEADLINE_EXCEEDED,
+		/**
+		 * The caller cancelled or the thread was interrupted.
+		 */
+		CANCELLED,
+		/**
+		 * An equation was rejected for the whole draw cap; its constraint is practically unsatisfiable
+		 * at this limit, so generation fails fast.
+		 */
+		DRAWS_EXHAUSTED
+	}
+
+	/**
+	 * Whether all requested equations were generated.
+	 */
+	public boolean isComplete() {
+		return status == Status.COMPLETE;
+	}
+
+	/**
+	 * Whether generation stopped early but produced some equations.
+	 */
+	public boolean isPartial() {
+		return !isComplete() && !equations.isEmpty();
+	}
+
+	/**
+	 * Returns the equations of a complete result.
+	 *
+	 * @return the requested equations
+	 * @throws IllegalStateException if generation stopped early; the message carries the status and
+	 *                               the rejections per operation
+	 */
+	public List<Equation> requireComplete() {
+		if (!isComplete()) {
+			StringBuilder rejections = new StringBuilder();
+			for (Operations op : Operations.values()) {
+				rejections.append(rejections.isEmpty() ? "" : ", ").append(op).append('=').append(stats.rejections(op));
+			}
+			throw new IllegalStateException("Generation stopped with " + status + " after " + equations.size()
+					+ " of " + requested + " equations; rejections: " + rejections);
+		}
+		return equations;
+	}
+}
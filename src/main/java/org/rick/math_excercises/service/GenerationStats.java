@@ -0,0 +1,281 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.rick.math_excercises.model.Equation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Opt-in statistics about generated batches: operation mix, random draws spent by the rejection
+ * generators in {@link Operations}, operand histograms, placeholder positions and the size of the
+ * written documents.
+ *
+ * <p>All counters are primitive arrays, so recording costs a few array increments per equation. An
+ * instance is not thread-safe: use one per thread and {@link #merge(GenerationStats) merge} them.
+ * {@link #NONE} ignores everything and is used when statistics are not requested.
+ */
+public final class GenerationStats {
+
+	private static final Operations[] OPERATIONS = Operations.values();
+
+	/**
+	 * Statistics sink that records nothing.
+	 */
+	public static final GenerationStats NONE = new GenerationStats(false);
+
+	/**
+	 * Number of equal-width operand histogram buckets spanning {@code [0, limit]} of each batch.
+	 */
+	public static final int HISTOGRAM_BUCKETS = 10;
+
+	private final boolean enabled;
+	private long batches;
+	private long generationNanos;
+	private final long[] equations = new long[OPERATIONS.length];
+	private final long[] draws = new long[OPERATIONS.length];
+	private final long[] generated = new long[OPERATIONS.length];
+	private final long[][] firstOperand = new long[OPERATIONS.length][HISTOGRAM_BUCKETS];
+	private final long[][] secondOperand = new long[OPERATIONS.length][HISTOGRAM_BUCKETS];
+	private final long[] placeholders = new long[3];
+	private long sheets;
+	private long outputBytes;
+
+	/**
+	 * Creates an empty, enabled collector.
+	 */
+	public GenerationStats() {
+		this(true);
+	}
+
+	private GenerationStats(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Counts one random draw (accepted or rejected) of a generator.
+	 */
+	void recordDraw(Operations operation) {
+		if (enabled) {
+			draws[operation.ordinal()]++;
+		}
+	}
+
+	/**
+	 * Counts random draws (lanes) of a batch generator; see {@link BatchGenerator}.
+	 */
+	void recordDraws(Operations operation, int count) {
+		if (enabled) {
+			draws[operation.ordinal()] += count;
+		}
+	}
+
+	/**
+	 * Records a finished batch: its duration and, per equation, the operation, its rejection
+	 * generator's accepted draw and its operands.
+	 *
+	 * @param limit        the batch limit, used to scale the operand histograms
+	 * @param batch        the generated equations
+	 * @param elapsedNanos time spent generating the batch
+	 * @param fromRandom   whether the equations came from the rejection generators
+	 */
+	void recordBatch(int limit, List<Equation> batch, long elapsedNanos,
+	                 boolean fromRandom) {
+		if (!enabled) {
+			return;
+		}
+		batches++;
+		generationNanos += elapsedNanos;
+		for (Equation eq : batch) {
+			int op = Operations.fromOperator(eq.operator()).ordinal();
+			equations[op]++;
+			if (fromRandom) {
+				generated[op]++;
+			}
+			firstOperand[op][bucket(eq.firstNumber(), limit)]++;
+			secondOperand[op][bucket(eq.secondNumber(), limit)]++;
+		}
+	}
+
+	/**
+	 * Records a finished primitive batch of {@link BatchGenerator} like
+	 * {@link #recordBatch(int, List, long, boolean)}.
+	 */
+	void recordBatch(int limit, EquationBatch batch, long elapsedNanos) {
+		if (!enabled) {
+			return;
+		}
+		batches++;
+		generationNanos += elapsedNanos;
+		for (int i = 0; i < batch.size(); i++) {
+			int op = batch.operation(i).ordinal();
+			equations[op]++;
+			generated[op]++;
+			firstOperand[op][bucket(batch.first(i), limit)]++;
+			secondOperand[op][bucket(batch.second(i), limit)]++;
+		}
+	}
+
+	/**
+	 * Records the placeholder positions (1..3) chosen for a rendered sheet.
+	 */
+	public void recordPlaceholders(List<Integer> chosen) {
+		if (enabled) {
+			for (int placeholder : chosen) {
+				placeholders[placeholder - 1]++;
+			}
+		}
+	}
+
+	/**
+	 * Records a written document.
+	 *
+	 * @param sheetCount the number of sheets in the document
+	 * @param bytes      the document size
+	 */
+	void recordOutput(int sheetCount, long bytes) {
+		if (enabled) {
+			sheets += sheetCount;
+			outputBytes += bytes;
+		}
+	}
+
+	/**
+	 * Adds all counters of another collector to this one.
+	 */
+	public void merge(GenerationStats other) {
+		batches += other.batches;
+		generationNanos += other.generationNanos;
+		for (int op = 0; op < OPERATIONS.length; op++) {
+			equations[op] += other.equations[op];
+			draws[op] += other.draws[op];
+			generated[op] += other.generated[op];
+			for (int b = 0; b < HISTOGRAM_BUCKETS; b++) {
+				firstOperand[op][b] += other.firstOperand[op][b];
+				secondOperand[op][b] += other.secondOperand[op][b];
+			}
+		}
+		for (int i = 0; i < placeholders.length; i++) {
+			placeholders[i] += other.placeholders[i];
+		}
+		sheets += other.sheets;
+		outputBytes += other.outputBytes;
+	}
+
+	/**
+	 * Number of recorded batches.
+	 */
+	public long batches() {
+		return batches;
+	}
+
+	/**
+	 * Number of generated equations of an operation.
+	 */
+	public long equations(Operations operation) {
+		return equations[operation.ordinal()];
+	}
+
+	/**
+	 * Number of random draws the rejection generator of an operation discarded.
+	 */
+	public long rejections(Operations operation) {
+		return draws[operation.ordinal()] - generated[operation.ordinal()];
+	}
+
+	/**
+	 * Number of times a placeholder position (1=first operand, 2=second operand, 3=result) was used.
+	 */
+	public long placeholders(int placeholderIndex) {
+		return placeholders[placeholderIndex - 1];
+	}
+
+	/**
+	 * Number of sheets written.
+	 */
+	public long sheets() {
+		return sheets;
+	}
+
+	/**
+	 * Total size of the written documents in bytes.
+	 */
+	public long outputBytes() {
+		return outputBytes;
+	}
+
+	/**
+	 * Average document bytes per written sheet, or 0 if nothing was written.
+	 */
+	public double bytesPerSheet() {
+		return sheets == 0 ? 0 : (double) outputBytes / sheets;
+	}
+
+	/**
+	 * Histogram of first or second operands of an operation, in {@value #HISTOGRAM_BUCKETS}
+	 * equal-width buckets relative to each batch's limit.
+	 *
+	 * @param operation the operation
+	 * @param operand   1 for the first operand, 2 for the second
+	 * @return a copy of the bucket counts
+	 */
+	public long[] operandHistogram(Operations operation, int operand) {
+		long[][] histogram = operand == 1 ? firstOperand : secondOperand;
+		return histogram[operation.ordinal()].clone();
+	}
+
+	/**
+	 * Renders all counters as a JSON document.
+	 */
+	public String toJson() {
+		StringBuilder json = new StringBuilder(1024);
+		json.append("{\n  \"batches\": ").append(batches)
+				.append(",\n  \"generationMillis\": ").append(String.format(Locale.ROOT, "%.3f", generationNanos / 1e6))
+				.append(",\n  \"operations\": {");
+		for (int op = 0; op < OPERATIONS.length; op++) {
+			json.append(op == 0 ? "\n" : ",\n")
+					.append("    \"").append(OPERATIONS[op].name()).append("\": {")
+					.append("\"equations\": ").append(equations[op])
+					.append(", \"draws\": ").append(draws[op])
+					.append(", \"rejections\": ").append(draws[op] - generated[op])
+					.append(", \"firstOperandHistogram\": ").append(Arrays.toString(firstOperand[op]))
+					.append(", \"secondOperandHistogram\": ").append(Arrays.toString(secondOperand[op]))
+					.append('}');
+		}
+		json.append("\n  },\n  \"placeholders\": {\"first\": ").append(placeholders[0])
+				.append(", \"second\": ").append(placeholders[1])
+				.append(", \"result\": ").append(placeholders[2])
+				.append("},\n  \"output\": {\"sheets\": ").append(sheets)
+				.append(", \"bytes\": ").append(outputBytes)
+				.append(", \"bytesPerSheet\": ").append(String.format(Locale.ROOT, "%.1f", bytesPerSheet()))
+				.append("}\n}\n");
+		return json.toString();
+	}
+
+	/**
+	 * Writes the JSON report to a file.
+	 *
+	 * @param file the report file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeJson(Path file) throws IOException {
+		Files.writeString(file, toJson());
+	}
+
+	private static int bucket(int value, int limit) {
+		return (int) Math.min(HISTOGRAM_BUCKETS - 1, (long) Math.max(0, value) * HISTOGRAM_BUCKETS / (limit + 1L));
+	}
+}
@@ -0,0 +1,226 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.model.Expression;
+import org.rick.math_excercises.model.FractionEquation;
+import org.rick.math_excercises.service.internal.GlyphSet;
+import org.rick.math_excercises.service.internal.PdfRenderSupport;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Renders worksheets as an HTML page for on-screen practice, one letter-size sheet per
+ * {@code section}.
+ *
+ * <p>Sheets are shown with the tokens of {@link PdfRenderSupport#formatTokens} in the columns of
+ * {@link PageLayout}: {@value PageLayout#LINES_PER_COLUMN} lines per column, operators one point
+ * larger and fractions stacked. The browser lays out the text, so no font is loaded or measured;
+ * the page is assembled from fragments built once per class and each sheet is handed to the
+ * {@link Writer} as soon as it is complete. The output is well-formed XML, so it can also be
+ * processed as XHTML. Instances are stateless and thread-safe.
+ */
+public class HtmlRenderer {
+
+	private static final String NAME = "html";
+
+	private static final GlyphSet GLYPHS = GlyphSet.UNICODE;
+
+	private static final String HEAD = "<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n<meta charset=\"utf-8\"/>\n"
+			+ "<title>Math exercises</title>\n<style>\n"
+			+ "body{margin:0;background:#eee}\n"
+			+ ".sheet{position:relative;width:" + pt(PageLayout.PAGE_WIDTH) + ";height:" + pt(PageLayout.PAGE_HEIGHT)
+			+ ";margin:12pt auto;background:#fff;color:#000;font:" + pt(PageLayout.BASE_FONT_SIZE) + "/"
+			+ pt(PageLayout.LEADING) + " Arial,Helvetica,sans-serif;break-after:page}\n"
+			+ ".column{position:absolute;top:" + pt(PageLayout.PAGE_HEIGHT - PageLayout.START_Y - PageLayout.BASE_FONT_SIZE)
+			+ ";width:" + pt(PageLayout.COLUMN_WIDTH) + "}\n"
+			+ ".line{height:" + pt(PageLayout.LEADING) + ";white-space:pre}\n"
+			+ ".op{font-size:" + pt(PageLayout.OPERATOR_FONT_SIZE) + "}\n"
+			+ ".frac{display:inline-block;vertical-align:middle;text-align:center;font-size:"
+			+ pt(PageLayout.FRACTION_FONT_SIZE) + ";line-height:" + pt(PageLayout.FRACTION_FONT_SIZE) + "}\n"
+			+ ".frac>span{display:block}\n"
+			+ ".frac>span:first-child{border-bottom:" + pt(PageLayout.FRACTION_BAR_THICKNESS) + " solid}\n"
+			+ "@media print{body{background:none}.sheet{margin:0}}\n"
+			+ "</style>\n</head>\n<body>\n";
+
+	private static final String TAIL = "</body>\n</html>\n";
+
+	private static final String SHEET_OPEN = "<section class=\"sheet\">\n";
+
+	private static final String SHEET_CLOSE = "</section>\n";
+
+	private static final String COLUMN_CLOSE = "</div>\n";
+
+	private static final String LINE_OPEN = "<div class=\"line\">";
+
+	private static final String LINE_CLOSE = "</div>\n";
+
+	/**
+	 * Opening tags of the columns a full sheet of equations uses; further columns are built on
+	 * demand.
+	 */
+	private static final String[] COLUMN_OPEN = {columnOpen(0), columnOpen(1), columnOpen(2)};
+
+	/**
+	 * The markup of every operator token.
+	 */
+	private static final Map<String, String> OPERATORS = Map.of(
+			"+", operator("+"), "-", operator("-"), "=", operator("="),
+			GLYPHS.multiply(), operator(GLYPHS.multiply()), GLYPHS.divide(), operator(GLYPHS.divide()));
+
+	/**
+	 * Renders sheets as the sections of one page.
+	 *
+	 * @param sheets       the equations of each sheet, none empty
+	 * @param placeholders per sheet, one placeholder index (1=first operand, 2=second operand,
+	 *                     3=result) per equation
+	 * @param out          the writer the page is written to; it is neither flushed nor closed
+	 * @throws IOException              if the page cannot be written
+	 * @throws IllegalArgumentException if a sheet is empty or the placeholders do not match
+	 */
+	public void render(List<List<Equation>> sheets, List<List<Integer>> placeholders, Writer out) throws IOException {
+		renderLines(PageLayout.equationLines(sheets, placeholders, GLYPHS), out);
+	}
+
+	/**
+	 * Renders sheets of multi-term expressions in the same layout.
+	 *
+	 * @param sheets       the expressions of each sheet, none empty
+	 * @param placeholders per sheet, one placeholder index per expression: 1..terms blanks the operand
+	 *                     at that position, terms + 1 the result
+	 * @param out          the writer the page is written to; it is neither flushed nor closed
+	 * @throws IOException              if the page cannot be written
+	 * @throws IllegalArgumentException if a sheet is empty or the placeholders do not match
+	 */
+	public void renderExpressions(List<List<Expression>> sheets, List<List<Integer>> placeholders, Writer out)
+			throws IOException {
+		renderLines(PageLayout.expressionLines(sheets, placeholders, GLYPHS), out);
+	}
+
+	/**
+	 * Renders sheets of fraction and decimal exercises; as in the PDF renderers a line holding
+	 * stacked fractions takes the height of two.
+	 *
+	 * @param sheets       the exercises of each sheet, none empty
+	 * @param placeholders per sheet, one placeholder index (1=first operand, 2=second operand,
+	 *                     3=result) per exercise
+	 * @param out          the writer the page is written to; it is neither flushed nor closed
+	 * @throws IOException              if the page cannot be written
+	 * @throws IllegalArgumentException if a sheet is empty or the placeholders do not match
+	 */
+	public void renderFractions(List<List<FractionEquation>> sheets, List<List<Integer>> placeholders, Writer out)
+			throws IOException {
+		renderLines(PageLayout.fractionLines(sheets, placeholders, GLYPHS), out);
+	}
+
+	/**
+	 * Renders a single sheet.
+	 *
+	 * @param equations    the equations of the sheet
+	 * @param placeholders one placeholder index per equation
+	 * @param out          the writer the page is written to; it is neither flushed nor closed
+	 * @throws IOException if the page cannot be written
+	 */
+	public void renderSheet(List<Equation> equations, List<Integer> placeholders, Writer out) throws IOException {
+		render(List.of(equations), List.of(placeholders), out);
+	}
+
+	private void renderLines(List<List<List<String>>> sheets, Writer out) throws IOException {
+		WorksheetEvents.DocumentSave event = new WorksheetEvents.DocumentSave();
+		event.begin();
+		out.write(HEAD);
+		StringBuilder sheet = new StringBuilder(16 * 1024);
+		for (List<List<String>> lines : sheets) {
+			sheet.setLength(0);
+			writeSheet(lines, sheet);
+			out.append(sheet);
+		}
+		out.write(TAIL);
+		event.end();
+		if (event.shouldCommit()) {
+			event.renderer = NAME;
+			event.pages = sheets.size();
+			event.commit();
+		}
+	}
+
+	private static void writeSheet(List<List<String>> lines, StringBuilder sheet) {
+		sheet.append(SHEET_OPEN);
+		List<List<List<String>>> columns = PdfRenderSupport.partition(lines, PageLayout.LINES_PER_COLUMN);
+		for (int column = 0; column < columns.size(); column++) {
+			sheet.append(column < COLUMN_OPEN.length ? COLUMN_OPEN[column] : columnOpen(column));
+			for (List<String> tokens : columns.get(column)) {
+				sheet.append(LINE_OPEN);
+				for (int t = 0; t < tokens.size(); t++) {
+					if (t > 0) {
+						sheet.append(' ');
+					}
+					appendToken(tokens.get(t), sheet);
+				}
+				sheet.append(LINE_CLOSE);
+			}
+			sheet.append(COLUMN_CLOSE);
+		}
+		sheet.append(SHEET_CLOSE);
+	}
+
+	private static void appendToken(String token, StringBuilder sheet) {
+		String operator = OPERATORS.get(token);
+		if (operator != null) {
+			sheet.append(operator);
+		}
+		else if (PdfRenderSupport.isStacked(token)) {
+			int stack = token.indexOf(PdfRenderSupport.STACK);
+			sheet.append("<span class=\"frac\"><span>");
+			appendText(token, 0, stack, sheet);
+			sheet.append("</span><span>");
+			appendText(token, stack + 1, token.length(), sheet);
+			sheet.append("</span></span>");
+		}
+		else {
+			appendText(token, 0, token.length(), sheet);
+		}
+	}
+
+	/**
+	 * Appends part of a token, escaping markup characters. Tokens hold digits, signs and
+	 * parentheses, so this is a plain copy in practice.
+	 */
+	private static void appendText(String token, int from, int to, StringBuilder sheet) {
+		for (int i = from; i < to; i++) {
+			char c = token.charAt(i);
+			switch (c) {
+				case '<' -> sheet.append("&lt;");
+				case '>' -> sheet.append("&gt;");
+				case '&' -> sheet.append("&amp;");
+				default -> sheet.append(c);
+			}
+		}
+	}
+
+	private static String operator(String glyph) {
+		return "<span class=\"op\">" + glyph + "</span>";
+	}
+
+	private static String columnOpen(int column) {
+		return "<div class=\"column\" style=\"left:" + pt(PageLayout.columnX(column)) + "\">\n";
+	}
+
+	private static String pt(float value) {
+		String number = String.format(Locale.ROOT, "%.2f", value).replaceAll("\\.?0+$", "");
+		return number + "pt";
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.util.Matrix;
+
+import java.util.Locale;
+
+/**
+ * How {@link PdfBoxRenderer} places sheets on the physical pages it writes.
+ *
+ * <p>With an n-up imposition every sheet is laid out once as a Form XObject and drawn scaled into
+ * the cells of letter-size pages, which are separated by cut marks at the page edges. Sheets drawn
+ * several times share their form, so the document grows with the number of distinct sheets rather
+ * than with the number of pages.
+ */
+public enum Imposition {
+	/**
+	 * One sheet per page, drawn directly onto the page.
+	 */
+	NONE(1, 1, PDRectangle.LETTER),
+	/**
+	 * Two sheets side by side on a landscape page, each scaled to a half-letter cell.
+	 */
+	TWO_UP(2, 1, new PDRectangle(PDRectangle.LETTER.getHeight(), PDRectangle.LETTER.getWidth())),
+	/**
+	 * Four sheets in two rows of two on a portrait page, each at half size.
+	 */
+	FOUR_UP(2, 2, PDRectangle.LETTER);
+
+	/**
+	 * Length of the cut marks drawn at the page edges, in points.
+	 */
+	static final float CUT_MARK_LENGTH = 12f;
+
+	/**
+	 * Which sheets fill the cells of a page.
+	 */
+	public enum Fill {
+		/**
+		 * Consecutive sheets fill the cells in reading order; the last page may be partly empty.
+		 */
+		SHEETS,
+		/**
+		 * Every cell of a page holds the same sheet, one page per sheet, e.g. for half-page drills
+		 * handed to a whole class.
+		 */
+		COPIES
+	}
+
+	private final int across;
+	private final int down;
+	private final PDRectangle paper;
+
+	Imposition(int across, int down, PDRectangle paper) {
+		this.across = across;
+		this.down = down;
+		this.paper = paper;
+	}
+
+	/**
+	 * The number of sheets a page holds.
+	 */
+	public int cells() {
+		return across * down;
+	}
+
+	/**
+	 * The size of the physical pages.
+	 */
+	public PDRectangle paper() {
+		return new PDRectangle(paper.getWidth(), paper.getHeight());
+	}
+
+	/**
+	 * The number of physical pages needed for a number of sheets.
+	 *
+	 * @param sheets the number of sheets
+	 * @param fill   which sheets fill the cells
+	 * @return the page count
+	 */
+	public int pages(int sheets, Fill fill) {
+		return fill == Fill.COPIES ? sheets : (sheets + cells() - 1) / cells();
+	}
+
+	/**
+	 * The factor sheets are scaled by to fit a cell.
+	 */
+	float scale() {
+		return Math.min(cellWidth() / PageLayout.PAGE_WIDTH, cellHeight() / PageLayout.PAGE_HEIGHT);
+	}
+
+	/**
+	 * The transformation drawing a sheet centered into a cell, numbered in reading order from the
+	 * top left.
+	 */
+	Matrix placement(int cell) {
+		float scale = scale();
+		float x = (cell % across) * cellWidth() + (cellWidth() - PageLayout.PAGE_WIDTH * scale) / 2;
+		float y = paper.getHeight() - (cell / across + 1) * cellHeight()
+				+ (cellHeight() - PageLayout.PAGE_HEIGHT * scale) / 2;
+		return new Matrix(scale, 0, 0, scale, x, y);
+	}
+
+	/**
+	 * The x positions of the cuts between columns of cells.
+	 */
+	float[] verticalCuts() {
+		float[] cuts = new float[across - 1];
+		for (int i = 1; i < across; i++) {
+			cuts[i - 1] = i * cellWidth();
+		}
+		return cuts;
+	}
+
+	/**
+	 * The y positions of the cuts between rows of cells.
+	 */
+	float[] horizontalCuts() {
+		float[] cuts = new float[down - 1];
+		for (int i = 1; i < down; i++) {
+			cuts[i - 1] = i * cellHeight();
+		}
+		return cuts;
+	}
+
+	private float cellWidth() {
+		return paper.getWidth() / across;
+	}
+
+	private float cellHeight() {
+		return paper.getHeight() / down;
+	}
+
+	/**
+	 * Reads the system property {@code imposition} ({@code none}, {@code two_up} or {@code four_up},
+	 * default none).
+	 *
+	 * @return the configured imposition
+	 * @throws IllegalArgumentException if the property holds an unknown imposition
+	 */
+	public static Imposition fromSystemProperties() {
+		String imposition = System.getProperty("imposition", "none").trim().toUpperCase(Locale.ROOT);
+		try {
+			return valueOf(imposition);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unknown imposition: " + imposition + ". Allowed: NONE,TWO_UP,FOUR_UP");
+		}
+	}
+
+	/**
+	 * Reads the system property {@code impositionFill} ({@code sheets} or {@code copies}, default
+	 * sheets).
+	 *
+	 * @return the configured fill
+	 * @throws IllegalArgumentException if the property holds an unknown fill
+	 */
+	public static Fill fillFromSystemProperties() {
+		String fill = System.getProperty("impositionFill", "sheets").trim().toUpperCase(Locale.ROOT);
+		try {
+			return Fill.valueOf(fill);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unknown impositionFill: " + fill + ". Allowed: SHEETS,COPIES");
+		}
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import java.util.List;
+
+/**
+ * Tracks the pen position along the lines of a column so that the {@link EquationRenderer}
+ * implementations can place stacked fractions identically.
+ *
+ * <p>A stacked fraction is shown inside the text flow in {@link PageLayout#FRACTION_FONT_SIZE}: the
+ * numerator raised, the denominator lowered, both centered over the width of the wider one by
+ * {@code TJ} adjustments. The fraction bar cannot be drawn inside a text object, so its rectangle is
+ * collected here and painted after the text.
+ */
+final class LineCursor {
+
+	/**
+	 * Advance width of a text in thousandths of the font size.
+	 */
+	@FunctionalInterface
+	interface Widths {
+		float width(String text);
+	}
+
+	/**
+	 * {@code TJ} adjustments, in thousandths of the fraction font size, placing a stacked fraction:
+	 * before the numerator, between numerator and denominator, and after the denominator.
+	 */
+	record Stack(float beforeNumerator, float beforeDenominator, float afterDenominator) {
+	}
+
+	private final Widths widths;
+	private final float startX;
+	private final List<float[]> bars;
+	private float x;
+	private float y;
+
+	/**
+	 * @param widths the font's advance widths
+	 * @param startX the x of the column's lines
+	 * @param startY the baseline of the column's first line
+	 * @param bars   receives the {@code x, y, width, height} rectangle of every fraction bar
+	 */
+	LineCursor(Widths widths, float startX, float startY, List<float[]> bars) {
+		this.widths = widths;
+		this.startX = startX;
+		this.x = startX;
+		this.y = startY;
+		this.bars = bars;
+	}
+
+	/**
+	 * Advances past a shown text.
+	 */
+	void advance(String text, float size) {
+		x += widths.width(text) * size / 1000f;
+	}
+
+	/**
+	 * Lays out a stacked fraction at the pen position, records its bar and advances past it.
+	 */
+	Stack stack(String numerator, String denominator) {
+		float n = widths.width(numerator);
+		float d = widths.width(denominator);
+		float w = Math.max(n, d);
+		float size = PageLayout.FRACTION_FONT_SIZE;
+		bars.add(new float[]{x, y + PageLayout.FRACTION_BAR_RISE, w * size / 1000f, PageLayout.FRACTION_BAR_THICKNESS});
+		x += w * size / 1000f;
+		// TJ numbers move the pen left by their value.
+		return new Stack(-(w - n) / 2, n + (w - n) / 2 - (w - d) / 2, -(w - d) / 2);
+	}
+
+	/**
+	 * Moves to the start of the next line.
+	 */
+	void newLine() {
+		x = startX;
+		y -= PageLayout.LEADING;
+	}
+}
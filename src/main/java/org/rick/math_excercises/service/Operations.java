@@ -12,7 +12,8 @@ package org.rick.math_excercises.service;
 
 import org.rick.math_excercises.model.Equation;
 
-import java.util.function.BiFunction;
+import java.util.Optional;
+import java.util.function.IntBinaryOperator;
 import java.util.random.RandomGenerator;
 import java.util.stream.Stream;
 
@@ -24,91 +25,119 @@ public enum Operations {
 	/**
 	 * Addition operation ( + ).
 	 */
-	ADDITION('+', Operations::generateAddition),
+	ADDITION('+', Operations::generateAddition, (a, b) -> a + b),
 	/**
 	 * Subtraction operation ( - ).
 	 */
-	SUBTRACTION('-', Operations::generateSubtraction),
+	SUBTRACTION('-', Operations::generateSubtraction, (a, b) -> a - b),
 	/**
 	 * Multiplication operation ( × ).
 	 */
-	MULTIPLICATION('×', Operations::generateMultiplication),
+	MULTIPLICATION('×', Operations::generateMultiplication, (a, b) -> a * b),
 	/**
 	 * Division operation ( ÷ ).
 	 */
-	DIVISION('÷', Operations::generateDivision);
+	DIVISION('÷', Operations::generateDivision, (a, b) -> a / b);
+
+	private static final Operations[] VALUES = values();
 
 	private final char operator;
-	private final BiFunction<Integer, RandomGenerator, Equation> generator;
+	private final Generator generator;
+	private final IntBinaryOperator arithmetic;
 
-	Operations(char operator, BiFunction<Integer, RandomGenerator, Equation> generator) {
+	Operations(char operator, Generator generator,
+	           IntBinaryOperator arithmetic) {
 		this.operator = operator;
 		this.generator = generator;
+		this.arithmetic = arithmetic;
+	}
+
+	/**
+	 * Looks up the operation rendered with the given operator character.
+	 *
+	 * @param operator one of '+', '-', '×', '÷'
+	 * @return the matching operation
+	 * @throws IllegalArgumentException if the character is not a supported operator
+	 */
+	public static Operations fromOperator(char operator) {
+		for (Operations op : VALUES) {
+			if (op.operator == operator) {
+				return op;
+			}
+		}
+		throw new IllegalArgumentException("Unknown operator: " + operator);
 	}
 
 	/**
 	 * Generates an addition equation where the sum does not exceed the limit
 	 * and not both operands are zero.
 	 */
-	private static Equation generateAddition(int limit, RandomGenerator random) {
+	private static Optional<Equation> generateAddition(int limit, RandomGenerator random, GenerationStats stats,
+	                                                   long maxDraws) {
 		return Stream.generate(() -> {
+					stats.recordDraw(ADDITION);
 					int first = random.nextInt(limit);
 					int second = random.nextInt(limit);
 					return new int[]{first, second};
 				})
-				.filter(nums -> nums[0] + nums[1] <= limit && !(nums[0] == 0 && nums[1] == 0))
+				.limit(maxDraws)
+				.filter(nums -> (long) nums[0] + nums[1] <= limit && !(nums[0] == 0 && nums[1] == 0))
 				.findFirst()
-				.map(nums -> Equation.of(nums[0], nums[1], nums[0] + nums[1], '+'))
-				.orElseThrow();
+				.map(nums -> Equation.of(nums[0], nums[1], nums[0] + nums[1], '+'));
 	}
 
 	/**
 	 * Generates a subtraction equation where the result is non-negative and within the limit.
 	 * Both operands are within [0, limit], but not simultaneously zero.
 	 */
-	private static Equation generateSubtraction(int limit, RandomGenerator random) {
+	private static Optional<Equation> generateSubtraction(int limit, RandomGenerator random, GenerationStats stats,
+	                                                      long maxDraws) {
 		return Stream.generate(() -> {
+					stats.recordDraw(SUBTRACTION);
 					int first = random.nextInt(limit);
 					int second = random.nextInt(limit);
 					return new int[]{first, second};
 				})
+				.limit(maxDraws)
 				.filter(nums -> nums[0] - nums[1] >= 0 && !(nums[0] == 0 && nums[1] == 0))
 				.findFirst()
-				.map(nums -> Equation.of(nums[0], nums[1], nums[0] - nums[1], '-'))
-				.orElseThrow();
+				.map(nums -> Equation.of(nums[0], nums[1], nums[0] - nums[1], '-'));
 	}
 
 	/**
 	 * Generates a multiplication equation avoiding zero operands and ensuring the product
 	 * is within the limit.
 	 */
-	private static Equation generateMultiplication(int limit, RandomGenerator random) {
+	private static Optional<Equation> generateMultiplication(int limit, RandomGenerator random, GenerationStats stats,
+	                                                         long maxDraws) {
 		return Stream.generate(() -> {
+					stats.recordDraw(MULTIPLICATION);
 					int first = random.nextInt(limit);
 					int second = random.nextInt(limit);
 					return new int[]{first, second};
 				})
-				.filter(nums -> nums[0] != 0 && nums[1] != 0 && nums[0] * nums[1] <= limit)
+				.limit(maxDraws)
+				.filter(nums -> nums[0] != 0 && nums[1] != 0 && (long) nums[0] * nums[1] <= limit)
 				.findFirst()
-				.map(nums -> Equation.of(nums[0], nums[1], nums[0] * nums[1], '×'))
-				.orElseThrow();
+				.map(nums -> Equation.of(nums[0], nums[1], nums[0] * nums[1], '×'));
 	}
 
 	/**
 	 * Generates a division equation with integer quotient and no zero divisors.
 	 * The dividend remains within the given limit.
 	 */
-	private static Equation generateDivision(int limit, RandomGenerator random) {
+	private static Optional<Equation> generateDivision(int limit, RandomGenerator random, GenerationStats stats,
+	                                                   long maxDraws) {
 		return Stream.generate(() -> {
+					stats.recordDraw(DIVISION);
 					int divisor = 1 + random.nextInt(limit - 1); // Avoid zero
 					int quotient = random.nextInt(limit);
-					int dividend = divisor * quotient;
-					return new int[]{dividend, divisor, quotient};
+					return new int[]{divisor, quotient};
 				})
-				.filter(nums -> nums[0] <= limit)
+				.limit(maxDraws)
+				.filter(nums -> (long) nums[0] * nums[1] <= limit)
 				.findFirst()
-				.map(nums -> Equation.of(nums[0], nums[1], nums[2], '÷'))
-				.orElseThrow();
+				.map(nums -> Equation.of(nums[0] * nums[1], nums[0], nums[1], '÷'));
 	}
 
 	/**
@@ -119,6 +148,111 @@ public enum Operations {
 	 * @return a valid Equation for this operation
 	 */
 	public Equation generate(int limit, RandomGenerator random) {
-		return generator.apply(limit, random);
+		return generate(limit, random, GenerationStats.NONE);
+	}
+
+	/**
+	 * Generates an equation for this operation within the given limit, counting every random draw
+	 * (accepted or rejected) in the given statistics.
+	 *
+	 * @param limit  upper bound for operands and results
+	 * @param random the random generator to use
+	 * @param stats  statistics receiving the draw counts
+	 * @return a valid Equation for this operation
+	 */
+	public Equation generate(int limit, RandomGenerator random, GenerationStats stats) {
+		return draw(limit, random, stats, Long.MAX_VALUE).orElseThrow();
+	}
+
+	/**
+	 * Generates an equation like {@link #generate(int, RandomGenerator, GenerationStats)}, but gives
+	 * up after a number of random draws. At large limits the multiplication and division constraints
+	 * accept only a tiny fraction of draws, so an unbounded search can take arbitrarily long.
+	 *
+	 * @param limit    upper bound for operands and results
+	 * @param random   the random generator to use
+	 * @param stats    statistics receiving the draw counts
+	 * @param maxDraws the maximum number of draws (must be >= 1)
+	 * @return a valid Equation, or empty if every draw was rejected
+	 */
+	public Optional<Equation> tryGenerate(int limit, RandomGenerator random, GenerationStats stats, long maxDraws) {
+		if (maxDraws < 1) {
+			throw new IllegalArgumentException("maxDraws must be >= 1");
+		}
+		return draw(limit, random, stats, maxDraws);
+	}
+
+	/**
+	 * Runs the generator; while {@link WorksheetEvents.RejectionBurst} is enabled, counts its draws
+	 * and commits an event for equations needing at least {@value WorksheetEvents#MIN_BURST_DRAWS}.
+	 */
+	private Optional<Equation> draw(int limit, RandomGenerator random, GenerationStats stats, long maxDraws) {
+		WorksheetEvents.RejectionBurst event = new WorksheetEvents.RejectionBurst();
+		if (!event.isEnabled()) {
+			return generator.generate(limit, random, stats, maxDraws);
+		}
+		event.begin();
+		DrawCounter counter = new DrawCounter(random);
+		Optional<Equation> equation = generator.generate(limit, counter, stats, maxDraws);
+		long draws = counter.calls / 2;
+		event.end();
+		if (draws >= WorksheetEvents.MIN_BURST_DRAWS && event.shouldCommit()) {
+			event.operation = name();
+			event.limit = limit;
+			event.draws = draws;
+			event.commit();
+		}
+		return equation;
+	}
+
+	/**
+	 * The operator character used when rendering this operation.
+	 */
+	public char operator() {
+		return operator;
+	}
+
+	/**
+	 * Applies this operation to two operands (integer division for {@link #DIVISION}).
+	 *
+	 * @param first  the first operand
+	 * @param second the second operand
+	 * @return the result of {@code first operator second}
+	 */
+	public int apply(int first, int second) {
+		return arithmetic.applyAsInt(first, second);
+	}
+
+	/**
+	 * Generator function backing an operation.
+	 */
+	@FunctionalInterface
+	private interface Generator {
+		Optional<Equation> generate(int limit, RandomGenerator random, GenerationStats stats, long maxDraws);
+	}
+
+	/**
+	 * Counts the bounded draws of a generator; every generator draws two bounded ints per candidate.
+	 */
+	private static final class DrawCounter implements RandomGenerator {
+
+		private final RandomGenerator random;
+
+		private long calls;
+
+		DrawCounter(RandomGenerator random) {
+			this.random = random;
+		}
+
+		@Override
+		public long nextLong() {
+			return random.nextLong();
+		}
+
+		@Override
+		public int nextInt(int bound) {
+			calls++;
+			return random.nextInt(bound);
+		}
 	}
 }
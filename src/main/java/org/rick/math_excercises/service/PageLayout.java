@@ -0,0 +1,131 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.model.Expression;
+import org.rick.math_excercises.model.FractionEquation;
+import org.rick.math_excercises.service.internal.GlyphSet;
+import org.rick.math_excercises.service.internal.PdfRenderSupport;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Geometry of the horizontal worksheet page shared by the {@link EquationRenderer} implementations,
+ * so that their output is interchangeable.
+ */
+final class PageLayout {
+
+	static final float PAGE_WIDTH = PDRectangle.LETTER.getWidth();
+	static final float PAGE_HEIGHT = PDRectangle.LETTER.getHeight();
+	static final float BASE_FONT_SIZE = 12f;
+	static final float OPERATOR_FONT_SIZE = BASE_FONT_SIZE + 1f;
+	static final float LEADING = 14.5f;
+	static final float MARGIN = 50f;
+	static final float START_Y = 725f;
+	static final float COLUMN_WIDTH = (PAGE_WIDTH - (4 * MARGIN)) / 3;
+	static final int LINES_PER_COLUMN = 50;
+	static final float FRACTION_FONT_SIZE = 9f;
+	static final float NUMERATOR_RISE = 4.5f;
+	static final float DENOMINATOR_RISE = -4.5f;
+	static final float FRACTION_BAR_RISE = 3f;
+	static final float FRACTION_BAR_THICKNESS = 0.6f;
+
+	private PageLayout() {
+	}
+
+	/**
+	 * The x offset of a column's text.
+	 */
+	static float columnX(int columnIndex) {
+		return MARGIN + columnIndex * COLUMN_WIDTH;
+	}
+
+	/**
+	 * Checks the arguments of {@link EquationRenderer#render} and
+	 * {@link EquationRenderer#renderExpressions}.
+	 *
+	 * @throws IllegalArgumentException if there are no sheets, a sheet is empty or a placeholder list
+	 *                                  does not match its sheet
+	 */
+	static void checkSheets(List<? extends List<?>> sheets, List<List<Integer>> placeholders) {
+		if (sheets.isEmpty() || sheets.stream().anyMatch(List::isEmpty)) {
+			throw new IllegalArgumentException("Sheets cannot be empty.");
+		}
+		if (placeholders.size() != sheets.size()) {
+			throw new IllegalArgumentException("Expected one placeholder list per sheet.");
+		}
+		for (int i = 0; i < sheets.size(); i++) {
+			if (placeholders.get(i).size() != sheets.get(i).size()) {
+				throw new IllegalArgumentException("Expected one placeholder per equation.");
+			}
+		}
+	}
+
+	/**
+	 * The display tokens of every line of every sheet.
+	 */
+	static List<List<List<String>>> equationLines(List<List<Equation>> sheets, List<List<Integer>> placeholders,
+	                                              GlyphSet glyphs) {
+		return lines(sheets, placeholders, (eq, placeholder) -> PdfRenderSupport.formatTokens(eq, placeholder, glyphs));
+	}
+
+	/**
+	 * The display tokens of every line of every expression sheet.
+	 */
+	static List<List<List<String>>> expressionLines(List<List<Expression>> sheets, List<List<Integer>> placeholders,
+	                                                GlyphSet glyphs) {
+		return lines(sheets, placeholders,
+				(expression, placeholder) -> PdfRenderSupport.formatTokens(expression, placeholder, glyphs));
+	}
+
+	/**
+	 * The display tokens of every line of every fraction sheet. A line holding stacked fractions is
+	 * followed by an empty line, which gives the taller line the space of two.
+	 */
+	static List<List<List<String>>> fractionLines(List<List<FractionEquation>> sheets,
+	                                              List<List<Integer>> placeholders, GlyphSet glyphs) {
+		return lines(sheets, placeholders, (eq, placeholder) -> PdfRenderSupport.formatTokens(eq, placeholder, glyphs));
+	}
+
+	/**
+	 * Checks the sheets and formats every item into the tokens of its line; a line with stacked
+	 * fractions is followed by an empty one.
+	 */
+	private static <T> List<List<List<String>>> lines(List<List<T>> sheets, List<List<Integer>> placeholders,
+	                                                   LineFormat<T> format) {
+		checkSheets(sheets, placeholders);
+		List<List<List<String>>> lines = new ArrayList<>(sheets.size());
+		for (int i = 0; i < sheets.size(); i++) {
+			List<T> sheet = sheets.get(i);
+			List<List<String>> sheetLines = new ArrayList<>(sheet.size());
+			for (int j = 0; j < sheet.size(); j++) {
+				List<String> tokens = format.tokens(sheet.get(j), placeholders.get(i).get(j));
+				sheetLines.add(tokens);
+				if (tokens.stream().anyMatch(PdfRenderSupport::isStacked)) {
+					sheetLines.add(List.of());
+				}
+			}
+			lines.add(sheetLines);
+		}
+		return lines;
+	}
+
+	/**
+	 * Formats one item of a sheet into the display tokens of its line.
+	 */
+	@FunctionalInterface
+	private interface LineFormat<T> {
+		List<String> tokens(T item, int placeholder);
+	}
+}
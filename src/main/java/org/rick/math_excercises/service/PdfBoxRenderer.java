@@ -0,0 +1,526 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.util.Matrix;
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.model.Expression;
+import org.rick.math_excercises.model.FractionEquation;
+import org.rick.math_excercises.service.internal.FontCapabilities;
+import org.rick.math_excercises.service.internal.FontSupport;
+import org.rick.math_excercises.service.internal.IoUtils;
+import org.rick.math_excercises.service.internal.PdfRenderSupport;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Reference {@link EquationRenderer} building each document through PDFBox's object model.
+ *
+ * <p>With an {@link Imposition} other than {@link Imposition#NONE} each sheet is laid out as a Form
+ * XObject and drawn, scaled, into the cells of the physical pages.
+ */
+public class PdfBoxRenderer implements EquationRenderer {
+
+	private static final String NAME = "pdfbox";
+
+	private final FontCapabilities fonts;
+
+	private final PdfOutputMode mode;
+
+	private final Imposition imposition;
+
+	private final Imposition.Fill fill;
+
+	private final DocumentInspector inspector;
+
+	/**
+	 * Advance table and grids of the vertical layout, measured with the first document's font.
+	 */
+	private volatile VerticalLayout.Cache verticalLayouts;
+
+	/**
+	 * Writes the content of one page.
+	 */
+	@FunctionalInterface
+	private interface PageContent {
+		void write(PDPageContentStream contentStream, PDFont font) throws IOException;
+	}
+
+	/**
+	 * Receives every document after its pages are laid out and before it is saved and closed, e.g.
+	 * to rasterize previews without parsing the saved bytes again. It runs on the rendering thread.
+	 */
+	@FunctionalInterface
+	public interface DocumentInspector {
+		/**
+		 * Inspects a document; it must not be modified or closed.
+		 *
+		 * @param document the complete document
+		 * @throws IOException if the inspection fails, which fails the rendering
+		 */
+		void inspect(PDDocument document) throws IOException;
+	}
+
+	/**
+	 * @param mode how fonts are embedded
+	 * @throws IllegalStateException if no font can encode the worksheet glyphs
+	 */
+	public PdfBoxRenderer(PdfOutputMode mode) {
+		this(mode, document -> {
+		});
+	}
+
+	/**
+	 * Additionally hands every document to an inspector before saving it.
+	 *
+	 * @param mode      how fonts are embedded
+	 * @param inspector receives each document before it is saved
+	 * @throws IllegalStateException if no font can encode the worksheet glyphs
+	 */
+	public PdfBoxRenderer(PdfOutputMode mode, DocumentInspector inspector) {
+		this(mode, Imposition.NONE, Imposition.Fill.SHEETS, inspector);
+	}
+
+	/**
+	 * Places several sheets on every physical page.
+	 *
+	 * @param mode       how fonts are embedded
+	 * @param imposition how many sheets a page holds
+	 * @param fill       whether a page holds consecutive sheets or copies of one sheet
+	 * @throws IllegalStateException if no font can encode the worksheet glyphs
+	 */
+	public PdfBoxRenderer(PdfOutputMode mode, Imposition imposition, Imposition.Fill fill) {
+		this(mode, imposition, fill, document -> {
+		});
+	}
+
+	private PdfBoxRenderer(PdfOutputMode mode, Imposition imposition, Imposition.Fill fill,
+	                       DocumentInspector inspector) {
+		this.mode = mode;
+		this.imposition = imposition;
+		this.fill = fill;
+		this.inspector = inspector;
+		this.fonts = FontSupport.capabilities();
+	}
+
+	/**
+	 * The renderer name with the output mode, imposition and imposition fill.
+	 */
+	@Override
+	public String description() {
+		return String.join(" ", NAME, mode.name(), imposition.name(), fill.name());
+	}
+
+	@Override
+	public void render(List<List<Equation>> sheets, List<List<Integer>> placeholders, OutputStream out)
+			throws IOException {
+		renderLines(PageLayout.equationLines(sheets, placeholders, fonts.glyphs()), out);
+	}
+
+	@Override
+	public void renderExpressions(List<List<Expression>> sheets, List<List<Integer>> placeholders, OutputStream out)
+			throws IOException {
+		renderLines(PageLayout.expressionLines(sheets, placeholders, fonts.glyphs()), out);
+	}
+
+	@Override
+	public void renderFractions(List<List<FractionEquation>> sheets, List<List<Integer>> placeholders,
+	                            OutputStream out) throws IOException {
+		renderLines(PageLayout.fractionLines(sheets, placeholders, fonts.glyphs()), out);
+	}
+
+	@Override
+	public void renderVertical(List<List<Equation>> sheets, List<List<Integer>> placeholders, boolean carries,
+	                           OutputStream out) throws IOException {
+		try (PDDocument document = new PDDocument()) {
+			PDFont font = loadFont(document);
+			List<PageContent> pages = new ArrayList<>();
+			for (VerticalLayout.Page page : verticalLayouts(font).paginate(sheets, placeholders, carries)) {
+				pages.add((contentStream, pageFont) -> writeVerticalPage(contentStream, pageFont, page));
+			}
+			renderPages(document, font, pages, out);
+		}
+	}
+
+	private VerticalLayout.Cache verticalLayouts(PDFont font) {
+		VerticalLayout.Cache cache = verticalLayouts;
+		if (cache == null) {
+			cache = new VerticalLayout.Cache(text -> {
+				try {
+					return font.getStringWidth(text);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}, fonts.glyphs());
+			verticalLayouts = cache;
+		}
+		return cache;
+	}
+
+	/**
+	 * Draws a vertical page: the text in one text object, then the rules and carry boxes.
+	 */
+	private static void writeVerticalPage(PDPageContentStream contentStream, PDFont font, VerticalLayout.Page page)
+			throws IOException {
+		List<float[]> rules = new ArrayList<>();
+		List<float[]> boxes = new ArrayList<>();
+		contentStream.setFont(font, VerticalLayout.FONT_SIZE);
+		contentStream.beginText();
+		page.draw(new VerticalLayout.Canvas() {
+			@Override
+			public void text(float x, float y, String text) throws IOException {
+				contentStream.setTextMatrix(Matrix.getTranslateInstance(x, y));
+				contentStream.showText(text);
+			}
+
+			@Override
+			public void rule(float x, float y, float width, float height) {
+				rules.add(new float[]{x, y, width, height});
+			}
+
+			@Override
+			public void box(float x, float y, float size) {
+				boxes.add(new float[]{x, y, size, size});
+			}
+		});
+		contentStream.endText();
+		for (float[] rule : rules) {
+			contentStream.addRect(rule[0], rule[1], rule[2], rule[3]);
+		}
+		contentStream.fill();
+		if (!boxes.isEmpty()) {
+			contentStream.setLineWidth(VerticalLayout.CARRY_BOX_LINE_WIDTH);
+			for (float[] box : boxes) {
+				contentStream.addRect(box[0], box[1], box[2], box[3]);
+			}
+			contentStream.stroke();
+		}
+	}
+
+	private void renderLines(List<List<List<String>>> sheets, OutputStream out) throws IOException {
+		try (PDDocument document = new PDDocument()) {
+			PDFont font = loadFont(document);
+			List<PageContent> pages = new ArrayList<>(sheets.size());
+			for (List<List<String>> lines : sheets) {
+				pages.add((contentStream, pageFont) -> {
+					setupContentStream(contentStream, pageFont);
+					writeLinesToContentStream(contentStream, lines, pageFont);
+				});
+			}
+			renderPages(document, font, pages, out);
+		}
+	}
+
+	/**
+	 * Lays the pages out, imposed if configured, and saves the document.
+	 */
+	private void renderPages(PDDocument document, PDFont font, List<PageContent> pages, OutputStream out)
+			throws IOException {
+		if (imposition == Imposition.NONE) {
+			for (PageContent content : pages) {
+				document.addPage(layoutPage(document, font, content));
+			}
+		}
+		else {
+			impose(document, font, pages);
+		}
+		inspector.inspect(document);
+		WorksheetEvents.DocumentSave event = new WorksheetEvents.DocumentSave();
+		if (!event.isEnabled()) {
+			save(document, out);
+			return;
+		}
+		event.begin();
+		CountingOutputStream counted = new CountingOutputStream(out);
+		save(document, counted);
+		event.end();
+		if (event.shouldCommit()) {
+			event.renderer = NAME;
+			event.pages = document.getNumberOfPages();
+			event.bytes = counted.count;
+			event.commit();
+		}
+	}
+
+	private static void save(PDDocument document, OutputStream out) throws IOException {
+		// Cross-reference and object streams pack the small dictionaries of a sheet into one
+		// compressed stream.
+		document.save(out, CompressParameters.DEFAULT_COMPRESSION);
+	}
+
+	private PDFont loadFont(PDDocument document) throws IOException {
+		WorksheetEvents.FontLoad event = new WorksheetEvents.FontLoad();
+		event.begin();
+		PDFont font = mode == PdfOutputMode.COMPACT
+		              ? FontSupport.loadCompactFont(document, fonts)
+		              : FontSupport.loadFont(document, fonts);
+		event.end();
+		if (event.shouldCommit()) {
+			event.font = fonts.font().name();
+			event.compact = mode == PdfOutputMode.COMPACT;
+			event.commit();
+		}
+		return font;
+	}
+
+	private PDPage layoutPage(PDDocument document, PDFont font, PageContent content) throws IOException {
+		PDPage page = new PDPage();
+		try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
+			content.write(contentStream, font);
+		}
+		return page;
+	}
+
+	/**
+	 * Lays every sheet out once as a form and draws the forms into the cells of the physical pages,
+	 * followed by the cut marks.
+	 */
+	private void impose(PDDocument document, PDFont font, List<PageContent> sheets) throws IOException {
+		List<PDFormXObject> forms = new ArrayList<>(sheets.size());
+		for (PageContent content : sheets) {
+			forms.add(sheetForm(layoutPage(document, font, content)));
+		}
+		int cells = imposition.cells();
+		for (int pageIndex = 0; pageIndex < imposition.pages(forms.size(), fill); pageIndex++) {
+			PDPage page = new PDPage(imposition.paper());
+			document.addPage(page);
+			try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
+				for (int cell = 0; cell < cells; cell++) {
+					int sheet = fill == Imposition.Fill.COPIES ? pageIndex : pageIndex * cells + cell;
+					if (sheet >= forms.size()) {
+						break;
+					}
+					contentStream.saveGraphicsState();
+					contentStream.transform(imposition.placement(cell));
+					contentStream.drawForm(forms.get(sheet));
+					contentStream.restoreGraphicsState();
+				}
+				drawCutMarks(contentStream, page.getMediaBox());
+			}
+		}
+	}
+
+	/**
+	 * Turns a laid out sheet into a form sharing its content stream and resources; the page itself
+	 * is never added to the document.
+	 */
+	private static PDFormXObject sheetForm(PDPage sheet) {
+		PDFormXObject form = new PDFormXObject(sheet.getContentStreams().next());
+		form.setResources(sheet.getResources());
+		form.setBBox(sheet.getMediaBox());
+		return form;
+	}
+
+	private void drawCutMarks(PDPageContentStream contentStream, PDRectangle paper) throws IOException {
+		float length = Imposition.CUT_MARK_LENGTH;
+		contentStream.setLineWidth(0.25f);
+		for (float x : imposition.verticalCuts()) {
+			contentStream.moveTo(x, 0);
+			contentStream.lineTo(x, length);
+			contentStream.moveTo(x, paper.getHeight() - length);
+			contentStream.lineTo(x, paper.getHeight());
+		}
+		for (float y : imposition.horizontalCuts()) {
+			contentStream.moveTo(0, y);
+			contentStream.lineTo(length, y);
+			contentStream.moveTo(paper.getWidth() - length, y);
+			contentStream.lineTo(paper.getWidth(), y);
+		}
+		contentStream.stroke();
+	}
+
+	private void setupContentStream(PDPageContentStream contentStream, PDFont font)
+			throws IOException {
+		contentStream.setFont(font, PageLayout.BASE_FONT_SIZE);
+		contentStream.setLeading(PageLayout.LEADING);
+		contentStream.beginText();
+	}
+
+	private void writeLinesToContentStream(
+			PDPageContentStream contentStream, List<List<String>> lines, PDFont font) throws IOException {
+		List<List<List<String>>> columns = PdfRenderSupport.partition(lines, PageLayout.LINES_PER_COLUMN);
+		List<float[]> bars = new ArrayList<>();
+		LineCursor.Widths widths = text -> {
+			try {
+				return font.getStringWidth(text);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		};
+
+		IntStream.range(0, columns.size())
+				.forEach(
+						columnIndex ->
+								renderColumn(
+										contentStream, font, columns.get(columnIndex),
+										new LineCursor(widths, PageLayout.columnX(columnIndex), PageLayout.START_Y, bars),
+										columnIndex));
+		contentStream.endText();
+		for (float[] bar : bars) {
+			contentStream.addRect(bar[0], bar[1], bar[2], bar[3]);
+		}
+		if (!bars.isEmpty()) {
+			contentStream.fill();
+		}
+	}
+
+	/**
+	 * Renders a single column of lines at its {@link PageLayout#columnX(int) x offset}, starting at
+	 * {@link PageLayout#START_Y}.
+	 *
+	 * @param contentStream the PDF content stream to write to
+	 * @param font          the font to use for rendering
+	 * @param columnLines   the tokens of each line in this column
+	 * @param cursor        tracks the pen position for stacked fractions
+	 * @param column        the column index; columns after the first end and restart the text block
+	 */
+	private void renderColumn(PDPageContentStream contentStream, PDFont font,
+	                          List<List<String>> columnLines, LineCursor cursor, int column) {
+		IoUtils.safeIo(
+				() -> {
+					if (column > 0) {
+						contentStream.endText();
+						contentStream.beginText();
+						contentStream.setFont(font, PageLayout.BASE_FONT_SIZE);
+						contentStream.setLeading(PageLayout.LEADING);
+					}
+					contentStream.newLineAtOffset(PageLayout.columnX(column), PageLayout.START_Y);
+				});
+
+		WorksheetEvents.ColumnRender event = new WorksheetEvents.ColumnRender();
+		event.begin();
+		columnLines.forEach(tokens -> renderLine(contentStream, font, tokens, cursor));
+		event.end();
+		if (event.shouldCommit()) {
+			event.renderer = NAME;
+			event.column = column;
+			event.lines = columnLines.size();
+			event.commit();
+		}
+	}
+
+	/**
+	 * Renders a single equation or expression line.
+	 *
+	 * @param contentStream the PDF content stream
+	 * @param font          the font to use
+	 * @param tokens        the display tokens of the line, placeholder already applied
+	 * @param cursor        tracks the pen position for stacked fractions
+	 */
+	private void renderLine(PDPageContentStream contentStream, PDFont font, List<String> tokens, LineCursor cursor) {
+		IoUtils.safeIo(
+				() -> {
+					renderEquationLine(contentStream, font, tokens, cursor);
+					contentStream.newLine();
+					cursor.newLine();
+				});
+	}
+
+	/**
+	 * Renders a sequence of equation tokens, applying operator styling where appropriate.
+	 *
+	 * @param contentStream the PDF content stream
+	 * @param font          the font to use
+	 * @param tokens        the tokens representing the equation (operands, operators, equals sign, result)
+	 * @param cursor        tracks the pen position for stacked fractions
+	 */
+	private void renderEquationLine(PDPageContentStream contentStream, PDFont font, List<String> tokens,
+	                                LineCursor cursor) {
+		IntStream.range(0, tokens.size())
+				.forEach(i -> renderToken(contentStream, font, tokens, i, cursor));
+	}
+
+	/**
+	 * Renders a single token, applying operator font sizing and spacing.
+	 *
+	 * @param contentStream the PDF content stream
+	 * @param font          the font to use
+	 * @param tokens        the full list of tokens (needed for spacing logic)
+	 * @param tokenIndex    the index of the current token
+	 * @param cursor        tracks the pen position for stacked fractions
+	 */
+	private void renderToken(PDPageContentStream contentStream, PDFont font,
+	                         List<String> tokens, int tokenIndex, LineCursor cursor) {
+		IoUtils.safeIo(
+				() -> {
+					String token = tokens.get(tokenIndex);
+					if (PdfRenderSupport.isStacked(token)) {
+						renderStacked(contentStream, font, token, cursor);
+					}
+					else {
+						float size = fonts.glyphs().isOperator(token) ? PageLayout.OPERATOR_FONT_SIZE : PageLayout.BASE_FONT_SIZE;
+						contentStream.setFont(font, size);
+						contentStream.showText(token);
+						cursor.advance(token, size);
+					}
+					if (tokenIndex < tokens.size() - 1) {
+						contentStream.setFont(font, PageLayout.BASE_FONT_SIZE);
+						contentStream.showText(" ");
+						cursor.advance(" ", PageLayout.BASE_FONT_SIZE);
+					}
+				});
+	}
+
+	/**
+	 * Renders a stacked fraction token: numerator raised and denominator lowered in the fraction
+	 * font size, centered on each other; the bar is painted after the text.
+	 */
+	private void renderStacked(PDPageContentStream contentStream, PDFont font, String token, LineCursor cursor)
+			throws IOException {
+		int split = token.indexOf(PdfRenderSupport.STACK);
+		String numerator = token.substring(0, split);
+		String denominator = token.substring(split + 1);
+		LineCursor.Stack stack = cursor.stack(numerator, denominator);
+		contentStream.setFont(font, PageLayout.FRACTION_FONT_SIZE);
+		contentStream.setTextRise(PageLayout.NUMERATOR_RISE);
+		contentStream.showTextWithPositioning(new Object[]{stack.beforeNumerator(), numerator, stack.beforeDenominator()});
+		contentStream.setTextRise(PageLayout.DENOMINATOR_RISE);
+		contentStream.showTextWithPositioning(new Object[]{denominator, stack.afterDenominator()});
+		contentStream.setTextRise(0);
+	}
+
+	/**
+	 * Counts the bytes written through it, for {@link WorksheetEvents.DocumentSave}.
+	 */
+	private static final class CountingOutputStream extends FilterOutputStream {
+
+		private long count;
+
+		CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+}
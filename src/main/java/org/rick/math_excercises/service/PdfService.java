@@ -11,183 +11,279 @@
 package org.rick.math_excercises.service;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
-import org.apache.pdfbox.pdmodel.font.PDFont;
-import org.apache.pdfbox.pdmodel.font.PDType0Font;
-import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
 import org.rick.math_excercises.model.Equation;
-import org.rick.math_excercises.service.internal.IoUtils;
+import org.rick.math_excercises.model.Expression;
+import org.rick.math_excercises.model.FractionEquation;
+import org.rick.math_excercises.service.internal.CurrentThreadRandom;
 import org.rick.math_excercises.service.internal.PdfRenderSupport;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.random.RandomGenerator;
-import java.util.stream.IntStream;
 
 /**
  * Service responsible for rendering a list of {@link Equation} instances into a PDF document.
+ *
+ * <p>The service chooses the placeholder positions, names the output files and records statistics;
+ * the documents themselves are produced by an {@link EquationRenderer}.
  */
 @Slf4j
 public class PdfService {
 
-	private static final float BASE_FONT_SIZE = 12f;
-	private static final float OPERATOR_FONT_SIZE = BASE_FONT_SIZE + 1f;
-	private static final int LINES_PER_COLUMN = 50;
-
 	private final RandomGenerator random;
 
+	private final GenerationStats stats;
+
+	private final EquationRenderer renderer;
+
 	/**
-	 * Default constructor uses thread-local randomness.
+	 * Default constructor uses thread-local randomness of the calling thread, so the
+	 * instance can be shared between threads.
 	 */
 	public PdfService() {
-		this(ThreadLocalRandom.current());
+		this(CurrentThreadRandom.INSTANCE);
 	}
 
 	/**
 	 * Injectable randomness for deterministic tests.
+	 *
+	 * <p>Probes the available fonts on first construction so that a deployment without a usable font
+	 * fails here, before any equations are generated.
+	 *
+	 * @throws IllegalStateException if no font can encode the worksheet glyphs
 	 */
 	public PdfService(RandomGenerator random) {
+		this(random, GenerationStats.NONE);
+	}
+
+	/**
+	 * Records the placeholder positions chosen for every rendered sheet in the given statistics.
+	 *
+	 * @param random the random generator choosing placeholder positions
+	 * @param stats  statistics receiving the placeholder distribution
+	 * @throws IllegalStateException if no font can encode the worksheet glyphs
+	 */
+	public PdfService(RandomGenerator random, GenerationStats stats) {
+		this(random, stats, PdfOutputMode.STANDARD);
+	}
+
+	/**
+	 * Additionally selects how fonts are embedded; see {@link PdfOutputMode}.
+	 *
+	 * @param random the random generator choosing placeholder positions
+	 * @param stats  statistics receiving the placeholder distribution and output sizes
+	 * @param mode   the output mode
+	 * @throws IllegalStateException if no font can encode the worksheet glyphs
+	 */
+	public PdfService(RandomGenerator random, GenerationStats stats, PdfOutputMode mode) {
+		this(random, stats, new PdfBoxRenderer(mode));
+	}
+
+	/**
+	 * Renders with the given renderer, e.g. the {@link DirectPdfRenderer} for bulk output.
+	 *
+	 * @param random   the random generator choosing placeholder positions
+	 * @param stats    statistics receiving the placeholder distribution and output sizes
+	 * @param renderer the renderer producing the documents
+	 */
+	public PdfService(RandomGenerator random, GenerationStats stats, EquationRenderer renderer) {
 		this.random = random;
+		this.stats = stats;
+		this.renderer = renderer;
 	}
 
 	public void generatePdf(List<Equation> equations, int iteration) {
 		if (equations.isEmpty()) {
 			throw new IllegalArgumentException("Equations list cannot be empty.");
 		}
-		String baseName = System.getProperty("outputBaseName", "MathExercises");
-		String suffix = System.getProperty("outputSuffix", "");
-		try (PDDocument document = new PDDocument()) {
-			PDPage page = new PDPage();
-			document.addPage(page);
-			try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
-				PDFont font = loadFont(document);
-				setupContentStream(contentStream, font);
-				writeEquationsToContentStream(contentStream, equations, page, font);
-			}
-			document.save(baseName + "_" + iteration + suffix + ".pdf");
+		generatePdf(equations, choosePlaceholders(equations.size()), iteration);
+	}
+
+	/**
+	 * Renders a sheet in the given layout to the file named for the iteration.
+	 *
+	 * @param equations the equations to render
+	 * @param layout    the page layout
+	 * @param iteration the sheet number used in the output file name
+	 * @throws IllegalArgumentException if equations is empty or the layout cannot show one of them
+	 */
+	public void generatePdf(List<Equation> equations, SheetLayout layout, int iteration) {
+		if (equations.isEmpty()) {
+			throw new IllegalArgumentException("Equations list cannot be empty.");
+		}
+		List<Integer> placeholders = choosePlaceholders(equations.size());
+		writeSheet(out -> renderer.renderSheet(equations, placeholders, layout, out), iteration);
+	}
+
+	/**
+	 * Renders equations with previously chosen placeholder positions, e.g. from a stored exercise
+	 * set, so that a reprinted sheet is identical to the original.
+	 *
+	 * @param equations    the equations to render
+	 * @param placeholders one placeholder index (1=first operand, 2=second operand, 3=result) per
+	 *                     equation
+	 * @param iteration    the sheet number used in the output file name
+	 * @throws IllegalArgumentException if equations is empty or the list sizes differ
+	 */
+	public void generatePdf(List<Equation> equations, List<Integer> placeholders, int iteration) {
+		if (equations.isEmpty()) {
+			throw new IllegalArgumentException("Equations list cannot be empty.");
+		}
+		if (placeholders.size() != equations.size()) {
+			throw new IllegalArgumentException("Expected one placeholder per equation.");
+		}
+		try {
+			write(List.of(equations), List.of(placeholders), Path.of(outputFileName(iteration)));
 		} catch (IOException e) {
 			log.info(e.getMessage(), e);
 		}
 	}
 
-	private PDFont loadFont(PDDocument document) throws IOException {
-		var stream = getClass().getResourceAsStream("/arialuni.ttf");
-		if (stream != null) {
-			try {
-				return PDType0Font.load(document, stream);
-			} catch (IOException e) {
-				log.warn("Failed to load arialuni.ttf, falling back to Helvetica", e);
-			}
-		}
-		else {
-			log.warn("Font resource /arialuni.ttf not found; falling back to Helvetica");
+	/**
+	 * Renders a sheet of multi-term expressions, e.g. from an {@link ExpressionGenerator}, in the same
+	 * layout as equation sheets. Each expression blanks one randomly chosen operand or its result;
+	 * these placeholders are not recorded in the statistics, whose placeholder histogram covers the
+	 * three slots of binary equations.
+	 *
+	 * @param expressions the expressions to render
+	 * @param iteration   the sheet number used in the output file name
+	 * @throws IllegalArgumentException if expressions is empty
+	 */
+	public void generateExpressionPdf(List<Expression> expressions, int iteration) {
+		if (expressions.isEmpty()) {
+			throw new IllegalArgumentException("Expressions list cannot be empty.");
 		}
-		return new org.apache.pdfbox.pdmodel.font.PDType1Font(Standard14Fonts.FontName.HELVETICA);
+		List<Integer> placeholders = PdfRenderSupport.placeholderSequence(random, expressions);
+		writeSheet(out -> renderer.renderExpressions(List.of(expressions), List.of(placeholders), out), iteration);
 	}
 
-	private void setupContentStream(PDPageContentStream contentStream, PDFont font)
-			throws IOException {
-		contentStream.setFont(font, BASE_FONT_SIZE);
-		contentStream.setLeading(14.5f);
-		contentStream.beginText();
+	/**
+	 * Renders a sheet of fraction and decimal exercises, e.g. from a
+	 * {@link org.rick.math_excercises.fraction.FractionGenerator}. Fractions are drawn stacked, so a
+	 * column holds half as many fraction lines as equation lines. Placeholders are chosen as for
+	 * equations but not recorded in the statistics.
+	 *
+	 * @param exercises the exercises to render
+	 * @param iteration the sheet number used in the output file name
+	 * @throws IllegalArgumentException if exercises is empty
+	 */
+	public void generateFractionPdf(List<FractionEquation> exercises, int iteration) {
+		if (exercises.isEmpty()) {
+			throw new IllegalArgumentException("Exercises list cannot be empty.");
+		}
+		List<Integer> placeholders = PdfRenderSupport.placeholderSequence(random, exercises.size());
+		writeSheet(out -> renderer.renderFractions(List.of(exercises), List.of(placeholders), out), iteration);
 	}
 
-	private void writeEquationsToContentStream(
-			PDPageContentStream contentStream, List<Equation> equations, PDPage page, PDFont font)
-			throws IOException {
-		final float margin = 50f;
-		final float pageWidth = page.getMediaBox().getWidth();
-		final float columnWidth = (pageWidth - (4 * margin)) / 3;
-		final float startY = 725f;
-		List<List<Equation>> columns = PdfRenderSupport.partition(equations, LINES_PER_COLUMN);
+	private void writeSheet(SheetWriter writer, int iteration) {
+		Path output = Path.of(outputFileName(iteration));
+		try {
+			try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output))) {
+				writer.write(out);
+			}
+			stats.recordOutput(1, Files.size(output));
+		} catch (IOException e) {
+			log.info(e.getMessage(), e);
+		}
+	}
 
-		IntStream.range(0, columns.size())
-				.forEach(
-						columnIndex ->
-								renderColumn(
-										contentStream, font, columns.get(columnIndex), margin + columnIndex * columnWidth,
-										startY, columnIndex > 0));
-		contentStream.endText();
+	/**
+	 * Renders a sheet in memory without writing it, so that rendering and writing can run on
+	 * different threads.
+	 *
+	 * @param equations the equations to render
+	 * @return the PDF document bytes
+	 * @throws IOException              if the document cannot be rendered
+	 * @throws IllegalArgumentException if equations is empty
+	 */
+	public byte[] renderPdf(List<Equation> equations) throws IOException {
+		return renderPdf(equations, SheetLayout.HORIZONTAL);
 	}
 
 	/**
-	 * Renders a single column of equations at the specified X offset.
+	 * Renders a sheet in the given layout in memory without writing it.
 	 *
-	 * @param contentStream   the PDF content stream to write to
-	 * @param font            the font to use for rendering
-	 * @param columnEquations equations to render in this column
-	 * @param startX          the X coordinate for this column
-	 * @param startY          the Y coordinate for the column start
-	 * @param resetTextBlock  whether to end and restart the text block (for columns after the first)
+	 * @param equations the equations to render
+	 * @param layout    the page layout
+	 * @return the PDF document bytes
+	 * @throws IOException              if the document cannot be rendered
+	 * @throws IllegalArgumentException if equations is empty or the layout cannot show one of them
 	 */
-	private void renderColumn(PDPageContentStream contentStream, PDFont font,
-	                          List<Equation> columnEquations, float startX, float startY, boolean resetTextBlock) {
-		IoUtils.safeIo(
-				() -> {
-					if (resetTextBlock) {
-						contentStream.endText();
-						contentStream.beginText();
-						contentStream.setFont(font, BASE_FONT_SIZE);
-						contentStream.setLeading(14.5f);
-					}
-					contentStream.newLineAtOffset(startX, startY);
-				});
-
-		columnEquations.forEach(eq -> renderEquation(contentStream, font, eq));
+	public byte[] renderPdf(List<Equation> equations, SheetLayout layout) throws IOException {
+		if (equations.isEmpty()) {
+			throw new IllegalArgumentException("Equations list cannot be empty.");
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+		renderer.renderSheet(equations, choosePlaceholders(equations.size()), layout, out);
+		stats.recordOutput(1, out.size());
+		return out.toByteArray();
 	}
 
 	/**
-	 * Renders a single equation line with a random placeholder.
+	 * The file name a sheet is saved under: {@code <outputBaseName>_<iteration><outputSuffix>.pdf},
+	 * using the system properties {@code outputBaseName} (default "MathExercises") and
+	 * {@code outputSuffix} (default empty).
 	 *
-	 * @param contentStream the PDF content stream
-	 * @param font          the font to use
-	 * @param equation      the equation to render
+	 * @param iteration the sheet number
+	 * @return the output file name
 	 */
-	private void renderEquation(PDPageContentStream contentStream, PDFont font, Equation equation) {
-		IoUtils.safeIo(
-				() -> {
-					int placeholderIndex = PdfRenderSupport.choosePlaceholderIndex(random);
-					List<String> tokens = PdfRenderSupport.formatTokens(equation, placeholderIndex);
-					renderEquationLine(contentStream, font, tokens);
-					contentStream.newLine();
-				});
+	public static String outputFileName(int iteration) {
+		String baseName = System.getProperty("outputBaseName", "MathExercises");
+		String suffix = System.getProperty("outputSuffix", "");
+		return baseName + "_" + iteration + suffix + ".pdf";
 	}
 
 	/**
-	 * Renders a sequence of equation tokens, applying operator styling where appropriate.
+	 * The file name a document holding a range of sheets is saved under:
+	 * {@code <outputBaseName>_<first>-<last><outputSuffix>.pdf}.
 	 *
-	 * @param contentStream the PDF content stream
-	 * @param font          the font to use
-	 * @param tokens        the tokens representing the equation (operands, operators, equals sign, result)
+	 * @param first the number of the first sheet
+	 * @param last  the number of the last sheet
+	 * @return the output file name
 	 */
-	private void renderEquationLine(PDPageContentStream contentStream, PDFont font, List<String> tokens) {
-		IntStream.range(0, tokens.size())
-				.forEach(i -> renderToken(contentStream, font, tokens, i));
+	public static String outputFileName(int first, int last) {
+		String baseName = System.getProperty("outputBaseName", "MathExercises");
+		String suffix = System.getProperty("outputSuffix", "");
+		return baseName + "_" + first + "-" + last + suffix + ".pdf";
 	}
 
 	/**
-	 * Renders a single token, applying operator font sizing and spacing.
+	 * Renders several sheets into one multi-page document, one sheet per page, sharing a single
+	 * embedded font.
 	 *
-	 * @param contentStream the PDF content stream
-	 * @param font          the font to use
-	 * @param tokens        the full list of tokens (needed for spacing logic)
-	 * @param tokenIndex    the index of the current token
+	 * @param sheets the equations of each sheet
+	 * @param output the file to write
+	 * @throws IOException              if the document cannot be written
+	 * @throws IllegalArgumentException if there are no sheets or a sheet is empty
 	 */
-	private void renderToken(PDPageContentStream contentStream, PDFont font,
-	                         List<String> tokens, int tokenIndex) {
-		IoUtils.safeIo(
-				() -> {
-					String token = tokens.get(tokenIndex);
-					boolean isOperator = PdfRenderSupport.isOperatorToken(token);
-					contentStream.setFont(font, isOperator ? OPERATOR_FONT_SIZE : BASE_FONT_SIZE);
-					contentStream.showText(token);
-					if (tokenIndex < tokens.size() - 1) {
-						contentStream.setFont(font, BASE_FONT_SIZE);
-						contentStream.showText(" ");
-					}
-				});
+	public void generatePdf(List<List<Equation>> sheets, Path output) throws IOException {
+		if (sheets.isEmpty() || sheets.stream().anyMatch(List::isEmpty)) {
+			throw new IllegalArgumentException("Sheets cannot be empty.");
+		}
+		write(sheets, sheets.stream().map(sheet -> choosePlaceholders(sheet.size())).toList(), output);
+	}
+
+	private void write(List<List<Equation>> sheets, List<List<Integer>> placeholders, Path output)
+			throws IOException {
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output))) {
+			renderer.render(sheets, placeholders, out);
+		}
+		stats.recordOutput(sheets.size(), Files.size(output));
+	}
+
+	private List<Integer> choosePlaceholders(int count) {
+		List<Integer> placeholders = PdfRenderSupport.placeholderSequence(random, count);
+		stats.recordPlaceholders(placeholders);
+		return placeholders;
+	}
+
+	@FunctionalInterface
+	private interface SheetWriter {
+		void write(OutputStream out) throws IOException;
 	}
 }
@@ -0,0 +1,54 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import java.util.Locale;
+
+/**
+ * Page layouts a sheet can be rendered in.
+ */
+public enum SheetLayout {
+	/**
+	 * Horizontal {@code a + b = □} lines, 50 per column.
+	 */
+	HORIZONTAL,
+	/**
+	 * Stacked column arithmetic: operands right-aligned above a rule with the result below. Supports
+	 * addition, subtraction and multiplication.
+	 */
+	VERTICAL,
+	/**
+	 * {@link #VERTICAL} with a row of carry boxes above every digit but the units.
+	 */
+	VERTICAL_WITH_CARRIES;
+
+	/**
+	 * Whether problems are written in columns.
+	 */
+	public boolean vertical() {
+		return this != HORIZONTAL;
+	}
+
+	/**
+	 * Parses the value of the {@code layout} option ({@code horizontal}, {@code vertical} or
+	 * {@code vertical_with_carries}, case-insensitive).
+	 *
+	 * @throws IllegalArgumentException if the value is unknown
+	 */
+	public static SheetLayout parse(String value) {
+		try {
+			return valueOf(value.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException(
+					"Unknown layout: " + value + ". Allowed: horizontal,vertical,vertical_with_carries");
+		}
+	}
+}
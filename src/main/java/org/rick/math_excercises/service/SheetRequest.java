@@ -0,0 +1,104 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.internal.PdfRenderSupport;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Everything that determines a generated sheet. Two equal requests always yield the same equations
+ * and placeholder positions, which makes requests usable as cache keys and sheet identifiers.
+ *
+ * @param limit             upper bound for operands and results (must be >= 10)
+ * @param numberOfExercises equations on the sheet (must be >= 1)
+ * @param operations        allowed operations in enum order; null/empty becomes ADDITION and
+ *                          SUBTRACTION
+ * @param seed              seed of the sheet's random generators
+ * @param layout            page layout
+ */
+public record SheetRequest(int limit, int numberOfExercises, List<Operations> operations, long seed,
+                           SheetLayout layout) {
+
+	private static final long PLACEHOLDER_SALT = 0x5DEECE66DL;
+
+	/**
+	 * Validates and normalizes the request.
+	 *
+	 * @throws IllegalArgumentException if limit {@code <} 10, numberOfExercises {@code <} 1 or a
+	 *                                  vertical layout is combined with DIVISION
+	 */
+	public SheetRequest {
+		if (limit < 10) {
+			throw new IllegalArgumentException("Limit must be greater than or equal to 10.");
+		}
+		if (numberOfExercises < 1) {
+			throw new IllegalArgumentException("numberOfExercises must be >= 1");
+		}
+		operations = normalize(operations);
+		Objects.requireNonNull(layout, "layout");
+		if (layout.vertical() && operations.contains(Operations.DIVISION)) {
+			throw new IllegalArgumentException("The " + layout + " layout does not support DIVISION");
+		}
+	}
+
+	/**
+	 * Creates a horizontal-layout request.
+	 */
+	public static SheetRequest of(int limit, int numberOfExercises, Collection<Operations> operations, long seed) {
+		return new SheetRequest(limit, numberOfExercises, operations == null ? null : List.copyOf(operations), seed,
+				SheetLayout.HORIZONTAL);
+	}
+
+	/**
+	 * Random generator for the sheet's equations.
+	 */
+	public RandomGenerator generationRandom() {
+		return new SplittableRandom(seed);
+	}
+
+	/**
+	 * Random generator for the sheet's placeholder positions.
+	 */
+	public RandomGenerator placeholderRandom() {
+		return new SplittableRandom(seed ^ PLACEHOLDER_SALT);
+	}
+
+	/**
+	 * Generates the sheet's equations.
+	 */
+	public List<Equation> equations() {
+		return new GenerateService(generationRandom()).generateExercises(limit, numberOfExercises, operations);
+	}
+
+	/**
+	 * The placeholder positions a {@link PdfService} seeded with {@link #placeholderRandom()} chooses
+	 * for the sheet.
+	 */
+	public List<Integer> placeholders() {
+		return PdfRenderSupport.placeholderSequence(placeholderRandom(), numberOfExercises);
+	}
+
+	private static List<Operations> normalize(List<Operations> operations) {
+		if (operations == null || operations.stream().allMatch(Objects::isNull)) {
+			return List.of(Operations.ADDITION, Operations.SUBTRACTION);
+		}
+		EnumSet<Operations> set = EnumSet.noneOf(Operations.class);
+		operations.stream().filter(Objects::nonNull).forEach(set::add);
+		return List.copyOf(set);
+	}
+}
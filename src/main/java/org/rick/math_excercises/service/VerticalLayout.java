@@ -0,0 +1,286 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.internal.GlyphSet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Geometry of the vertical (column arithmetic) worksheet page shared by the {@link EquationRenderer}
+ * implementations.
+ *
+ * <p>Every problem is stacked in a grid of digit slots: the operands right-aligned above each other
+ * with the operator half a slot left of the widest number, a rule, and the result below, optionally
+ * topped by a row of carry boxes. A blanked number is shown as one placeholder per digit. The slot
+ * width is the widest digit advance, so columns line up in any font; with tabular digits, as in the
+ * bundled font and Helvetica, each number is shown as a single string. An instance holds the grid of
+ * problem origins for one digit count; a {@link Cache} holds the advance table of one font and the
+ * instances built from it, so renderers measure glyphs and place the grid once and only look
+ * positions up while rendering.
+ */
+final class VerticalLayout {
+
+	static final float FONT_SIZE = 18f;
+	static final float ROW_HEIGHT = 22f;
+	static final float RULE_THICKNESS = 1f;
+	static final float CARRY_ROW_HEIGHT = 13f;
+	static final float CARRY_BOX = 8f;
+	static final float CARRY_BOX_LINE_WIDTH = 0.6f;
+
+	/**
+	 * Space between the operator and the widest number, in digit slots.
+	 */
+	static final float OPERATOR_GAP = 0.5f;
+
+	/**
+	 * Receives the positioned output of a page. Text is shown in {@link #FONT_SIZE}.
+	 */
+	interface Canvas {
+		void text(float x, float y, String text) throws IOException;
+
+		void rule(float x, float y, float width, float height) throws IOException;
+
+		void box(float x, float y, float size) throws IOException;
+	}
+
+	/**
+	 * The advance table of one font in {@link #FONT_SIZE} and the layouts built from it.
+	 * Thread-safe.
+	 */
+	static final class Cache {
+
+		private final GlyphSet glyphs;
+		private final Map<String, Float> advances = new HashMap<>();
+		private final Map<Integer, VerticalLayout> layouts = new ConcurrentHashMap<>();
+
+		/**
+		 * Measures the digits and the placeholder once.
+		 *
+		 * @param widths advance widths of the font in thousandths of the font size
+		 * @param glyphs the glyph set of the font
+		 */
+		Cache(LineCursor.Widths widths, GlyphSet glyphs) {
+			this.glyphs = glyphs;
+			for (int d = 0; d < 10; d++) {
+				advances.put(String.valueOf(d), widths.width(String.valueOf(d)));
+			}
+			advances.put(glyphs.placeholder(), widths.width(glyphs.placeholder()));
+		}
+
+		/**
+		 * The layout for problems of the given number of digit slots.
+		 */
+		VerticalLayout layout(boolean carries, int digits) {
+			return layouts.computeIfAbsent(carries ? -digits : digits,
+					key -> new VerticalLayout(advances::get, glyphs, carries, digits));
+		}
+
+		/**
+		 * Splits sheets into pages; every sheet starts a new page and uses the layout of its widest
+		 * number.
+		 *
+		 * @throws IllegalArgumentException if the sheets and placeholders do not match or a problem
+		 *                                  cannot be written in columns
+		 */
+		List<Page> paginate(List<List<Equation>> sheets, List<List<Integer>> placeholders, boolean carries) {
+			PageLayout.checkSheets(sheets, placeholders);
+			List<Page> pages = new ArrayList<>();
+			for (int sheet = 0; sheet < sheets.size(); sheet++) {
+				List<Equation> problems = sheets.get(sheet);
+				checkProblems(problems);
+				VerticalLayout layout = layout(carries, digits(problems));
+				int perPage = layout.problemsPerPage();
+				for (int from = 0; from < problems.size(); from += perPage) {
+					int to = Math.min(problems.size(), from + perPage);
+					pages.add(new Page(layout, problems.subList(from, to), placeholders.get(sheet).subList(from, to)));
+				}
+			}
+			return pages;
+		}
+	}
+
+	/**
+	 * The problems of one page and the layout they are drawn in.
+	 */
+	record Page(VerticalLayout layout, List<Equation> problems, List<Integer> placeholders) {
+		void draw(Canvas canvas) throws IOException {
+			layout.drawPage(problems, placeholders, canvas);
+		}
+	}
+
+	private final GlyphSet glyphs;
+	private final boolean carries;
+	private final int digits;
+	private final float[] digitAdvance = new float[10];
+	private final float slot;
+	private final boolean tabular;
+	private final float placeholderAdvance;
+	private final float problemWidth;
+	private final float problemHeight;
+	private final float[] columnX;
+	private final float[] rowTop;
+
+	/**
+	 * @param widths  advance widths of the font in thousandths of the font size
+	 * @param glyphs  the glyph set of the font
+	 * @param carries whether problems get a row of carry boxes
+	 * @param digits  the number of digit slots of every problem
+	 */
+	VerticalLayout(LineCursor.Widths widths, GlyphSet glyphs, boolean carries, int digits) {
+		this.glyphs = glyphs;
+		this.carries = carries;
+		this.digits = digits;
+		float widest = 0;
+		for (int d = 0; d < 10; d++) {
+			digitAdvance[d] = widths.width(String.valueOf(d)) * FONT_SIZE / 1000f;
+			widest = Math.max(widest, digitAdvance[d]);
+		}
+		this.slot = widest;
+		boolean equal = true;
+		for (float advance : digitAdvance) {
+			equal &= advance == widest;
+		}
+		this.tabular = equal;
+		this.placeholderAdvance = widths.width(glyphs.placeholder()) * FONT_SIZE / 1000f;
+		this.problemWidth = (digits + 1 + OPERATOR_GAP) * slot;
+		this.problemHeight = (carries ? CARRY_ROW_HEIGHT : 0) + 3 * ROW_HEIGHT + 2 * RULE_THICKNESS;
+
+		float usableWidth = PageLayout.PAGE_WIDTH - 2 * PageLayout.MARGIN;
+		float gapX = 2 * slot;
+		int across = Math.max(1, (int) ((usableWidth + gapX) / (problemWidth + gapX)));
+		float pitchX = across > 1 ? (usableWidth - problemWidth) / (across - 1) : 0;
+		this.columnX = new float[across];
+		for (int i = 0; i < across; i++) {
+			columnX[i] = PageLayout.MARGIN + i * pitchX;
+		}
+		float top = PageLayout.START_Y + PageLayout.BASE_FONT_SIZE;
+		float gapY = ROW_HEIGHT;
+		int down = Math.max(1, (int) ((top - PageLayout.MARGIN + gapY) / (problemHeight + gapY)));
+		this.rowTop = new float[down];
+		for (int i = 0; i < down; i++) {
+			rowTop[i] = top - i * (problemHeight + gapY);
+		}
+	}
+
+	/**
+	 * The number of digit slots needed for the widest number of the given problems.
+	 */
+	static int digits(List<Equation> problems) {
+		int widest = 1;
+		for (Equation problem : problems) {
+			widest = Math.max(widest, Math.max(length(problem.firstNumber()),
+					Math.max(length(problem.secondNumber()), length(problem.result()))));
+		}
+		return widest;
+	}
+
+	/**
+	 * Checks that every problem can be written in columns.
+	 *
+	 * @throws IllegalArgumentException if a problem is a division or has a negative number
+	 */
+	static void checkProblems(List<Equation> problems) {
+		for (Equation problem : problems) {
+			if (problem.operator() == '÷') {
+				throw new IllegalArgumentException("The vertical layout supports addition, subtraction and multiplication");
+			}
+			if (problem.firstNumber() < 0 || problem.secondNumber() < 0 || problem.result() < 0) {
+				throw new IllegalArgumentException("The vertical layout needs non-negative numbers: " + problem);
+			}
+		}
+	}
+
+	/**
+	 * The number of problems a page holds.
+	 */
+	int problemsPerPage() {
+		return columnX.length * rowTop.length;
+	}
+
+	int digits() {
+		return digits;
+	}
+
+	boolean carries() {
+		return carries;
+	}
+
+	/**
+	 * Draws the problems of one page in reading order.
+	 *
+	 * @param problems     at most {@link #problemsPerPage()} problems
+	 * @param placeholders one placeholder index (1=first operand, 2=second operand, 3=result) per problem
+	 * @param canvas       receives the output
+	 */
+	void drawPage(List<Equation> problems, List<Integer> placeholders, Canvas canvas) throws IOException {
+		for (int i = 0; i < problems.size(); i++) {
+			drawProblem(problems.get(i), placeholders.get(i), columnX[i % columnX.length],
+					rowTop[i / columnX.length], canvas);
+		}
+	}
+
+	private void drawProblem(Equation problem, int placeholder, float x, float top, Canvas canvas) throws IOException {
+		if (placeholder < 1 || placeholder > 3) {
+			throw new IllegalArgumentException("placeholderIndex must be 1..3");
+		}
+		float right = x + problemWidth;
+		float firstBaseline = top - (carries ? CARRY_ROW_HEIGHT : 0) - ROW_HEIGHT;
+		float secondBaseline = firstBaseline - ROW_HEIGHT;
+		float ruleY = secondBaseline - 0.3f * ROW_HEIGHT;
+		float resultBaseline = ruleY - ROW_HEIGHT;
+		if (carries) {
+			for (int column = 1; column < digits; column++) {
+				float slotX = right - (column + 1) * slot;
+				canvas.box(slotX + (slot - CARRY_BOX) / 2, top - CARRY_ROW_HEIGHT + 2, CARRY_BOX);
+			}
+		}
+		drawNumber(problem.firstNumber(), placeholder == 1, right, firstBaseline, canvas);
+		String operator = glyphs.operator(problem.operator());
+		canvas.text(x, secondBaseline, operator);
+		drawNumber(problem.secondNumber(), placeholder == 2, right, secondBaseline, canvas);
+		canvas.rule(x, ruleY, problemWidth, RULE_THICKNESS);
+		drawNumber(problem.result(), placeholder == 3, right, resultBaseline, canvas);
+	}
+
+	/**
+	 * Shows a number right-aligned to the given edge, one digit per slot, or a placeholder in each of
+	 * its slots.
+	 */
+	private void drawNumber(int value, boolean blank, float right, float baseline, Canvas canvas) throws IOException {
+		String number = String.valueOf(value);
+		float start = right - number.length() * slot;
+		if (blank) {
+			for (int i = 0; i < number.length(); i++) {
+				canvas.text(start + i * slot + (slot - placeholderAdvance) / 2, baseline, glyphs.placeholder());
+			}
+		}
+		else if (tabular) {
+			canvas.text(start, baseline, number);
+		}
+		else {
+			for (int i = 0; i < number.length(); i++) {
+				int digit = number.charAt(i) - '0';
+				canvas.text(start + i * slot + (slot - digitAdvance[digit]) / 2, baseline, number.substring(i, i + 1));
+			}
+		}
+	}
+
+	private static int length(int value) {
+		return String.valueOf(value).length();
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events committed by the generation and rendering hot paths and the adaptive
+ * pipeline.
+ *
+ * <p>The events are disabled unless a recording enables them, e.g. with the bundled
+ * {@code jfr/worksheets.jfc} settings. A disabled event costs a flag check: the event objects do not
+ * escape and are removed by the JIT, and fields are only filled in once {@code shouldCommit()} holds.
+ * The names are public so that recordings can be analyzed, see
+ * {@link org.rick.math_excercises.profiling.RecordingAnalyzer}.
+ */
+public final class WorksheetEvents {
+
+	/**
+	 * Name of the event recording one generated batch of equations.
+	 */
+	public static final String SHEET_GENERATED = "org.rick.math_excercises.SheetGenerated";
+
+	/**
+	 * Name of the event recording a rejection generator needing many draws for one equation.
+	 */
+	public static final String REJECTION_BURST = "org.rick.math_excercises.RejectionBurst";
+
+	/**
+	 * Name of the event recording a font being loaded for rendering.
+	 */
+	public static final String FONT_LOAD = "org.rick.math_excercises.FontLoad";
+
+	/**
+	 * Name of the event recording one rendered column of a page.
+	 */
+	public static final String COLUMN_RENDER = "org.rick.math_excercises.ColumnRender";
+
+	/**
+	 * Name of the event recording a document being written to its output stream.
+	 */
+	public static final String DOCUMENT_SAVE = "org.rick.math_excercises.DocumentSave";
+
+	/**
+	 * Name of the event recording an adaptive pipeline changing the active workers of a stage.
+	 */
+	public static final String CONCURRENCY_CHANGE = "org.rick.math_excercises.ConcurrencyChange";
+
+	/**
+	 * Draws of a single equation from which a {@link RejectionBurst} is committed.
+	 */
+	public static final int MIN_BURST_DRAWS = 8;
+
+	private WorksheetEvents() {
+	}
+
+	/**
+	 * Commits a {@link #CONCURRENCY_CHANGE} event if a recording enables it.
+	 *
+	 * @param stage           the pipeline stage
+	 * @param from            active workers before the change
+	 * @param to              active workers after the change
+	 * @param sheetsPerSecond pipeline throughput in the interval that led to the change
+	 * @param reason          why the limit changed
+	 */
+	public static void commitConcurrencyChange(String stage, int from, int to, double sheetsPerSecond,
+	                                           String reason) {
+		ConcurrencyChange event = new ConcurrencyChange();
+		if (event.shouldCommit()) {
+			event.stage = stage;
+			event.from = from;
+			event.to = to;
+			event.sheetsPerSecond = sheetsPerSecond;
+			event.reason = reason;
+			event.commit();
+		}
+	}
+
+	@Name(SHEET_GENERATED)
+	@Label("Sheet Generated")
+	@Category({"Math Exercises", "Generation"})
+	@Description("Generation of one batch of equations")
+	@StackTrace(false)
+	static final class SheetGenerated extends Event {
+
+		@Label("Limit")
+		int limit;
+
+		@Label("Exercises")
+		int exercises;
+
+		@Label("Operations")
+		String operations;
+	}
+
+	@Name(REJECTION_BURST)
+	@Label("Rejection Burst")
+	@Category({"Math Exercises", "Generation"})
+	@Description("A rejection generator drew many operand pairs before accepting one")
+	@StackTrace(false)
+	static final class RejectionBurst extends Event {
+
+		@Label("Operation")
+		String operation;
+
+		@Label("Limit")
+		int limit;
+
+		@Label("Draws")
+		long draws;
+	}
+
+	@Name(FONT_LOAD)
+	@Label("Font Load")
+	@Category({"Math Exercises", "Rendering"})
+	@Description("Loading or embedding the worksheet font")
+	@StackTrace(false)
+	static final class FontLoad extends Event {
+
+		@Label("Font")
+		String font;
+
+		@Label("Compact")
+		boolean compact;
+	}
+
+	@Name(COLUMN_RENDER)
+	@Label("Column Render")
+	@Category({"Math Exercises", "Rendering"})
+	@Description("Rendering one column of a page")
+	@StackTrace(false)
+	static final class ColumnRender extends Event {
+
+		@Label("Renderer")
+		String renderer;
+
+		@Label("Column")
+		int column;
+
+		@Label("Lines")
+		int lines;
+	}
+
+	@Name(DOCUMENT_SAVE)
+	@Label("Document Save")
+	@Category({"Math Exercises", "Rendering"})
+	@Description("Writing a document to its output stream")
+	@StackTrace(false)
+	static final class DocumentSave extends Event {
+
+		@Label("Renderer")
+		String renderer;
+
+		@Label("Pages")
+		int pages;
+
+		@Label("Bytes")
+		@DataAmount(DataAmount.BYTES)
+		long bytes;
+	}
+
+	@Name(CONCURRENCY_CHANGE)
+	@Label("Concurrency Change")
+	@Category({"Math Exercises", "Pipeline"})
+	@Description("An adaptive pipeline changed the number of active workers of a stage")
+	@StackTrace(false)
+	static final class ConcurrencyChange extends Event {
+
+		@Label("Stage")
+		String stage;
+
+		@Label("From")
+		int from;
+
+		@Label("To")
+		int to;
+
+		@Label("Sheets per Second")
+		double sheetsPerSecond;
+
+		@Label("Reason")
+		String reason;
+	}
+}
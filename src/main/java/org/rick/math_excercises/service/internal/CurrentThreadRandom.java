@@ -0,0 +1,74 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service.internal;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Random generator that draws from {@link ThreadLocalRandom#current()} of the calling thread on
+ * every call.
+ *
+ * <p>Capturing {@code ThreadLocalRandom.current()} in a field is not equivalent: the returned
+ * instance reads the seed of whichever thread calls it, and a thread that never called
+ * {@code current()} itself has an uninitialized seed, so services shared across worker or virtual
+ * threads would produce the same sequences on every run. This generator is safe to share.
+ */
+public final class CurrentThreadRandom implements RandomGenerator {
+
+	/**
+	 * The shared instance.
+	 */
+	public static final RandomGenerator INSTANCE = new CurrentThreadRandom();
+
+	private CurrentThreadRandom() {
+	}
+
+	@Override
+	public long nextLong() {
+		return ThreadLocalRandom.current().nextLong();
+	}
+
+	@Override
+	public int nextInt() {
+		return ThreadLocalRandom.current().nextInt();
+	}
+
+	@Override
+	public int nextInt(int bound) {
+		return ThreadLocalRandom.current().nextInt(bound);
+	}
+
+	@Override
+	public int nextInt(int origin, int bound) {
+		return ThreadLocalRandom.current().nextInt(origin, bound);
+	}
+
+	@Override
+	public long nextLong(long bound) {
+		return ThreadLocalRandom.current().nextLong(bound);
+	}
+
+	@Override
+	public long nextLong(long origin, long bound) {
+		return ThreadLocalRandom.current().nextLong(origin, bound);
+	}
+
+	@Override
+	public double nextDouble() {
+		return ThreadLocalRandom.current().nextDouble();
+	}
+
+	@Override
+	public boolean nextBoolean() {
+		return ThreadLocalRandom.current().nextBoolean();
+	}
+}
@@ -0,0 +1,357 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service.internal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.util.Version;
+import org.rick.math_excercises.service.internal.FontCapabilities.FontCandidate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+
+/**
+ * Cross-process cache of the font probe and the compact font program, so that a new JVM does not
+ * parse the bundled font again.
+ *
+ * <p>The cache is a single binary file: a header with the format version, the PDFBox version and the
+ * fingerprint of the font it was built from, the glyph coverage of every {@link FontCandidate}, the
+ * compact program with its {@link FontMetrics} and a trailing CRC-32C. It is read through a memory
+ * mapping and ignored unless every part matches, so a changed font, library or format simply causes
+ * a rebuild. Writers replace the file atomically, so concurrent JVMs see either the old or the new
+ * cache.
+ *
+ * <p>The cached program is embedded into every document, so the file is only trusted if it is owned
+ * by the current user and not writable by anyone else; by default it lives in the user's private
+ * cache directory.
+ */
+@Slf4j
+final class FontCache {
+
+	/**
+	 * Format version; incremented whenever the layout or the content of the cache changes.
+	 */
+	static final int VERSION = 1;
+
+	private static final int MAGIC = 0x4D58_4643;
+
+	private static final String PROPERTY = "fontCache";
+
+	/**
+	 * The fingerprint of a font program: its size and the CRC-32 of its bytes. For a resource packed
+	 * into a jar both are read from the jar entry, so the program itself is not read at all.
+	 *
+	 * @param size  the program size in bytes
+	 * @param crc32 the CRC-32 of the program
+	 */
+	record Fingerprint(long size, long crc32) {
+	}
+
+	/**
+	 * The cached probe results.
+	 *
+	 * @param coverage       for every candidate, the worksheet glyphs it is able to encode
+	 * @param compactProgram the compact program of the bundled font; empty if it is not selected
+	 * @param metrics        the metrics of the compact program; null if the program is empty
+	 */
+	record Entry(Map<FontCandidate, Set<String>> coverage, byte[] compactProgram, FontMetrics metrics) {
+	}
+
+	private FontCache() {
+	}
+
+	/**
+	 * The cache file selected by the system property {@code fontCache}: a path, or {@code off} to
+	 * disable the cache. Defaults to {@link #defaultLocation}.
+	 *
+	 * @return the cache file, or null if caching is disabled
+	 */
+	static Path location() {
+		String configured = System.getProperty(PROPERTY);
+		if (configured == null || configured.isBlank()) {
+			return defaultLocation(System.getenv("XDG_CACHE_HOME"), System.getProperty("user.home"));
+		}
+		return "off".equalsIgnoreCase(configured.trim()) ? null : Path.of(configured.trim());
+	}
+
+	/**
+	 * The default cache file, named after the format version, in the {@code math_excercises}
+	 * directory of the user's cache directory: {@code $XDG_CACHE_HOME} if it is an absolute path,
+	 * otherwise {@code ~/.cache}.
+	 *
+	 * @param xdgCacheHome the value of {@code XDG_CACHE_HOME}, or null
+	 * @param userHome     the user's home directory
+	 * @return the cache file
+	 */
+	static Path defaultLocation(String xdgCacheHome, String userHome) {
+		Path cacheHome = xdgCacheHome != null && !xdgCacheHome.isBlank() && Path.of(xdgCacheHome).isAbsolute()
+		                 ? Path.of(xdgCacheHome) : Path.of(userHome, ".cache");
+		return cacheHome.resolve("math_excercises").resolve("fonts-v" + VERSION + ".bin");
+	}
+
+	/**
+	 * Whether a cache file may be read: a regular file, not a link, owned by the current user and, where
+	 * the file system has POSIX permissions, writable by nobody else.
+	 *
+	 * @param file the cache file
+	 * @return true if the file is trusted
+	 * @throws IOException if the file's attributes cannot be read
+	 */
+	static boolean trusted(Path file) throws IOException {
+		if (!Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+			return false;
+		}
+		UserPrincipal user = file.getFileSystem().getUserPrincipalLookupService()
+				.lookupPrincipalByName(System.getProperty("user.name"));
+		if (!user.equals(Files.getOwner(file, LinkOption.NOFOLLOW_LINKS))) {
+			return false;
+		}
+		if (!file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+			return true;
+		}
+		Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(file, LinkOption.NOFOLLOW_LINKS);
+		return !permissions.contains(PosixFilePermission.GROUP_WRITE)
+				&& !permissions.contains(PosixFilePermission.OTHERS_WRITE);
+	}
+
+	/**
+	 * Fingerprints a font resource.
+	 *
+	 * @param resource the resource URL
+	 * @return the fingerprint
+	 * @throws IOException if the resource cannot be read
+	 */
+	static Fingerprint fingerprint(URL resource) throws IOException {
+		URLConnection connection = resource.openConnection();
+		if (connection instanceof JarURLConnection jar) {
+			JarEntry entry = jar.getJarEntry();
+			if (entry != null && entry.getSize() >= 0 && entry.getCrc() >= 0) {
+				return new Fingerprint(entry.getSize(), entry.getCrc());
+			}
+		}
+		CRC32 crc = new CRC32();
+		long size = 0;
+		try (InputStream in = connection.getInputStream()) {
+			byte[] buffer = new byte[64 * 1024];
+			for (int read; (read = in.read(buffer)) > 0; ) {
+				crc.update(buffer, 0, read);
+				size += read;
+			}
+		}
+		return new Fingerprint(size, crc.getValue());
+	}
+
+	/**
+	 * Reads the cache if it was built from the given font by this format and PDFBox version.
+	 *
+	 * @param file   the cache file
+	 * @param source the fingerprint of the bundled font
+	 * @return the cached entry, or empty if the file is missing, untrusted, stale or damaged
+	 */
+	static Optional<Entry> read(Path file, Fingerprint source) {
+		try {
+			if (!trusted(file)) {
+				log.warn("Ignoring font cache {}: not a private file of the current user", file);
+				return Optional.empty();
+			}
+		} catch (NoSuchFileException e) {
+			return Optional.empty();
+		} catch (IOException | UnsupportedOperationException e) {
+			log.debug("Ignoring font cache {} of unknown ownership", file, e);
+			return Optional.empty();
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, LinkOption.NOFOLLOW_LINKS)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return Optional.ofNullable(decode(buffer, source));
+		} catch (NoSuchFileException e) {
+			return Optional.empty();
+		} catch (IOException | RuntimeException e) {
+			log.debug("Ignoring unreadable font cache {}", file, e);
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Writes the cache, replacing any previous file. Missing directories are created accessible to the
+	 * current user only. Failures are logged and otherwise ignored.
+	 *
+	 * @param file   the cache file
+	 * @param source the fingerprint of the bundled font
+	 * @param entry  the probe results
+	 */
+	static void write(Path file, Fingerprint source, Entry entry) {
+		try {
+			Path directory = file.toAbsolutePath().getParent();
+			if (directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+				Files.createDirectories(directory,
+						PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+			}
+			else {
+				Files.createDirectories(directory);
+			}
+			Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+			try {
+				Files.write(temp, encode(source, entry));
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+		} catch (IOException | UnsupportedOperationException e) {
+			log.debug("Could not write font cache {}", file, e);
+		}
+	}
+
+	static byte[] encode(Fingerprint source, Entry entry) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(entry.compactProgram().length + 512);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		writeString(out, pdfboxVersion());
+		out.writeLong(source.size());
+		out.writeLong(source.crc32());
+		out.writeInt(entry.coverage().size());
+		for (Map.Entry<FontCandidate, Set<String>> candidate : entry.coverage().entrySet()) {
+			writeString(out, candidate.getKey().name());
+			out.writeInt(candidate.getValue().size());
+			for (String glyph : candidate.getValue()) {
+				writeString(out, glyph);
+			}
+		}
+		out.writeInt(entry.compactProgram().length);
+		out.write(entry.compactProgram());
+		if (entry.compactProgram().length > 0) {
+			writeMetrics(out, entry.metrics());
+		}
+		CRC32C crc = new CRC32C();
+		crc.update(bytes.toByteArray());
+		out.writeInt((int) crc.getValue());
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Decodes a cache file, returning null if it does not match the font, format or library.
+	 */
+	static Entry decode(ByteBuffer buffer, Fingerprint source) {
+		if (buffer.remaining() < 12 || !checksumMatches(buffer)) {
+			return null;
+		}
+		try {
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || !pdfboxVersion().equals(readString(buffer))
+					|| buffer.getLong() != source.size() || buffer.getLong() != source.crc32()) {
+				return null;
+			}
+			Map<FontCandidate, Set<String>> coverage = new EnumMap<>(FontCandidate.class);
+			int candidates = buffer.getInt();
+			for (int i = 0; i < candidates; i++) {
+				FontCandidate candidate = FontCandidate.valueOf(readString(buffer));
+				int glyphs = buffer.getInt();
+				Set<String> encodable = new LinkedHashSet<>();
+				for (int j = 0; j < glyphs; j++) {
+					encodable.add(readString(buffer));
+				}
+				coverage.put(candidate, Set.copyOf(encodable));
+			}
+			if (!coverage.keySet().equals(Set.of(FontCandidate.values()))) {
+				return null;
+			}
+			byte[] program = new byte[buffer.getInt()];
+			buffer.get(program);
+			FontMetrics metrics = program.length > 0 ? readMetrics(buffer) : null;
+			return buffer.hasRemaining() ? null : new Entry(Map.copyOf(coverage), program, metrics);
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private static boolean checksumMatches(ByteBuffer buffer) {
+		int end = buffer.limit() - 4;
+		CRC32C crc = new CRC32C();
+		crc.update(buffer.duplicate().limit(end));
+		if ((int) crc.getValue() != buffer.getInt(end)) {
+			return false;
+		}
+		buffer.limit(end);
+		return true;
+	}
+
+	private static void writeMetrics(DataOutputStream out, FontMetrics metrics) throws IOException {
+		writeString(out, metrics.name());
+		out.writeInt(metrics.glyphs().size());
+		for (Map.Entry<Integer, FontMetrics.Glyph> glyph : metrics.glyphs().entrySet()) {
+			out.writeInt(glyph.getKey());
+			out.writeInt(glyph.getValue().glyphId());
+			out.writeInt(glyph.getValue().advanceWidth());
+		}
+		for (int value : metrics.boundingBox()) {
+			out.writeInt(value);
+		}
+		out.writeInt(metrics.ascent());
+		out.writeInt(metrics.descent());
+		out.writeInt(metrics.capHeight());
+		out.writeInt(metrics.weightClass());
+	}
+
+	private static FontMetrics readMetrics(ByteBuffer buffer) {
+		String name = readString(buffer);
+		int count = buffer.getInt();
+		Map<Integer, FontMetrics.Glyph> glyphs = new HashMap<>();
+		for (int i = 0; i < count; i++) {
+			glyphs.put(buffer.getInt(), new FontMetrics.Glyph(buffer.getInt(), buffer.getInt()));
+		}
+		int[] boundingBox = {buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt()};
+		return new FontMetrics(name, Map.copyOf(glyphs), boundingBox, buffer.getInt(), buffer.getInt(),
+				buffer.getInt(), buffer.getInt());
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeShort(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static String pdfboxVersion() {
+		return Objects.requireNonNullElse(Version.getVersion(), "unknown");
+	}
+}
@@ -0,0 +1,38 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service.internal;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Result of the one-off font probe performed by {@link FontSupport#capabilities()}.
+ *
+ * @param font     the font candidate selected for rendering
+ * @param glyphs   the glyph set that font can encode
+ * @param coverage for every probed candidate, the worksheet glyphs it is able to encode
+ */
+public record FontCapabilities(FontCandidate font, GlyphSet glyphs, Map<FontCandidate, Set<String>> coverage) {
+
+	/**
+	 * Fonts considered for rendering, in order of preference.
+	 */
+	public enum FontCandidate {
+		/**
+		 * The bundled {@code arialuni.ttf}, embedded as a Type0 font.
+		 */
+		ARIAL_UNICODE,
+		/**
+		 * The standard 14 Helvetica font (WinAnsi encoding), never embedded.
+		 */
+		HELVETICA
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service.internal;
+
+import org.apache.fontbox.ttf.CmapLookup;
+import org.apache.fontbox.ttf.HeaderTable;
+import org.apache.fontbox.ttf.OS2WindowsMetricsTable;
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The metrics of the compact font program needed to describe it in a PDF, in thousandths of the font
+ * size: the glyph id and advance width of every worksheet character and the values of the font
+ * descriptor. They are measured once and kept in the {@link FontCache} together with the program.
+ *
+ * @param name        the PostScript name of the font
+ * @param glyphs      the glyph of every worksheet character, by code point
+ * @param boundingBox the font bounding box: x min, y min, x max, y max
+ * @param ascent      the ascender
+ * @param descent     the descender, negative
+ * @param capHeight   the height of capital letters
+ * @param weightClass the OS/2 weight class, 400 for regular
+ */
+public record FontMetrics(String name, Map<Integer, Glyph> glyphs, int[] boundingBox, int ascent, int descent,
+                          int capHeight, int weightClass) {
+
+	/**
+	 * A glyph of the program.
+	 *
+	 * @param glyphId      the glyph id, which is also the character code under Identity-H
+	 * @param advanceWidth the advance width
+	 */
+	public record Glyph(int glyphId, int advanceWidth) {
+	}
+
+	/**
+	 * Measures a font program.
+	 *
+	 * @param program    the TrueType program
+	 * @param characters the characters to measure
+	 * @return the metrics
+	 * @throws IOException           if the program cannot be parsed
+	 * @throws IllegalStateException if the program has no glyph for one of the characters
+	 */
+	public static FontMetrics measure(byte[] program, String characters) throws IOException {
+		try (TrueTypeFont font = new TTFParser().parse(new RandomAccessReadBuffer(program))) {
+			CmapLookup cmap = font.getUnicodeCmapLookup();
+			HeaderTable head = font.getHeader();
+			float scale = 1000f / head.getUnitsPerEm();
+			Map<Integer, Glyph> glyphs = new HashMap<>();
+			for (int c : characters.codePoints().toArray()) {
+				int gid = cmap.getGlyphId(c);
+				if (gid == 0) {
+					throw new IllegalStateException("Compact font has no glyph for U+" + Integer.toHexString(c));
+				}
+				glyphs.put(c, new Glyph(gid, Math.round(font.getAdvanceWidth(gid) * scale)));
+			}
+			OS2WindowsMetricsTable os2 = font.getOS2Windows();
+			int ascent = Math.round(font.getHorizontalHeader().getAscender() * scale);
+			int descent = Math.round(font.getHorizontalHeader().getDescender() * scale);
+			int capHeight = os2 != null && os2.getCapHeight() > 0 ? Math.round(os2.getCapHeight() * scale) : ascent;
+			int[] boundingBox = {Math.round(head.getXMin() * scale), Math.round(head.getYMin() * scale),
+					Math.round(head.getXMax() * scale), Math.round(head.getYMax() * scale)};
+			return new FontMetrics(font.getName(), Map.copyOf(glyphs), boundingBox, ascent, descent, capHeight,
+					os2 != null ? os2.getWeightClass() : 400);
+		}
+	}
+}
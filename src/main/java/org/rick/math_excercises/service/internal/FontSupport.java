@@ -0,0 +1,348 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service.internal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TTFSubsetter;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.rick.math_excercises.service.internal.FontCapabilities.FontCandidate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Font selection for PDF rendering.
+ *
+ * <p>The candidate fonts are probed once per JVM: for each candidate the set of worksheet glyphs it
+ * can encode is cached, the first candidate covering the required glyphs is selected and a matching
+ * {@link GlyphSet} is chosen. Unusable configurations therefore fail at startup rather than while
+ * rendering a page.
+ *
+ * <p>The probe results and the compact program are kept in a {@link FontCache} across JVMs, so later
+ * runs start without parsing the bundled font; only {@link org.rick.math_excercises.service.PdfOutputMode#STANDARD} documents, which
+ * embed their own subset, still load it.
+ */
+@Slf4j
+public final class FontSupport {
+
+	private static final String FONT_RESOURCE = "/arialuni.ttf";
+
+	/**
+	 * Glyphs every worksheet needs regardless of the chosen glyph set.
+	 */
+	private static final Set<String> REQUIRED_GLYPHS =
+			"0123456789+-= ().".chars().mapToObj(Character::toString).collect(Collectors.toUnmodifiableSet());
+
+	/**
+	 * TrueType tables kept in the compact font program. The hinting tables ({@code cvt}, {@code fpgm},
+	 * {@code prep}) make up most of a subset of the bundled font and are not needed for print output.
+	 */
+	private static final List<String> COMPACT_TABLES =
+			List.of("head", "hhea", "loca", "maxp", "glyf", "hmtx", "cmap", "post", "OS/2", "name");
+
+	private static volatile FontCapabilities capabilities;
+
+	private static volatile byte[] compactProgram;
+
+	private static volatile FontMetrics compactMetrics;
+
+	private FontSupport() {
+	}
+
+	/**
+	 * Returns the font capabilities of this JVM, probing the candidate fonts on first use.
+	 *
+	 * @return the cached capabilities
+	 * @throws IllegalStateException if no candidate font can encode the required glyphs
+	 */
+	public static FontCapabilities capabilities() {
+		FontCapabilities result = capabilities;
+		if (result == null) {
+			synchronized (FontSupport.class) {
+				result = capabilities;
+				if (result == null) {
+					FontCache.Entry entry = load(FontCache.location(), FontSupport.class.getResource(FONT_RESOURCE));
+					if (entry.compactProgram().length > 0) {
+						compactProgram = entry.compactProgram();
+						compactMetrics = entry.metrics();
+					}
+					result = select(entry.coverage());
+					capabilities = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Loads the selected font into the given document.
+	 *
+	 * @param document     the document the font is used in
+	 * @param capabilities the probed capabilities
+	 * @return the font to render with
+	 * @throws IOException if the bundled font cannot be read
+	 */
+	public static PDFont loadFont(PDDocument document, FontCapabilities capabilities) throws IOException {
+		if (capabilities.font() == FontCandidate.ARIAL_UNICODE) {
+			try (InputStream stream = FontSupport.class.getResourceAsStream(FONT_RESOURCE)) {
+				if (stream == null) {
+					throw new IOException("Font resource " + FONT_RESOURCE + " not found");
+				}
+				return PDType0Font.load(document, stream);
+			}
+		}
+		return helvetica();
+	}
+
+	/**
+	 * Loads the selected font into the given document as a compact program holding only the worksheet
+	 * glyphs and no hinting tables. The program is subset once per JVM and embedded as is, so documents
+	 * are several times smaller and the bundled font is not parsed and subset again for every
+	 * document.
+	 *
+	 * @param document     the document the font is used in
+	 * @param capabilities the probed capabilities
+	 * @return the font to render with
+	 * @throws IOException if the bundled font cannot be read
+	 */
+	public static PDFont loadCompactFont(PDDocument document, FontCapabilities capabilities) throws IOException {
+		if (capabilities.font() != FontCandidate.ARIAL_UNICODE) {
+			return helvetica();
+		}
+		return PDType0Font.load(document, new ByteArrayInputStream(compactProgram(capabilities)), false);
+	}
+
+	/**
+	 * Returns the compact TrueType program of the bundled font, subsetting it on first use. Callers
+	 * must not modify the returned array.
+	 *
+	 * @param capabilities the probed capabilities; the bundled font must be selected
+	 * @return the font program bytes
+	 * @throws IOException if the bundled font cannot be read
+	 */
+	public static byte[] compactProgram(FontCapabilities capabilities) throws IOException {
+		byte[] program = compactProgram;
+		if (program == null) {
+			synchronized (FontSupport.class) {
+				program = compactProgram;
+				if (program == null) {
+					program = subset(capabilities.glyphs());
+					compactProgram = program;
+				}
+			}
+		}
+		return program;
+	}
+
+	/**
+	 * Returns the metrics of the {@link #compactProgram compact program}, measuring it on first use
+	 * unless they were read from the {@link FontCache}.
+	 *
+	 * @param capabilities the probed capabilities; the bundled font must be selected
+	 * @return the metrics of the worksheet glyphs
+	 * @throws IOException if the bundled font cannot be read
+	 */
+	public static FontMetrics compactMetrics(FontCapabilities capabilities) throws IOException {
+		FontMetrics metrics = compactMetrics;
+		if (metrics == null) {
+			synchronized (FontSupport.class) {
+				metrics = compactMetrics;
+				if (metrics == null) {
+					metrics = measure(compactProgram(capabilities), capabilities.glyphs());
+					compactMetrics = metrics;
+				}
+			}
+		}
+		return metrics;
+	}
+
+	private static FontMetrics measure(byte[] program, GlyphSet glyphs) throws IOException {
+		return FontMetrics.measure(program,
+				Stream.concat(REQUIRED_GLYPHS.stream(), glyphsOf(glyphs)).collect(Collectors.joining()));
+	}
+
+	private static byte[] subset(GlyphSet glyphs) throws IOException {
+		try (InputStream stream = FontSupport.class.getResourceAsStream(FONT_RESOURCE)) {
+			if (stream == null) {
+				throw new IOException("Font resource " + FONT_RESOURCE + " not found");
+			}
+			TrueTypeFont font = new TTFParser().parse(new RandomAccessReadBuffer(stream));
+			try (font) {
+				TTFSubsetter subsetter = new TTFSubsetter(font, COMPACT_TABLES);
+				Stream.concat(REQUIRED_GLYPHS.stream(), glyphsOf(glyphs))
+						.forEach(glyph -> subsetter.add(glyph.codePointAt(0)));
+				ByteArrayOutputStream out = new ByteArrayOutputStream(8 * 1024);
+				subsetter.writeToStream(out);
+				log.debug("Compact font program: {} bytes", out.size());
+				return out.toByteArray();
+			}
+		}
+	}
+
+	/**
+	 * Reads the probe results from the cache file or, if it is missing or stale, probes the fonts,
+	 * subsets the compact program and writes the cache.
+	 *
+	 * @param cacheFile    the cache file, or null to always probe
+	 * @param fontResource the bundled font; null when it is missing
+	 * @return the coverage of every candidate and the compact program with its metrics; the program
+	 *         is empty if the bundled font is not selected or there is no cache to keep it in
+	 * @throws IllegalStateException if no candidate font can encode the required glyphs
+	 */
+	static FontCache.Entry load(Path cacheFile, URL fontResource) {
+		FontCache.Fingerprint source = null;
+		if (cacheFile != null && fontResource != null) {
+			try {
+				source = FontCache.fingerprint(fontResource);
+				Optional<FontCache.Entry> cached = FontCache.read(cacheFile, source);
+				if (cached.isPresent()) {
+					log.debug("Font probe read from {}", cacheFile);
+					return cached.get();
+				}
+			} catch (IOException e) {
+				log.debug("Cannot fingerprint {}", fontResource, e);
+			}
+		}
+		Map<FontCandidate, Set<String>> coverage = coverage(() -> open(fontResource));
+		FontCapabilities probed = select(coverage);
+		if (source == null) {
+			return new FontCache.Entry(coverage, new byte[0], null);
+		}
+		byte[] program = new byte[0];
+		FontMetrics metrics = null;
+		if (probed.font() == FontCandidate.ARIAL_UNICODE) {
+			try {
+				program = subset(probed.glyphs());
+				metrics = measure(program, probed.glyphs());
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		FontCache.Entry entry = new FontCache.Entry(coverage, program, metrics);
+		FontCache.write(cacheFile, source, entry);
+		return entry;
+	}
+
+	private static InputStream open(URL resource) {
+		try {
+			return resource == null ? null : resource.openStream();
+		} catch (IOException e) {
+			log.warn("Failed to open {}", resource, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Probes every candidate font and selects the first one able to encode the required glyphs.
+	 *
+	 * @param fontResource supplies the bundled font program; may return null when it is missing
+	 * @return the probed capabilities
+	 * @throws IllegalStateException if no candidate font can encode the required glyphs
+	 */
+	static FontCapabilities probe(Supplier<InputStream> fontResource) {
+		return select(coverage(fontResource));
+	}
+
+	private static Map<FontCandidate, Set<String>> coverage(Supplier<InputStream> fontResource) {
+		Map<FontCandidate, Set<String>> coverage = new EnumMap<>(FontCandidate.class);
+		try (PDDocument scratch = new PDDocument()) {
+			coverage.put(FontCandidate.ARIAL_UNICODE, coverage(loadBundled(scratch, fontResource)));
+			coverage.put(FontCandidate.HELVETICA, coverage(helvetica()));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return Map.copyOf(coverage);
+	}
+
+	/**
+	 * Selects the first candidate able to encode the required glyphs and the glyph set it supports.
+	 */
+	private static FontCapabilities select(Map<FontCandidate, Set<String>> coverage) {
+		FontCandidate selected = Arrays.stream(FontCandidate.values())
+				.filter(candidate -> coverage.get(candidate).containsAll(REQUIRED_GLYPHS))
+				.findFirst()
+				.orElseThrow(() -> new IllegalStateException(
+						"No usable font: none of " + coverage.keySet() + " can encode " + REQUIRED_GLYPHS));
+		GlyphSet glyphs = GlyphSet.select(coverage.get(selected));
+		if (selected != FontCandidate.ARIAL_UNICODE || !glyphs.equals(GlyphSet.UNICODE)) {
+			log.warn("Rendering with {} using glyphs {}", selected, glyphs);
+		}
+		return new FontCapabilities(selected, glyphs, coverage);
+	}
+
+	private static PDFont loadBundled(PDDocument scratch, Supplier<InputStream> fontResource) {
+		try (InputStream stream = fontResource.get()) {
+			if (stream == null) {
+				log.warn("Font resource {} not found; falling back to Helvetica", FONT_RESOURCE);
+				return null;
+			}
+			return PDType0Font.load(scratch, stream, false);
+		} catch (IOException e) {
+			log.warn("Failed to load {}, falling back to Helvetica", FONT_RESOURCE, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Determines which worksheet glyphs (required ones plus both glyph sets) a font can encode.
+	 */
+	private static Set<String> coverage(PDFont font) {
+		if (font == null) {
+			return Set.of();
+		}
+		return Stream.of(
+						REQUIRED_GLYPHS.stream(),
+						glyphsOf(GlyphSet.UNICODE),
+						glyphsOf(GlyphSet.ASCII))
+				.flatMap(s -> s)
+				.filter(glyph -> canEncode(font, glyph))
+				.collect(Collectors.toCollection(LinkedHashSet::new));
+	}
+
+	private static Stream<String> glyphsOf(GlyphSet glyphs) {
+		return Stream.of(glyphs.placeholder(), glyphs.multiply(), glyphs.divide());
+	}
+
+	private static boolean canEncode(PDFont font, String glyph) {
+		try {
+			font.encode(glyph);
+			return true;
+		} catch (IllegalArgumentException | IOException e) {
+			return false;
+		}
+	}
+
+	private static PDFont helvetica() {
+		return new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+	}
+}
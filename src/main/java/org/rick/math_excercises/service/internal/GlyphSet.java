@@ -0,0 +1,72 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service.internal;
+
+import java.util.Set;
+
+/**
+ * The glyphs used to display the placeholder box and the multiplication/division operators.
+ *
+ * <p>{@link #UNICODE} is preferred; when the selected font cannot encode one of its glyphs the
+ * matching ASCII substitute from {@link #ASCII} is used instead.
+ *
+ * @param placeholder glyph marking the blank the student fills in
+ * @param multiply    glyph rendered for multiplication
+ * @param divide      glyph rendered for division
+ */
+public record GlyphSet(String placeholder, String multiply, String divide) {
+
+	/**
+	 * Preferred glyphs: □, × and ÷.
+	 */
+	public static final GlyphSet UNICODE = new GlyphSet("□", "×", "÷");
+
+	/**
+	 * ASCII substitutes encodable by every standard PDF font: _, x and /.
+	 */
+	public static final GlyphSet ASCII = new GlyphSet("_", "x", "/");
+
+	/**
+	 * Picks, glyph by glyph, the preferred glyph when it is encodable and the ASCII substitute
+	 * otherwise.
+	 *
+	 * @param encodable glyphs the font is able to encode
+	 * @return the best glyph set for that font
+	 */
+	public static GlyphSet select(Set<String> encodable) {
+		return new GlyphSet(
+				encodable.contains(UNICODE.placeholder) ? UNICODE.placeholder : ASCII.placeholder,
+				encodable.contains(UNICODE.multiply) ? UNICODE.multiply : ASCII.multiply,
+				encodable.contains(UNICODE.divide) ? UNICODE.divide : ASCII.divide);
+	}
+
+	/**
+	 * Maps an equation operator character ('+', '-', '×', '÷') to the glyph displayed for it.
+	 */
+	public String operator(char operator) {
+		return switch (operator) {
+			case '×' -> multiply;
+			case '÷' -> divide;
+			default -> String.valueOf(operator);
+		};
+	}
+
+	/**
+	 * Whether a token should be rendered using operator styling.
+	 */
+	public boolean isOperator(String token) {
+		return "+".equals(token)
+				|| "-".equals(token)
+				|| "=".equals(token)
+				|| multiply.equals(token)
+				|| divide.equals(token);
+	}
+}
@@ -11,7 +11,10 @@
 package org.rick.math_excercises.service.internal;
 
 import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.model.Expression;
+import org.rick.math_excercises.model.FractionEquation;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.random.RandomGenerator;
@@ -23,6 +26,12 @@ import java.util.stream.IntStream;
  */
 public final class PdfRenderSupport {
 
+	/**
+	 * Separates numerator and denominator of a token rendered as a stacked fraction. The character
+	 * is a layout marker and is never shown.
+	 */
+	public static final char STACK = '\u2044';
+
 	private PdfRenderSupport() {
 	}
 
@@ -49,24 +58,147 @@ public final class PdfRenderSupport {
 	 * 3=result.
 	 */
 	public static List<String> formatTokens(Equation equation, int placeholderIndex) {
+		return formatTokens(equation, placeholderIndex, GlyphSet.UNICODE);
+	}
+
+	/**
+	 * Build display tokens for an equation using the given glyph set for the placeholder and the
+	 * multiplication/division operators. placeholderIndex: 1=first operand, 2=second operand,
+	 * 3=result.
+	 */
+	public static List<String> formatTokens(Equation equation, int placeholderIndex, GlyphSet glyphs) {
 		if (placeholderIndex < 1 || placeholderIndex > 3) {
 			throw new IllegalArgumentException("placeholderIndex must be 1..3");
 		}
-		String first = placeholderIndex == 1 ? "□" : String.valueOf(equation.firstNumber());
-		String second = placeholderIndex == 2 ? "□" : String.valueOf(equation.secondNumber());
-		String result = placeholderIndex == 3 ? "□" : String.valueOf(equation.result());
+		String placeholder = glyphs.placeholder();
+		String first = placeholderIndex == 1 ? placeholder : String.valueOf(equation.firstNumber());
+		String second = placeholderIndex == 2 ? placeholder : String.valueOf(equation.secondNumber());
+		String result = placeholderIndex == 3 ? placeholder : String.valueOf(equation.result());
+		return List.of(first, glyphs.operator(equation.operator()), second, "=", result);
+	}
+
+	/**
+	 * Build display tokens for a multi-term expression. placeholderIndex: 1..terms blanks the operand
+	 * at that position from the left, terms + 1 the result.
+	 *
+	 * <p>A compound operand is parenthesized unless it is the left operand of an operator of the same
+	 * precedence, so chains read {@code a + b - c} and nesting is always explicit, e.g.
+	 * {@code (a × b) + c} or {@code a - (b + c)}. Parentheses are attached to the adjacent operand
+	 * tokens, which keeps operator tokens unchanged for operator styling.
+	 */
+	public static List<String> formatTokens(Expression expression, int placeholderIndex, GlyphSet glyphs) {
+		int terms = expression.terms();
+		if (placeholderIndex < 1 || placeholderIndex > terms + 1) {
+			throw new IllegalArgumentException("placeholderIndex must be 1.." + (terms + 1));
+		}
+		List<String> tokens = new ArrayList<>(2 * terms + 1);
+		appendTokens(expression, placeholderIndex, glyphs, tokens, new int[1]);
+		tokens.add("=");
+		tokens.add(placeholderIndex == terms + 1 ? glyphs.placeholder() : String.valueOf(expression.value()));
+		return tokens;
+	}
+
+	private static void appendTokens(Expression expression, int placeholderIndex, GlyphSet glyphs,
+	                                 List<String> tokens, int[] operand) {
+		switch (expression) {
+			case Expression.Literal literal -> tokens.add(
+					++operand[0] == placeholderIndex ? glyphs.placeholder() : String.valueOf(literal.value()));
+			case Expression.Operation operation -> {
+				appendOperand(operation.left(), operation, true, placeholderIndex, glyphs, tokens, operand);
+				tokens.add(glyphs.operator(operation.operator()));
+				appendOperand(operation.right(), operation, false, placeholderIndex, glyphs, tokens, operand);
+			}
+		}
+	}
+
+	private static void appendOperand(Expression child, Expression.Operation parent, boolean left,
+	                                  int placeholderIndex, GlyphSet glyphs, List<String> tokens, int[] operand) {
+		int start = tokens.size();
+		appendTokens(child, placeholderIndex, glyphs, tokens, operand);
+		if (child instanceof Expression.Operation nested
+				&& !(left && nested.multiplicative() == parent.multiplicative())) {
+			tokens.set(start, "(" + tokens.get(start));
+			tokens.set(tokens.size() - 1, tokens.get(tokens.size() - 1) + ")");
+		}
+	}
+
+	/**
+	 * Build display tokens for a fraction or decimal exercise. placeholderIndex: 1=first operand,
+	 * 2=second operand, 3=result; a simplification always blanks its result. Fractions become stacked
+	 * tokens (see {@link #stacked}) unless they are whole numbers, and a blanked fraction is a stacked
+	 * pair of placeholders. Decimals are written without trailing zeros.
+	 */
+	public static List<String> formatTokens(FractionEquation equation, int placeholderIndex, GlyphSet glyphs) {
+		if (placeholderIndex < 1 || placeholderIndex > 3) {
+			throw new IllegalArgumentException("placeholderIndex must be 1..3");
+		}
+		String result = formatValue(equation.resultNumerator(), equation.resultDenominator(), equation,
+				placeholderIndex == 3 || equation.simplification(), glyphs);
+		if (equation.simplification()) {
+			String first = formatValue(equation.firstNumerator(), equation.firstDenominator(), equation, false, glyphs);
+			return List.of(first, "=", result);
+		}
+		String first = formatValue(equation.firstNumerator(), equation.firstDenominator(), equation,
+				placeholderIndex == 1, glyphs);
+		String second = formatValue(equation.secondNumerator(), equation.secondDenominator(), equation,
+				placeholderIndex == 2, glyphs);
 		return List.of(first, String.valueOf(equation.operator()), second, "=", result);
 	}
 
+	private static String formatValue(int numerator, int denominator, FractionEquation equation, boolean blank,
+	                                  GlyphSet glyphs) {
+		String placeholder = glyphs.placeholder();
+		if (equation.notation() == FractionEquation.Notation.DECIMAL) {
+			return blank ? placeholder : decimal(numerator, denominator);
+		}
+		if (blank) {
+			return stacked(placeholder, placeholder);
+		}
+		return denominator == 1 ? String.valueOf(numerator) : stacked(String.valueOf(numerator), String.valueOf(denominator));
+	}
+
+	/**
+	 * Writes a value with a power-of-ten denominator in decimal notation, e.g. 150/100 as "1.5".
+	 */
+	static String decimal(int numerator, int denominator) {
+		while (denominator > 1 && numerator % 10 == 0) {
+			numerator /= 10;
+			denominator /= 10;
+		}
+		if (denominator == 1) {
+			return String.valueOf(numerator);
+		}
+		int places = String.valueOf(denominator).length() - 1;
+		String digits = String.valueOf(numerator % denominator);
+		return numerator / denominator + "." + "0".repeat(places - digits.length()) + digits;
+	}
+
+	/**
+	 * A token rendered as a stacked fraction.
+	 */
+	public static String stacked(String numerator, String denominator) {
+		return numerator + STACK + denominator;
+	}
+
+	/**
+	 * Whether a token is a stacked fraction.
+	 */
+	public static boolean isStacked(String token) {
+		return token.indexOf(STACK) >= 0;
+	}
+
+	/**
+	 * Chooses one placeholder per expression, uniformly among its operands and its result.
+	 */
+	public static List<Integer> placeholderSequence(RandomGenerator r, List<Expression> expressions) {
+		return expressions.stream().map(expression -> 1 + r.nextInt(expression.terms() + 1)).toList();
+	}
+
 	/**
 	 * Whether a token should be rendered using operator styling.
 	 */
 	public static boolean isOperatorToken(String token) {
-		return "+".equals(token)
-				|| "-".equals(token)
-				|| "×".equals(token)
-				|| "÷".equals(token)
-				|| "=".equals(token);
+		return GlyphSet.UNICODE.isOperator(token);
 	}
 
 	public static List<Integer> placeholderSequence(RandomGenerator r, int n) {
@@ -15,6 +15,8 @@
  *   <li>{@link org.rick.math_excercises.service.GenerateService} — produces randomized equations.
  *   <li>{@link org.rick.math_excercises.service.PdfService} — formats equations into a printable
  *       PDF.
+ *   <li>{@link org.rick.math_excercises.service.HtmlRenderer} — writes sheets as an HTML page for
+ *       on-screen practice.
  *   <li>{@link org.rick.math_excercises.service.Operations} — enumerates supported operations.
  * </ul>
  */
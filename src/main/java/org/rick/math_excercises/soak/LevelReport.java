@@ -0,0 +1,60 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.soak;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Measurements of one concurrency level of a {@link SoakHarness} run.
+ *
+ * @param kind           the kind of worker threads
+ * @param threads        number of worker threads
+ * @param sheets         sheets generated and rendered
+ * @param elapsed        wall-clock time of the level
+ * @param p50Nanos       median latency of a sheet
+ * @param p90Nanos       90th percentile latency of a sheet
+ * @param p99Nanos       99th percentile latency of a sheet
+ * @param maxNanos       maximum latency of a sheet
+ * @param allocatedBytes bytes allocated by all threads during the level, or -1 if the JVM cannot
+ *                       measure it
+ * @param gcCount        garbage collections during the level
+ * @param gcMillis       accumulated collection time during the level
+ * @param divergences    sheets whose document differed from the single-threaded reference
+ * @param violations     sheets whose shared-service equations broke the generator constraints or
+ *                       whose work threw
+ * @param failures       descriptions of the first failures
+ */
+public record LevelReport(ThreadKind kind, int threads, int sheets, Duration elapsed, long p50Nanos, long p90Nanos,
+                          long p99Nanos, long maxNanos, long allocatedBytes, long gcCount, long gcMillis,
+                          int divergences, int violations, List<String> failures) {
+
+	/**
+	 * Throughput of the level in sheets per second.
+	 */
+	public double sheetsPerSecond() {
+		return sheets * 1_000_000_000d / Math.max(1, elapsed.toNanos());
+	}
+
+	/**
+	 * Bytes allocated per sheet, or -1 if allocation was not measured.
+	 */
+	public long allocatedBytesPerSheet() {
+		return allocatedBytes < 0 ? -1 : allocatedBytes / Math.max(1, sheets);
+	}
+
+	/**
+	 * Whether any sheet diverged or violated a constraint.
+	 */
+	public boolean failed() {
+		return divergences > 0 || violations > 0;
+	}
+}
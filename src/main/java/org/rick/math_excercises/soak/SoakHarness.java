@@ -0,0 +1,283 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.soak;
+
+import lombok.extern.slf4j.Slf4j;
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.EquationRenderer;
+import org.rick.math_excercises.service.GenerateService;
+import org.rick.math_excercises.service.GenerationStats;
+import org.rick.math_excercises.service.Operations;
+import org.rick.math_excercises.service.PdfService;
+import org.rick.math_excercises.service.SheetRequest;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32C;
+
+/**
+ * In-process load and soak harness for {@link GenerateService} and {@link PdfService}.
+ *
+ * <p>The harness derives a fixed set of distinct sheets from a mix of request templates and renders
+ * each once on the calling thread as the reference. A level then generates and renders sheets from
+ * the set on a given number of platform or virtual threads that share one renderer and one
+ * default-constructed {@link GenerateService}, and measures throughput, latency percentiles,
+ * allocation and garbage collection. Every document is compared with its reference, which catches
+ * shared state in the renderers, and every equation of the shared service is checked against the
+ * generator constraints, which catches shared state in generation.
+ *
+ * <p>Allocation is the JVM-wide total of all threads and collection time is what the collectors
+ * report, which for concurrent collectors includes more than the pauses; run a level alone for
+ * meaningful numbers. {@link #main(String[])} sweeps the levels and prints a table.
+ */
+@Slf4j
+public class SoakHarness {
+
+	private static final int MAX_FAILURE_MESSAGES = 10;
+
+	private final List<SheetRequest> sheets;
+
+	private final long[] references;
+
+	private final EquationRenderer renderer;
+
+	private final GenerateService shared;
+
+	/**
+	 * Renders the reference documents.
+	 *
+	 * @param mix            request templates; sheet j uses template {@code j % mix.size()} with its
+	 *                       seed offset by j
+	 * @param distinctSheets number of distinct sheets levels cycle through (must be >= 1)
+	 * @param renderer       the renderer shared by all workers
+	 * @throws IOException              if a reference document cannot be rendered
+	 * @throws IllegalArgumentException if the mix is empty or distinctSheets {@code <} 1
+	 */
+	public SoakHarness(List<SheetRequest> mix, int distinctSheets, EquationRenderer renderer) throws IOException {
+		this(mix, distinctSheets, renderer, new GenerateService());
+	}
+
+	SoakHarness(List<SheetRequest> mix, int distinctSheets, EquationRenderer renderer, GenerateService shared)
+			throws IOException {
+		if (mix.isEmpty() || distinctSheets < 1) {
+			throw new IllegalArgumentException("The mix must not be empty and distinctSheets must be >= 1");
+		}
+		this.renderer = renderer;
+		this.shared = shared;
+		List<SheetRequest> derived = new ArrayList<>(distinctSheets);
+		for (int j = 0; j < distinctSheets; j++) {
+			SheetRequest template = mix.get(j % mix.size());
+			derived.add(new SheetRequest(template.limit(), template.numberOfExercises(), template.operations(),
+					template.seed() + j, template.layout()));
+		}
+		this.sheets = List.copyOf(derived);
+		this.references = new long[distinctSheets];
+		for (int j = 0; j < distinctSheets; j++) {
+			references[j] = crc32(render(sheets.get(j)));
+		}
+	}
+
+	/**
+	 * A mix resembling classroom use: small and large addition and subtraction sheets, multiplication
+	 * tables, and all four operations.
+	 */
+	public static List<SheetRequest> defaultMix() {
+		return List.of(
+				SheetRequest.of(20, 200, List.of(Operations.ADDITION, Operations.SUBTRACTION), 1),
+				SheetRequest.of(100, 150, List.of(Operations.ADDITION, Operations.SUBTRACTION), 2),
+				SheetRequest.of(10, 200, List.of(Operations.MULTIPLICATION, Operations.DIVISION), 3),
+				SheetRequest.of(100, 100, List.of(Operations.MULTIPLICATION, Operations.DIVISION), 4),
+				SheetRequest.of(50, 120, List.of(Operations.values()), 5),
+				SheetRequest.of(10, 30, List.of(Operations.ADDITION), 6));
+	}
+
+	/**
+	 * Runs every level from one thread up to maxThreads, doubling the threads per level, first on
+	 * platform and then on virtual threads.
+	 *
+	 * @param maxThreads     the largest number of threads (must be >= 1)
+	 * @param sheetsPerLevel sheets per level (must be >= 1)
+	 * @return the levels
+	 * @throws InterruptedException if interrupted while waiting for the workers
+	 */
+	public SoakReport sweep(int maxThreads, int sheetsPerLevel) throws InterruptedException {
+		if (maxThreads < 1) {
+			throw new IllegalArgumentException("maxThreads must be >= 1");
+		}
+		List<LevelReport> levels = new ArrayList<>();
+		for (ThreadKind kind : ThreadKind.values()) {
+			for (int threads = 1; ; threads = Math.min(maxThreads, threads * 2)) {
+				levels.add(runLevel(kind, threads, sheetsPerLevel));
+				if (threads == maxThreads) {
+					break;
+				}
+			}
+		}
+		return new SoakReport(List.copyOf(levels));
+	}
+
+	/**
+	 * Generates, renders and checks sheets on the given number of threads.
+	 *
+	 * @param kind       the kind of worker threads
+	 * @param threads    number of worker threads (must be >= 1)
+	 * @param sheetCount number of sheets (must be >= 1)
+	 * @return the measurements of the level
+	 * @throws InterruptedException if interrupted while waiting for the workers
+	 */
+	public LevelReport runLevel(ThreadKind kind, int threads, int sheetCount) throws InterruptedException {
+		if (threads < 1 || sheetCount < 1) {
+			throw new IllegalArgumentException("threads and sheetCount must be >= 1");
+		}
+		long[] latencies = new long[sheetCount];
+		AtomicInteger next = new AtomicInteger();
+		AtomicInteger divergences = new AtomicInteger();
+		AtomicInteger violations = new AtomicInteger();
+		Queue<String> failures = new ConcurrentLinkedQueue<>();
+		Thread.Builder builder = kind.builder("soak-" + kind.name().toLowerCase(Locale.ROOT) + "-");
+		Runnable worker = () -> {
+			for (int k = next.getAndIncrement(); k < sheetCount; k = next.getAndIncrement()) {
+				int sheet = k % sheets.size();
+				long start = System.nanoTime();
+				try {
+					if (crc32(render(sheets.get(sheet))) != references[sheet]) {
+						fail(divergences, failures, "sheet " + sheet + " differs from its reference");
+					}
+					SheetRequest request = sheets.get(sheet);
+					for (Equation equation : shared.generateExercises(request.limit(), request.numberOfExercises(),
+							request.operations())) {
+						if (!valid(equation, request)) {
+							fail(violations, failures, "invalid equation " + equation + " for " + request);
+							break;
+						}
+					}
+				} catch (IOException | RuntimeException e) {
+					fail(violations, failures, "sheet " + sheet + " threw " + e);
+				}
+				latencies[k] = System.nanoTime() - start;
+			}
+		};
+
+		long allocatedBefore = allocatedBytes();
+		long[] gcBefore = collections();
+		long start = System.nanoTime();
+		List<Thread> workers = new ArrayList<>(threads);
+		for (int i = 0; i < threads; i++) {
+			workers.add(builder.start(worker));
+		}
+		for (Thread thread : workers) {
+			thread.join();
+		}
+		long elapsed = System.nanoTime() - start;
+		long[] gcAfter = collections();
+		long allocatedAfter = allocatedBytes();
+
+		Arrays.sort(latencies);
+		LevelReport report = new LevelReport(kind, threads, sheetCount, Duration.ofNanos(elapsed),
+				percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+				latencies[sheetCount - 1],
+				allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore,
+				gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1],
+				divergences.get(), violations.get(), List.copyOf(failures));
+		log.info("Soak level {} x{}: {} sheets/s, {} failures", kind, threads,
+				String.format(Locale.ROOT, "%.1f", report.sheetsPerSecond()), divergences.get() + violations.get());
+		return report;
+	}
+
+	/**
+	 * Sweeps the levels with the renderer selected by the system properties and prints the table.
+	 * Exits with status 1 if any sheet failed.
+	 *
+	 * @param args {@code [maxThreads] [sheetsPerLevel]}, defaulting to twice the processors and 200
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int maxThreads = args.length >= 1 ? Integer.parseInt(args[0]) : 2 * Runtime.getRuntime().availableProcessors();
+		int sheetsPerLevel = args.length >= 2 ? Integer.parseInt(args[1]) : 200;
+		SoakHarness harness = new SoakHarness(defaultMix(), 64, EquationRenderer.fromSystemProperties());
+		SoakReport report = harness.sweep(maxThreads, sheetsPerLevel);
+		System.out.print(report.toTable());
+		if (report.failures() > 0) {
+			System.err.println(report.levels().stream().flatMap(level -> level.failures().stream()).toList());
+			System.exit(1);
+		}
+	}
+
+	private byte[] render(SheetRequest request) throws IOException {
+		return new PdfService(request.placeholderRandom(), GenerationStats.NONE, renderer).renderPdf(request.equations(), request.layout());
+	}
+
+	private static boolean valid(Equation equation, SheetRequest request) {
+		Operations operation;
+		try {
+			operation = Operations.fromOperator(equation.operator());
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+		int first = equation.firstNumber();
+		int second = equation.secondNumber();
+		int result = equation.result();
+		int limit = request.limit();
+		if (!request.operations().contains(operation) || first < 0 || second < 0 || result < 0
+				|| first > limit || second > limit || result > limit) {
+			return false;
+		}
+		return switch (operation) {
+			case DIVISION -> second != 0 && second * result == first;
+			default -> operation.apply(first, second) == result;
+		};
+	}
+
+	private static long crc32(byte[] bytes) {
+		CRC32C crc = new CRC32C();
+		crc.update(bytes);
+		return crc.getValue();
+	}
+
+	private static void fail(AtomicInteger counter, Queue<String> failures, String failure) {
+		if (counter.incrementAndGet() <= MAX_FAILURE_MESSAGES) {
+			failures.add(failure);
+		}
+	}
+
+	private static long percentile(long[] sorted, double p) {
+		int index = (int) Math.ceil(p * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+	}
+
+	/**
+	 * Total bytes allocated by all threads so far, or -1 if the JVM does not measure it.
+	 */
+	private static long allocatedBytes() {
+		return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+				&& threads.isThreadAllocatedMemoryEnabled() ? threads.getTotalThreadAllocatedBytes() : -1;
+	}
+
+	/**
+	 * Collections and accumulated collection milliseconds of all collectors so far.
+	 */
+	private static long[] collections() {
+		long[] totals = new long[2];
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			totals[0] += Math.max(0, collector.getCollectionCount());
+			totals[1] += Math.max(0, collector.getCollectionTime());
+		}
+		return totals;
+	}
+}
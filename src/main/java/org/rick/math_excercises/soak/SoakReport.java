@@ -0,0 +1,62 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.soak;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Outcome of a {@link SoakHarness#sweep(int, int) sweep} over concurrency levels.
+ *
+ * @param levels the measured levels, platform threads first, by increasing thread count
+ */
+public record SoakReport(List<LevelReport> levels) {
+
+	/**
+	 * Total number of divergent or violating sheets over all levels.
+	 */
+	public int failures() {
+		return levels.stream().mapToInt(level -> level.divergences() + level.violations()).sum();
+	}
+
+	/**
+	 * Fails if any level saw a divergent or violating sheet.
+	 *
+	 * @throws IllegalStateException naming the first failures of each failed level
+	 */
+	public void verify() {
+		List<String> failed = levels.stream()
+				.filter(LevelReport::failed)
+				.map(level -> level.kind() + " x" + level.threads() + ": " + level.failures())
+				.toList();
+		if (!failed.isEmpty()) {
+			throw new IllegalStateException(failures() + " sheets failed under concurrency: " + failed);
+		}
+	}
+
+	/**
+	 * The levels as a plain-text table, one row per level.
+	 */
+	public String toTable() {
+		StringBuilder table = new StringBuilder(String.format(Locale.ROOT,
+				"%-8s %7s %10s %8s %8s %8s %8s %12s %6s %8s %8s%n",
+				"kind", "threads", "sheets/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "alloc/sheet", "gcs", "gc ms",
+				"failures"));
+		for (LevelReport level : levels) {
+			table.append(String.format(Locale.ROOT, "%-8s %7d %10.1f %8.2f %8.2f %8.2f %8.2f %12d %6d %8d %8d%n",
+					level.kind().name().toLowerCase(Locale.ROOT), level.threads(), level.sheetsPerSecond(),
+					level.p50Nanos() / 1e6, level.p90Nanos() / 1e6, level.p99Nanos() / 1e6, level.maxNanos() / 1e6,
+					level.allocatedBytesPerSheet(), level.gcCount(), level.gcMillis(),
+					level.divergences() + level.violations()));
+		}
+		return table.toString();
+	}
+}
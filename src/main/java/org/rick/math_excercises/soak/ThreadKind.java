@@ -0,0 +1,34 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.soak;
+
+/**
+ * The kind of threads a {@link SoakHarness} level runs on.
+ */
+public enum ThreadKind {
+
+	/**
+	 * Platform threads, one per worker.
+	 */
+	PLATFORM,
+
+	/**
+	 * Virtual threads, one per worker, scheduled on the common carrier pool.
+	 */
+	VIRTUAL;
+
+	/**
+	 * A builder of named threads of this kind.
+	 */
+	Thread.Builder builder(String prefix) {
+		return this == PLATFORM ? Thread.ofPlatform().name(prefix, 0) : Thread.ofVirtual().name(prefix, 0);
+	}
+}
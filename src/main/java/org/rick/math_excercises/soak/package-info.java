@@ -0,0 +1,16 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+/**
+ * In-process load and soak testing of the generation and rendering services.
+ *
+ * <p>See {@link org.rick.math_excercises.soak.SoakHarness}.
+ */
+package org.rick.math_excercises.soak;
@@ -0,0 +1,322 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.storage;
+
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.EquationSource;
+import org.rick.math_excercises.service.Operations;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.random.RandomGenerator;
+
+/**
+ * A curated bank of equations stored as fixed-width records in a memory-mapped file.
+ *
+ * <p>The data file holds one 12-byte record (first, second, result as big-endian ints) per
+ * equation, grouped by operation and sorted by magnitude (the largest of the three numbers) within
+ * each group. A small sidecar index ({@code <file>.idx}) stores the range of every group plus the
+ * magnitude of every {@value #SPARSE_INTERVAL}th record. The equations usable for a limit are
+ * therefore a prefix of each group, found once per limit by a binary search, after which every
+ * sample is a single random record read.
+ *
+ * <p>Instances are safe for concurrent sampling; use them as an {@link EquationSource} to draw
+ * worksheets from the bank instead of generating random equations.
+ */
+public final class EquationBank implements EquationSource, Closeable {
+
+	static final int SPARSE_INTERVAL = 4096;
+	private static final int INDEX_MAGIC = 0x4D455842;
+	private static final byte VERSION = 1;
+	private static final int RECORD_BYTES = 12;
+	/**
+	 * Records per mapped segment, keeping each mapping well below the 2 GB mapping limit.
+	 */
+	private static final int SEGMENT_RECORDS = 1 << 26;
+	private static final Operations[] OPERATIONS = Operations.values();
+
+	private final FileChannel channel;
+	private final ByteBuffer[] segments;
+	private final long[] groupStart;
+	private final long[] groupCount;
+	private final int[][] sparseMagnitudes;
+	private final Map<Integer, long[]> countsByLimit = new ConcurrentHashMap<>();
+
+	private EquationBank(FileChannel channel, ByteBuffer[] segments, long[] groupStart, long[] groupCount,
+	                     int[][] sparseMagnitudes) {
+		this.channel = channel;
+		this.segments = segments;
+		this.groupStart = groupStart;
+		this.groupCount = groupCount;
+		this.sparseMagnitudes = sparseMagnitudes;
+	}
+
+	/**
+	 * Writes a bank data file and its index, replacing existing files.
+	 *
+	 * <p>Records are sorted in memory before writing, so building holds all equations (about 20
+	 * bytes each) on the heap; banks are expected to be built offline.
+	 *
+	 * @param file      the data file to write; the index is written to {@code file + ".idx"}
+	 * @param equations the vetted equations to store
+	 * @throws IOException              if a file cannot be written
+	 * @throws IllegalArgumentException if an equation has a negative number or unknown operator
+	 */
+	public static void write(Path file, Collection<Equation> equations) throws IOException {
+		int[] counts = new int[OPERATIONS.length];
+		for (Equation eq : equations) {
+			if (eq.firstNumber() < 0 || eq.secondNumber() < 0 || eq.result() < 0) {
+				throw new IllegalArgumentException("Cannot store equation " + eq);
+			}
+			counts[Operations.fromOperator(eq.operator()).ordinal()]++;
+		}
+		Equation[] all = equations.toArray(Equation[]::new);
+		// Sort key per operation: magnitude in the high half, position in the low half.
+		long[][] keys = new long[OPERATIONS.length][];
+		int[] filled = new int[OPERATIONS.length];
+		for (int op = 0; op < OPERATIONS.length; op++) {
+			keys[op] = new long[counts[op]];
+		}
+		for (int i = 0; i < all.length; i++) {
+			int op = Operations.fromOperator(all[i].operator()).ordinal();
+			keys[op][filled[op]++] = (long) magnitude(all[i]) << 32 | i;
+		}
+
+		try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			ByteBuffer buf = ByteBuffer.allocate(RECORD_BYTES * 8192);
+			for (long[] group : keys) {
+				Arrays.sort(group);
+				for (long key : group) {
+					Equation eq = all[(int) key];
+					if (!buf.hasRemaining()) {
+						drain(out, buf);
+					}
+					buf.putInt(eq.firstNumber()).putInt(eq.secondNumber()).putInt(eq.result());
+				}
+			}
+			drain(out, buf);
+		}
+		writeIndex(indexFile(file), keys);
+	}
+
+	/**
+	 * Opens a bank by memory-mapping its data file and loading its index.
+	 *
+	 * @param file the data file written by {@link #write(Path, Collection)}
+	 * @return the opened bank; close it to release the file
+	 * @throws IOException if the files cannot be read or do not match
+	 */
+	public static EquationBank open(Path file) throws IOException {
+		long[] start = new long[OPERATIONS.length];
+		long[] count = new long[OPERATIONS.length];
+		int[][] sparse = new int[OPERATIONS.length][];
+		readIndex(indexFile(file), start, count, sparse);
+
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			long records = Arrays.stream(count).sum();
+			if (channel.size() != records * RECORD_BYTES) {
+				throw new IOException("Bank data does not match its index: " + file);
+			}
+			ByteBuffer[] segments = new ByteBuffer[(int) ((records + SEGMENT_RECORDS - 1) / SEGMENT_RECORDS)];
+			for (int s = 0; s < segments.length; s++) {
+				long first = (long) s * SEGMENT_RECORDS;
+				long size = Math.min(SEGMENT_RECORDS, records - first) * RECORD_BYTES;
+				segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, first * RECORD_BYTES, size);
+			}
+			return new EquationBank(channel, segments, start, count, sparse);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Total number of equations stored for an operation.
+	 */
+	public long size(Operations operation) {
+		return groupCount[operation.ordinal()];
+	}
+
+	/**
+	 * Number of equations of an operation whose operands and result are all within the limit.
+	 *
+	 * @param operation the operation
+	 * @param limit     the inclusive upper bound
+	 * @return the number of usable equations
+	 */
+	public long count(Operations operation, int limit) {
+		return countsByLimit.computeIfAbsent(limit, this::countWithin)[operation.ordinal()];
+	}
+
+	/**
+	 * Reads a stored equation.
+	 *
+	 * @param operation the operation group
+	 * @param index     position within the group, in ascending magnitude order
+	 * @return the equation
+	 * @throws IndexOutOfBoundsException if index is outside the group
+	 */
+	public Equation get(Operations operation, long index) {
+		int op = operation.ordinal();
+		if (index < 0 || index >= groupCount[op]) {
+			throw new IndexOutOfBoundsException(index);
+		}
+		long record = groupStart[op] + index;
+		ByteBuffer segment = segments[(int) (record / SEGMENT_RECORDS)];
+		int offset = (int) (record % SEGMENT_RECORDS) * RECORD_BYTES;
+		return Equation.of(segment.getInt(offset), segment.getInt(offset + 4), segment.getInt(offset + 8),
+				operation.operator());
+	}
+
+	/**
+	 * Samples a uniformly random equation of a uniformly chosen allowed operation among those with
+	 * equations within the limit.
+	 *
+	 * @throws IllegalStateException if the bank has no equation within the limit for any allowed
+	 *                               operation
+	 */
+	@Override
+	public Equation next(int limit, List<Operations> operations, RandomGenerator random) {
+		long[] counts = countsByLimit.computeIfAbsent(limit, this::countWithin);
+		int feasible = 0;
+		for (Operations op : operations) {
+			if (counts[op.ordinal()] > 0) {
+				feasible++;
+			}
+		}
+		if (feasible == 0) {
+			throw new IllegalStateException("Bank has no equations within limit " + limit + " for " + operations);
+		}
+		int pick = random.nextInt(feasible);
+		for (Operations op : operations) {
+			if (counts[op.ordinal()] > 0 && pick-- == 0) {
+				return get(op, random.nextLong(counts[op.ordinal()]));
+			}
+		}
+		throw new IllegalStateException("unreachable");
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Counts, per operation, the prefix of records with magnitude within the limit: a binary search
+	 * over the sparse index followed by one over at most {@value #SPARSE_INTERVAL} mapped records.
+	 */
+	private long[] countWithin(int limit) {
+		long[] result = new long[OPERATIONS.length];
+		for (int op = 0; op < OPERATIONS.length; op++) {
+			int[] sparse = sparseMagnitudes[op];
+			int block = upperBound(sparse, limit) - 1;
+			if (block < 0) {
+				continue;
+			}
+			long low = (long) block * SPARSE_INTERVAL;
+			long high = Math.min(groupCount[op], low + SPARSE_INTERVAL);
+			while (low < high) {
+				long mid = (low + high) >>> 1;
+				if (magnitude(get(OPERATIONS[op], mid)) <= limit) {
+					low = mid + 1;
+				}
+				else {
+					high = mid;
+				}
+			}
+			result[op] = low;
+		}
+		return result;
+	}
+
+	private static int upperBound(int[] sorted, int value) {
+		int low = 0;
+		int high = sorted.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (sorted[mid] <= value) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private static int magnitude(Equation eq) {
+		return Math.max(eq.result(), Math.max(eq.firstNumber(), eq.secondNumber()));
+	}
+
+	private static Path indexFile(Path file) {
+		return file.resolveSibling(file.getFileName() + ".idx");
+	}
+
+	private static void writeIndex(Path index, long[][] sortedKeys) throws IOException {
+		int sparseEntries = Arrays.stream(sortedKeys)
+				.mapToInt(group -> (group.length + SPARSE_INTERVAL - 1) / SPARSE_INTERVAL)
+				.sum();
+		ByteBuffer buf = ByteBuffer.allocate(9 + OPERATIONS.length * 20 + sparseEntries * 4);
+		buf.putInt(INDEX_MAGIC).put(VERSION).putInt(SPARSE_INTERVAL);
+		long start = 0;
+		for (long[] group : sortedKeys) {
+			int entries = (group.length + SPARSE_INTERVAL - 1) / SPARSE_INTERVAL;
+			buf.putLong(start).putLong(group.length).putInt(entries);
+			for (int k = 0; k < entries; k++) {
+				buf.putInt((int) (group[k * SPARSE_INTERVAL] >>> 32));
+			}
+			start += group.length;
+		}
+		try (FileChannel out = FileChannel.open(index, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			drain(out, buf);
+		}
+	}
+
+	private static void readIndex(Path index, long[] start, long[] count, int[][] sparse) throws IOException {
+		try (FileChannel in = FileChannel.open(index, StandardOpenOption.READ)) {
+			ByteBuffer buf = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+			if (buf.remaining() < 9 || buf.getInt() != INDEX_MAGIC || buf.get() != VERSION
+					|| buf.getInt() != SPARSE_INTERVAL) {
+				throw new IOException("Not an equation bank index: " + index);
+			}
+			for (int op = 0; op < OPERATIONS.length; op++) {
+				start[op] = buf.getLong();
+				count[op] = buf.getLong();
+				sparse[op] = new int[buf.getInt()];
+				buf.asIntBuffer().get(sparse[op]);
+				buf.position(buf.position() + sparse[op].length * Integer.BYTES);
+			}
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Truncated equation bank index: " + index, e);
+		}
+	}
+
+	private static void drain(FileChannel channel, ByteBuffer buf) throws IOException {
+		buf.flip();
+		while (buf.hasRemaining()) {
+			channel.write(buf);
+		}
+		buf.clear();
+	}
+}
@@ -0,0 +1,64 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.storage;
+
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.Operations;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A generated sheet of equations together with the parameters it was generated with.
+ *
+ * @param limit        the limit passed to the generator
+ * @param operations   the operations the generator was allowed to use
+ * @param seed         the seed the sheet was generated from, or 0 when unknown
+ * @param equations    the generated equations
+ * @param placeholders one placeholder index (1..3) per equation, or empty when the placeholders are
+ *                     chosen at render time
+ */
+public record ExerciseSet(int limit, Set<Operations> operations, long seed, List<Equation> equations,
+                          List<Integer> placeholders) {
+
+	/**
+	 * Validates the set and takes immutable copies of its collections.
+	 *
+	 * @throws IllegalArgumentException if placeholders are given but do not match the equations
+	 */
+	public ExerciseSet {
+		operations = operations.isEmpty() ? Set.of() : Collections.unmodifiableSet(EnumSet.copyOf(operations));
+		equations = List.copyOf(equations);
+		placeholders = List.copyOf(placeholders);
+		if (!placeholders.isEmpty() && placeholders.size() != equations.size()) {
+			throw new IllegalArgumentException("Expected one placeholder per equation.");
+		}
+		if (placeholders.stream().anyMatch(p -> p < 1 || p > 3)) {
+			throw new IllegalArgumentException("placeholder must be 1..3");
+		}
+	}
+
+	/**
+	 * Creates an exercise set whose placeholders are chosen at render time.
+	 */
+	public static ExerciseSet of(int limit, Set<Operations> operations, long seed, List<Equation> equations) {
+		return new ExerciseSet(limit, operations, seed, equations, List.of());
+	}
+
+	/**
+	 * Whether placeholder positions were recorded for this set.
+	 */
+	public boolean hasPlaceholders() {
+		return !placeholders.isEmpty();
+	}
+}
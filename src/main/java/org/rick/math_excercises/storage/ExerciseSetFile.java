@@ -0,0 +1,279 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.storage;
+
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.Operations;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compact binary file format for {@link ExerciseSet}s.
+ *
+ * <p>Layout (big-endian):
+ *
+ * <pre>
+ * int     magic "MEXS"
+ * byte    version
+ * varint  limit
+ * byte    operations bit mask (bit n = {@link Operations} ordinal n)
+ * long    seed
+ * varint  equation count
+ * record* operation ordinal &lt;&lt; 2 | placeholder index (0 = none), varint first, varint second
+ * </pre>
+ *
+ * <p>Varints are unsigned LEB128. Results are not stored; they are recomputed from the operands on
+ * read. Files are read through a memory mapping and decoded without intermediate copies.
+ */
+public final class ExerciseSetFile {
+
+	private static final int MAGIC = 0x4D455853;
+	private static final byte VERSION = 1;
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int MAX_RECORD_BYTES = 1 + 5 + 5;
+	private static final Operations[] OPERATIONS = Operations.values();
+
+	private ExerciseSetFile() {
+	}
+
+	/**
+	 * Writes an exercise set, replacing any existing file.
+	 *
+	 * @param path the file to write
+	 * @param set  the exercise set
+	 * @throws IOException              if the file cannot be written
+	 * @throws IllegalArgumentException if an equation is negative or its result is inconsistent with
+	 *                                  its operands
+	 */
+	public static void write(Path path, ExerciseSet set) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+			buf.putInt(MAGIC).put(VERSION);
+			putVarint(buf, set.limit());
+			buf.put(operationMask(set.operations()));
+			buf.putLong(set.seed());
+			List<Equation> equations = set.equations();
+			putVarint(buf, equations.size());
+			for (int i = 0; i < equations.size(); i++) {
+				if (buf.remaining() < MAX_RECORD_BYTES) {
+					drain(channel, buf);
+				}
+				Equation eq = equations.get(i);
+				Operations op = checkedOperation(eq);
+				int placeholder = set.hasPlaceholders() ? set.placeholders().get(i) : 0;
+				buf.put((byte) (op.ordinal() << 2 | placeholder));
+				putVarint(buf, eq.firstNumber());
+				putVarint(buf, eq.secondNumber());
+			}
+			drain(channel, buf);
+		}
+	}
+
+	/**
+	 * Reads a complete exercise set.
+	 *
+	 * @param path the file to read
+	 * @return the stored exercise set
+	 * @throws IOException if the file cannot be read or is not a valid exercise set file
+	 */
+	public static ExerciseSet read(Path path) throws IOException {
+		List<Equation> equations = new ArrayList<>();
+		List<Integer> placeholders = new ArrayList<>();
+		Header header = forEach(path, (index, first, second, result, operator, placeholder) -> {
+			equations.add(Equation.of(first, second, result, operator));
+			if (placeholder != 0) {
+				placeholders.add(placeholder);
+			}
+		});
+		return new ExerciseSet(header.limit(), header.operations(), header.seed(), equations, placeholders);
+	}
+
+	/**
+	 * Streams the equations of a file to a visitor without materializing {@link Equation} objects.
+	 *
+	 * @param path    the file to read
+	 * @param visitor receives every stored equation in order
+	 * @return the file header
+	 * @throws IOException if the file cannot be read or is not a valid exercise set file
+	 */
+	public static Header forEach(Path path, EquationVisitor visitor) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("Exercise set file too large: " + path);
+			}
+			MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			Header header = readHeader(buf, path);
+			for (int i = 0; i < header.count(); i++) {
+				int code = buf.get() & 0xFF;
+				if (code >>> 2 >= OPERATIONS.length) {
+					throw new IOException("Corrupt record " + i + " in " + path);
+				}
+				Operations op = OPERATIONS[code >>> 2];
+				int first = getVarint(buf);
+				int second = getVarint(buf);
+				if (!storable(op, first, second)) {
+					throw new IOException("Corrupt record " + i + " in " + path + ": " + first + " " + op.operator() + " "
+							+ second);
+				}
+				visitor.visit(i, first, second, op.apply(first, second), op.operator(), code & 0b11);
+			}
+			return header;
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Truncated exercise set file: " + path, e);
+		}
+	}
+
+	/**
+	 * Reads only the header of a file.
+	 *
+	 * @param path the file to read
+	 * @return the file header
+	 * @throws IOException if the file cannot be read or is not a valid exercise set file
+	 */
+	public static Header readHeader(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer buf = ByteBuffer.allocate((int) Math.min(channel.size(), 64));
+			while (buf.hasRemaining() && channel.read(buf) >= 0) {
+				// fill the header buffer
+			}
+			return readHeader(buf.flip(), path);
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Truncated exercise set file: " + path, e);
+		}
+	}
+
+	private static Header readHeader(ByteBuffer buf, Path path) throws IOException {
+		if (buf.remaining() < Integer.BYTES || buf.getInt() != MAGIC) {
+			throw new IOException("Not an exercise set file: " + path);
+		}
+		byte version = buf.get();
+		if (version != VERSION) {
+			throw new IOException("Unsupported exercise set version " + version + ": " + path);
+		}
+		int limit = getVarint(buf);
+		Set<Operations> operations = operations(buf.get());
+		long seed = buf.getLong();
+		int count = getVarint(buf);
+		return new Header(version, limit, operations, seed, count);
+	}
+
+	private static Operations checkedOperation(Equation eq) {
+		Operations op = Operations.fromOperator(eq.operator());
+		int first = eq.firstNumber();
+		int second = eq.secondNumber();
+		boolean consistent = op == Operations.DIVISION
+		                     ? second != 0 && first == second * eq.result()
+		                     : op.apply(first, second) == eq.result();
+		if (first < 0 || second < 0 || !consistent) {
+			throw new IllegalArgumentException("Cannot store equation " + eq);
+		}
+		return op;
+	}
+
+	/**
+	 * Whether {@link #write} could have stored the operands: non-negative and, for DIVISION, a
+	 * non-zero divisor that divides the dividend.
+	 */
+	private static boolean storable(Operations op, int first, int second) {
+		if (first < 0 || second < 0) {
+			return false;
+		}
+		return op != Operations.DIVISION || second != 0 && first % second == 0;
+	}
+
+	private static byte operationMask(Set<Operations> operations) {
+		int mask = 0;
+		for (Operations op : operations) {
+			mask |= 1 << op.ordinal();
+		}
+		return (byte) mask;
+	}
+
+	private static Set<Operations> operations(byte mask) {
+		Set<Operations> result = EnumSet.noneOf(Operations.class);
+		for (Operations op : OPERATIONS) {
+			if ((mask & 1 << op.ordinal()) != 0) {
+				result.add(op);
+			}
+		}
+		return result;
+	}
+
+	private static void putVarint(ByteBuffer buf, int value) {
+		while ((value & ~0x7F) != 0) {
+			buf.put((byte) (value & 0x7F | 0x80));
+			value >>>= 7;
+		}
+		buf.put((byte) value);
+	}
+
+	private static int getVarint(ByteBuffer buf) {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = buf.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new BufferUnderflowException();
+	}
+
+	private static void drain(FileChannel channel, ByteBuffer buf) throws IOException {
+		buf.flip();
+		while (buf.hasRemaining()) {
+			channel.write(buf);
+		}
+		buf.clear();
+	}
+
+	/**
+	 * Receives the equations of a file in storage order.
+	 */
+	@FunctionalInterface
+	public interface EquationVisitor {
+		/**
+		 * Called once per stored equation.
+		 *
+		 * @param index       zero-based position in the file
+		 * @param first       the first operand
+		 * @param second      the second operand
+		 * @param result      the result recomputed from the operands
+		 * @param operator    the operator character
+		 * @param placeholder the stored placeholder index (1..3), or 0 when none was recorded
+		 */
+		void visit(int index, int first, int second, int result, char operator, int placeholder);
+	}
+
+	/**
+	 * The parameters stored in a file header.
+	 *
+	 * @param version    the format version
+	 * @param limit      the generation limit
+	 * @param operations the allowed operations
+	 * @param seed       the generation seed, or 0 when unknown
+	 * @param count      the number of stored equations
+	 */
+	public record Header(int version, int limit, Set<Operations> operations, long seed, int count) {
+	}
+}
@@ -0,0 +1,24 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+/**
+ * Persistence of generated exercises so that sheets can be reprinted without regeneration, and of
+ * curated equation banks that worksheets draw from.
+ *
+ * <ul>
+ *   <li>{@link org.rick.math_excercises.storage.ExerciseSet} — equations plus the parameters and
+ *       placeholders they were rendered with.
+ *   <li>{@link org.rick.math_excercises.storage.ExerciseSetFile} — compact binary file format for
+ *       exercise sets.
+ *   <li>{@link org.rick.math_excercises.storage.EquationBank} — memory-mapped bank of curated
+ *       equations usable as an equation source.
+ * </ul>
+ */
+package org.rick.math_excercises.storage;
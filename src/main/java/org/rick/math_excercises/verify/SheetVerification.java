@@ -0,0 +1,59 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.verify;
+
+import java.util.List;
+
+/**
+ * Outcome of verifying the document of one sheet.
+ *
+ * @param sheet      the sheet, e.g. its file name
+ * @param pages      pages of the document, 0 if it could not be read
+ * @param equations  equations on the sheet
+ * @param missing    zero-based indexes of the equations not found in the document's text
+ * @param offPage    glyphs lying outside the box of their page
+ * @param unreadable why the document could not be read, or null
+ */
+public record SheetVerification(String sheet, int pages, int equations, List<Integer> missing, int offPage,
+                                String unreadable) {
+
+	static SheetVerification unreadable(String sheet, int equations, String reason) {
+		return new SheetVerification(sheet, 0, equations, List.of(), 0, reason);
+	}
+
+	/**
+	 * Whether the document could be read, shows every equation and keeps every glyph on its page.
+	 */
+	public boolean passed() {
+		return unreadable == null && missing.isEmpty() && offPage == 0;
+	}
+
+	/**
+	 * A one-line description of the failures, or "ok".
+	 */
+	public String describe() {
+		if (unreadable != null) {
+			return "unreadable (" + unreadable + ")";
+		}
+		if (passed()) {
+			return "ok";
+		}
+		StringBuilder description = new StringBuilder();
+		if (!missing.isEmpty()) {
+			description.append(missing.size()).append(" of ").append(equations)
+					.append(" equations missing, first #").append(missing.get(0) + 1);
+		}
+		if (offPage > 0) {
+			description.append(description.isEmpty() ? "" : ", ").append(offPage).append(" glyphs off the page");
+		}
+		return description.toString();
+	}
+}
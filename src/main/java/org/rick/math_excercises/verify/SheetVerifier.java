@@ -0,0 +1,249 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.verify;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.SheetRequest;
+import org.rick.math_excercises.service.internal.FontSupport;
+import org.rick.math_excercises.service.internal.GlyphSet;
+import org.rick.math_excercises.service.internal.PdfRenderSupport;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Parses generated PDFs back and checks them against the sheets they were rendered from.
+ *
+ * <p>The text of a document is extracted with PDFBox's {@link PDFTextStripper} in content stream
+ * order, which is the order the renderers write the equations in. Every equation of the sheet, with
+ * its placeholder glyph, has to appear in that order as whole extracted lines: a horizontal equation
+ * as one line, e.g. {@code 12 + □ = 17}, a vertical one as the three lines of its first number, its
+ * operator and second number, and its result, with one placeholder per blanked digit. Whitespace
+ * within a line is ignored, but an equation never matches part of a line, so {@code 1 + 1 = 2} is not
+ * found in {@code 21 + 1 = 22}. Every glyph also has to lie within the box of its page. This catches
+ * documents that could not be written, glyphs a fallback font cannot show and columns that run off
+ * the page.
+ *
+ * <p>Documents are parsed in parallel, one per worker; checking a document takes about as long as
+ * rendering it with the {@link org.rick.math_excercises.service.PdfBoxRenderer}. Instances are
+ * thread-safe.
+ */
+public final class SheetVerifier {
+
+	private final GlyphSet glyphs;
+
+	private final int workers;
+
+	/**
+	 * Verifies documents rendered with the glyphs of the font {@link FontSupport#capabilities()}
+	 * selects.
+	 *
+	 * @param workers number of documents parsed in parallel (must be >= 1)
+	 * @throws IllegalArgumentException if workers {@code <} 1
+	 */
+	public SheetVerifier(int workers) {
+		this(FontSupport.capabilities().glyphs(), workers);
+	}
+
+	/**
+	 * @param glyphs  the glyphs the documents were rendered with
+	 * @param workers number of documents parsed in parallel (must be >= 1)
+	 * @throws IllegalArgumentException if workers {@code <} 1
+	 */
+	public SheetVerifier(GlyphSet glyphs, int workers) {
+		if (workers < 1) {
+			throw new IllegalArgumentException("workers must be >= 1");
+		}
+		this.glyphs = glyphs;
+		this.workers = workers;
+	}
+
+	/**
+	 * Verifies the documents of several sheets in parallel.
+	 *
+	 * @param requests the sheets
+	 * @param files    the document of each sheet, in the same order
+	 * @return the outcome per sheet, in request order
+	 * @throws IllegalArgumentException if the lists differ in size
+	 * @throws InterruptedException     if interrupted while waiting for the workers
+	 */
+	public VerificationReport verify(List<SheetRequest> requests, List<Path> files) throws InterruptedException {
+		if (requests.size() != files.size()) {
+			throw new IllegalArgumentException("Expected one file per sheet.");
+		}
+		long start = System.nanoTime();
+		List<SheetVerification> sheets = new ArrayList<>(requests.size());
+		try (ExecutorService pool = Executors.newFixedThreadPool(workers,
+				Thread.ofPlatform().name("verify-", 0).factory())) {
+			List<Future<SheetVerification>> futures = new ArrayList<>(requests.size());
+			for (int i = 0; i < requests.size(); i++) {
+				SheetRequest request = requests.get(i);
+				Path file = files.get(i);
+				futures.add(pool.submit(() -> verify(file, request)));
+			}
+			for (Future<SheetVerification> future : futures) {
+				try {
+					sheets.add(future.get());
+				} catch (ExecutionException e) {
+					throw new IllegalStateException(e.getCause());
+				}
+			}
+		}
+		return new VerificationReport(sheets, Duration.ofNanos(System.nanoTime() - start));
+	}
+
+	/**
+	 * Verifies the document of one sheet on the calling thread.
+	 *
+	 * @param file    the document
+	 * @param request the sheet it was rendered from
+	 * @return the outcome; a missing or unreadable file fails the sheet
+	 */
+	public SheetVerification verify(Path file, SheetRequest request) {
+		String sheet = file.getFileName().toString();
+		List<String> expected = expectedText(request, glyphs);
+		try {
+			return check(sheet, Files.readAllBytes(file), expected);
+		} catch (NoSuchFileException e) {
+			return SheetVerification.unreadable(sheet, expected.size(), "missing");
+		} catch (IOException e) {
+			return SheetVerification.unreadable(sheet, expected.size(), e.toString());
+		}
+	}
+
+	/**
+	 * Verifies a rendered document held in memory.
+	 *
+	 * @param sheet   the name reported for the sheet
+	 * @param pdf     the document bytes
+	 * @param request the sheet it was rendered from
+	 * @return the outcome; a document that cannot be parsed fails the sheet
+	 */
+	public SheetVerification verify(String sheet, byte[] pdf, SheetRequest request) {
+		List<String> expected = expectedText(request, glyphs);
+		try {
+			return check(sheet, pdf, expected);
+		} catch (IOException e) {
+			return SheetVerification.unreadable(sheet, expected.size(), e.toString());
+		}
+	}
+
+	/**
+	 * The text each equation of a sheet is expected to extract to, without whitespace; the lines of a
+	 * vertical equation are separated by {@code \n}.
+	 */
+	static List<String> expectedText(SheetRequest request, GlyphSet glyphs) {
+		List<Equation> equations = request.equations();
+		List<Integer> placeholders = request.placeholders();
+		List<String> expected = new ArrayList<>(equations.size());
+		for (int i = 0; i < equations.size(); i++) {
+			Equation equation = equations.get(i);
+			int placeholder = placeholders.get(i);
+			if (request.layout().vertical()) {
+				expected.add(column(equation.firstNumber(), placeholder == 1, glyphs)
+						+ "\n" + glyphs.operator(equation.operator())
+						+ column(equation.secondNumber(), placeholder == 2, glyphs)
+						+ "\n" + column(equation.result(), placeholder == 3, glyphs));
+			}
+			else {
+				expected.add(String.join("", PdfRenderSupport.formatTokens(equation, placeholder, glyphs)));
+			}
+		}
+		return expected;
+	}
+
+	private static String column(int value, boolean blank, GlyphSet glyphs) {
+		String number = String.valueOf(value);
+		return blank ? glyphs.placeholder().repeat(number.length()) : number;
+	}
+
+	private static SheetVerification check(String sheet, byte[] pdf, List<String> expected) throws IOException {
+		try (PDDocument document = Loader.loadPDF(pdf)) {
+			BoundsStripper stripper = new BoundsStripper();
+			stripper.getText(document);
+			String text = stripper.text.toString();
+			List<Integer> missing = new ArrayList<>();
+			int position = 0;
+			for (int i = 0; i < expected.size(); i++) {
+				// anchored at line breaks on both sides; the closing one starts the next match
+				int found = text.indexOf("\n" + expected.get(i) + "\n", position);
+				if (found < 0) {
+					missing.add(i);
+				}
+				else {
+					position = found + expected.get(i).length() + 1;
+				}
+			}
+			return new SheetVerification(sheet, document.getNumberOfPages(), expected.size(), List.copyOf(missing),
+					stripper.offPage, null);
+		}
+	}
+
+	/**
+	 * Collects the extracted lines without whitespace, each line and page starting with {@code \n},
+	 * and counts the glyphs outside their page box.
+	 */
+	private static final class BoundsStripper extends PDFTextStripper {
+
+		private final StringBuilder text = new StringBuilder(8 * 1024).append('\n');
+
+		private int offPage;
+
+		@Override
+		protected void writeLineSeparator() {
+			lineBreak();
+		}
+
+		@Override
+		protected void writePageStart() {
+			lineBreak();
+		}
+
+		private void lineBreak() {
+			if (text.charAt(text.length() - 1) != '\n') {
+				text.append('\n');
+			}
+		}
+
+		@Override
+		protected void writeString(String string, List<TextPosition> positions) {
+			PDRectangle box = getCurrentPage().getMediaBox();
+			for (TextPosition glyph : positions) {
+				float x = glyph.getXDirAdj();
+				float y = glyph.getYDirAdj();
+				if (x < 0 || x + glyph.getWidthDirAdj() > box.getWidth() || y - glyph.getHeightDir() < 0
+						|| y > box.getHeight()) {
+					offPage++;
+				}
+			}
+			string.codePoints().filter(c -> !Character.isWhitespace(c)).forEach(text::appendCodePoint);
+		}
+
+		@Override
+		protected void endDocument(PDDocument document) {
+			lineBreak();
+		}
+	}
+}
@@ -0,0 +1,51 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.verify;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Outcome of verifying a batch of sheets.
+ *
+ * @param sheets  the outcome per sheet, in request order
+ * @param elapsed wall-clock time of the batch
+ */
+public record VerificationReport(List<SheetVerification> sheets, Duration elapsed) {
+
+	/**
+	 * The sheets that failed verification.
+	 */
+	public List<SheetVerification> failures() {
+		return sheets.stream().filter(sheet -> !sheet.passed()).toList();
+	}
+
+	/**
+	 * Whether every sheet passed.
+	 */
+	public boolean passed() {
+		return sheets.stream().allMatch(SheetVerification::passed);
+	}
+
+	/**
+	 * One line per failed sheet followed by a summary line.
+	 */
+	public String toTable() {
+		StringBuilder table = new StringBuilder();
+		for (SheetVerification failure : failures()) {
+			table.append(String.format(Locale.ROOT, "FAILED %s: %s%n", failure.sheet(), failure.describe()));
+		}
+		table.append(String.format(Locale.ROOT, "%d sheets verified, %d failed in %d ms%n", sheets.size(),
+				failures().size(), elapsed.toMillis()));
+		return table.toString();
+	}
+}
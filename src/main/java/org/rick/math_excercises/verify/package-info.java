@@ -0,0 +1,16 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+/**
+ * Parse-back verification of generated PDFs.
+ *
+ * <p>See {@link org.rick.math_excercises.verify.SheetVerifier}.
+ */
+package org.rick.math_excercises.verify;
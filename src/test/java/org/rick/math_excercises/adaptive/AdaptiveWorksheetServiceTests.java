@@ -0,0 +1,108 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.adaptive;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.Operations;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests a parallel adaptive run producing one multi-page PDF per class.
+ */
+class AdaptiveWorksheetServiceTests {
+
+	@TempDir
+	Path dir;
+
+	/**
+	 * Every class gets one document with one page per student, and throughput is reported.
+	 */
+	@Test
+	void writesOneDocumentPerClassWithOnePagePerStudent() throws IOException {
+		List<StudentProfile> profiles = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			profiles.add(new StudentProfile("a" + i, "class A", 20, Map.of(Operations.ADDITION, 1), 0));
+		}
+		for (int i = 0; i < 3; i++) {
+			profiles.add(new StudentProfile("b" + i, "class/B", 100,
+					Map.of(Operations.MULTIPLICATION, 3, Operations.DIVISION, 1), 10));
+		}
+
+		AdaptiveRunReport report = new AdaptiveWorksheetService(2).generate(profiles, 40, 99L, dir);
+
+		assertEquals(8, report.sheets());
+		assertEquals(List.of(dir.resolve("class_A.pdf"), dir.resolve("class_B.pdf")), report.files());
+		assertTrue(report.sheetsPerSecond() > 0);
+		try (PDDocument a = Loader.loadPDF(report.files().get(0).toFile());
+		     PDDocument b = Loader.loadPDF(report.files().get(1).toFile())) {
+			assertEquals(5, a.getNumberOfPages());
+			assertEquals(3, b.getNumberOfPages());
+		}
+	}
+
+	/**
+	 * Students whose ids share a {@link String#hashCode()} still get different sheets.
+	 */
+	@Test
+	void studentsWithCollidingHashCodesGetDifferentSheets() {
+		assertEquals("Aa".hashCode(), "BB".hashCode());
+		GenerationPlan plan = GenerationPlan.compile(
+				new StudentProfile("Aa", "class A", 100, Map.of(Operations.ADDITION, 1), 0));
+
+		List<Equation> aa = plan.generate(40, AdaptiveWorksheetService.random(7L, "Aa"));
+		List<Equation> bb = plan.generate(40, AdaptiveWorksheetService.random(7L, "BB"));
+
+		assertNotEquals(aa, bb);
+		assertEquals(aa, plan.generate(40, AdaptiveWorksheetService.random(7L, "Aa")));
+		assertNotEquals(AdaptiveWorksheetService.random(7L, "Aa").nextLong(),
+				AdaptiveWorksheetService.random(8L, "Aa").nextLong());
+	}
+
+	/**
+	 * Class ids that sanitize to the same file name are rejected before anything is written.
+	 */
+	@Test
+	void rejectsClassIdsSharingAFileName() throws IOException {
+		List<StudentProfile> profiles = List.of(
+				new StudentProfile("a", "4/B", 20, Map.of(Operations.ADDITION, 1), 0),
+				new StudentProfile("b", "4 B", 20, Map.of(Operations.ADDITION, 1), 0));
+
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+				() -> new AdaptiveWorksheetService(2).generate(profiles, 10, 1L, dir));
+		assertTrue(e.getMessage().contains("4_B.pdf"), e.getMessage());
+		try (Stream<Path> files = Files.list(dir)) {
+			assertEquals(0, files.count());
+		}
+	}
+
+	/**
+	 * Invalid run parameters are rejected up front.
+	 */
+	@Test
+	void rejectsInvalidParameters() {
+		assertThrows(IllegalArgumentException.class, () -> new AdaptiveWorksheetService(0));
+		assertThrows(IllegalArgumentException.class,
+				() -> new AdaptiveWorksheetService().generate(List.of(), 0, 1L, dir));
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.adaptive;
+
+import org.junit.jupiter.api.Test;
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.Operations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests compiling {@link StudentProfile}s into {@link GenerationPlan}s and the shared
+ * {@link EquationTables} they sample from.
+ */
+class GenerationPlanTests {
+
+	/**
+	 * Tables hold exactly the equations the generators accept, sorted by magnitude.
+	 */
+	@Test
+	void tablesEnumerateValidEquationSpace() {
+		// a,b in [1,19] with a*b <= 20: sum over a of min(19, 20 / a)
+		assertEquals(19 + 10 + 6 + 5 + 4 + 3 + 2 + 2 + 2 + 2 + 9, EquationTables.table(Operations.MULTIPLICATION, 20).size());
+		// a,b in [0,19], a >= b, not both zero
+		assertEquals(20 * 21 / 2 - 1, EquationTables.table(Operations.SUBTRACTION, 20).size());
+		EquationTables.Table division = EquationTables.table(Operations.DIVISION, 20);
+		for (int i = 0; i < division.size(); i++) {
+			Equation eq = division.get(i);
+			assertEquals(eq.firstNumber(), eq.secondNumber() * eq.result());
+			assertTrue(eq.firstNumber() <= 20 && eq.secondNumber() > 0);
+		}
+		assertSame(division, EquationTables.table(Operations.DIVISION, 20));
+	}
+
+	/**
+	 * Sheets honour the profile's number range and favour its heavily weighted operations.
+	 */
+	@Test
+	void generatesWeightedSheetsWithinNumberRange() {
+		StudentProfile profile = new StudentProfile("s1", "c1", 50,
+				Map.of(Operations.SUBTRACTION, 9, Operations.ADDITION, 1), 30);
+		List<Equation> sheet = GenerationPlan.compile(profile).generate(2000, new Random(5));
+
+		assertEquals(2000, sheet.size());
+		long subtractions = sheet.stream().filter(eq -> eq.operator() == '-').count();
+		assertTrue(subtractions > 1600, "subtraction weight 9:1 should dominate, was " + subtractions);
+		for (Equation eq : sheet) {
+			int magnitude = Math.max(eq.result(), Math.max(eq.firstNumber(), eq.secondNumber()));
+			assertTrue(magnitude >= 30 && magnitude <= 50, eq.toString());
+		}
+	}
+
+	/**
+	 * Operations with zero weight are dropped; invalid profiles are rejected.
+	 */
+	@Test
+	void validatesProfiles() {
+		GenerationPlan plan = GenerationPlan.compile(new StudentProfile("s", "c", 20,
+				Map.of(Operations.DIVISION, 0, Operations.MULTIPLICATION, 2), 0));
+		assertEquals(List.of(Operations.MULTIPLICATION), plan.operations());
+		assertThrows(IllegalArgumentException.class,
+				() -> plan.next(20, List.of(Operations.ADDITION), new Random(1)));
+		assertThrows(IllegalArgumentException.class,
+				() -> new StudentProfile("s", "c", 5, Map.of(Operations.ADDITION, 1), 0));
+		assertThrows(IllegalArgumentException.class,
+				() -> new StudentProfile("s", "c", 20, Map.of(Operations.ADDITION, 0), 0));
+		assertThrows(IllegalArgumentException.class,
+				() -> new StudentProfile("s", "c", 20, Map.of(Operations.ADDITION, 1), 21));
+	}
+}
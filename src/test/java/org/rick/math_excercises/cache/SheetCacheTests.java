@@ -0,0 +1,182 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.cache;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.rick.math_excercises.service.Operations;
+import org.rick.math_excercises.service.SheetRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests hit/miss behavior, size-capped LRU eviction, time-to-live expiry and index recovery of
+ * {@link SheetCache}.
+ */
+class SheetCacheTests {
+
+	@TempDir
+	Path dir;
+
+	/**
+	 * The second identical request is served from disk with the same bytes, and hit statistics
+	 * reflect it.
+	 */
+	@Test
+	void servesRepeatedRequestsFromCache() throws IOException {
+		SheetCache cache = new SheetCache(dir, 10_000_000, Duration.ofHours(1));
+		SheetRequest request = SheetRequest.of(20, 40, List.of(Operations.ADDITION), 42L);
+
+		ByteArrayOutputStream first = new ByteArrayOutputStream();
+		ByteArrayOutputStream second = new ByteArrayOutputStream();
+		assertFalse(cache.transferTo(request, Channels.newChannel(first)));
+		assertTrue(cache.transferTo(request, Channels.newChannel(second)));
+
+		assertArrayEquals(first.toByteArray(), second.toByteArray());
+		try (PDDocument document = Loader.loadPDF(second.toByteArray())) {
+			assertEquals(1, document.getNumberOfPages());
+		}
+		CacheStats stats = cache.stats();
+		assertEquals(1, stats.hits());
+		assertEquals(1, stats.misses());
+		assertEquals(0.5, stats.hitRatio());
+		assertTrue(stats.saved().toNanos() > 0);
+		assertTrue(Files.exists(dir.resolve(SheetCache.key(request) + ".pdf")));
+	}
+
+	/**
+	 * Keys differ for any differing parameter and ignore operation order and duplicates.
+	 */
+	@Test
+	void keysCoverAllParameters() {
+		SheetRequest base = SheetRequest.of(20, 40, List.of(Operations.ADDITION, Operations.DIVISION), 1L);
+		assertEquals(SheetCache.key(base),
+				SheetCache.key(SheetRequest.of(20, 40, List.of(Operations.DIVISION, Operations.ADDITION, Operations.ADDITION), 1L)));
+		assertNotEquals(SheetCache.key(base), SheetCache.key(SheetRequest.of(21, 40, base.operations(), 1L)));
+		assertNotEquals(SheetCache.key(base), SheetCache.key(SheetRequest.of(20, 41, base.operations(), 1L)));
+		assertNotEquals(SheetCache.key(base), SheetCache.key(SheetRequest.of(20, 40, base.operations(), 2L)));
+		assertNotEquals(SheetCache.key(base), SheetCache.key(SheetRequest.of(20, 40, List.of(Operations.ADDITION), 1L)));
+	}
+
+	/**
+	 * Exceeding the size cap evicts the least recently used entry; an index rebuilt from disk keeps
+	 * the surviving entries.
+	 */
+	@Test
+	void evictsLeastRecentlyUsedBeyondSizeCap() throws IOException {
+		AtomicInteger renders = new AtomicInteger();
+		SheetCache cache = new SheetCache(dir, 250, Duration.ofHours(1),
+				request -> {
+					renders.incrementAndGet();
+					return new byte[100];
+				}, Clock.systemUTC());
+		SheetRequest a = SheetRequest.of(20, 1, null, 1L);
+		SheetRequest b = SheetRequest.of(20, 1, null, 2L);
+		SheetRequest c = SheetRequest.of(20, 1, null, 3L);
+		ByteArrayOutputStream sink = new ByteArrayOutputStream();
+
+		cache.transferTo(a, Channels.newChannel(sink));
+		cache.transferTo(b, Channels.newChannel(sink));
+		cache.transferTo(a, Channels.newChannel(sink)); // a is now most recently used
+		cache.transferTo(c, Channels.newChannel(sink)); // evicts b
+
+		assertEquals(1, cache.stats().evictions());
+		assertEquals(200, cache.stats().bytes());
+		assertTrue(cache.transferTo(a, Channels.newChannel(sink)));
+		assertFalse(Files.exists(dir.resolve(SheetCache.key(b) + ".pdf")));
+		assertEquals(3, renders.get());
+
+		SheetCache reopened = new SheetCache(dir, 250, Duration.ofHours(1));
+		assertEquals(2, reopened.stats().entries());
+		assertEquals(200, reopened.stats().bytes());
+	}
+
+	/**
+	 * Entries older than the time-to-live are rendered again.
+	 */
+	@Test
+	void expiresEntriesAfterTtl() throws IOException {
+		MutableClock clock = new MutableClock();
+		SheetCache cache = new SheetCache(dir, 1000, Duration.ofMinutes(5), request -> new byte[10], clock);
+		SheetRequest request = SheetRequest.of(20, 1, null, 1L);
+		ByteArrayOutputStream sink = new ByteArrayOutputStream();
+
+		assertFalse(cache.transferTo(request, Channels.newChannel(sink)));
+		clock.now = clock.now.plus(Duration.ofMinutes(4));
+		assertTrue(cache.transferTo(request, Channels.newChannel(sink)));
+		clock.now = clock.now.plus(Duration.ofMinutes(2));
+		assertFalse(cache.transferTo(request, Channels.newChannel(sink)));
+		assertEquals(2, cache.stats().misses());
+	}
+
+	/**
+	 * A hit whose file vanished before it was served is rendered again and counted as a miss, without
+	 * crediting saved time.
+	 */
+	@Test
+	void countsVanishedFileAsMiss() throws IOException {
+		AtomicInteger renders = new AtomicInteger();
+		SheetCache cache = new SheetCache(dir, 1000, Duration.ofHours(1),
+				request -> {
+					renders.incrementAndGet();
+					return new byte[10];
+				}, Clock.systemUTC());
+		SheetRequest request = SheetRequest.of(20, 1, null, 1L);
+		ByteArrayOutputStream sink = new ByteArrayOutputStream();
+
+		assertFalse(cache.transferTo(request, Channels.newChannel(sink)));
+		Files.delete(dir.resolve(SheetCache.key(request) + ".pdf"));
+		assertFalse(cache.transferTo(request, Channels.newChannel(sink)));
+
+		CacheStats stats = cache.stats();
+		assertEquals(0, stats.hits());
+		assertEquals(2, stats.misses());
+		assertEquals(Duration.ZERO, stats.saved());
+		assertEquals(1, stats.entries());
+		assertEquals(10, stats.bytes());
+		assertEquals(2, renders.get());
+		assertEquals(20, sink.size());
+		assertTrue(cache.transferTo(request, Channels.newChannel(sink)));
+	}
+
+	private static final class MutableClock extends Clock {
+		private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+		@Override
+		public ZoneOffset getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(java.time.ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+}
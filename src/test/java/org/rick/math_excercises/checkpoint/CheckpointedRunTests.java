@@ -0,0 +1,223 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.checkpoint;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.model.Expression;
+import org.rick.math_excercises.model.FractionEquation;
+import org.rick.math_excercises.service.DirectPdfRenderer;
+import org.rick.math_excercises.service.EquationRenderer;
+import org.rick.math_excercises.service.GenerationStats;
+import org.rick.math_excercises.service.Imposition;
+import org.rick.math_excercises.service.Operations;
+import org.rick.math_excercises.service.PdfBoxRenderer;
+import org.rick.math_excercises.service.PdfOutputMode;
+import org.rick.math_excercises.service.PdfService;
+import org.rick.math_excercises.service.SheetRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that a {@link CheckpointedRun} resumes after a failure, skips intact sheets and repairs
+ * damaged ones, producing the same files as an uninterrupted run.
+ */
+class CheckpointedRunTests {
+
+	private static final int ITERATIONS = 5;
+
+	private static final SheetRequest TEMPLATE =
+			SheetRequest.of(20, 30, List.of(Operations.ADDITION, Operations.SUBTRACTION), 42L);
+
+	@TempDir
+	Path directory;
+
+	/**
+	 * A fresh run renders and journals every sheet; running it again skips all of them.
+	 */
+	@Test
+	void completedRunIsSkipped() throws IOException {
+		CheckpointedRun run = new CheckpointedRun(directory, TEMPLATE, ITERATIONS);
+
+		CheckpointReport first = run.run(new DirectPdfRenderer(), GenerationStats.NONE);
+		assertEquals(new CheckpointReport(ITERATIONS, 0, ITERATIONS, 0, first.elapsed()), first);
+		assertEquals(ITERATIONS + 1, Files.readAllLines(run.journalFile()).size());
+		for (int i = 1; i <= ITERATIONS; i++) {
+			assertTrue(Files.exists(directory.resolve(PdfService.outputFileName(i))));
+		}
+
+		CheckpointReport second = run.run(new DirectPdfRenderer(), GenerationStats.NONE);
+		assertEquals(new CheckpointReport(ITERATIONS, ITERATIONS, 0, 0, second.elapsed()), second);
+	}
+
+	/**
+	 * A run that dies part-way resumes with the first incomplete sheet and ends with the files of an
+	 * uninterrupted run.
+	 */
+	@Test
+	void interruptedRunResumes() throws IOException {
+		Path reference = Files.createDirectory(directory.resolve("reference"));
+		new CheckpointedRun(reference, TEMPLATE, ITERATIONS).run(new DirectPdfRenderer(), GenerationStats.NONE);
+
+		Path resumed = Files.createDirectory(directory.resolve("resumed"));
+		CheckpointedRun run = new CheckpointedRun(resumed, TEMPLATE, ITERATIONS);
+		assertThrows(IOException.class, () -> run.run(new FailingRenderer(3), GenerationStats.NONE));
+		assertEquals(3, Files.readAllLines(run.journalFile()).size());
+
+		CheckpointReport report = run.run(new DirectPdfRenderer(), GenerationStats.NONE);
+		assertEquals(2, report.skipped());
+		assertEquals(ITERATIONS - 2, report.rendered());
+		for (int i = 1; i <= ITERATIONS; i++) {
+			String name = PdfService.outputFileName(i);
+			assertArrayEquals(Files.readAllBytes(reference.resolve(name)), Files.readAllBytes(resumed.resolve(name)));
+		}
+		try (var files = Files.list(resumed)) {
+			assertTrue(files.noneMatch(f -> f.toString().endsWith(".tmp")));
+		}
+	}
+
+	/**
+	 * Journaled sheets that were deleted or changed are rendered again.
+	 */
+	@Test
+	void damagedSheetsAreRepaired() throws IOException {
+		CheckpointedRun run = new CheckpointedRun(directory, TEMPLATE, ITERATIONS);
+		run.run(new DirectPdfRenderer(), GenerationStats.NONE);
+		Path second = directory.resolve(PdfService.outputFileName(2));
+		Path fourth = directory.resolve(PdfService.outputFileName(4));
+		byte[] original = Files.readAllBytes(fourth);
+		Files.delete(second);
+		byte[] corrupted = original.clone();
+		corrupted[corrupted.length / 2] ^= 1;
+		Files.write(fourth, corrupted);
+
+		CheckpointReport report = run.run(new DirectPdfRenderer(), GenerationStats.NONE);
+		assertEquals(new CheckpointReport(ITERATIONS, 3, 2, 2, report.elapsed()), report);
+		assertTrue(Files.exists(second));
+		assertArrayEquals(original, Files.readAllBytes(fourth));
+	}
+
+	/**
+	 * A journal line torn by a crash is dropped and its sheet rendered again.
+	 */
+	@Test
+	void tornJournalLineIsDropped() throws IOException {
+		CheckpointedRun run = new CheckpointedRun(directory, TEMPLATE, 2);
+		run.run(new DirectPdfRenderer(), GenerationStats.NONE);
+		List<String> lines = Files.readAllLines(run.journalFile());
+		Files.writeString(run.journalFile(), lines.get(0) + "\n" + lines.get(1) + "\n" + lines.get(2).substring(0, 3));
+
+		CheckpointReport report = run.run(new DirectPdfRenderer(), GenerationStats.NONE);
+		assertEquals(1, report.skipped());
+		assertEquals(1, report.rendered());
+		assertEquals(lines, Files.readAllLines(run.journalFile()));
+	}
+
+	/**
+	 * A journal only resumes the run it was created by.
+	 */
+	@Test
+	void journalOfDifferentRunIsRejected() throws IOException {
+		new CheckpointedRun(directory, TEMPLATE, 1).run(new DirectPdfRenderer(), GenerationStats.NONE);
+		SheetRequest other = SheetRequest.of(20, 30, List.of(Operations.ADDITION, Operations.SUBTRACTION), 43L);
+
+		assertThrows(IllegalStateException.class,
+				() -> new CheckpointedRun(directory, other, 1).run(new DirectPdfRenderer(), GenerationStats.NONE));
+		assertThrows(IllegalStateException.class,
+				() -> new CheckpointedRun(directory, TEMPLATE, 2).run(new DirectPdfRenderer(), GenerationStats.NONE));
+		assertThrows(IllegalStateException.class,
+				() -> run(directory).run(new PdfBoxRenderer(PdfOutputMode.COMPACT), GenerationStats.NONE));
+		assertThrows(IllegalStateException.class, () -> run(directory).run(
+				new PdfBoxRenderer(PdfOutputMode.COMPACT, Imposition.TWO_UP, Imposition.Fill.COPIES),
+				GenerationStats.NONE));
+		assertEquals(1, run(directory).run(new DirectPdfRenderer(), GenerationStats.NONE).skipped());
+		Files.writeString(run(directory).journalFile(), "garbage\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+		assertThrows(NumberFormatException.class,
+				() -> run(directory).run(new DirectPdfRenderer(), GenerationStats.NONE));
+		assertThrows(IllegalArgumentException.class, () -> new CheckpointedRun(directory, TEMPLATE, 0));
+	}
+
+	/**
+	 * Sheet seeds differ between iterations and runs and do not depend on anything else.
+	 */
+	@Test
+	void sheetSeedsAreDistinct() {
+		CheckpointedRun run = run(directory);
+		assertEquals(CheckpointedRun.sheetSeed(42L, 1), run.sheet(1).seed());
+		assertNotEquals(run.sheet(1).seed(), run.sheet(2).seed());
+		assertNotEquals(CheckpointedRun.sheetSeed(42L, 1), CheckpointedRun.sheetSeed(43L, 1));
+		assertEquals(TEMPLATE.operations(), run.sheet(3).operations());
+	}
+
+	private static CheckpointedRun run(Path directory) {
+		return new CheckpointedRun(directory, TEMPLATE, 1);
+	}
+
+	/**
+	 * Delegates to the direct renderer and fails on the n-th sheet.
+	 */
+	private static final class FailingRenderer implements EquationRenderer {
+
+		private final EquationRenderer delegate = new DirectPdfRenderer();
+
+		private final AtomicInteger remaining;
+
+		FailingRenderer(int failingSheet) {
+			this.remaining = new AtomicInteger(failingSheet);
+		}
+
+		@Override
+		public String description() {
+			return delegate.description();
+		}
+
+		@Override
+		public void render(List<List<Equation>> sheets, List<List<Integer>> placeholders, OutputStream out)
+				throws IOException {
+			if (remaining.decrementAndGet() == 0) {
+				throw new IOException("disk full");
+			}
+			delegate.render(sheets, placeholders, out);
+		}
+
+		@Override
+		public void renderExpressions(List<List<Expression>> sheets, List<List<Integer>> placeholders,
+				OutputStream out) throws IOException {
+			delegate.renderExpressions(sheets, placeholders, out);
+		}
+
+		@Override
+		public void renderFractions(List<List<FractionEquation>> sheets, List<List<Integer>> placeholders,
+				OutputStream out) throws IOException {
+			delegate.renderFractions(sheets, placeholders, out);
+		}
+
+		@Override
+		public void renderVertical(List<List<Equation>> sheets, List<List<Integer>> placeholders, boolean carries,
+				OutputStream out) throws IOException {
+			delegate.renderVertical(sheets, placeholders, carries, out);
+		}
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.coverage;
+
+import org.junit.jupiter.api.Test;
+import org.rick.math_excercises.adaptive.EquationTables;
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.GenerateService;
+import org.rick.math_excercises.service.Operations;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that {@link CoverageSequence} covers every valid equation exactly once per pass and resumes
+ * from an offset.
+ */
+class CoverageSequenceTests {
+
+	/**
+	 * The permutation is a bijection for sizes around and between powers of two.
+	 */
+	@Test
+	void permutationIsBijection() {
+		for (long size : new long[]{1, 2, 3, 7, 1000, 4096, 4097}) {
+			FeistelPermutation permutation = new FeistelPermutation(size, 42);
+			Set<Long> seen = new HashSet<>();
+			for (long i = 0; i < size; i++) {
+				long image = permutation.apply(i);
+				assertTrue(image >= 0 && image < size);
+				seen.add(image);
+			}
+			assertEquals(size, seen.size());
+		}
+		assertThrows(IllegalArgumentException.class, () -> new FeistelPermutation(0, 1));
+		assertThrows(IndexOutOfBoundsException.class, () -> new FeistelPermutation(5, 1).apply(5));
+	}
+
+	/**
+	 * Each operation's space is exactly the set of equations its generator can produce.
+	 */
+	@Test
+	void spaceMatchesGeneratorConstraints() {
+		for (Operations operation : Operations.values()) {
+			for (int limit : new int[]{10, 17, 100}) {
+				EquationTables.Table table = EquationTables.table(operation, limit);
+				Set<Equation> expected = new HashSet<>();
+				for (int i = 0; i < table.size(); i++) {
+					expected.add(table.get(i));
+				}
+				EquationSpace space = new EquationSpace(limit, List.of(operation));
+				assertEquals(table.size(), space.size(), operation + " at " + limit);
+				Set<Equation> actual = new HashSet<>();
+				for (long i = 0; i < space.size(); i++) {
+					actual.add(space.get(i));
+				}
+				assertEquals(expected, actual, operation + " at " + limit);
+			}
+		}
+	}
+
+	/**
+	 * One pass over all four operations yields every equation exactly once, split across sheets.
+	 */
+	@Test
+	void passCoversEveryEquationOnce() {
+		CoverageSequence sequence = new CoverageSequence(100, List.of(Operations.values()), 7);
+		List<Equation> walked = new ArrayList<>();
+		for (long offset = 0; offset < sequence.size(); offset += 50) {
+			walked.addAll(sequence.sheet(offset, (int) Math.min(50, sequence.size() - offset)));
+		}
+		assertEquals(sequence.size(), walked.size());
+		assertEquals(sequence.size(), new HashSet<>(walked).size());
+	}
+
+	/**
+	 * Resuming from a recorded offset continues exactly where an uninterrupted run would be.
+	 */
+	@Test
+	void resumesFromOffset() {
+		List<Operations> ops = List.of(Operations.MULTIPLICATION);
+		CoverageSequence sequence = new CoverageSequence(10, ops, 3);
+		CoverageSequence.Cursor first = sequence.source(0);
+		List<Equation> firstSheet = new GenerateService(new SplittableRandom(1), first).generateExercises(10, 12, ops);
+		assertEquals(12, first.position());
+
+		CoverageSequence restarted = new CoverageSequence(10, ops, 3);
+		List<Equation> secondSheet = new GenerateService(new SplittableRandom(2), restarted.source(first.position()))
+				.generateExercises(10, 12, ops);
+
+		assertEquals(sequence.sheet(0, 24), concat(firstSheet, secondSheet));
+		assertThrows(IllegalArgumentException.class,
+				() -> sequence.source(0).next(20, ops, new SplittableRandom(1)));
+	}
+
+	/**
+	 * The next pass covers the space again in a different order.
+	 */
+	@Test
+	void laterPassesReorder() {
+		CoverageSequence sequence = new CoverageSequence(10, List.of(Operations.ADDITION), 11);
+		int size = (int) sequence.size();
+		List<Equation> firstPass = sequence.sheet(0, size);
+		List<Equation> secondPass = sequence.sheet(size, size);
+		assertEquals(new HashSet<>(firstPass), new HashSet<>(secondPass));
+		assertNotEquals(firstPass, secondPass);
+		assertEquals(firstPass, new CoverageSequence(10, List.of(Operations.ADDITION), 11).sheet(0, size));
+	}
+
+	private static List<Equation> concat(List<Equation> a, List<Equation> b) {
+		List<Equation> all = new ArrayList<>(a);
+		all.addAll(b);
+		return all;
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.fraction;
+
+import org.junit.jupiter.api.Test;
+import org.rick.math_excercises.model.FractionEquation;
+import org.rick.math_excercises.model.FractionEquation.Notation;
+import org.rick.math_excercises.service.internal.GlyphSet;
+import org.rick.math_excercises.service.internal.PdfRenderSupport;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests {@link Rationals} arithmetic, the {@link FractionOperations} generators and the formatting of
+ * fraction exercises.
+ */
+class FractionGeneratorTests {
+
+	/**
+	 * Table and binary GCD agree with {@link BigInteger#gcd}, and sums are reduced.
+	 */
+	@Test
+	void rationalArithmetic() {
+		Random random = new Random(1);
+		for (int i = 0; i < 10_000; i++) {
+			int a = i < 5000 ? random.nextInt(Rationals.TABLE_SIZE) : random.nextInt(1 << 20);
+			int b = i < 5000 ? random.nextInt(Rationals.TABLE_SIZE) : random.nextInt(1 << 20);
+			assertEquals(BigInteger.valueOf(a).gcd(BigInteger.valueOf(b)).intValue(), Rationals.gcd(a, b));
+		}
+		long sum = Rationals.add(Rationals.of(1, 3), Rationals.of(1, 6));
+		assertEquals(1, Rationals.numerator(sum));
+		assertEquals(2, Rationals.denominator(sum));
+		long difference = Rationals.subtract(Rationals.of(1, 4), Rationals.of(3, 4));
+		assertEquals(-1, Rationals.numerator(difference));
+		assertEquals(2, Rationals.denominator(difference));
+		assertEquals(Rationals.of(0, 1), Rationals.subtract(Rationals.of(2, 4), Rationals.of(1, 2)));
+		assertTrue(Rationals.compare(Rationals.of(2, 3), Rationals.of(3, 5)) > 0);
+		assertThrows(ArithmeticException.class, () -> Rationals.of(1, 0));
+	}
+
+	/**
+	 * Every exercise is arithmetically correct, in lowest terms where required and within the limit.
+	 */
+	@Test
+	void generatesValidExercises() {
+		for (FractionOperations operation : FractionOperations.values()) {
+			for (FractionEquation e : new FractionGenerator(new Random(operation.ordinal()))
+					.generate(12, 2000, List.of(operation))) {
+				assertValid(operation, e, 12);
+			}
+		}
+	}
+
+	private static void assertValid(FractionOperations operation, FractionEquation e, int limit) {
+		long first = Rationals.of(e.firstNumerator(), e.firstDenominator());
+		long second = Rationals.of(e.secondNumerator(), e.secondDenominator());
+		long result = Rationals.of(e.resultNumerator(), e.resultDenominator());
+		switch (operation) {
+			case FRACTION_ADDITION, FRACTION_SUBTRACTION -> {
+				assertEquals(Notation.FRACTION, e.notation());
+				long expected = operation == FractionOperations.FRACTION_ADDITION
+				                ? Rationals.add(first, second) : Rationals.subtract(first, second);
+				assertEquals(expected, result, e.toString());
+				assertEquals(first, Rationals.reduce(first), e.toString());
+				assertEquals(second, Rationals.reduce(second), e.toString());
+				assertTrue(e.firstDenominator() <= limit && e.secondDenominator() <= limit, e.toString());
+				assertTrue(e.resultNumerator() >= 0, e.toString());
+			}
+			case FRACTION_SIMPLIFICATION -> {
+				assertTrue(e.simplification());
+				assertEquals(Rationals.reduce(first), result, e.toString());
+				assertTrue(e.firstDenominator() > e.resultDenominator() && e.firstDenominator() <= limit, e.toString());
+			}
+			case DECIMAL_ADDITION, DECIMAL_SUBTRACTION -> {
+				assertEquals(Notation.DECIMAL, e.notation());
+				int expected = operation == FractionOperations.DECIMAL_ADDITION
+				               ? e.firstNumerator() + e.secondNumerator() : e.firstNumerator() - e.secondNumerator();
+				assertEquals(expected, e.resultNumerator(), e.toString());
+				assertTrue(e.resultNumerator() >= 0 && e.resultNumerator() <= limit * e.resultDenominator(), e.toString());
+			}
+		}
+	}
+
+	/**
+	 * Fractions become stacked tokens, whole results plain numbers and decimals decimal notation.
+	 */
+	@Test
+	void formatsTokens() {
+		FractionEquation sum = new FractionEquation(1, 2, 1, 2, 1, 1, '+', Notation.FRACTION);
+		assertEquals(List.of(PdfRenderSupport.stacked("1", "2"), "+", PdfRenderSupport.stacked("□", "□"), "=", "1"),
+				PdfRenderSupport.formatTokens(sum, 2, GlyphSet.UNICODE));
+
+		FractionEquation simplification = new FractionEquation(6, 8, 0, 1, 3, 4, '=', Notation.FRACTION);
+		assertEquals(List.of(PdfRenderSupport.stacked("6", "8"), "=", PdfRenderSupport.stacked("_", "_")),
+				PdfRenderSupport.formatTokens(simplification, 1, GlyphSet.ASCII));
+
+		FractionEquation decimals = new FractionEquation(150, 100, 5, 100, 155, 100, '+', Notation.DECIMAL);
+		assertEquals(List.of("1.5", "+", "0.05", "=", "□"), PdfRenderSupport.formatTokens(decimals, 3, GlyphSet.UNICODE));
+		assertThrows(IllegalArgumentException.class, () -> PdfRenderSupport.formatTokens(decimals, 4, GlyphSet.UNICODE));
+	}
+
+	/**
+	 * Limits below 10 and empty sheets are rejected.
+	 */
+	@Test
+	void rejectsInvalidArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new FractionGenerator(new Random(1)).generate(9, 1, null));
+		assertThrows(IllegalArgumentException.class, () -> new FractionGenerator(new Random(1)).generate(10, 0, null));
+	}
+
+	/**
+	 * Limits whose values would overflow an int are rejected per family; the largest accepted limit
+	 * still generates valid exercises.
+	 */
+	@Test
+	void rejectsLimitsAboveTheFamilyMaximum() {
+		FractionGenerator generator = new FractionGenerator(new Random(4));
+		List<FractionOperations> decimals =
+				List.of(FractionOperations.DECIMAL_ADDITION, FractionOperations.DECIMAL_SUBTRACTION);
+		int maxDecimal = FractionOperations.DECIMAL_ADDITION.maxLimit();
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+				() -> generator.generate(maxDecimal + 1, 1, decimals));
+		assertTrue(e.getMessage().contains("DECIMAL_ADDITION"), e.getMessage());
+		assertThrows(IllegalArgumentException.class, () -> generator.generate(32_768, 1, null));
+
+		for (FractionEquation eq : generator.generate(maxDecimal, 200, decimals)) {
+			assertTrue(eq.resultNumerator() >= 0, eq::toString);
+		}
+		assertEquals(200, generator.generate(32_767, 200, null).size());
+	}
+}
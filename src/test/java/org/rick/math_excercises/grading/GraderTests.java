@@ -0,0 +1,169 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.grading;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.Operations;
+import org.rick.math_excercises.service.SheetRequest;
+import org.rick.math_excercises.storage.ExerciseSet;
+import org.rick.math_excercises.storage.ExerciseSetFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests that {@link AnswerKey}s are derived from every kind of sheet identifier and that the
+ * {@link Grader} scores submissions and counts answers per operation.
+ */
+class GraderTests {
+
+	private static final List<Equation> EQUATIONS = List.of(
+			Equation.of(3, 4, 7, '+'),
+			Equation.of(9, 2, 7, '-'),
+			Equation.of(3, 5, 15, '×'),
+			Equation.of(12, 4, 3, '÷'));
+
+	private static final List<Integer> PLACEHOLDERS = List.of(3, 1, 2, 3);
+
+	private static final AnswerKey KEY = AnswerKey.of(EQUATIONS, PLACEHOLDERS);
+
+	@TempDir
+	Path directory;
+
+	/**
+	 * The key holds the blanked value and the operation of every equation.
+	 */
+	@Test
+	void keyHoldsBlankedValues() {
+		assertEquals(4, KEY.size());
+		assertEquals(List.of(7, 9, 5, 3), IntStream.range(0, 4).map(KEY::expected).boxed().toList());
+		assertEquals(List.of(Operations.values()), IntStream.range(0, 4).mapToObj(KEY::operation).toList());
+		assertThrows(IllegalArgumentException.class, () -> AnswerKey.of(EQUATIONS, List.of(1)));
+		assertThrows(IllegalArgumentException.class, () -> AnswerKey.of(List.of(), List.of()));
+		assertThrows(IllegalArgumentException.class, () -> AnswerKey.of(EQUATIONS, List.of(1, 2, 3, 4)));
+	}
+
+	/**
+	 * A sheet request, its stored exercise set and the set's file yield the same key.
+	 */
+	@Test
+	void keysFromRequestsAndStoredSetsAgree() throws IOException {
+		SheetRequest request = SheetRequest.of(20, 60, List.of(Operations.values()), 11);
+		ExerciseSet set = new ExerciseSet(request.limit(), EnumSet.copyOf(request.operations()), request.seed(),
+				request.equations(), request.placeholders());
+		Path file = directory.resolve("sheet.mexs");
+		ExerciseSetFile.write(file, set);
+
+		AnswerKey fromRequest = AnswerKey.of(request);
+		for (AnswerKey key : List.of(AnswerKey.of(set), AnswerKey.read(file))) {
+			assertEquals(fromRequest.size(), key.size());
+			for (int i = 0; i < key.size(); i++) {
+				assertEquals(fromRequest.expected(i), key.expected(i));
+				assertEquals(fromRequest.operation(i), key.operation(i));
+			}
+		}
+
+		ExerciseSet unrecorded = ExerciseSet.of(20, set.operations(), 11, set.equations());
+		assertThrows(IllegalArgumentException.class, () -> AnswerKey.of(unrecorded));
+		ExerciseSetFile.write(file, unrecorded);
+		assertThrows(IOException.class, () -> AnswerKey.read(file));
+	}
+
+	/**
+	 * Correct, wrong, blank, missing, non-numeric and surplus answers are counted per operation, and
+	 * headers, blank lines, unknown sheets, quotes and CRLF are handled.
+	 */
+	@Test
+	void gradesSubmissions() throws IOException {
+		String csv = "student,sheet,a1,a2,a3,a4\r\n"
+				+ "Ada,1,7,9,5,3\r\n"
+				+ "\"Lovelace, Ada \"\"A\"\"\", 1 , 7 ,8,,x\r\n"
+				+ "\r\n"
+				+ "Ben,2,7\n"
+				+ "Cy,unknown,1,2,3,4\n"
+				+ "Dee,1,7,9,5,3,99,100\n"
+				+ "Eve,1,12345678901,9,5,3";
+		Grader grader = new Grader(Map.of("1", KEY, "2", KEY));
+		List<String> scores = new ArrayList<>();
+
+		GradingReport report = grader.grade(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+				(student, sheet, correct, answered, questions) ->
+						scores.add(student + "|" + sheet + "|" + correct + "|" + answered + "|" + questions));
+
+		assertEquals(List.of("Ada|1|4|4|4", "Lovelace, Ada \"A\"|1|1|3|4", "Ben|2|1|1|4", "Dee|1|4|4|4",
+				"Eve|1|3|4|4"), scores);
+		assertEquals(5, report.submissions());
+		assertEquals(1, report.skipped());
+		assertEquals(new GradingReport.OperationGrades(4, 1, 0), report.operations().get(Operations.ADDITION));
+		assertEquals(new GradingReport.OperationGrades(3, 1, 1), report.operations().get(Operations.SUBTRACTION));
+		assertEquals(new GradingReport.OperationGrades(3, 0, 2), report.operations().get(Operations.MULTIPLICATION));
+		assertEquals(new GradingReport.OperationGrades(3, 1, 1), report.operations().get(Operations.DIVISION));
+		assertEquals(0.4, report.operations().get(Operations.DIVISION).errorRate(), 1e-9);
+		assertEquals(6, report.toTable().lines().count());
+	}
+
+	/**
+	 * Scores are written as CSV, quoting fields where needed.
+	 */
+	@Test
+	void writesScores() throws IOException {
+		Path answers = directory.resolve("answers.csv");
+		Path results = directory.resolve("scores.csv");
+		Files.writeString(answers, "\"Doe, Jo\",1,7,9,5,3\nSam,1,,,,\n");
+
+		GradingReport report = new Grader(Map.of("1", KEY)).grade(answers, results);
+
+		assertEquals(2, report.submissions());
+		assertEquals(List.of("student,sheet,correct,answered,questions", "\"Doe, Jo\",1,4,4,4", "Sam,1,0,0,4"),
+				Files.readAllLines(results));
+	}
+
+	/**
+	 * A class of generated sheets graded with perfect answers has no errors.
+	 */
+	@Test
+	void gradesGeneratedClass() throws IOException {
+		Map<String, AnswerKey> keys = IntStream.rangeClosed(1, 5).boxed().collect(Collectors.toMap(String::valueOf,
+				i -> AnswerKey.of(SheetRequest.of(50, 100, List.of(Operations.values()), i))));
+		StringBuilder csv = new StringBuilder();
+		for (int student = 0; student < 200; student++) {
+			String sheet = String.valueOf(1 + student % 5);
+			AnswerKey key = keys.get(sheet);
+			csv.append("student").append(student).append(',').append(sheet);
+			for (int i = 0; i < key.size(); i++) {
+				csv.append(',').append(key.expected(i));
+			}
+			csv.append('\n');
+		}
+
+		GradingReport report = new Grader(keys).grade(
+				new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), null);
+
+		assertEquals(200, report.submissions());
+		assertEquals(200 * 100, report.operations().values().stream()
+				.mapToLong(GradingReport.OperationGrades::correct).sum());
+		report.operations().values().forEach(grades -> assertEquals(0, grades.errorRate()));
+	}
+}
@@ -0,0 +1,186 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.pipeline;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.rick.math_excercises.service.WorksheetEvents;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests how {@link AdaptiveLimit} reacts to throughput and latency samples and gates its workers.
+ */
+class AdaptiveLimitTests {
+
+	/**
+	 * The limit doubles while throughput rises, steps back when an increase brings nothing and then
+	 * probes one more worker after a quiet period.
+	 */
+	@Test
+	void climbsToTheBestWorkerCount() {
+		AdaptiveLimit limit = AdaptiveLimit.adaptive("render", 8);
+
+		assertEquals("throughput rose", limit.adjust(10, 10));
+		assertEquals(2, limit.limit());
+		assertEquals("throughput rose", limit.adjust(19, 10));
+		assertEquals(4, limit.limit());
+		assertEquals("no gain", limit.adjust(19.5, 12));
+		assertEquals(3, limit.limit());
+		for (int i = 1; i < AdaptiveLimit.PROBE_INTERVALS; i++) {
+			assertNull(limit.adjust(19, 11));
+		}
+		assertEquals("probe", limit.adjust(19, 11));
+		assertEquals(4, limit.limit());
+		assertEquals("throughput rose", limit.adjust(25, 12));
+		assertEquals(5, limit.limit(), "after the first step back the limit grows by one");
+	}
+
+	/**
+	 * Falling throughput after an increase and rising latency cut the limit by a quarter.
+	 */
+	@Test
+	void backsOffOnOverload() {
+		AdaptiveLimit limit = AdaptiveLimit.adaptive("render", 16);
+		limit.adjust(10, 10);
+		limit.adjust(20, 10);
+		limit.adjust(40, 10);
+		limit.adjust(80, 10);
+		assertEquals(16, limit.limit());
+
+		assertEquals("throughput dropped", limit.adjust(60, 15));
+		assertEquals(12, limit.limit());
+		assertEquals("latency", limit.adjust(60, 25));
+		assertEquals(9, limit.limit());
+		assertNull(limit.adjust(60, 12));
+		assertEquals(9, limit.limit());
+	}
+
+	/**
+	 * A fixed limit never changes and the limit stays within one and its maximum.
+	 */
+	@Test
+	void staysWithinBounds() {
+		AdaptiveLimit fixed = AdaptiveLimit.fixed("generate", 3);
+		assertNull(fixed.adjust(10, 10));
+		assertEquals(3, fixed.limit());
+		assertFalse(fixed.belowMax());
+
+		AdaptiveLimit single = AdaptiveLimit.adaptive("generate", 1);
+		assertNull(single.adjust(10, 10));
+		assertNull(single.adjust(1, 100));
+		assertEquals(1, single.limit());
+	}
+
+	/**
+	 * Workers beyond the limit wait until it grows or is released.
+	 */
+	@Test
+	void parksWorkersBeyondTheLimit() throws InterruptedException {
+		AdaptiveLimit limit = AdaptiveLimit.adaptive("render", 4);
+		limit.awaitTurn(0);
+		CountDownLatch second = new CountDownLatch(1);
+		CountDownLatch fourth = new CountDownLatch(1);
+		Thread.ofVirtual().start(() -> await(limit, 1, second));
+		Thread.ofVirtual().start(() -> await(limit, 3, fourth));
+
+		assertFalse(second.await(50, TimeUnit.MILLISECONDS));
+		limit.adjust(10, 10);
+		assertTrue(second.await(5, TimeUnit.SECONDS));
+		assertFalse(fourth.await(50, TimeUnit.MILLISECONDS));
+		limit.release();
+		assertTrue(fourth.await(5, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * The controller records the decisions of the tuned stage and skips stages without items.
+	 */
+	@Test
+	void controllerRecordsDecisions() {
+		AdaptiveLimit generate = AdaptiveLimit.adaptive("generate", 2);
+		AdaptiveLimit render = AdaptiveLimit.adaptive("render", 2);
+		ConcurrencyController controller = new ConcurrencyController(generate, render, new StageMetrics("generate"),
+				new StageMetrics("render"), new StageMetrics("write"), Duration.ofMillis(10));
+
+		controller.sample(System.nanoTime(), 10, render, new StageMetrics.Counters(5, 50_000_000, 5, 5));
+		controller.sample(System.nanoTime(), 10, generate, new StageMetrics.Counters(0, 0, 0, 0));
+
+		assertEquals(1, controller.decisions().size());
+		ConcurrencyDecision decision = controller.decisions().get(0);
+		assertEquals("render", decision.stage());
+		assertEquals(1, decision.from());
+		assertEquals(2, decision.to());
+		assertEquals(10, decision.meanMillis(), 1e-9);
+		assertEquals(1, generate.limit());
+	}
+
+	/**
+	 * When the tuned stage alternates, an increase is still judged at the stage's next sample, so an
+	 * increase that brought nothing is taken back instead of ratcheting towards the maximum. Every
+	 * change is committed as a flight recorder event.
+	 */
+	@Test
+	void judgesIncreasesAcrossStageSwitches() throws IOException {
+		AdaptiveLimit generate = AdaptiveLimit.adaptive("generate", 8);
+		AdaptiveLimit render = AdaptiveLimit.adaptive("render", 8);
+		ConcurrencyController controller = new ConcurrencyController(generate, render, new StageMetrics("generate"),
+				new StageMetrics("render"), new StageMetrics("write"), Duration.ofMillis(10));
+		StageMetrics.Counters busy = new StageMetrics.Counters(5, 50_000_000, 5, 5);
+
+		Path file = Files.createTempFile("concurrency", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable(WorksheetEvents.CONCURRENCY_CHANGE);
+			recording.start();
+			for (int i = 0; i < AdaptiveLimit.PROBE_INTERVALS; i++) {
+				controller.sample(System.nanoTime(), 10, render, busy);
+				controller.sample(System.nanoTime(), 10, generate, busy);
+			}
+			recording.stop();
+			recording.dump(file);
+		}
+
+		assertEquals(1, render.limit());
+		assertEquals(1, generate.limit());
+		List<ConcurrencyDecision> decisions = controller.decisions();
+		assertEquals(List.of("throughput rose", "throughput rose", "no gain", "no gain"),
+				decisions.stream().map(ConcurrencyDecision::reason).toList());
+		try {
+			List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+			assertEquals(decisions.size(), events.size());
+			assertEquals("render", events.get(0).getString("stage"));
+			assertEquals(2, events.get(0).getInt("to"));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	private static void await(AdaptiveLimit limit, int worker, CountDownLatch running) {
+		try {
+			limit.awaitTurn(worker);
+			running.countDown();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
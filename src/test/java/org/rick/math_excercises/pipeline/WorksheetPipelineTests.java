@@ -0,0 +1,118 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.pipeline;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.rick.math_excercises.service.GenerationStats;
+import org.rick.math_excercises.service.Operations;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the staged {@link WorksheetPipeline}: all sheets are written, metrics cover every stage and
+ * failures in a stage surface from {@link WorksheetPipeline#run}.
+ */
+class WorksheetPipelineTests {
+
+	@TempDir
+	Path dir;
+
+	@AfterEach
+	void cleanup() {
+		System.clearProperty("outputBaseName");
+		System.clearProperty("pipeline.renderers");
+		System.clearProperty("pipeline.adaptive");
+	}
+
+	/**
+	 * Every iteration produces a readable PDF and each stage reports one item per sheet; statistics
+	 * from all workers are merged.
+	 */
+	@Test
+	void writesEverySheetThroughAllStages() throws Exception {
+		System.setProperty("outputBaseName", "Pipeline");
+		GenerationStats stats = new GenerationStats();
+
+		PipelineReport report = new WorksheetPipeline(new PipelineSettings(2, 3, 2, 2))
+				.run(20, 60, List.of(Operations.ADDITION, Operations.DIVISION), 12, dir, stats);
+
+		assertEquals(12, report.sheets());
+		for (int i = 1; i <= 12; i++) {
+			try (PDDocument document = Loader.loadPDF(dir.resolve("Pipeline_" + i + ".pdf").toFile())) {
+				assertEquals(1, document.getNumberOfPages());
+			}
+		}
+		assertEquals(List.of("generate", "render", "write"), report.stages().stream().map(StageReport::stage).toList());
+		report.stages().forEach(stage -> assertEquals(12, stage.items(), stage.stage()));
+		assertTrue(report.stages().get(1).maxQueueDepth() <= 2, "queue depth is bounded by its capacity");
+		assertEquals(12, stats.batches());
+		assertEquals(12 * 60, stats.placeholders(1) + stats.placeholders(2) + stats.placeholders(3));
+	}
+
+	/**
+	 * An adaptive run writes every sheet and reports its worker changes.
+	 */
+	@Test
+	void adaptiveRunWritesEverySheet() throws Exception {
+		System.setProperty("outputBaseName", "Adaptive");
+
+		PipelineReport report = new WorksheetPipeline(new PipelineSettings(2, 3, 1, 2, true))
+				.run(100, 100, List.of(Operations.MULTIPLICATION), 40, dir, GenerationStats.NONE);
+
+		assertEquals(40, report.sheets());
+		for (int i = 1; i <= 40; i++) {
+			assertTrue(Files.size(dir.resolve("Adaptive_" + i + ".pdf")) > 0);
+		}
+		report.stages().forEach(stage -> assertEquals(40, stage.items(), stage.stage()));
+		report.decisions().forEach(decision -> assertTrue(decision.to() >= 1 && decision.to() <= 3));
+		String table = report.toTable();
+		assertTrue(table.startsWith("stage"), table);
+		assertEquals(5 + report.decisions().size(), table.lines().count(), table);
+		assertTrue(table.endsWith(report.decisions().size() + " concurrency changes" + System.lineSeparator()), table);
+	}
+
+	/**
+	 * A failing writer stops the run and its exception is rethrown.
+	 */
+	@Test
+	void rethrowsStageFailure() {
+		Path missing = dir.resolve("missing");
+		WorksheetPipeline pipeline = new WorksheetPipeline(new PipelineSettings(1, 1, 1, 1));
+		assertThrows(IOException.class,
+				() -> pipeline.run(20, 10, null, 5, missing, GenerationStats.NONE));
+		assertFalse(Files.exists(missing));
+		assertThrows(IllegalArgumentException.class,
+				() -> pipeline.run(5, 10, null, 5, dir, GenerationStats.NONE));
+	}
+
+	/**
+	 * Settings are validated and can be overridden through system properties.
+	 */
+	@Test
+	void readsSettingsFromSystemProperties() {
+		System.setProperty("pipeline.renderers", "7");
+		assertEquals(7, PipelineSettings.fromSystemProperties().renderers());
+		assertFalse(PipelineSettings.fromSystemProperties().adaptive());
+		System.setProperty("pipeline.adaptive", "true");
+		assertTrue(PipelineSettings.fromSystemProperties().adaptive());
+		assertEquals(Runtime.getRuntime().availableProcessors(), PipelineSettings.fromSystemProperties().generators());
+		assertThrows(IllegalArgumentException.class, () -> new PipelineSettings(1, 0, 1, 1));
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.preview;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.jupiter.api.Test;
+import org.rick.math_excercises.cache.CacheStats;
+import org.rick.math_excercises.service.DirectPdfRenderer;
+import org.rick.math_excercises.service.GenerationStats;
+import org.rick.math_excercises.service.Operations;
+import org.rick.math_excercises.service.PdfBoxRenderer;
+import org.rick.math_excercises.service.PdfOutputMode;
+import org.rick.math_excercises.service.PdfService;
+import org.rick.math_excercises.service.SheetRequest;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that {@link SheetPreviews} rasterizes sheets from the in-memory document, matches a
+ * rasterization of the saved document and caches previews by sheet key.
+ */
+class SheetPreviewsTests {
+
+	private static final SheetRequest REQUEST =
+			SheetRequest.of(20, 100, List.of(Operations.ADDITION, Operations.SUBTRACTION), 9);
+
+	/**
+	 * A preview is a letter-size page at the requested resolution and shows the same pixels as the
+	 * saved compact document rasterized from its bytes.
+	 */
+	@Test
+	void previewMatchesSavedDocument() throws Exception {
+		try (SheetPreviews previews = new SheetPreviews(36, 2, 1 << 20)) {
+			Preview preview = previews.preview(REQUEST).get();
+
+			assertEquals(306, preview.width());
+			assertEquals(396, preview.height());
+			byte[] pdf = new PdfService(REQUEST.placeholderRandom(), GenerationStats.NONE,
+					new PdfBoxRenderer(PdfOutputMode.COMPACT)).renderPdf(REQUEST.equations());
+			assertPixelsEqual(SheetPreviews.rasterize(pdf, 36), preview.png());
+			BufferedImage image = ImageIO.read(new ByteArrayInputStream(preview.png()));
+			int[] pixels = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+			assertTrue(IntStream.of(pixels).anyMatch(pixel -> (pixel & 0xFF) < 128));
+		}
+	}
+
+	/**
+	 * Documents of the direct renderer can be rasterized from their bytes.
+	 */
+	@Test
+	void rasterizesDirectDocuments() throws IOException {
+		byte[] pdf = new PdfService(REQUEST.placeholderRandom(), GenerationStats.NONE, new DirectPdfRenderer())
+				.renderPdf(REQUEST.equations());
+		BufferedImage image = ImageIO.read(new ByteArrayInputStream(SheetPreviews.rasterize(pdf, 18)));
+		assertEquals(153, image.getWidth());
+		assertEquals(198, image.getHeight());
+	}
+
+	/**
+	 * Repeated and concurrent requests are served from one rendering; other resolutions and sheets
+	 * are rendered separately, and the cache evicts the least recently used preview.
+	 */
+	@Test
+	void cachesPreviewsBySheetKey() throws Exception {
+		Preview first;
+		try (SheetPreviews previews = new SheetPreviews(24, 4, 1 << 20)) {
+			List<CompletableFuture<Preview>> concurrent = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				concurrent.add(previews.preview(REQUEST));
+			}
+			first = concurrent.getFirst().get();
+			for (CompletableFuture<Preview> future : concurrent) {
+				assertSame(first, future.get());
+			}
+			assertSame(first, previews.preview(REQUEST).get());
+			CacheStats stats = previews.stats();
+			assertEquals(1, stats.misses());
+			assertEquals(8, stats.hits());
+			assertEquals(1, stats.entries());
+			assertEquals(first.png().length, stats.bytes());
+		}
+		try (SheetPreviews other = new SheetPreviews(30, 1, 1 << 20)) {
+			assertNotEquals(first.key(), other.preview(REQUEST).get().key());
+		}
+
+		List<SheetRequest> sheets = IntStream.range(0, 6)
+				.mapToObj(i -> SheetRequest.of(20, 60, List.of(Operations.ADDITION), i))
+				.toList();
+		try (SheetPreviews previews = new SheetPreviews(24, 3, 1 << 20)) {
+			List<Preview> rendered = previews.previews(sheets);
+			assertEquals(6, rendered.size());
+			assertEquals(6, rendered.stream().map(Preview::key).distinct().count());
+			long oneSheet = rendered.stream().mapToLong(preview -> preview.png().length).max().orElseThrow();
+			assertEquals(rendered, previews.previews(sheets));
+			assertEquals(6, previews.stats().hits());
+
+			try (SheetPreviews small = new SheetPreviews(24, 2, 2 * oneSheet)) {
+				small.previews(sheets);
+				CacheStats stats = small.stats();
+				assertTrue(stats.entries() <= 2);
+				assertTrue(stats.evictions() >= 4);
+				assertTrue(stats.bytes() <= 2 * oneSheet);
+			}
+		}
+	}
+
+	/**
+	 * The inspector of the PDFBox renderer sees every document with its pages before it is saved.
+	 */
+	@Test
+	void inspectorSeesCompleteDocument() throws IOException {
+		List<Integer> pages = new ArrayList<>();
+		PdfBoxRenderer renderer = new PdfBoxRenderer(PdfOutputMode.STANDARD,
+				(PDDocument document) -> pages.add(document.getNumberOfPages()));
+		renderer.render(List.of(REQUEST.equations(), REQUEST.equations()),
+				List.of(REQUEST.placeholders(), REQUEST.placeholders()), OutputStream.nullOutputStream());
+		assertEquals(List.of(2), pages);
+	}
+
+	/**
+	 * Invalid settings are rejected.
+	 */
+	@Test
+	void invalidSettingsAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> new SheetPreviews(0, 1, 0));
+		assertThrows(IllegalArgumentException.class, () -> new SheetPreviews(72, 0, 0));
+		assertThrows(IllegalArgumentException.class, () -> new SheetPreviews(72, 1, -1));
+	}
+
+	private static void assertPixelsEqual(byte[] expectedPng, byte[] actualPng) throws IOException {
+		BufferedImage expected = ImageIO.read(new ByteArrayInputStream(expectedPng));
+		BufferedImage actual = ImageIO.read(new ByteArrayInputStream(actualPng));
+		assertEquals(expected.getWidth(), actual.getWidth());
+		assertEquals(expected.getHeight(), actual.getHeight());
+		assertArrayEquals(expected.getRGB(0, 0, expected.getWidth(), expected.getHeight(), null, 0, expected.getWidth()),
+				actual.getRGB(0, 0, actual.getWidth(), actual.getHeight(), null, 0, actual.getWidth()));
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.DirectPdfRenderer;
+import org.rick.math_excercises.service.GenerateService;
+import org.rick.math_excercises.service.GenerationStats;
+import org.rick.math_excercises.service.Operations;
+import org.rick.math_excercises.service.PdfBoxRenderer;
+import org.rick.math_excercises.service.PdfOutputMode;
+import org.rick.math_excercises.service.PdfService;
+import org.rick.math_excercises.service.WorksheetEvents;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the worksheet events are recorded with the bundled settings and summarized by the
+ * {@link RecordingAnalyzer}.
+ */
+class RecordingAnalyzerTests {
+
+	private static final int SHEETS = 3;
+
+	@TempDir
+	Path directory;
+
+	/**
+	 * A recorded run yields every phase with the counts and byte totals of the work done.
+	 */
+	@Test
+	void summarizesRecordedPhases() throws IOException, ParseException {
+		Configuration configuration;
+		try (Reader reader = new InputStreamReader(
+				Objects.requireNonNull(getClass().getResourceAsStream("/jfr/worksheets.jfc")), StandardCharsets.UTF_8)) {
+			configuration = Configuration.create(reader);
+		}
+		Path file = directory.resolve("run.jfr");
+		long bytes = 0;
+		try (Recording recording = new Recording(configuration)) {
+			recording.start();
+			GenerateService generator = new GenerateService(new SplittableRandom(5));
+			PdfService pdfBox = new PdfService(new SplittableRandom(6), GenerationStats.NONE,
+					new PdfBoxRenderer(PdfOutputMode.STANDARD));
+			PdfService direct = new PdfService(new SplittableRandom(7), GenerationStats.NONE, new DirectPdfRenderer());
+			for (int i = 0; i < SHEETS; i++) {
+				List<Equation> equations = generator.generateExercises(100, 150,
+						List.of(Operations.MULTIPLICATION, Operations.DIVISION));
+				bytes += pdfBox.renderPdf(equations).length;
+				bytes += direct.renderPdf(equations).length;
+			}
+			recording.stop();
+			recording.dump(file);
+		}
+
+		RecordingSummary summary = RecordingAnalyzer.analyze(file);
+
+		assertEquals(List.of("generate", "rejection burst", "font load", "column render", "document save"),
+				summary.phases().stream().map(PhaseSummary::phase).toList());
+		assertEquals(SHEETS, summary.phase("generate").count());
+		assertEquals(2 * SHEETS, summary.phase("document save").count());
+		assertEquals(SHEETS + 1, summary.phase("font load").count());
+		assertEquals(2 * SHEETS * 3, summary.phase("column render").count());
+		assertEquals(bytes, summary.documentBytes());
+		assertTrue(summary.phase("rejection burst").count() > 0);
+		assertTrue(summary.rejectionDraws() >= WorksheetEvents.MIN_BURST_DRAWS * summary.phase("rejection burst").count());
+		for (PhaseSummary phase : summary.phases()) {
+			assertTrue(phase.self().compareTo(phase.total()) <= 0);
+			assertTrue(phase.max().compareTo(phase.total()) <= 0);
+		}
+		assertTrue(summary.phase("generate").self().compareTo(summary.phase("generate").total()) < 0);
+		assertTrue(summary.phases().stream().mapToLong(PhaseSummary::allocatedBytes).sum()
+				+ summary.unattributedBytes() > 0);
+		assertTrue(summary.toTable().contains("column render"));
+	}
+
+	/**
+	 * Phases are looked up by name.
+	 */
+	@Test
+	void unknownPhaseIsRejected() {
+		RecordingSummary summary = new RecordingSummary(List.of(), 0, 0, 0, 0, Duration.ZERO);
+		assertThrows(IllegalArgumentException.class, () -> summary.phase("generate"));
+	}
+}
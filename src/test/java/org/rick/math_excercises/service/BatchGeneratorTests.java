@@ -0,0 +1,129 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.junit.jupiter.api.Test;
+import org.rick.math_excercises.adaptive.EquationTables;
+import org.rick.math_excercises.model.Equation;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that {@link BatchGenerator} batches satisfy the generator constraints and are distributed
+ * like the scalar rejection generators.
+ */
+class BatchGeneratorTests {
+
+	/**
+	 * Every equation satisfies its operation's constraints at small and large limits.
+	 */
+	@Test
+	void generatesValidEquations() {
+		for (Operations operation : Operations.values()) {
+			for (int limit : new int[]{10, 97, 1000}) {
+				assertValid(operation, limit);
+			}
+		}
+	}
+
+	private static void assertValid(Operations operation, int limit) {
+		EquationBatch batch = new BatchGenerator(new SplittableRandom(limit)).generate(limit, 2000, List.of(operation));
+		assertEquals(2000, batch.size());
+		for (int i = 0; i < batch.size(); i++) {
+			Equation eq = batch.equation(i);
+			assertEquals(operation, batch.operation(i));
+			assertEquals(eq.result(), operation.apply(eq.firstNumber(), eq.secondNumber()), eq.toString());
+			assertTrue(eq.firstNumber() >= 0 && eq.secondNumber() >= 0 && eq.result() >= 0, eq.toString());
+			assertTrue(eq.firstNumber() <= limit && eq.secondNumber() <= limit && eq.result() <= limit, eq.toString());
+			switch (operation) {
+				case ADDITION, SUBTRACTION -> assertTrue(eq.firstNumber() != 0 || eq.secondNumber() != 0);
+				case MULTIPLICATION -> assertTrue(eq.firstNumber() != 0 && eq.secondNumber() != 0);
+				case DIVISION -> assertTrue(eq.secondNumber() != 0 && eq.secondNumber() < limit);
+			}
+		}
+	}
+
+	/**
+	 * Every equation the scalar generators can produce occurs, with roughly equal frequency.
+	 */
+	@Test
+	void coversEquationSpaceUniformly() {
+		for (Operations operation : Operations.values()) {
+			assertUniform(operation);
+		}
+	}
+
+	private static void assertUniform(Operations operation) {
+		int space = EquationTables.table(operation, 10).size();
+		EquationBatch batch = new BatchGenerator(new SplittableRandom(3)).generate(10, 1000 * space, List.of(operation));
+
+		Map<Equation, Integer> counts = new HashMap<>();
+		batch.toEquations().forEach(eq -> counts.merge(eq, 1, Integer::sum));
+		assertEquals(space, counts.size());
+		counts.values().forEach(count -> assertTrue(count > 850 && count < 1150, counts.toString()));
+	}
+
+	/**
+	 * Products are spread over the whole operand range at limits whose rectangle area exceeds 32
+	 * bits.
+	 */
+	@Test
+	void spreadsProductsAtLargeLimits() {
+		int limit = 3_000_000;
+		EquationBatch batch = new BatchGenerator(new SplittableRandom(7))
+				.generate(limit, 20_000, List.of(Operations.MULTIPLICATION));
+
+		Set<Integer> firsts = new HashSet<>();
+		int large = 0;
+		for (int i = 0; i < batch.size(); i++) {
+			Equation eq = batch.equation(i);
+			assertEquals(eq.result(), eq.firstNumber() * eq.secondNumber(), eq.toString());
+			assertTrue(eq.result() <= limit, eq.toString());
+			firsts.add(eq.firstNumber());
+			if (eq.firstNumber() > limit / 2) {
+				large++;
+			}
+		}
+		// about half the pairs have a first operand above the square root and 3.4% one above limit / 2
+		assertTrue(firsts.size() > 9_000, "distinct first operands: " + firsts.size());
+		assertTrue(large > 500 && large < 850, "first operands above limit / 2: " + large);
+	}
+
+	/**
+	 * Batches are reproducible, mix the requested operations and record lanes and equations.
+	 */
+	@Test
+	void isDeterministicAndRecordsStatistics() {
+		List<Operations> ops = List.of(Operations.ADDITION, Operations.DIVISION);
+		GenerationStats stats = new GenerationStats();
+		EquationBatch batch = new BatchGenerator(new SplittableRandom(5)).generate(50, 400, ops, stats);
+
+		assertEquals(batch.toEquations(), new BatchGenerator(new SplittableRandom(5)).generate(50, 400, ops).toEquations());
+		long additions = batch.toEquations().stream().filter(eq -> eq.operator() == '+').count();
+		assertTrue(additions > 150 && additions < 250, "additions: " + additions);
+		assertEquals(1, stats.batches());
+		assertEquals(additions, stats.equations(Operations.ADDITION));
+		// 200 or so additions take two blocks at about 53% acceptance
+		assertEquals(2L * BatchGenerator.BLOCK - additions, stats.rejections(Operations.ADDITION));
+		assertEquals(0, stats.equations(Operations.MULTIPLICATION));
+		assertThrows(IllegalArgumentException.class, () -> new BatchGenerator(new SplittableRandom(1)).generate(9, 1, ops));
+		assertThrows(IllegalArgumentException.class, () -> new BatchGenerator(new SplittableRandom(1)).generate(10, 0, ops));
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.internal.FontCapabilities;
+import org.rick.math_excercises.service.internal.FontCapabilities.FontCandidate;
+import org.rick.math_excercises.service.internal.GlyphSet;
+import org.rick.math_excercises.service.internal.PdfRenderSupport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests that {@link DirectPdfRenderer} output parses with PDFBox and carries the same text as the
+ * reference {@link PdfBoxRenderer}.
+ */
+class DirectPdfRendererTests {
+
+	private final EquationRenderer direct = new DirectPdfRenderer();
+
+	@AfterEach
+	void cleanup() {
+		System.clearProperty("pdfRenderer");
+	}
+
+	/**
+	 * A full three-column sheet extracts to exactly the text of the reference renderer.
+	 */
+	@Test
+	void matchesReferenceRendererText() throws IOException {
+		List<Equation> equations =
+				new GenerateService(new Random(6)).generateExercises(100, 150, List.of(Operations.values()));
+		List<Integer> placeholders = PdfRenderSupport.placeholderSequence(new Random(7), equations.size());
+
+		byte[] expected = render(new PdfBoxRenderer(PdfOutputMode.COMPACT), List.of(equations), List.of(placeholders));
+		byte[] actual = render(direct, List.of(equations), List.of(placeholders));
+
+		try (PDDocument reference = Loader.loadPDF(expected); PDDocument document = Loader.loadPDF(actual)) {
+			assertEquals(1, document.getNumberOfPages());
+			assertEquals(reference.getPage(0).getMediaBox().toString(), document.getPage(0).getMediaBox().toString());
+			assertEquals(new PDFTextStripper().getText(reference), new PDFTextStripper().getText(document));
+		}
+	}
+
+	/**
+	 * Each sheet becomes one page sharing the font objects.
+	 */
+	@Test
+	void rendersOnePagePerSheet() throws IOException {
+		List<List<Equation>> sheets =
+				List.of(
+						List.of(Equation.of(6, 2, 8, '+')),
+						List.of(Equation.of(9, 3, 3, '÷')),
+						List.of(Equation.of(3, 4, 12, '×')));
+		byte[] pdf = render(direct, sheets, List.of(List.of(3), List.of(2), List.of(1)));
+
+		try (PDDocument document = Loader.loadPDF(pdf)) {
+			assertEquals(3, document.getNumberOfPages());
+			PDFTextStripper stripper = new PDFTextStripper();
+			stripper.setStartPage(2);
+			stripper.setEndPage(2);
+			assertEquals("9 ÷ □ = 3", stripper.getText(document).trim());
+		}
+	}
+
+	/**
+	 * The Helvetica fallback encodes {@code ×} and {@code ÷} as WinAnsi bytes and only substitutes
+	 * the placeholder.
+	 */
+	@Test
+	void rendersOperatorsWithHelveticaFallback() throws IOException {
+		GlyphSet glyphs = GlyphSet.select(Set.of("×", "÷"));
+		EquationRenderer helvetica =
+				new DirectPdfRenderer(new FontCapabilities(FontCandidate.HELVETICA, glyphs, Map.of()));
+		byte[] pdf = render(helvetica,
+				List.of(List.of(Equation.of(3, 4, 12, '×'), Equation.of(9, 3, 3, '÷'))), List.of(List.of(2, 1)));
+
+		try (PDDocument document = Loader.loadPDF(pdf)) {
+			assertEquals(List.of("3 × _ = 12", "_ ÷ 3 = 3"),
+					new PDFTextStripper().getText(document).trim().lines().toList());
+		}
+	}
+
+	/**
+	 * {@link PdfService} writes sheets through a supplied renderer.
+	 */
+	@Test
+	void plugsIntoPdfService() throws IOException {
+		Path file = Files.createTempFile("direct", ".pdf");
+		try {
+			GenerationStats stats = new GenerationStats();
+			new PdfService(new Random(1), stats, direct).generatePdf(
+					List.of(List.of(Equation.of(7, 5, 2, '-')), List.of(Equation.of(6, 2, 8, '+'))), file);
+			try (PDDocument document = Loader.loadPDF(file.toFile())) {
+				assertEquals(2, document.getNumberOfPages());
+			}
+			assertEquals(2, stats.sheets());
+			assertEquals(Files.size(file), stats.outputBytes());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * Invalid input is rejected and the renderer is selected by the {@code pdfRenderer} property.
+	 */
+	@Test
+	void validatesInputAndSelectsRenderer() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertThrows(IllegalArgumentException.class, () -> direct.render(List.of(), List.of(), out));
+		assertThrows(IllegalArgumentException.class,
+				() -> direct.renderSheet(List.of(Equation.of(6, 2, 8, '+')), List.of(1, 2), out));
+		assertEquals(0, out.size());
+
+		assertInstanceOf(PdfBoxRenderer.class, EquationRenderer.fromSystemProperties());
+		System.setProperty("pdfRenderer", "direct");
+		assertInstanceOf(DirectPdfRenderer.class, EquationRenderer.fromSystemProperties());
+		System.setProperty("pdfRenderer", "fast");
+		assertThrows(IllegalArgumentException.class, EquationRenderer::fromSystemProperties);
+	}
+
+	private static byte[] render(EquationRenderer renderer, List<List<Equation>> sheets,
+	                             List<List<Integer>> placeholders) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		renderer.render(sheets, placeholders, out);
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.junit.jupiter.api.Test;
+import org.rick.math_excercises.model.Expression;
+import org.rick.math_excercises.service.internal.GlyphSet;
+import org.rick.math_excercises.service.internal.PdfRenderSupport;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that {@link ExpressionGenerator} builds valid multi-term expressions and that they are
+ * formatted like equations; rendering is tested in {@link PdfServiceSheetKindsTests}.
+ */
+class ExpressionGeneratorTests {
+
+	/**
+	 * Every expression has the requested number of operands, uses only allowed operators and keeps
+	 * every intermediate value within the limit.
+	 */
+	@Test
+	void generatesExpressionsWithinLimit() {
+		for (int terms = 2; terms <= ExpressionGenerator.MAX_TERMS; terms++) {
+			for (int limit : new int[]{10, 20, 1000}) {
+				List<Expression> expressions = new ExpressionGenerator(new Random(terms * limit))
+						.generate(limit, 500, terms, List.of(Operations.values()));
+				for (Expression expression : expressions) {
+					assertEquals(terms, expression.terms());
+					assertTrue(expression.value() >= 1 && expression.value() <= limit, expression.toString());
+					assertWithin(expression, limit);
+				}
+			}
+		}
+	}
+
+	private static void assertWithin(Expression expression, int limit) {
+		assertTrue(expression.value() >= 0 && expression.value() <= limit, expression.toString());
+		if (expression instanceof Expression.Operation operation) {
+			if (operation.operator() == '×') {
+				assertTrue(operation.left().value() > 0 && operation.right().value() > 0, operation.toString());
+			}
+			if (operation.operator() == '÷') {
+				assertTrue(operation.right().value() > 0, operation.toString());
+			}
+			assertWithin(operation.left(), limit);
+			assertWithin(operation.right(), limit);
+		}
+	}
+
+	/**
+	 * Only the allowed operations occur, and all of them do.
+	 */
+	@Test
+	void usesAllowedOperations() {
+		List<Expression> expressions = new ExpressionGenerator(new Random(1))
+				.generate(100, 200, 3, List.of(Operations.ADDITION, Operations.MULTIPLICATION));
+		Set<Character> operators = new HashSet<>();
+		expressions.forEach(expression -> collectOperators(expression, operators));
+		assertEquals(Set.of('+', '×'), operators);
+	}
+
+	private static void collectOperators(Expression expression, Set<Character> operators) {
+		if (expression instanceof Expression.Operation operation) {
+			operators.add(operation.operator());
+			collectOperators(operation.left(), operators);
+			collectOperators(operation.right(), operators);
+		}
+	}
+
+	/**
+	 * Chains of equal precedence read flat, any other nesting is parenthesized, and the placeholder
+	 * blanks an operand or the result.
+	 */
+	@Test
+	void formatsWithParentheses() {
+		Expression a = Expression.literal(7);
+		Expression chain = Expression.of(Expression.of(a, '+', Expression.literal(5)), '-', Expression.literal(3));
+		assertEquals(List.of("7", "+", "5", "-", "□", "=", "9"),
+				PdfRenderSupport.formatTokens(chain, 3, GlyphSet.UNICODE));
+
+		Expression product = Expression.of(Expression.of(Expression.literal(3), '×', Expression.literal(4)), '+', a);
+		assertEquals(List.of("(3", "×", "4)", "+", "7", "=", "□"),
+				PdfRenderSupport.formatTokens(product, 4, GlyphSet.UNICODE));
+
+		Expression grouped = Expression.of(Expression.literal(9), '-', Expression.of(a, '-', Expression.literal(2)));
+		assertEquals(List.of("_", "-", "(7", "-", "2)", "=", "4"),
+				PdfRenderSupport.formatTokens(grouped, 1, GlyphSet.ASCII));
+
+		assertThrows(IllegalArgumentException.class, () -> PdfRenderSupport.formatTokens(chain, 5, GlyphSet.UNICODE));
+		assertThrows(IllegalArgumentException.class, () -> Expression.of(a, '÷', Expression.literal(2)));
+	}
+
+	/**
+	 * Arguments outside the supported ranges are rejected.
+	 */
+	@Test
+	void rejectsInvalidArguments() {
+		ExpressionGenerator generator = new ExpressionGenerator(new Random(1));
+		assertThrows(IllegalArgumentException.class, () -> generator.generate(9, 1, 3, null));
+		assertThrows(IllegalArgumentException.class, () -> generator.generate(10, 0, 3, null));
+		assertThrows(IllegalArgumentException.class, () -> generator.generate(10, 1, 1, null));
+		assertThrows(IllegalArgumentException.class,
+				() -> generator.generate(10, 1, ExpressionGenerator.MAX_TERMS + 1, null));
+	}
+}
@@ -15,6 +15,7 @@ import org.junit.jupiter.api.Test;
 import org.rick.math_excercises.model.Equation;
 
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -51,6 +52,19 @@ class GenerateServiceAddSubTests {
 		}
 	}
 
+	/**
+	 * Sums that overflow {@code int} at the largest limit are rejected instead of wrapping negative.
+	 */
+	@Test
+	void additionDoesNotOverflowAtLargestLimit() {
+		List<Equation> equations =
+				new GenerateService(new Random(3)).generateExercises(Integer.MAX_VALUE, 200, List.of(Operations.ADDITION));
+		for (Equation eq : equations) {
+			assertTrue(eq.result() >= 0, eq::toString);
+			assertEquals((long) eq.firstNumber() + eq.secondNumber(), eq.result());
+		}
+	}
+
 	/**
 	 * Verifies only SUBTRACTION equations are produced with non-negative results.
 	 */
@@ -0,0 +1,97 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.junit.jupiter.api.Test;
+import org.rick.math_excercises.service.GenerationResult.Status;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests budgeted generation with {@link GenerationBudget}: complete, partial and failed results.
+ */
+class GenerateServiceBudgetTests {
+
+	private static final GenerationBudget GENEROUS = GenerationBudget.of(Duration.ofMinutes(1));
+
+	/**
+	 * Within budget the result is complete and matches the unbudgeted generator for the same seed.
+	 */
+	@Test
+	void completesWithinBudget() {
+		GenerationResult result = new GenerateService(new Random(8)).generateExercises(20, 100, null, GENEROUS);
+
+		assertTrue(result.isComplete());
+		assertFalse(result.isPartial());
+		assertEquals(new GenerateService(new Random(8)).generateExercises(20, 100), result.requireComplete());
+		assertEquals(1, result.stats().batches());
+	}
+
+	/**
+	 * A constraint that practically never accepts fails fast with its rejection count.
+	 */
+	@Test
+	void failsFastWhenDrawsAreExhausted() {
+		GenerationResult result = new GenerateService(new Random(1)).generateExercises(
+				Integer.MAX_VALUE / 2, 10, List.of(Operations.MULTIPLICATION), GENEROUS.withMaxDrawsPerEquation(1000));
+
+		assertEquals(Status.DRAWS_EXHAUSTED, result.status());
+		assertTrue(result.equations().isEmpty());
+		assertEquals(1000, result.stats().rejections(Operations.MULTIPLICATION));
+		IllegalStateException e = assertThrows(IllegalStateException.class, result::requireComplete);
+		assertTrue(e.getMessage().contains("MULTIPLICATION=1000"), e.getMessage());
+	}
+
+	/**
+	 * Cancellation stops between equations and keeps the equations generated so far.
+	 */
+	@Test
+	void returnsPartialResultWhenCancelled() {
+		AtomicInteger checks = new AtomicInteger();
+		GenerationResult result = new GenerateService(new Random(2)).generateExercises(
+				20, 100, null, GENEROUS.withCancellation(() -> checks.incrementAndGet() > 30));
+
+		assertEquals(Status.CANCELLED, result.status());
+		assertTrue(result.isPartial());
+		assertEquals(30, result.equations().size());
+		assertEquals(100, result.requested());
+	}
+
+	/**
+	 * An elapsed timeout stops generation.
+	 */
+	@Test
+	void stopsAtDeadline() {
+		EquationSource slow = (limit, operations, random) -> {
+			try {
+				Thread.sleep(5);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return Operations.ADDITION.generate(limit, random);
+		};
+		GenerationResult result = new GenerateService(new Random(3), slow)
+				.generateExercises(20, 1000, null, GenerationBudget.of(Duration.ofMillis(50)));
+
+		assertEquals(Status.DEADLINE_EXCEEDED, result.status());
+		assertTrue(result.equations().size() < 1000);
+		assertThrows(IllegalArgumentException.class, () -> GenerationBudget.of(Duration.ofSeconds(-1)));
+		assertThrows(IllegalArgumentException.class, () -> GENEROUS.withMaxDrawsPerEquation(0));
+	}
+}
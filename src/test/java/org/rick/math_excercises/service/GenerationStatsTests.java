@@ -0,0 +1,90 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.rick.math_excercises.model.Equation;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the opt-in {@link GenerationStats} collector fed by {@link GenerateService},
+ * {@link Operations} and {@link PdfService}.
+ */
+class GenerationStatsTests {
+
+	@AfterEach
+	void cleanup() {
+		new File("Stats_1.pdf").delete();
+		System.clearProperty("outputBaseName");
+	}
+
+	/**
+	 * Operation counts, histograms and rejections are recorded per batch and merged across
+	 * collectors.
+	 */
+	@Test
+	void recordsOperationMixHistogramsAndRejections() {
+		GenerationStats stats = new GenerationStats();
+		GenerateService service = new GenerateService(new Random(8));
+		List<Equation> batch = service.generateExercises(
+				100, 1000, EnumSet.of(Operations.ADDITION, Operations.MULTIPLICATION), stats);
+
+		long additions = batch.stream().filter(eq -> eq.operator() == '+').count();
+		assertEquals(1, stats.batches());
+		assertEquals(additions, stats.equations(Operations.ADDITION));
+		assertEquals(1000 - additions, stats.equations(Operations.MULTIPLICATION));
+		assertEquals(0, stats.equations(Operations.DIVISION));
+		assertTrue(stats.rejections(Operations.MULTIPLICATION) > stats.rejections(Operations.ADDITION),
+				"multiplication rejection sampling should discard far more draws");
+		assertEquals(additions, Arrays.stream(stats.operandHistogram(Operations.ADDITION, 1)).sum());
+
+		GenerationStats total = new GenerationStats();
+		total.merge(stats);
+		total.merge(stats);
+		assertEquals(2, total.batches());
+		assertEquals(2 * additions, total.equations(Operations.ADDITION));
+	}
+
+	/**
+	 * Rendering records the placeholder distribution and the report is valid-looking JSON.
+	 */
+	@Test
+	void recordsPlaceholdersAndRendersJson() {
+		System.setProperty("outputBaseName", "Stats");
+		GenerationStats stats = new GenerationStats();
+		new PdfService(new Random(2), stats).generatePdf(
+				new GenerateService(new Random(2)).generateExercises(20, 30, null, stats), 1);
+
+		assertEquals(30, stats.placeholders(1) + stats.placeholders(2) + stats.placeholders(3));
+		String json = stats.toJson();
+		assertTrue(json.startsWith("{") && json.trim().endsWith("}"));
+		assertTrue(json.contains("\"ADDITION\": {\"equations\": "));
+		assertTrue(json.contains("\"placeholders\": {\"first\": " + stats.placeholders(1)));
+	}
+
+	/**
+	 * The disabled collector records nothing.
+	 */
+	@Test
+	void noneRecordsNothing() {
+		new GenerateService(new Random(1)).generateExercises(20, 50, null, GenerationStats.NONE);
+		assertEquals(0, GenerationStats.NONE.batches());
+		assertEquals(0, GenerationStats.NONE.rejections(Operations.ADDITION));
+	}
+}
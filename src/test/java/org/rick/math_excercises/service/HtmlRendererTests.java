@@ -0,0 +1,169 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.junit.jupiter.api.Test;
+import org.rick.math_excercises.fraction.FractionGenerator;
+import org.rick.math_excercises.fraction.FractionOperations;
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.model.Expression;
+import org.rick.math_excercises.model.FractionEquation;
+import org.rick.math_excercises.service.internal.GlyphSet;
+import org.rick.math_excercises.service.internal.PdfRenderSupport;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that {@link HtmlRenderer} writes well-formed pages with the tokens and column layout of the
+ * PDF renderers.
+ */
+class HtmlRendererTests {
+
+	private final HtmlRenderer renderer = new HtmlRenderer();
+
+	/**
+	 * Every sheet becomes a section whose columns hold 50 lines each, and every line reads as the
+	 * tokens of its equation.
+	 */
+	@Test
+	void writesSheetsInColumns() throws Exception {
+		List<Equation> first = new GenerateService(new Random(3)).generateExercises(100, 120, List.of(Operations.values()));
+		List<Equation> second = new GenerateService(new Random(4)).generateExercises(20, 10, List.of(Operations.ADDITION));
+		List<Integer> firstPlaceholders = PdfRenderSupport.placeholderSequence(new Random(5), first.size());
+		List<Integer> secondPlaceholders = PdfRenderSupport.placeholderSequence(new Random(6), second.size());
+		StringWriter out = new StringWriter();
+
+		renderer.render(List.of(first, second), List.of(firstPlaceholders, secondPlaceholders), out);
+
+		Document page = parse(out.toString());
+		NodeList sheets = page.getElementsByTagName("section");
+		assertEquals(2, sheets.getLength());
+		List<Element> columns = byClass((Element) sheets.item(0), "column");
+		assertEquals(3, columns.size());
+		assertEquals(50, byClass(columns.get(0), "line").size());
+		assertEquals(20, byClass(columns.get(2), "line").size());
+		assertEquals("left:50pt", columns.get(0).getAttribute("style"));
+		assertEquals("left:187.33pt", columns.get(1).getAttribute("style"));
+		List<Element> lines = byClass((Element) sheets.item(0), "line");
+		for (int i = 0; i < first.size(); i++) {
+			assertEquals(String.join(" ", PdfRenderSupport.formatTokens(first.get(i), firstPlaceholders.get(i))),
+					lines.get(i).getTextContent());
+		}
+		assertEquals(1, byClass((Element) sheets.item(1), "column").size());
+	}
+
+	/**
+	 * Operators are marked for the larger operator font, operands are plain text.
+	 */
+	@Test
+	void marksOperators() throws IOException {
+		StringWriter out = new StringWriter();
+
+		renderer.renderSheet(List.of(new Equation(6, 3, 18, '×'), new Equation(8, 2, 4, '÷')), List.of(3, 1), out);
+
+		assertTrue(out.toString().contains("<div class=\"line\">6 <span class=\"op\">×</span> 3 <span class=\"op\">=</span> □</div>"));
+		assertTrue(out.toString().contains("<div class=\"line\">□ <span class=\"op\">÷</span> 2 <span class=\"op\">=</span> 4</div>"));
+	}
+
+	/**
+	 * Multi-term expressions keep their parentheses.
+	 */
+	@Test
+	void writesExpressions() throws Exception {
+		Expression product = Expression.of(Expression.literal(2), '×', Expression.literal(3));
+		Expression expression = Expression.of(product, '+', Expression.literal(4));
+		StringWriter out = new StringWriter();
+
+		renderer.renderExpressions(List.of(List.of(expression)), List.of(List.of(4)), out);
+
+		assertEquals("(2 × 3) + 4 = □", byClass(parse(out.toString()).getDocumentElement(), "line").get(0).getTextContent());
+	}
+
+	/**
+	 * Fractions are stacked and their lines are followed by an empty line, as in the PDF layout.
+	 */
+	@Test
+	void stacksFractions() throws Exception {
+		List<FractionEquation> exercises = new FractionGenerator(new Random(8))
+				.generate(12, 30, List.of(FractionOperations.FRACTION_ADDITION));
+		List<Integer> placeholders = PdfRenderSupport.placeholderSequence(new Random(9), exercises.size());
+		StringWriter out = new StringWriter();
+
+		renderer.renderFractions(List.of(exercises), List.of(placeholders), out);
+
+		Document page = parse(out.toString());
+		List<List<String>> expected = PageLayout.fractionLines(List.of(exercises), List.of(placeholders), GlyphSet.UNICODE)
+				.get(0);
+		List<Element> lines = byClass(page.getDocumentElement(), "line");
+		assertEquals(expected.size(), lines.size());
+		assertEquals(2, byClass(page.getDocumentElement(), "column").size());
+		for (int i = 0; i < expected.size(); i++) {
+			List<Element> fractions = byClass(lines.get(i), "frac");
+			assertEquals(expected.get(i).stream().filter(PdfRenderSupport::isStacked).count(), fractions.size());
+			for (Element fraction : fractions) {
+				assertEquals(2, fraction.getElementsByTagName("span").getLength());
+			}
+		}
+	}
+
+	/**
+	 * Invalid sheets are rejected before anything is written, and the writer is left open.
+	 */
+	@Test
+	void rejectsInvalidSheetsAndKeepsWriterOpen() throws IOException {
+		StringWriter out = new StringWriter();
+
+		assertThrows(IllegalArgumentException.class, () -> renderer.render(List.of(), List.of(), out));
+		assertThrows(IllegalArgumentException.class,
+				() -> renderer.renderSheet(List.of(new Equation(1, 1, 2, '+')), List.of(), out));
+		assertEquals("", out.toString());
+
+		Writer open = new StringWriter() {
+			@Override
+			public void close() {
+				throw new AssertionError("writer closed");
+			}
+		};
+		renderer.renderSheet(List.of(new Equation(1, 1, 2, '+')), List.of(1), open);
+		assertTrue(open.toString().endsWith("</html>\n"));
+	}
+
+	private static Document parse(String html) throws Exception {
+		return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new InputSource(new StringReader(html)));
+	}
+
+	private static List<Element> byClass(Element root, String className) {
+		NodeList elements = root.getElementsByTagName("*");
+		List<Element> matches = new ArrayList<>();
+		for (int i = 0; i < elements.getLength(); i++) {
+			Element element = (Element) elements.item(i);
+			if (className.equals(element.getAttribute("class"))) {
+				matches.add(element);
+			}
+		}
+		return matches;
+	}
+}
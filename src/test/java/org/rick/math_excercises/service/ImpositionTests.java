@@ -0,0 +1,188 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.contentstream.operator.Operator;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdfparser.PDFStreamParser;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.util.Matrix;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.rick.math_excercises.model.Equation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that {@link PdfBoxRenderer} imposes sheets as shared forms onto n-up pages.
+ */
+class ImpositionTests {
+
+	private static final int SHEETS = 6;
+
+	private final List<List<Equation>> sheets = new ArrayList<>();
+
+	private final List<List<Integer>> placeholders = new ArrayList<>();
+
+	ImpositionTests() {
+		for (int i = 0; i < SHEETS; i++) {
+			SheetRequest request = SheetRequest.of(20, 60, List.of(Operations.ADDITION, Operations.SUBTRACTION), i);
+			sheets.add(request.equations());
+			placeholders.add(request.placeholders());
+		}
+	}
+
+	@AfterEach
+	void cleanup() {
+		System.clearProperty("imposition");
+		System.clearProperty("impositionFill");
+		System.clearProperty("pdfRenderer");
+	}
+
+	/**
+	 * Consecutive sheets fill the four cells of portrait pages in reading order, each drawn from its
+	 * own form, and the pages read as the sheets they hold.
+	 */
+	@Test
+	void fourUpPlacesConsecutiveSheets() throws IOException {
+		byte[] reference = render(new PdfBoxRenderer(PdfOutputMode.COMPACT));
+		byte[] imposed = render(new PdfBoxRenderer(PdfOutputMode.COMPACT, Imposition.FOUR_UP, Imposition.Fill.SHEETS));
+
+		try (PDDocument single = Loader.loadPDF(reference); PDDocument document = Loader.loadPDF(imposed)) {
+			assertEquals(2, document.getNumberOfPages());
+			assertEquals(612f, document.getPage(0).getMediaBox().getWidth());
+			assertEquals(792f, document.getPage(0).getMediaBox().getHeight());
+			assertEquals(4, forms(document.getPage(0)).size());
+			assertEquals(2, forms(document.getPage(1)).size());
+			assertEquals(4, drawCount(document.getPage(0)));
+			assertEquals(2, drawCount(document.getPage(1)));
+			Set<Object> distinct = new HashSet<>(forms(document.getPage(0)));
+			distinct.addAll(forms(document.getPage(1)));
+			assertEquals(SHEETS, distinct.size());
+
+			assertEquals(text(single, 1, 4), text(document, 1, 1));
+			assertEquals(text(single, 5, 6), text(document, 2, 2));
+		}
+	}
+
+	/**
+	 * Copies of a sheet share one form, so the document grows with the distinct sheets and not with
+	 * the copies drawn.
+	 */
+	@Test
+	void copiesShareOneForm() throws IOException {
+		byte[] reference = render(new PdfBoxRenderer(PdfOutputMode.COMPACT));
+		byte[] imposed = render(new PdfBoxRenderer(PdfOutputMode.COMPACT, Imposition.TWO_UP, Imposition.Fill.COPIES));
+
+		try (PDDocument single = Loader.loadPDF(reference); PDDocument document = Loader.loadPDF(imposed)) {
+			assertEquals(SHEETS, document.getNumberOfPages());
+			assertEquals(792f, document.getPage(0).getMediaBox().getWidth());
+			assertEquals(612f, document.getPage(0).getMediaBox().getHeight());
+			for (int page = 1; page <= SHEETS; page++) {
+				assertEquals(1, forms(document.getPage(page - 1)).size());
+				assertEquals(2, drawCount(document.getPage(page - 1)));
+				String sheet = text(single, page, page);
+				assertEquals(sheet + sheet, text(document, page, page));
+			}
+		}
+		assertTrue(imposed.length < reference.length * 1.25, imposed.length + " vs " + reference.length);
+	}
+
+	/**
+	 * Cells are centered and scaled to fit; cuts separate them.
+	 */
+	@Test
+	void cellGeometry() {
+		assertEquals(0.5f, Imposition.FOUR_UP.scale());
+		assertEquals(new Matrix(0.5f, 0, 0, 0.5f, 306, 0), Imposition.FOUR_UP.placement(3));
+		assertEquals(new Matrix(0.5f, 0, 0, 0.5f, 0, 396), Imposition.FOUR_UP.placement(0));
+		assertArrayEquals(new float[]{306}, Imposition.FOUR_UP.verticalCuts());
+		assertArrayEquals(new float[]{396}, Imposition.FOUR_UP.horizontalCuts());
+
+		float scale = 396f / 612f;
+		assertEquals(scale, Imposition.TWO_UP.scale());
+		assertEquals(new Matrix(scale, 0, 0, scale, 396, (612 - 792 * scale) / 2), Imposition.TWO_UP.placement(1));
+		assertArrayEquals(new float[0], Imposition.TWO_UP.horizontalCuts());
+
+		assertEquals(3, Imposition.FOUR_UP.pages(9, Imposition.Fill.SHEETS));
+		assertEquals(9, Imposition.FOUR_UP.pages(9, Imposition.Fill.COPIES));
+		assertEquals(1, Imposition.NONE.cells());
+	}
+
+	/**
+	 * The imposition is read from system properties and only supported by the PDFBox renderer.
+	 */
+	@Test
+	void configuredFromSystemProperties() {
+		assertEquals(Imposition.NONE, Imposition.fromSystemProperties());
+		assertEquals(Imposition.Fill.SHEETS, Imposition.fillFromSystemProperties());
+
+		System.setProperty("imposition", "two_up");
+		System.setProperty("impositionFill", "copies");
+		assertEquals(Imposition.TWO_UP, Imposition.fromSystemProperties());
+		assertEquals(Imposition.Fill.COPIES, Imposition.fillFromSystemProperties());
+		assertInstanceOf(PdfBoxRenderer.class, EquationRenderer.fromSystemProperties());
+
+		System.setProperty("pdfRenderer", "direct");
+		assertThrows(IllegalArgumentException.class, EquationRenderer::fromSystemProperties);
+
+		System.setProperty("imposition", "eight_up");
+		assertThrows(IllegalArgumentException.class, Imposition::fromSystemProperties);
+		System.setProperty("impositionFill", "random");
+		assertThrows(IllegalArgumentException.class, Imposition::fillFromSystemProperties);
+	}
+
+	private byte[] render(EquationRenderer renderer) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		renderer.render(sheets, placeholders, out);
+		return out.toByteArray();
+	}
+
+	private static List<Object> forms(PDPage page) throws IOException {
+		List<Object> forms = new ArrayList<>();
+		for (COSName name : page.getResources().getXObjectNames()) {
+			forms.add(assertInstanceOf(PDFormXObject.class, page.getResources().getXObject(name)).getCOSObject());
+		}
+		return forms;
+	}
+
+	private static int drawCount(PDPage page) throws IOException {
+		int draws = 0;
+		for (Object token : new PDFStreamParser(page).parse()) {
+			if (token instanceof Operator operator && "Do".equals(operator.getName())) {
+				draws++;
+			}
+		}
+		return draws;
+	}
+
+	private static String text(PDDocument document, int firstPage, int lastPage) throws IOException {
+		PDFTextStripper stripper = new PDFTextStripper();
+		stripper.setStartPage(firstPage);
+		stripper.setEndPage(lastPage);
+		return stripper.getText(document).replace(stripper.getPageEnd(), "").replace(stripper.getPageStart(), "");
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.rick.math_excercises.model.Equation;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the size-optimized {@link PdfOutputMode#COMPACT} output of {@link PdfService}.
+ */
+class PdfServiceCompactOutputTests {
+
+	@AfterEach
+	void cleanup() {
+		System.clearProperty("pdfOutput");
+	}
+
+	/**
+	 * Compact sheets carry the same text as standard ones in well under half the bytes, and the
+	 * statistics report the bytes per sheet.
+	 */
+	@Test
+	void compactOutputIsSmallerWithSameText() throws IOException {
+		List<Equation> equations =
+				new GenerateService(new Random(4)).generateExercises(100, 150, List.of(Operations.values()));
+		GenerationStats standardStats = new GenerationStats();
+		GenerationStats compactStats = new GenerationStats();
+
+		byte[] standard = new PdfService(new Random(9), standardStats, PdfOutputMode.STANDARD).renderPdf(equations);
+		byte[] compact = new PdfService(new Random(9), compactStats, PdfOutputMode.COMPACT).renderPdf(equations);
+
+		assertTrue(compact.length * 2 < standard.length, compact.length + " vs " + standard.length);
+		assertEquals(extractText(standard), extractText(compact));
+		assertEquals(1, compactStats.sheets());
+		assertEquals(compact.length, compactStats.bytesPerSheet(), 0.001);
+		assertTrue(compactStats.toJson().contains("\"output\": {\"sheets\": 1, \"bytes\": " + compact.length));
+	}
+
+	/**
+	 * The mode is read from the {@code pdfOutput} system property.
+	 */
+	@Test
+	void readsModeFromSystemProperty() {
+		assertEquals(PdfOutputMode.STANDARD, PdfOutputMode.fromSystemProperties());
+		System.setProperty("pdfOutput", "Compact");
+		assertEquals(PdfOutputMode.COMPACT, PdfOutputMode.fromSystemProperties());
+		System.setProperty("pdfOutput", "tiny");
+		assertThrows(IllegalArgumentException.class, PdfOutputMode::fromSystemProperties);
+	}
+
+	private static String extractText(byte[] pdf) throws IOException {
+		try (PDDocument doc = Loader.loadPDF(pdf)) {
+			return new PDFTextStripper().getText(doc);
+		}
+	}
+}
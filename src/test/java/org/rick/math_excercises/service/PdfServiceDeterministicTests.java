@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -36,6 +37,7 @@ class PdfServiceDeterministicTests {
 	void cleanup() {
 		new File("Deterministic_1.pdf").delete();
 		new File("Deterministic_2.pdf").delete();
+		new File("Deterministic_3.pdf").delete();
 		System.clearProperty("outputBaseName");
 		System.clearProperty("outputSuffix");
 	}
@@ -70,6 +72,29 @@ class PdfServiceDeterministicTests {
 		assertEquals(text1, text2, "PDF text content should be identical for same Random seed");
 	}
 
+	/**
+	 * Renders equations with explicitly supplied placeholder positions and asserts each blank lands
+	 * in the requested slot.
+	 */
+	@Test
+	void rendersSuppliedPlaceholders() throws IOException {
+		System.setProperty("outputBaseName", "Deterministic");
+		List<Equation> equations =
+				List.of(
+						Equation.of(6, 2, 8, '+'),
+						Equation.of(9, 3, 3, '÷'),
+						Equation.of(7, 5, 2, '-'));
+
+		new PdfService(new Random(1)).generatePdf(equations, List.of(1, 2, 3), 3);
+
+		String text = extractText("Deterministic_3.pdf");
+		assertTrue(text.contains("□ + 2 = 8"), text);
+		assertTrue(text.contains("9 ÷ □ = 3"), text);
+		assertTrue(text.contains("7 - 5 = □"), text);
+		assertThrows(IllegalArgumentException.class,
+				() -> new PdfService(new Random(1)).generatePdf(equations, List.of(1), 3));
+	}
+
 	private String extractText(String fileName) throws IOException {
 		try (PDDocument doc = Loader.loadPDF(new File(fileName))) {
 			PDFTextStripper stripper = new PDFTextStripper();
@@ -17,6 +17,7 @@ import org.rick.math_excercises.model.Equation;
 import java.io.File;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -54,4 +55,15 @@ class PdfServiceFilenameTests {
 		assertTrue(out.exists());
 		out.delete();
 	}
+
+	/**
+	 * Documents holding a range of sheets are named after the range.
+	 */
+	@Test
+	void namesSheetRanges() {
+		assertEquals("MathExercises_1-40.pdf", PdfService.outputFileName(1, 40));
+		System.setProperty("outputBaseName", "Worksheets");
+		System.setProperty("outputSuffix", "_Custom");
+		assertEquals("Worksheets_3-9_Custom.pdf", PdfService.outputFileName(3, 9));
+	}
 }
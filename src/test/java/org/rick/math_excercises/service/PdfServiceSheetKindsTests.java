@@ -0,0 +1,131 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.rick.math_excercises.fraction.FractionGenerator;
+import org.rick.math_excercises.fraction.FractionOperations;
+import org.rick.math_excercises.model.Expression;
+import org.rick.math_excercises.model.FractionEquation;
+import org.rick.math_excercises.service.internal.PdfRenderSupport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the rendering of multi-term expression and fraction sheets by both renderers and by
+ * {@link PdfService}.
+ */
+class PdfServiceSheetKindsTests {
+
+	/**
+	 * Both renderers show the same characters in the same order. Text extraction groups the raised
+	 * and lowered parts of stacked fractions heuristically, so whitespace is ignored.
+	 */
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("kinds")
+	void renderersAgree(SheetKind kind) throws IOException {
+		String reference = text(kind, new PdfBoxRenderer(PdfOutputMode.COMPACT));
+		assertEquals(reference, text(kind, new DirectPdfRenderer()));
+		assertTrue(reference.contains(kind.marker()), reference);
+	}
+
+	/**
+	 * {@link PdfService} writes a one-page sheet with every exercise to the iteration's file and
+	 * rejects an empty sheet.
+	 */
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("kinds")
+	void pdfServiceWritesSheet(SheetKind kind) throws IOException {
+		PdfService pdfService = new PdfService(new Random(3));
+		kind.write().write(pdfService, 38);
+		Path file = Path.of(PdfService.outputFileName(38));
+		try (PDDocument document = Loader.loadPDF(file.toFile())) {
+			assertEquals(1, document.getNumberOfPages());
+			String text = new PDFTextStripper().getText(document);
+			assertEquals(kind.exercises(), text.chars().filter(c -> c == '=').count());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+		assertThrows(IllegalArgumentException.class, () -> kind.writeEmpty().write(pdfService, 1));
+	}
+
+	static Stream<SheetKind> kinds() {
+		List<Expression> expressions =
+				new ExpressionGenerator(new Random(4)).generate(50, 120, 3, EnumSet.allOf(Operations.class));
+		List<Integer> expressionPlaceholders = PdfRenderSupport.placeholderSequence(new Random(5), expressions);
+		List<FractionEquation> fractions =
+				new FractionGenerator(new Random(3)).generate(12, 60, EnumSet.allOf(FractionOperations.class));
+		List<Integer> fractionPlaceholders = PdfRenderSupport.placeholderSequence(new Random(4), fractions.size());
+		return Stream.of(
+				new SheetKind("expressions", ")", expressions.size(),
+						(renderer, out) -> renderer.renderExpressions(List.of(expressions),
+								List.of(expressionPlaceholders), out),
+						(pdfService, iteration) -> pdfService.generateExpressionPdf(expressions, iteration),
+						(pdfService, iteration) -> pdfService.generateExpressionPdf(List.of(), iteration)),
+				new SheetKind("fractions", ".", fractions.size(),
+						(renderer, out) -> renderer.renderFractions(List.of(fractions), List.of(fractionPlaceholders),
+								out),
+						(pdfService, iteration) -> pdfService.generateFractionPdf(fractions, iteration),
+						(pdfService, iteration) -> pdfService.generateFractionPdf(List.of(), iteration)));
+	}
+
+	private static String text(SheetKind kind, EquationRenderer renderer) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		kind.render().render(renderer, out);
+		try (PDDocument document = Loader.loadPDF(out.toByteArray())) {
+			return new PDFTextStripper().getText(document).replaceAll("\\s+", "");
+		}
+	}
+
+	/**
+	 * A kind of sheet with its exercises.
+	 *
+	 * @param name       shown in the test name
+	 * @param marker     text only this kind of sheet contains
+	 * @param exercises  number of exercises on the sheet
+	 * @param render     renders the sheet with a renderer
+	 * @param write      writes the sheet with {@link PdfService}
+	 * @param writeEmpty writes an empty sheet of this kind with {@link PdfService}
+	 */
+	record SheetKind(String name, String marker, int exercises, Render render, Write write, Write writeEmpty) {
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	@FunctionalInterface
+	interface Render {
+		void render(EquationRenderer renderer, OutputStream out) throws IOException;
+	}
+
+	@FunctionalInterface
+	interface Write {
+		void write(PdfService pdfService, int iteration);
+	}
+}
@@ -0,0 +1,187 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.internal.GlyphSet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the vertical column-arithmetic layout and its rendering by both PDF renderers.
+ */
+class VerticalLayoutTests {
+
+	/**
+	 * Widths of a font with tabular digits 556 wide, like Helvetica, and a 500 wide placeholder.
+	 */
+	private static final LineCursor.Widths WIDTHS = text -> text.length() * ("_".equals(text) ? 500f : 556f);
+
+	private static final float SLOT = 556f * VerticalLayout.FONT_SIZE / 1000f;
+
+	private final VerticalLayout.Cache cache = new VerticalLayout.Cache(WIDTHS, GlyphSet.ASCII);
+
+	/**
+	 * Operands and result end at the same right edge, the operator sits left of the widest number
+	 * and the rule spans the problem.
+	 */
+	@Test
+	void alignsNumbersOnTheRightEdge() throws IOException {
+		VerticalLayout layout = cache.layout(false, 3);
+		Recorder recorder = new Recorder();
+		layout.drawPage(List.of(Equation.of(12, 345, 357, '+')), List.of(2), recorder);
+
+		assertEquals(List.of("12", "+", "_", "_", "_", "357"), recorder.texts);
+		float right = recorder.xs.get(0) + 2 * SLOT;
+		float placeholderInset = (SLOT - 500f * VerticalLayout.FONT_SIZE / 1000f) / 2;
+		assertEquals(right, recorder.xs.get(4) - placeholderInset + SLOT, 0.001f);
+		assertEquals(right, recorder.xs.get(5) + 3 * SLOT, 0.001f);
+		assertEquals(right - (3 + VerticalLayout.OPERATOR_GAP + 1) * SLOT, recorder.xs.get(1), 0.001f);
+		assertEquals(1, recorder.rules.size());
+		assertEquals(recorder.xs.get(1), recorder.rules.get(0)[0], 0.001f);
+		assertEquals(right, recorder.rules.get(0)[0] + recorder.rules.get(0)[2], 0.001f);
+		assertTrue(recorder.rules.get(0)[1] < recorder.ys.get(1) && recorder.rules.get(0)[1] > recorder.ys.get(5));
+		assertTrue(recorder.boxes.isEmpty());
+	}
+
+	/**
+	 * Carry boxes sit above every digit slot but the units, above the first operand.
+	 */
+	@Test
+	void drawsCarryBoxesAboveAllButTheUnits() throws IOException {
+		Recorder recorder = new Recorder();
+		cache.layout(true, 4).drawPage(List.of(Equation.of(1234, 4321, 5555, '+')), List.of(3), recorder);
+
+		assertEquals(3, recorder.boxes.size());
+		float unitsSlot = recorder.xs.get(0) + 3 * SLOT;
+		for (float[] box : recorder.boxes) {
+			assertTrue(box[0] + box[2] <= unitsSlot);
+			assertTrue(box[1] > recorder.ys.get(0));
+		}
+		assertEquals(List.of("_", "_", "_", "_"), recorder.texts.subList(3, 7));
+	}
+
+	/**
+	 * Layouts are built once per digit count and carry setting, and the grid shrinks for wide numbers.
+	 */
+	@Test
+	void cachesLayoutsPerGrid() {
+		assertSame(cache.layout(false, 2), cache.layout(false, 2));
+		assertFalse(cache.layout(false, 2) == cache.layout(true, 2));
+		assertTrue(cache.layout(false, 2).problemsPerPage() > cache.layout(false, 5).problemsPerPage());
+		assertTrue(cache.layout(false, 3).problemsPerPage() > cache.layout(true, 3).problemsPerPage());
+	}
+
+	/**
+	 * A sheet takes as many pages as its problems need, and both renderers produce the same text.
+	 */
+	@Test
+	void renderersPaginateAndAgree() throws IOException {
+		SheetRequest request = new SheetRequest(1000, 130,
+				List.of(Operations.ADDITION, Operations.SUBTRACTION, Operations.MULTIPLICATION), 7, SheetLayout.VERTICAL);
+		List<Equation> equations = request.equations();
+		int perPage = cache.layout(false, VerticalLayout.digits(equations)).problemsPerPage();
+		int pages = (equations.size() + perPage - 1) / perPage;
+		assertTrue(pages > 1);
+
+		String direct = text(new DirectPdfRenderer(), request, pages);
+		String pdfBox = text(new PdfBoxRenderer(PdfOutputMode.COMPACT), request, pages);
+		assertEquals(direct, pdfBox);
+		Equation first = equations.get(0);
+		assertTrue(direct.contains(String.valueOf(request.placeholders().get(0) == 1 ? first.secondNumber()
+		                                          : first.firstNumber())));
+	}
+
+	/**
+	 * Blanked numbers show one placeholder per digit.
+	 */
+	@Test
+	void blanksEveryDigit() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new DirectPdfRenderer().renderVertical(List.of(List.of(Equation.of(123, 45, 168, '+'))), List.of(List.of(3)),
+				true, out);
+		try (PDDocument document = Loader.loadPDF(out.toByteArray())) {
+			String text = new PDFTextStripper().getText(document);
+			assertEquals(3, Collections.frequency(List.of(text.split("")), placeholder(text)));
+			assertFalse(text.contains("168"));
+		}
+	}
+
+	/**
+	 * Division cannot be written in columns.
+	 */
+	@Test
+	void rejectsDivision() {
+		assertThrows(IllegalArgumentException.class, () -> new SheetRequest(20, 10,
+				List.of(Operations.ADDITION, Operations.DIVISION), 1, SheetLayout.VERTICAL_WITH_CARRIES));
+		assertThrows(IllegalArgumentException.class, () -> new DirectPdfRenderer().renderVertical(
+				List.of(List.of(Equation.of(12, 3, 4, '÷'))), List.of(List.of(3)), false, new ByteArrayOutputStream()));
+		assertEquals(SheetLayout.VERTICAL_WITH_CARRIES, SheetLayout.parse(" Vertical_With_Carries "));
+		assertThrows(IllegalArgumentException.class, () -> SheetLayout.parse("diagonal"));
+	}
+
+	private static String text(EquationRenderer renderer, SheetRequest request, int pages) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		renderer.renderSheet(request.equations(), request.placeholders(), request.layout(), out);
+		try (PDDocument document = Loader.loadPDF(out.toByteArray())) {
+			assertEquals(pages, document.getNumberOfPages());
+			return new PDFTextStripper().getText(document);
+		}
+	}
+
+	private static String placeholder(String text) {
+		return text.contains(GlyphSet.UNICODE.placeholder()) ? GlyphSet.UNICODE.placeholder()
+		       : GlyphSet.ASCII.placeholder();
+	}
+
+	/**
+	 * Records the output of a page.
+	 */
+	private static final class Recorder implements VerticalLayout.Canvas {
+
+		private final List<String> texts = new ArrayList<>();
+		private final List<Float> xs = new ArrayList<>();
+		private final List<Float> ys = new ArrayList<>();
+		private final List<float[]> rules = new ArrayList<>();
+		private final List<float[]> boxes = new ArrayList<>();
+
+		@Override
+		public void text(float x, float y, String text) {
+			texts.add(text);
+			xs.add(x);
+			ys.add(y);
+		}
+
+		@Override
+		public void rule(float x, float y, float width, float height) {
+			rules.add(new float[]{x, y, width, height});
+		}
+
+		@Override
+		public void box(float x, float y, float size) {
+			boxes.add(new float[]{x, y, size, size});
+		}
+	}
+}
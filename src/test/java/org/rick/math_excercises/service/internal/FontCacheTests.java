@@ -0,0 +1,207 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service.internal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.rick.math_excercises.service.internal.FontCapabilities.FontCandidate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the cross-process {@link FontCache} and how {@link FontSupport} uses it.
+ */
+class FontCacheTests {
+
+	private static final FontCache.Fingerprint SOURCE = new FontCache.Fingerprint(1234, 0xCAFEL);
+
+	@TempDir
+	Path directory;
+
+	@AfterEach
+	void cleanup() {
+		System.clearProperty("fontCache");
+	}
+
+	/**
+	 * An entry reads back unchanged from its file, and only for the font it was built from.
+	 */
+	@Test
+	void readsBackEntryForSameFont() throws IOException {
+		Path file = directory.resolve("fonts.bin");
+		FontCache.Entry entry = entry();
+
+		FontCache.write(file, SOURCE, entry);
+		FontCache.Entry read = FontCache.read(file, SOURCE).orElseThrow();
+
+		assertEquals(entry.coverage(), read.coverage());
+		assertArrayEquals(entry.compactProgram(), read.compactProgram());
+		assertEquals(entry.metrics().name(), read.metrics().name());
+		assertEquals(entry.metrics().glyphs(), read.metrics().glyphs());
+		assertArrayEquals(entry.metrics().boundingBox(), read.metrics().boundingBox());
+		assertEquals(entry.metrics().capHeight(), read.metrics().capHeight());
+		assertTrue(FontCache.read(file, new FontCache.Fingerprint(1234, 0xBEEFL)).isEmpty());
+		assertTrue(FontCache.read(file, new FontCache.Fingerprint(1235, 0xCAFEL)).isEmpty());
+		assertTrue(FontCache.read(directory.resolve("missing.bin"), SOURCE).isEmpty());
+	}
+
+	/**
+	 * Any damage, including a truncated file, makes the cache unusable instead of corrupting the
+	 * fonts.
+	 */
+	@Test
+	void rejectsDamagedFiles() throws IOException {
+		byte[] encoded = FontCache.encode(SOURCE, entry());
+		for (int i = 0; i < encoded.length; i += 7) {
+			byte[] damaged = encoded.clone();
+			damaged[i] ^= 0x10;
+			assertNull(FontCache.decode(ByteBuffer.wrap(damaged), SOURCE), "damaged byte " + i);
+		}
+		assertNull(FontCache.decode(ByteBuffer.wrap(Arrays.copyOf(encoded, encoded.length - 9)), SOURCE));
+		assertNull(FontCache.decode(ByteBuffer.wrap(new byte[3]), SOURCE));
+		assertNotNull(FontCache.decode(ByteBuffer.wrap(encoded), SOURCE));
+	}
+
+	/**
+	 * A font packed into a jar is fingerprinted from its entry, with the same result as reading it.
+	 */
+	@Test
+	void fingerprintsJarEntriesWithoutReading() throws IOException {
+		byte[] font = new byte[100_000];
+		new Random(5).nextBytes(font);
+		Path file = Files.write(directory.resolve("font.ttf"), font);
+		Path jar = directory.resolve("fonts.jar");
+		try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+			out.putNextEntry(new JarEntry("font.ttf"));
+			out.write(font);
+			out.closeEntry();
+		}
+
+		FontCache.Fingerprint fromFile = FontCache.fingerprint(file.toUri().toURL());
+		FontCache.Fingerprint fromJar = FontCache.fingerprint(URI.create("jar:" + jar.toUri() + "!/font.ttf").toURL());
+
+		assertEquals(font.length, fromFile.size());
+		assertEquals(fromFile, fromJar);
+	}
+
+	/**
+	 * Files writable by other users or reached through a link are ignored; written caches and their new
+	 * directories are private to the user.
+	 */
+	@Test
+	@EnabledOnOs({OS.LINUX, OS.MAC})
+	void ignoresFilesOthersCanWrite() throws IOException {
+		Path file = directory.resolve("private").resolve("fonts.bin");
+		FontCache.write(file, SOURCE, entry());
+		assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(file.getParent()));
+		assertTrue(FontCache.read(file, SOURCE).isPresent());
+
+		Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-rw-rw-"));
+		assertFalse(FontCache.trusted(file));
+		assertTrue(FontCache.read(file, SOURCE).isEmpty());
+
+		Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-------"));
+		Path link = Files.createSymbolicLink(directory.resolve("link.bin"), file);
+		assertFalse(FontCache.trusted(link));
+		assertTrue(FontCache.read(link, SOURCE).isEmpty());
+		assertTrue(FontCache.trusted(file));
+	}
+
+	/**
+	 * The cache lives in the user's cache directory unless configured or switched off.
+	 */
+	@Test
+	void locationIsConfigurable() {
+		assertEquals(Path.of("/cache/math_excercises/fonts-v1.bin"), FontCache.defaultLocation("/cache", "/home/u"));
+		assertEquals(Path.of("/home/u/.cache/math_excercises/fonts-v1.bin"),
+				FontCache.defaultLocation(null, "/home/u"));
+		assertEquals(Path.of("/home/u/.cache/math_excercises/fonts-v1.bin"),
+				FontCache.defaultLocation("relative", "/home/u"));
+		assertEquals(FontCache.defaultLocation(System.getenv("XDG_CACHE_HOME"), System.getProperty("user.home")),
+				FontCache.location());
+		System.setProperty("fontCache", directory.resolve("custom.bin").toString());
+		assertEquals(directory.resolve("custom.bin"), FontCache.location());
+		System.setProperty("fontCache", "off");
+		assertNull(FontCache.location());
+	}
+
+	/**
+	 * The first load probes the bundled font and writes the cache; later loads are served from the
+	 * cache, which is why a planted entry is returned as is.
+	 */
+	@Test
+	void fontSupportProbesOnceAndThenReadsCache() throws IOException {
+		Path file = directory.resolve("fonts.bin");
+		URL font = FontSupport.class.getResource("/arialuni.ttf");
+
+		FontCache.Entry probed = FontSupport.load(file, font);
+		assertTrue(Files.exists(file));
+		assertTrue(probed.coverage().get(FontCandidate.ARIAL_UNICODE).contains("□"));
+		assertEquals(20, probed.metrics().glyphs().size());
+		FontCache.Entry cached = FontSupport.load(file, font);
+		assertEquals(probed.coverage(), cached.coverage());
+		assertArrayEquals(probed.compactProgram(), cached.compactProgram());
+		assertEquals(probed.metrics().glyphs(), cached.metrics().glyphs());
+
+		FontCache.write(file, FontCache.fingerprint(font), entry());
+		assertArrayEquals(entry().compactProgram(), FontSupport.load(file, font).compactProgram());
+	}
+
+	/**
+	 * Without a cache or without the bundled font nothing is written and the program is left to be
+	 * subset on demand.
+	 */
+	@Test
+	void fontSupportSkipsCacheWhenUnavailable() {
+		Path file = directory.resolve("fonts.bin");
+
+		FontCache.Entry missingFont = FontSupport.load(file, null);
+		assertTrue(missingFont.coverage().get(FontCandidate.ARIAL_UNICODE).isEmpty());
+		assertEquals(0, missingFont.compactProgram().length);
+		assertFalse(Files.exists(file));
+
+		FontCache.Entry noCache = FontSupport.load(null, FontSupport.class.getResource("/arialuni.ttf"));
+		assertTrue(noCache.coverage().get(FontCandidate.ARIAL_UNICODE).contains("□"));
+		assertEquals(0, noCache.compactProgram().length);
+	}
+
+	private static FontCache.Entry entry() {
+		FontMetrics metrics = new FontMetrics("Test-Regular",
+				Map.of((int) '1', new FontMetrics.Glyph(3, 556), (int) '□', new FontMetrics.Glyph(9, 1000)),
+				new int[]{-10, -200, 1000, 900}, 905, -212, 716, 400);
+		return new FontCache.Entry(
+				Map.of(FontCandidate.ARIAL_UNICODE, Set.of("1", "□"), FontCandidate.HELVETICA, Set.of("1")),
+				new byte[]{1, 2, 3, 4, 5}, metrics);
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.service.internal;
+
+import org.junit.jupiter.api.Test;
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.internal.FontCapabilities.FontCandidate;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the one-off font probe in {@link FontSupport} and glyph substitution via {@link GlyphSet}.
+ */
+class FontSupportTests {
+
+	/**
+	 * The bundled font encodes every preferred glyph, so it is selected with the Unicode glyph set.
+	 */
+	@Test
+	void selectsBundledFontWithUnicodeGlyphs() {
+		FontCapabilities caps = FontSupport.capabilities();
+		assertEquals(FontCandidate.ARIAL_UNICODE, caps.font());
+		assertEquals(GlyphSet.UNICODE, caps.glyphs());
+		assertSame(caps, FontSupport.capabilities(), "capabilities are probed once and cached");
+	}
+
+	/**
+	 * A missing font resource falls back to Helvetica, substituting only the glyphs WinAnsi lacks.
+	 */
+	@Test
+	void fallsBackToHelveticaWhenFontMissing() {
+		FontCapabilities caps = FontSupport.probe(() -> null);
+		assertEquals(FontCandidate.HELVETICA, caps.font());
+		assertTrue(caps.coverage().get(FontCandidate.ARIAL_UNICODE).isEmpty());
+		assertFalse(caps.coverage().get(FontCandidate.HELVETICA).contains("□"));
+		assertEquals("_", caps.glyphs().placeholder());
+	}
+
+	/**
+	 * A corrupt font program is treated like a missing one.
+	 */
+	@Test
+	void fallsBackToHelveticaWhenFontCorrupt() {
+		FontCapabilities caps = FontSupport.probe(() -> new ByteArrayInputStream(new byte[]{1, 2, 3}));
+		assertEquals(FontCandidate.HELVETICA, caps.font());
+	}
+
+	/**
+	 * Glyph selection substitutes each unencodable glyph individually.
+	 */
+	@Test
+	void selectSubstitutesPerGlyph() {
+		assertEquals(GlyphSet.ASCII, GlyphSet.select(Set.of()));
+		assertEquals(new GlyphSet("_", "×", "/"), GlyphSet.select(Set.of("×")));
+	}
+
+	/**
+	 * Tokens are formatted with the substitute glyphs and still classified as operators.
+	 */
+	@Test
+	void formatsTokensWithSubstituteGlyphs() {
+		List<String> tokens = PdfRenderSupport.formatTokens(Equation.of(6, 2, 3, '÷'), 3, GlyphSet.ASCII);
+		assertEquals(List.of("6", "/", "2", "=", "_"), tokens);
+		assertTrue(GlyphSet.ASCII.isOperator("/"));
+		assertTrue(GlyphSet.ASCII.isOperator("x"));
+		assertFalse(GlyphSet.ASCII.isOperator("÷"));
+	}
+}
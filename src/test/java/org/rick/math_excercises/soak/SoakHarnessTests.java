@@ -0,0 +1,148 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.soak;
+
+import org.junit.jupiter.api.Test;
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.model.Expression;
+import org.rick.math_excercises.model.FractionEquation;
+import org.rick.math_excercises.service.DirectPdfRenderer;
+import org.rick.math_excercises.service.EquationRenderer;
+import org.rick.math_excercises.service.EquationSource;
+import org.rick.math_excercises.service.GenerateService;
+import org.rick.math_excercises.service.Operations;
+import org.rick.math_excercises.service.SheetRequest;
+import org.rick.math_excercises.service.internal.CurrentThreadRandom;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the {@link SoakHarness} measures every level and detects divergent output and
+ * constraint violations under concurrency.
+ */
+class SoakHarnessTests {
+
+	private static final List<SheetRequest> MIX = List.of(
+			SheetRequest.of(20, 40, List.of(Operations.ADDITION, Operations.SUBTRACTION), 1),
+			SheetRequest.of(10, 40, List.of(Operations.MULTIPLICATION, Operations.DIVISION), 2));
+
+	/**
+	 * The services are safe to share: a sweep over platform and virtual threads finds no failures.
+	 */
+	@Test
+	void sweepPassesForSharedServices() throws IOException, InterruptedException {
+		SoakReport report = new SoakHarness(MIX, 8, new DirectPdfRenderer()).sweep(3, 24);
+
+		assertEquals(6, report.levels().size());
+		assertEquals(List.of(1, 2, 3, 1, 2, 3), report.levels().stream().map(LevelReport::threads).toList());
+		assertEquals(ThreadKind.VIRTUAL, report.levels().getLast().kind());
+		assertEquals(0, report.failures());
+		report.verify();
+		for (LevelReport level : report.levels()) {
+			assertEquals(24, level.sheets());
+			assertTrue(level.p50Nanos() > 0);
+			assertTrue(level.p50Nanos() <= level.p90Nanos() && level.p90Nanos() <= level.p99Nanos()
+					&& level.p99Nanos() <= level.maxNanos());
+			assertTrue(level.sheetsPerSecond() > 0);
+			assertTrue(level.allocatedBytesPerSheet() != 0);
+		}
+		assertEquals(7, report.toTable().lines().count());
+	}
+
+	/**
+	 * A renderer whose output depends on call order is reported as divergent.
+	 */
+	@Test
+	void divergentOutputFails() throws IOException, InterruptedException {
+		SoakHarness harness = new SoakHarness(MIX, 4, new CountingRenderer());
+
+		LevelReport level = harness.runLevel(ThreadKind.VIRTUAL, 4, 16);
+
+		assertEquals(16, level.divergences());
+		assertTrue(level.failed());
+		assertEquals(10, level.failures().size());
+		IllegalStateException failure =
+				assertThrows(IllegalStateException.class, () -> new SoakReport(List.of(level)).verify());
+		assertTrue(failure.getMessage().contains("differs from its reference"));
+	}
+
+	/**
+	 * Equations breaking the generator constraints are reported as violations.
+	 */
+	@Test
+	void invalidEquationsFail() throws IOException, InterruptedException {
+		EquationSource broken = (limit, operations, random) -> Equation.of(limit, 1, limit + 2, '+');
+		SoakHarness harness = new SoakHarness(MIX, 2, new DirectPdfRenderer(),
+				new GenerateService(CurrentThreadRandom.INSTANCE, broken));
+
+		LevelReport level = harness.runLevel(ThreadKind.PLATFORM, 2, 6);
+
+		assertEquals(0, level.divergences());
+		assertEquals(6, level.violations());
+		assertTrue(level.failures().getFirst().startsWith("invalid equation"));
+	}
+
+	/**
+	 * Invalid parameters are rejected.
+	 */
+	@Test
+	void invalidParametersAreRejected() throws IOException {
+		assertThrows(IllegalArgumentException.class, () -> new SoakHarness(List.of(), 1, new DirectPdfRenderer()));
+		assertThrows(IllegalArgumentException.class, () -> new SoakHarness(MIX, 0, new DirectPdfRenderer()));
+		SoakHarness harness = new SoakHarness(MIX, 1, new DirectPdfRenderer());
+		assertThrows(IllegalArgumentException.class, () -> harness.sweep(0, 1));
+		assertThrows(IllegalArgumentException.class, () -> harness.runLevel(ThreadKind.PLATFORM, 1, 0));
+		assertFalse(SoakHarness.defaultMix().isEmpty());
+	}
+
+	/**
+	 * Appends a call counter to every document, so no two renderings are equal.
+	 */
+	private static final class CountingRenderer implements EquationRenderer {
+
+		private final EquationRenderer delegate = new DirectPdfRenderer();
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		@Override
+		public void render(List<List<Equation>> sheets, List<List<Integer>> placeholders, OutputStream out)
+				throws IOException {
+			delegate.render(sheets, placeholders, out);
+			out.write(calls.incrementAndGet());
+		}
+
+		@Override
+		public void renderExpressions(List<List<Expression>> sheets, List<List<Integer>> placeholders,
+				OutputStream out) throws IOException {
+			delegate.renderExpressions(sheets, placeholders, out);
+		}
+
+		@Override
+		public void renderFractions(List<List<FractionEquation>> sheets, List<List<Integer>> placeholders,
+				OutputStream out) throws IOException {
+			delegate.renderFractions(sheets, placeholders, out);
+		}
+
+		@Override
+		public void renderVertical(List<List<Equation>> sheets, List<List<Integer>> placeholders, boolean carries,
+				OutputStream out) throws IOException {
+			delegate.renderVertical(sheets, placeholders, carries, out);
+		}
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.GenerateService;
+import org.rick.math_excercises.service.Operations;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests building, opening and sampling a memory-mapped {@link EquationBank}, including its use as an
+ * equation source for {@link GenerateService}.
+ */
+class EquationBankTests {
+
+	@TempDir
+	Path dir;
+
+	/**
+	 * Per-limit counts match a brute-force count over the stored equations, across several sparse
+	 * index blocks.
+	 */
+	@Test
+	void countsEquationsWithinLimit() throws IOException {
+		List<Equation> equations = mixedBank();
+		Path file = dir.resolve("bank.dat");
+		EquationBank.write(file, equations);
+
+		try (EquationBank bank = EquationBank.open(file)) {
+			for (Operations op : Operations.values()) {
+				for (int limit : new int[]{0, 10, 57, 100, 999}) {
+					long expected = equations.stream()
+							.filter(eq -> eq.operator() == op.operator())
+							.filter(eq -> Math.max(eq.result(), Math.max(eq.firstNumber(), eq.secondNumber())) <= limit)
+							.count();
+					assertEquals(expected, bank.count(op, limit), op + " within " + limit);
+				}
+				assertEquals(bank.count(op, 100), bank.size(op));
+			}
+		}
+	}
+
+	/**
+	 * Worksheets drawn from the bank only contain allowed operations within the requested limit.
+	 */
+	@Test
+	void servesAsEquationSourceForGenerateService() throws IOException {
+		Path file = dir.resolve("bank.dat");
+		EquationBank.write(file, mixedBank());
+
+		try (EquationBank bank = EquationBank.open(file)) {
+			GenerateService service = new GenerateService(new Random(3), bank);
+			List<Equation> sheet = service.generateExercises(
+					30, 500, List.of(Operations.MULTIPLICATION, Operations.SUBTRACTION));
+			assertEquals(500, sheet.size());
+			for (Equation eq : sheet) {
+				assertTrue(eq.operator() == '×' || eq.operator() == '-');
+				assertTrue(eq.firstNumber() <= 30 && eq.secondNumber() <= 30 && eq.result() <= 30);
+			}
+		}
+	}
+
+	/**
+	 * Sampling fails clearly when no allowed operation has equations within the limit.
+	 */
+	@Test
+	void failsWhenNoEquationFitsTheLimit() throws IOException {
+		Path file = dir.resolve("bank.dat");
+		EquationBank.write(file, List.of(Equation.of(50, 50, 100, '+')));
+
+		try (EquationBank bank = EquationBank.open(file)) {
+			GenerateService service = new GenerateService(new Random(3), bank);
+			assertThrows(IllegalStateException.class, () -> service.generateExercises(20, 1));
+			assertEquals(Equation.of(50, 50, 100, '+'), bank.get(Operations.ADDITION, 0));
+			assertThrows(IndexOutOfBoundsException.class, () -> bank.get(Operations.DIVISION, 0));
+		}
+	}
+
+	/**
+	 * A data file that does not match its index is rejected.
+	 */
+	@Test
+	void rejectsDataNotMatchingIndex() throws IOException {
+		Path file = dir.resolve("bank.dat");
+		EquationBank.write(file, List.of(Equation.of(1, 2, 3, '+')));
+		Files.write(file, new byte[5]);
+		assertThrows(IOException.class, () -> EquationBank.open(file));
+	}
+
+	private static List<Equation> mixedBank() {
+		List<Equation> equations = new ArrayList<>();
+		GenerateService generator = new GenerateService(new Random(11));
+		for (int limit : new int[]{10, 20, 50, 100}) {
+			equations.addAll(generator.generateExercises(limit, 8000, EnumSet.allOf(Operations.class)));
+		}
+		return equations;
+	}
+}
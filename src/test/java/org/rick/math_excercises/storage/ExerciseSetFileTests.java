@@ -0,0 +1,132 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.GenerateService;
+import org.rick.math_excercises.service.Operations;
+import org.rick.math_excercises.service.internal.PdfRenderSupport;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Round-trip and validation tests for the binary {@link ExerciseSetFile} format.
+ */
+class ExerciseSetFileTests {
+
+	@TempDir
+	Path dir;
+
+	/**
+	 * A generated set with recorded placeholders survives a write/read round trip unchanged.
+	 */
+	@Test
+	void roundTripsGeneratedSetWithPlaceholders() throws IOException {
+		Set<Operations> ops = EnumSet.allOf(Operations.class);
+		List<Equation> equations = new GenerateService(new Random(7)).generateExercises(1000, 5000, ops);
+		List<Integer> placeholders = PdfRenderSupport.placeholderSequence(new Random(7), equations.size());
+		ExerciseSet set = new ExerciseSet(1000, ops, 7L, equations, placeholders);
+		Path file = dir.resolve("set.mex");
+
+		ExerciseSetFile.write(file, set);
+
+		assertEquals(set, ExerciseSetFile.read(file));
+		assertTrue(Files.size(file) < equations.size() * 6L, "records should be varint packed");
+	}
+
+	/**
+	 * Sets without placeholders are read back without placeholders, and the header alone can be read.
+	 */
+	@Test
+	void roundTripsSetWithoutPlaceholders() throws IOException {
+		List<Equation> equations = List.of(Equation.of(6, 2, 8, '+'), Equation.of(9, 3, 3, '÷'));
+		ExerciseSet set = ExerciseSet.of(20, Set.of(Operations.ADDITION, Operations.DIVISION), -3L, equations);
+		Path file = dir.resolve("small.mex");
+
+		ExerciseSetFile.write(file, set);
+
+		ExerciseSet read = ExerciseSetFile.read(file);
+		assertFalse(read.hasPlaceholders());
+		assertEquals(equations, read.equations());
+		ExerciseSetFile.Header header = ExerciseSetFile.readHeader(file);
+		assertEquals(20, header.limit());
+		assertEquals(-3L, header.seed());
+		assertEquals(2, header.count());
+		assertEquals(EnumSet.of(Operations.ADDITION, Operations.DIVISION), header.operations());
+	}
+
+	/**
+	 * Equations whose stored result would not match the recomputed one are rejected on write.
+	 */
+	@Test
+	void rejectsInconsistentEquation() {
+		ExerciseSet set = ExerciseSet.of(20, Set.of(), 0L, List.of(Equation.of(7, 2, 3, '÷')));
+		assertThrows(IllegalArgumentException.class, () -> ExerciseSetFile.write(dir.resolve("bad.mex"), set));
+	}
+
+	/**
+	 * Files with a foreign magic number or cut short are reported as IO errors.
+	 */
+	@Test
+	void rejectsForeignAndTruncatedFiles() throws IOException {
+		Path foreign = dir.resolve("foreign.mex");
+		Files.write(foreign, new byte[]{'%', 'P', 'D', 'F', '-', '1'});
+		assertThrows(IOException.class, () -> ExerciseSetFile.read(foreign));
+
+		Path complete = dir.resolve("complete.mex");
+		ExerciseSetFile.write(complete, ExerciseSet.of(20, Set.of(), 0L,
+				List.of(Equation.of(300, 200, 500, '+'))));
+		byte[] bytes = Files.readAllBytes(complete);
+		Path truncated = dir.resolve("truncated.mex");
+		Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 1));
+		assertThrows(IOException.class, () -> ExerciseSetFile.read(truncated));
+	}
+
+	/**
+	 * Records a writer could not have produced, such as a division by zero, are reported as IO errors
+	 * instead of failing in the arithmetic.
+	 */
+	@Test
+	void rejectsCorruptRecords() throws IOException {
+		Path file = dir.resolve("division.mex");
+		ExerciseSetFile.write(file, ExerciseSet.of(20, Set.of(Operations.DIVISION), 0L,
+				List.of(Equation.of(6, 2, 3, '÷'), Equation.of(8, 4, 2, '÷'))));
+		byte[] bytes = Files.readAllBytes(file);
+		bytes[bytes.length - 1] = 0;
+		Files.write(file, bytes);
+
+		IOException e = assertThrows(IOException.class, () -> ExerciseSetFile.read(file));
+		assertTrue(e.getMessage().startsWith("Corrupt record 1 "), e.getMessage());
+	}
+
+	/**
+	 * Mismatched placeholder counts are rejected when building a set.
+	 */
+	@Test
+	void rejectsPlaceholderCountMismatch() {
+		List<Equation> equations = List.of(Equation.of(1, 1, 2, '+'));
+		assertThrows(IllegalArgumentException.class,
+				() -> new ExerciseSet(20, Set.of(), 0L, equations, List.of(1, 2)));
+		assertThrows(IllegalArgumentException.class,
+				() -> new ExerciseSet(20, Set.of(), 0L, equations, List.of(4)));
+	}
+}
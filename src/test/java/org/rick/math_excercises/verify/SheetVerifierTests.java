@@ -0,0 +1,158 @@
+/*
+ * Math Exercises Generator — Shareware License
+ * Copyright (c) 2025 Rick Anderson
+ * Contact: rick@getanderson.net
+ *
+ * Personal, non-commercial use permitted. Redistribution allowed with attribution.
+ * Any commercial use requires a paid license or prior written permission.
+ * See the LICENSE file for full terms.
+ */
+
+package org.rick.math_excercises.verify;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.rick.math_excercises.model.Equation;
+import org.rick.math_excercises.service.DirectPdfRenderer;
+import org.rick.math_excercises.service.EquationRenderer;
+import org.rick.math_excercises.service.Operations;
+import org.rick.math_excercises.service.PdfBoxRenderer;
+import org.rick.math_excercises.service.PdfOutputMode;
+import org.rick.math_excercises.service.SheetLayout;
+import org.rick.math_excercises.service.SheetRequest;
+import org.rick.math_excercises.service.internal.FontSupport;
+import org.rick.math_excercises.service.internal.GlyphSet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that {@link SheetVerifier} accepts correctly rendered sheets and reports broken ones.
+ */
+class SheetVerifierTests {
+
+	private static final List<Operations> OPERATIONS =
+			List.of(Operations.ADDITION, Operations.SUBTRACTION, Operations.MULTIPLICATION);
+
+	private final SheetVerifier verifier = new SheetVerifier(2);
+
+	@TempDir
+	Path directory;
+
+	/**
+	 * Sheets of every layout rendered by both renderers pass, in parallel from files.
+	 */
+	@Test
+	void acceptsRenderedSheets() throws IOException, InterruptedException {
+		List<SheetRequest> requests = new ArrayList<>();
+		List<Path> files = new ArrayList<>();
+		int i = 0;
+		for (SheetLayout layout : SheetLayout.values()) {
+			for (EquationRenderer renderer : List.of(new DirectPdfRenderer(), new PdfBoxRenderer(PdfOutputMode.STANDARD))) {
+				SheetRequest request = new SheetRequest(100, 120, OPERATIONS, i, layout);
+				Path file = directory.resolve("sheet" + i++ + ".pdf");
+				Files.write(file, render(renderer, request));
+				requests.add(request);
+				files.add(file);
+			}
+		}
+
+		VerificationReport report = verifier.verify(requests, files);
+
+		assertEquals(requests.size(), report.sheets().size());
+		assertTrue(report.passed(), report.toTable());
+		assertEquals("sheet0.pdf", report.sheets().get(0).sheet());
+		assertTrue(report.sheets().get(2).pages() > 1);
+		assertTrue(report.toTable().startsWith(requests.size() + " sheets verified, 0 failed"));
+	}
+
+	/**
+	 * A fifth column starts beyond the right edge of the page.
+	 */
+	@Test
+	void reportsGlyphsOffThePage() throws IOException {
+		SheetRequest request = SheetRequest.of(1000, 250, OPERATIONS, 3);
+
+		SheetVerification result = verifier.verify("wide", render(new DirectPdfRenderer(), request), request);
+
+		assertFalse(result.passed());
+		assertTrue(result.offPage() > 0);
+		assertTrue(result.missing().isEmpty());
+		assertTrue(result.describe().endsWith("glyphs off the page"));
+	}
+
+	/**
+	 * Equations of another sheet and glyphs of another font are reported as missing.
+	 */
+	@Test
+	void reportsMissingEquations() throws IOException {
+		SheetRequest request = SheetRequest.of(20, 100, OPERATIONS, 1);
+		byte[] other = render(new DirectPdfRenderer(), SheetRequest.of(20, 100, OPERATIONS, 2));
+
+		SheetVerification result = verifier.verify("other", other, request);
+		assertFalse(result.missing().isEmpty());
+		assertEquals(100, result.equations());
+
+		GlyphSet rendered = FontSupport.capabilities().glyphs();
+		GlyphSet fallback = rendered.equals(GlyphSet.UNICODE) ? GlyphSet.ASCII : GlyphSet.UNICODE;
+		SheetVerification glyphs = new SheetVerifier(fallback, 1)
+				.verify("fallback", render(new DirectPdfRenderer(), request), request);
+		assertFalse(glyphs.passed());
+		assertTrue(glyphs.describe().contains("equations missing, first #"));
+	}
+
+	/**
+	 * An equation is not found inside a longer number on the same line, e.g. {@code 1 + 1 = 2} in
+	 * {@code 21 + 1 = 22}, in either layout.
+	 */
+	@Test
+	void matchesWholeLinesOnly() throws IOException {
+		for (SheetLayout layout : List.of(SheetLayout.HORIZONTAL, SheetLayout.VERTICAL)) {
+			SheetRequest request = new SheetRequest(100, 1, List.of(Operations.SUBTRACTION), 4, layout);
+			Equation equation = request.equations().get(0);
+			Equation longer = Equation.of(Integer.parseInt("1" + equation.firstNumber()), equation.secondNumber(),
+					Integer.parseInt(equation.result() + "0"), equation.operator());
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			new DirectPdfRenderer().renderSheet(List.of(longer), request.placeholders(), layout, out);
+
+			SheetVerification result = verifier.verify("longer", out.toByteArray(), request);
+			assertEquals(List.of(0), result.missing(), layout.name());
+			assertTrue(verifier.verify("exact", render(new DirectPdfRenderer(), request), request).passed());
+		}
+	}
+
+	/**
+	 * Missing and corrupt documents fail their sheet instead of the batch.
+	 */
+	@Test
+	void reportsUnreadableDocuments() throws IOException, InterruptedException {
+		SheetRequest request = SheetRequest.of(20, 10, OPERATIONS, 1);
+		Path corrupt = Files.writeString(directory.resolve("corrupt.pdf"), "%PDF-1.4 truncated");
+
+		VerificationReport report = verifier.verify(List.of(request, request),
+				List.of(directory.resolve("missing.pdf"), corrupt));
+
+		assertEquals(2, report.failures().size());
+		assertEquals("unreadable (missing)", report.sheets().get(0).describe());
+		assertNotNull(report.sheets().get(1).unreadable());
+		assertTrue(report.toTable().startsWith("FAILED missing.pdf: unreadable (missing)"));
+		assertThrows(IllegalArgumentException.class, () -> verifier.verify(List.of(request), List.of()));
+		assertThrows(IllegalArgumentException.class, () -> new SheetVerifier(0));
+	}
+
+	private static byte[] render(EquationRenderer renderer, SheetRequest request) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		renderer.renderSheet(request.equations(), request.placeholders(), request.layout(), out);
+		return out.toByteArray();
+	}
+}